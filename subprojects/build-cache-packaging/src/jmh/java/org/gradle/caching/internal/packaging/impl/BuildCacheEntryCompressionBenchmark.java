@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.gradle.caching.internal.CacheableEntity;
+import org.gradle.caching.internal.origin.OriginReader;
+import org.gradle.caching.internal.origin.OriginWriter;
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.internal.fingerprint.CurrentFileCollectionFingerprint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares packing and unpacking build cache entries with GZip and with fast compression.
+ *
+ * <p>The entries resemble the outputs of a compile and package task: many small, compressible class files, and a few large archives that are already compressed.
+ * The files are kept in memory, so that only the cost of compression is measured.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class BuildCacheEntryCompressionBenchmark {
+    @Param({"gzip", "fast"})
+    String compression;
+
+    @Param({"classes", "classes-and-archives"})
+    String content;
+
+    private BuildCacheEntryPacker packer;
+    private byte[] packed;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(1234L);
+        List<InMemoryFile> files = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            files.add(new InMemoryFile("Class" + i + ".class", classLikeContent(random, 2 * 1024 + random.nextInt(30 * 1024))));
+        }
+        if (content.equals("classes-and-archives")) {
+            for (int i = 0; i < 5; i++) {
+                byte[] archive = new byte[1024 * 1024 + random.nextInt(4 * 1024 * 1024)];
+                random.nextBytes(archive);
+                files.add(new InMemoryFile("library" + i + ".jar", archive));
+            }
+        }
+        packer = new CompressingBuildCacheEntryPacker(new InMemoryPacker(files), compression.equals("fast"));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        pack(output);
+        packed = output.toByteArray();
+    }
+
+    @Benchmark
+    public void pack() throws IOException {
+        pack(NullOutputStream.NULL_OUTPUT_STREAM);
+    }
+
+    @Benchmark
+    public void unpack() throws IOException {
+        packer.unpack(null, new ByteArrayInputStream(packed), null);
+    }
+
+    private void pack(OutputStream output) throws IOException {
+        packer.pack(null, Collections.emptyMap(), output, null);
+    }
+
+    /**
+     * Repeats identifiers and constants, as the constant pool and code of class files do.
+     */
+    private static byte[] classLikeContent(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append("Lorg/gradle/sample/Type").append(random.nextInt(200)).append(";")
+                .append((char) random.nextInt(256))
+                .append("method").append(random.nextInt(50)).append("()V")
+                .append(random.nextInt(100000));
+        }
+        return builder.substring(0, length).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static class InMemoryFile {
+        private final String name;
+        private final byte[] content;
+
+        InMemoryFile(String name, byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+    }
+
+    /**
+     * Writes the files one after the other, marking archives as already compressed like {@link TarBuildCacheEntryPacker} does.
+     */
+    private static class InMemoryPacker implements BuildCacheEntryPacker {
+        private final List<InMemoryFile> files;
+        private final byte[] buffer = new byte[64 * 1024];
+
+        InMemoryPacker(List<InMemoryFile> files) {
+            this.files = files;
+        }
+
+        @Override
+        public PackResult pack(CacheableEntity entity, Map<String, CurrentFileCollectionFingerprint> fingerprints, OutputStream output, OriginWriter writeOrigin) throws IOException {
+            AdaptiveGZipOutputStream compressingOutput = output instanceof AdaptiveGZipOutputStream ? (AdaptiveGZipOutputStream) output : null;
+            for (InMemoryFile file : files) {
+                boolean compressed = compressingOutput != null && file.name.endsWith(".jar");
+                if (compressed) {
+                    compressingOutput.setCompressing(false);
+                }
+                output.write(file.content);
+                if (compressed) {
+                    compressingOutput.setCompressing(true);
+                }
+            }
+            return new PackResult(files.size());
+        }
+
+        @Override
+        public UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException {
+            while (IOUtils.read(input, buffer) > 0) {
+                // Discard the content
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes data in the GZip format, compressed at the fastest level, except for data that is marked as already compressed, which is stored without being compressed again.
+ *
+ * <p>Stored data is written as uncompressed Deflate blocks, so the result can be read back by {@link java.util.zip.GZIPInputStream} without knowing which parts were compressed.</p>
+ */
+class AdaptiveGZipOutputStream extends GZIPOutputStream {
+    private boolean compressing = true;
+
+    AdaptiveGZipOutputStream(OutputStream output, int bufferSize) throws IOException {
+        super(output, bufferSize);
+        def.setLevel(Deflater.BEST_SPEED);
+        drain(Deflater.NO_FLUSH);
+    }
+
+    /**
+     * Sets whether the data written next should be compressed. Data that is still buffered by the caller when this is called may be handled either way.
+     */
+    void setCompressing(boolean compressing) throws IOException {
+        if (this.compressing != compressing) {
+            this.compressing = compressing;
+            // zlib only changes the level once all pending input has been written out, and keeps using the previous level for input passed
+            // to the deflater until then. So write out everything first, and then apply the new level before passing more input.
+            drain(Deflater.SYNC_FLUSH);
+            def.setLevel(compressing ? Deflater.BEST_SPEED : Deflater.NO_COMPRESSION);
+            drain(Deflater.NO_FLUSH);
+        }
+    }
+
+    private void drain(int flushMode) throws IOException {
+        int length;
+        while ((length = def.deflate(buf, 0, buf.length, flushMode)) > 0) {
+            out.write(buf, 0, length);
+        }
+    }
+}
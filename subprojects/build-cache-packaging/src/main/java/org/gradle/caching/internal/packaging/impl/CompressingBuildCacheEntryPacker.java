@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import org.apache.commons.io.IOUtils;
+import org.gradle.caching.internal.CacheableEntity;
+import org.gradle.caching.internal.origin.OriginReader;
+import org.gradle.caching.internal.origin.OriginWriter;
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.internal.fingerprint.CurrentFileCollectionFingerprint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the build cache entries packed by another packer.
+ *
+ * <p>By default entries are compressed with GZip, which all Gradle versions can unpack. When fast compression is enabled, entries are instead written with
+ * a header that identifies the format, followed by a GZip stream that is compressed at the fastest level, and where files that are already compressed
+ * are stored as they are. Entries in either format can be unpacked, so builds with and without fast compression can share a cache.</p>
+ */
+public class CompressingBuildCacheEntryPacker implements BuildCacheEntryPacker {
+    public static final String FAST_COMPRESSION_PROPERTY = "org.gradle.internal.caching.packing.fast-compression";
+
+    /**
+     * Starts entries that are not compressed with GZip, which always start with 0x1f 0x8b. Followed by a single byte format version.
+     */
+    private static final byte[] HEADER_MAGIC = {'G', 'B', 'C', 'E'};
+    private static final int FAST_COMPRESSION_FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BuildCacheEntryPacker delegate;
+    private final boolean fastCompression;
+
+    public CompressingBuildCacheEntryPacker(BuildCacheEntryPacker delegate, boolean fastCompression) {
+        this.delegate = delegate;
+        this.fastCompression = fastCompression;
+    }
+
+    public static boolean isFastCompressionEnabled() {
+        return Boolean.getBoolean(FAST_COMPRESSION_PROPERTY);
+    }
+
+    @Override
+    public PackResult pack(CacheableEntity entity, Map<String, CurrentFileCollectionFingerprint> fingerprints, OutputStream output, OriginWriter writeOrigin) throws IOException {
+        if (!fastCompression) {
+            try (GZIPOutputStream gzipOutput = new GZIPOutputStream(output, BUFFER_SIZE)) {
+                return delegate.pack(entity, fingerprints, gzipOutput, writeOrigin);
+            }
+        }
+        output.write(HEADER_MAGIC);
+        output.write(FAST_COMPRESSION_FORMAT_VERSION);
+        try (AdaptiveGZipOutputStream gzipOutput = new AdaptiveGZipOutputStream(output, BUFFER_SIZE)) {
+            return delegate.pack(entity, fingerprints, gzipOutput, writeOrigin);
+        }
+    }
+
+    @Override
+    public UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException {
+        PushbackInputStream pushbackInput = new PushbackInputStream(input, HEADER_MAGIC.length + 1);
+        byte[] header = new byte[HEADER_MAGIC.length + 1];
+        int headerLength = IOUtils.read(pushbackInput, header);
+        if (hasMagic(header, headerLength)) {
+            int version = header[HEADER_MAGIC.length] & 0xff;
+            if (version != FAST_COMPRESSION_FORMAT_VERSION) {
+                throw new IllegalStateException(String.format("Cached entry format error, unsupported format version %d.", version));
+            }
+        } else {
+            pushbackInput.unread(header, 0, headerLength);
+        }
+        // Both formats use GZip, they only differ in how the content is compressed
+        try (GZIPInputStream gzipInput = new GZIPInputStream(pushbackInput, BUFFER_SIZE)) {
+            return delegate.unpack(entity, gzipInput, readOrigin);
+        }
+    }
+
+    private static boolean hasMagic(byte[] header, int headerLength) {
+        if (headerLength < header.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER_MAGIC.length; i++) {
+            if (header[i] != HEADER_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
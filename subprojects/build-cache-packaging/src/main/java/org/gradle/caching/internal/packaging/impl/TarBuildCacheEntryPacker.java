@@ -18,6 +18,7 @@
 
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Interner;
 import com.google.common.io.CountingOutputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
@@ -65,7 +66,9 @@
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -91,6 +94,11 @@ private interface UnixPermissions {
     private static final Pattern TREE_PATH = Pattern.compile("(missing-)?tree-([^/]+)(?:/(.*))?");
     private static final int BUFFER_SIZE = 64 * 1024;
     private static final ThreadLocal<byte[]> COPY_BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+    private static final Set<String> COMPRESSED_FILE_EXTENSIONS = ImmutableSet.of(
+        "jar", "zip", "war", "ear", "aar", "apk", "aab", "jmod",
+        "gz", "tgz", "bz2", "xz", "zst", "lz4", "7z",
+        "png", "jpg", "jpeg", "gif", "webp", "woff", "woff2", "mp3", "mp4", "ogg"
+    );
 
     private final Deleter deleter;
     private final FileSystem fileSystem;
@@ -117,7 +125,9 @@ public PackResult pack(CacheableEntity entity, Map<String, CurrentFileCollection
             tarOutput.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
             tarOutput.setAddPaxHeadersForNonAsciiNames(true);
             packMetadata(writeOrigin, tarOutput);
-            long entryCount = pack(entity, fingerprints, tarOutput);
+            // Files that are already compressed are stored as they are when the output supports it
+            AdaptiveGZipOutputStream compressingOutput = output instanceof AdaptiveGZipOutputStream ? (AdaptiveGZipOutputStream) output : null;
+            long entryCount = pack(entity, fingerprints, tarOutput, compressingOutput);
             return new PackResult(entryCount + 1);
         }
     }
@@ -130,12 +140,12 @@ private void packMetadata(OriginWriter writeMetadata, TarArchiveOutputStream tar
         tarOutput.closeArchiveEntry();
     }
 
-    private long pack(CacheableEntity entity, Map<String, CurrentFileCollectionFingerprint> fingerprints, TarArchiveOutputStream tarOutput) {
+    private long pack(CacheableEntity entity, Map<String, CurrentFileCollectionFingerprint> fingerprints, TarArchiveOutputStream tarOutput, @Nullable AdaptiveGZipOutputStream compressingOutput) {
         MutableLong entries = new MutableLong();
         entity.visitOutputTrees((treeName, type, root) -> {
             CurrentFileCollectionFingerprint fingerprint = fingerprints.get(treeName);
             try {
-                entries.increment(packTree(treeName, type, fingerprint, tarOutput));
+                entries.increment(packTree(treeName, type, fingerprint, tarOutput, compressingOutput));
             } catch (Exception ex) {
                 throw new GradleException(String.format("Could not pack tree '%s': %s", treeName, ex.getMessage()), ex);
             }
@@ -143,8 +153,8 @@ private long pack(CacheableEntity entity, Map<String, CurrentFileCollectionFinge
         return entries.get();
     }
 
-    private long packTree(String name, TreeType type, CurrentFileCollectionFingerprint fingerprint, TarArchiveOutputStream tarOutput) {
-        PackingVisitor packingVisitor = new PackingVisitor(tarOutput, name, type, fileSystem);
+    private long packTree(String name, TreeType type, CurrentFileCollectionFingerprint fingerprint, TarArchiveOutputStream tarOutput, @Nullable AdaptiveGZipOutputStream compressingOutput) {
+        PackingVisitor packingVisitor = new PackingVisitor(tarOutput, compressingOutput, name, type, fileSystem);
         fingerprint.accept(packingVisitor);
         return packingVisitor.finish();
     }
@@ -325,6 +335,11 @@ private void chmodUnpackedFile(TarArchiveEntry entry, File file) {
         fileSystem.chmod(file, entry.getMode() & UnixPermissions.PERM_MASK);
     }
 
+    private static boolean isCompressedFile(String fileName) {
+        int extensionStart = fileName.lastIndexOf('.');
+        return extensionStart >= 0 && COMPRESSED_FILE_EXTENSIONS.contains(fileName.substring(extensionStart + 1).toLowerCase(Locale.ROOT));
+    }
+
     private static String escape(String name) {
         try {
             return URLEncoder.encode(name, ENCODING.name());
@@ -344,6 +359,8 @@ private static String unescape(String name) {
     private static class PackingVisitor implements FileSystemSnapshotVisitor {
         private final RelativePathStringTracker relativePathStringTracker;
         private final TarArchiveOutputStream tarOutput;
+        @Nullable
+        private final AdaptiveGZipOutputStream compressingOutput;
         private final String treePath;
         private final String treeRoot;
         private final FileSystem fileSystem;
@@ -351,8 +368,9 @@ private static class PackingVisitor implements FileSystemSnapshotVisitor {
 
         private long entries;
 
-        public PackingVisitor(TarArchiveOutputStream tarOutput, String treeName, TreeType type, FileSystem fileSystem) {
+        public PackingVisitor(TarArchiveOutputStream tarOutput, @Nullable AdaptiveGZipOutputStream compressingOutput, String treeName, TreeType type, FileSystem fileSystem) {
             this.tarOutput = tarOutput;
+            this.compressingOutput = compressingOutput;
             this.treePath = "tree-" + escape(treeName);
             this.treeRoot = treePath + "/";
             this.type = type;
@@ -452,6 +470,10 @@ private void storeDirectoryEntry(String path, int mode, TarArchiveOutputStream t
         private void storeFileEntry(File inputFile, String path, long size, int mode, TarArchiveOutputStream tarOutput) {
             try {
                 createTarEntry(path, size, UnixPermissions.FILE_FLAG | mode, tarOutput);
+                boolean compressed = compressingOutput != null && isCompressedFile(inputFile.getName());
+                if (compressed) {
+                    compressingOutput.setCompressing(false);
+                }
                 FileInputStream input = new FileInputStream(inputFile);
                 try {
                     IOUtils.copyLarge(input, tarOutput, COPY_BUFFERS.get());
@@ -459,6 +481,9 @@ private void storeFileEntry(File inputFile, String path, long size, int mode, Ta
                     IoActions.closeQuietly(input);
                 }
                 tarOutput.closeArchiveEntry();
+                if (compressed) {
+                    compressingOutput.setCompressing(true);
+                }
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl
+
+import org.gradle.caching.internal.CacheableEntity
+import org.gradle.caching.internal.origin.OriginReader
+import org.gradle.caching.internal.origin.OriginWriter
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.zip.GZIPInputStream
+
+class CompressingBuildCacheEntryPackerTest extends Specification {
+    def entity = Stub(CacheableEntity)
+    def writeOrigin = Stub(OriginWriter)
+    def readOrigin = Stub(OriginReader)
+    def random = new Random(1234L)
+    def compressibleContent = ("public class Foo { int bar() { return 42; } }\n" * 20000).bytes
+    def compressedContent = randomBytes(1024 * 1024)
+    def expectedContent = concat(compressibleContent, compressedContent, compressibleContent)
+    def delegate = new ContentPacker()
+
+    @Unroll
+    def "can unpack entries written with fast compression #fastCompressionWhenPacking when fast compression is #fastCompressionWhenUnpacking"() {
+        def output = new ByteArrayOutputStream()
+
+        when:
+        new CompressingBuildCacheEntryPacker(delegate, fastCompressionWhenPacking).pack(entity, [:], output, writeOrigin)
+        new CompressingBuildCacheEntryPacker(delegate, fastCompressionWhenUnpacking).unpack(entity, new ByteArrayInputStream(output.toByteArray()), readOrigin)
+
+        then:
+        delegate.unpacked == expectedContent
+
+        where:
+        fastCompressionWhenPacking | fastCompressionWhenUnpacking
+        false                      | false
+        false                      | true
+        true                       | false
+        true                       | true
+    }
+
+    def "writes GZip entries when fast compression is disabled"() {
+        def output = new ByteArrayOutputStream()
+
+        when:
+        new CompressingBuildCacheEntryPacker(delegate, false).pack(entity, [:], output, writeOrigin)
+
+        then:
+        new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())).bytes == expectedContent
+    }
+
+    def "stores already compressed content without compressing it again"() {
+        def output = new ByteArrayOutputStream()
+
+        when:
+        new CompressingBuildCacheEntryPacker(delegate, true).pack(entity, [:], output, writeOrigin)
+
+        then:
+        delegate.compressingOutputSeen
+        output.size() > compressedContent.length
+        output.size() < compressedContent.length + compressibleContent.length / 10
+    }
+
+    def "fails to unpack entries with unsupported format version"() {
+        def input = new ByteArrayInputStream([(byte) 'G', (byte) 'B', (byte) 'C', (byte) 'E', (byte) 2] as byte[])
+
+        when:
+        new CompressingBuildCacheEntryPacker(delegate, true).unpack(entity, input, readOrigin)
+
+        then:
+        def ex = thrown(IllegalStateException)
+        ex.message == "Cached entry format error, unsupported format version 2."
+    }
+
+    private byte[] randomBytes(int length) {
+        def bytes = new byte[length]
+        random.nextBytes(bytes)
+        return bytes
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        def output = new ByteArrayOutputStream()
+        parts.each { output.write(it) }
+        return output.toByteArray()
+    }
+
+    private class ContentPacker implements BuildCacheEntryPacker {
+        boolean compressingOutputSeen
+        byte[] unpacked
+
+        @Override
+        BuildCacheEntryPacker.PackResult pack(CacheableEntity entity, Map fingerprints, OutputStream output, OriginWriter writeOrigin) throws IOException {
+            def compressingOutput = output instanceof AdaptiveGZipOutputStream ? output as AdaptiveGZipOutputStream : null
+            compressingOutputSeen = compressingOutput != null
+            output.write(compressibleContent)
+            compressingOutput?.setCompressing(false)
+            output.write(compressedContent)
+            compressingOutput?.setCompressing(true)
+            output.write(compressibleContent)
+            return new BuildCacheEntryPacker.PackResult(3)
+        }
+
+        @Override
+        BuildCacheEntryPacker.UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException {
+            unpacked = input.bytes
+            return null
+        }
+    }
+}
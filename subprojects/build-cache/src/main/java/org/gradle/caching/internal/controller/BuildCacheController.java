@@ -16,9 +16,11 @@
 
 package org.gradle.caching.internal.controller;
 
+import org.gradle.caching.BuildCacheKey;
 import org.gradle.caching.BuildCacheService;
 
 import java.io.Closeable;
+import java.util.Collection;
 import java.util.Optional;
 
 /**
@@ -36,4 +38,10 @@ public interface BuildCacheController extends Closeable {
 
     void store(BuildCacheStoreCommand command);
 
+    /**
+     * Starts loading the entries with the given keys from the remote cache into the local cache in the background, so that a later {@link #load(BuildCacheLoadCommand)}
+     * of one of these keys does not have to wait for the remote cache. Does nothing when there is no remote cache, or no local cache to load the entries into.
+     */
+    void prefetch(Collection<BuildCacheKey> keys);
+
 }
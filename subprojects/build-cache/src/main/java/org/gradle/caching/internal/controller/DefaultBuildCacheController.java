@@ -29,17 +29,18 @@
 import org.gradle.caching.internal.controller.service.BuildCacheServiceHandle;
 import org.gradle.caching.internal.controller.service.BuildCacheServiceRole;
 import org.gradle.caching.internal.controller.service.BuildCacheServicesConfiguration;
-import org.gradle.caching.internal.controller.service.DefaultLocalBuildCacheServiceHandle;
 import org.gradle.caching.internal.controller.service.LoadTarget;
 import org.gradle.caching.internal.controller.service.LocalBuildCacheServiceHandle;
 import org.gradle.caching.internal.controller.service.NullBuildCacheServiceHandle;
 import org.gradle.caching.internal.controller.service.NullLocalBuildCacheServiceHandle;
 import org.gradle.caching.internal.controller.service.OpFiringBuildCacheServiceHandle;
+import org.gradle.caching.internal.controller.service.OpFiringLocalBuildCacheServiceHandle;
 import org.gradle.caching.internal.controller.service.StoreTarget;
 import org.gradle.caching.local.internal.BuildCacheTempFileStore;
 import org.gradle.caching.local.internal.DefaultBuildCacheTempFileStore;
 import org.gradle.caching.local.internal.LocalBuildCacheService;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -52,6 +53,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.util.Collection;
 import java.util.Optional;
 
 public class DefaultBuildCacheController implements BuildCacheController {
@@ -63,6 +65,7 @@ public class DefaultBuildCacheController implements BuildCacheController {
     final LocalBuildCacheServiceHandle local;
 
     private final BuildCacheTempFileStore tmp;
+    private final RemoteBuildCachePrefetcher prefetcher;
     private final BuildOperationExecutor buildOperationExecutor;
     private final boolean emitDebugLogging;
 
@@ -71,15 +74,17 @@ public class DefaultBuildCacheController implements BuildCacheController {
     public DefaultBuildCacheController(
         BuildCacheServicesConfiguration config,
         BuildOperationExecutor buildOperationExecutor,
+        ExecutorFactory executorFactory,
         File gradleUserHomeDir,
         boolean logStackTraces,
         boolean emitDebugLogging
     ) {
         this.buildOperationExecutor = buildOperationExecutor;
         this.emitDebugLogging = emitDebugLogging;
-        this.local = toLocalHandle(config.getLocal(), config.isLocalPush());
+        this.local = toLocalHandle(config.getLocal(), config.isLocalPush(), buildOperationExecutor);
         this.remote = toRemoteHandle(config.getRemote(), config.isRemotePush(), buildOperationExecutor, logStackTraces);
         this.tmp = toTempFileStore(config.getLocal(), gradleUserHomeDir);
+        this.prefetcher = new RemoteBuildCachePrefetcher(remote, local, tmp, executorFactory);
     }
 
     @Override
@@ -95,6 +100,7 @@ public boolean isEmitDebugLogging() {
     @Override
     public <T> Optional<T> load(BuildCacheLoadCommand<T> command) {
         final Unpack<T> unpack = new Unpack<>(command);
+        boolean mayExistInRemote = prefetcher.mayExistInRemote(command.getKey());
 
         if (local.canLoad()) {
             try {
@@ -108,7 +114,7 @@ public <T> Optional<T> load(BuildCacheLoadCommand<T> command) {
             }
         }
 
-        if (remote.canLoad()) {
+        if (remote.canLoad() && mayExistInRemote) {
             tmp.withTempFile(command.getKey(), file -> {
                 LoadTarget loadTarget = new LoadTarget(file);
                 remote.load(command.getKey(), loadTarget);
@@ -222,6 +228,11 @@ public BuildOperationDescriptor.Builder description() {
         }
     }
 
+    @Override
+    public void prefetch(Collection<BuildCacheKey> keys) {
+        prefetcher.prefetch(keys);
+    }
+
     @Override
     public void close() throws IOException {
         if (!closed) {
@@ -229,6 +240,8 @@ public void close() throws IOException {
             Closer closer = Closer.create();
             closer.register(local);
             closer.register(remote);
+            // Closed first, so that no entries are prefetched once the caches are closed
+            closer.register(prefetcher);
             closer.close();
         }
     }
@@ -239,10 +252,10 @@ private static BuildCacheServiceHandle toRemoteHandle(@Nullable BuildCacheServic
             : new OpFiringBuildCacheServiceHandle(service, push, BuildCacheServiceRole.REMOTE, buildOperationExecutor, logStackTraces);
     }
 
-    private static LocalBuildCacheServiceHandle toLocalHandle(@Nullable LocalBuildCacheService local, boolean localPush) {
+    private static LocalBuildCacheServiceHandle toLocalHandle(@Nullable LocalBuildCacheService local, boolean localPush, BuildOperationExecutor buildOperationExecutor) {
         return local == null
             ? NullLocalBuildCacheServiceHandle.INSTANCE
-            : new DefaultLocalBuildCacheServiceHandle(local, localPush);
+            : new OpFiringLocalBuildCacheServiceHandle(local, localPush, buildOperationExecutor);
     }
 
     private static BuildCacheTempFileStore toTempFileStore(@Nullable LocalBuildCacheService local, File gradleUserHomeDir) {
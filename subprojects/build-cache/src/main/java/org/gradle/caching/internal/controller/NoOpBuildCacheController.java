@@ -16,6 +16,9 @@
 
 package org.gradle.caching.internal.controller;
 
+import org.gradle.caching.BuildCacheKey;
+
+import java.util.Collection;
 import java.util.Optional;
 
 public class NoOpBuildCacheController implements BuildCacheController {
@@ -45,6 +48,11 @@ public void store(BuildCacheStoreCommand command) {
 
     }
 
+    @Override
+    public void prefetch(Collection<BuildCacheKey> keys) {
+
+    }
+
     @Override
     public void close() {
 
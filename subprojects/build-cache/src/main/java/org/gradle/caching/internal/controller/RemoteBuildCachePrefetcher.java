@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller;
+
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.internal.controller.service.BuildCacheServiceHandle;
+import org.gradle.caching.internal.controller.service.LoadTarget;
+import org.gradle.caching.internal.controller.service.LocalBuildCacheServiceHandle;
+import org.gradle.caching.local.internal.BuildCacheTempFileStore;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Loads entries from the remote build cache into the local build cache in the background, so that loading them later does not wait for the remote build cache.
+ *
+ * <p>Keys are checked for existence in the remote build cache in batches: the keys passed to {@link #prefetch(Collection)} while a check is in progress are
+ * checked together by the next call, so that work items that compute their cache keys at about the same time share a round trip. The existing entries
+ * are then downloaded concurrently. Loading an entry that is being prefetched waits for the prefetch to finish, and does not look up the entry in the remote build cache
+ * again if the prefetch has found that it does not exist.</p>
+ */
+class RemoteBuildCachePrefetcher implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RemoteBuildCachePrefetcher.class);
+    private static final int MAX_PARALLEL_DOWNLOADS = 8;
+
+    private final BuildCacheServiceHandle remote;
+    private final LocalBuildCacheServiceHandle local;
+    private final BuildCacheTempFileStore tmp;
+    private final ExecutorFactory executorFactory;
+    private final ConcurrentMap<String, CompletableFuture<Boolean>> prefetches = new ConcurrentHashMap<>();
+    // Guarded by this
+    private final Map<BuildCacheKey, CompletableFuture<Boolean>> pending = new LinkedHashMap<>();
+    private boolean checkScheduled;
+
+    private ManagedExecutor executor;
+    private volatile boolean closed;
+
+    RemoteBuildCachePrefetcher(BuildCacheServiceHandle remote, LocalBuildCacheServiceHandle local, BuildCacheTempFileStore tmp, ExecutorFactory executorFactory) {
+        this.remote = remote;
+        this.local = local;
+        this.tmp = tmp;
+        this.executorFactory = executorFactory;
+    }
+
+    void prefetch(Collection<BuildCacheKey> keys) {
+        if (!remote.canLoad() || !local.canLoad() || !local.canStore()) {
+            return;
+        }
+        boolean scheduleCheck;
+        synchronized (this) {
+            for (BuildCacheKey key : keys) {
+                CompletableFuture<Boolean> prefetch = new CompletableFuture<>();
+                if (prefetches.putIfAbsent(key.getHashCode(), prefetch) == null) {
+                    pending.put(key, prefetch);
+                }
+            }
+            scheduleCheck = !checkScheduled && !pending.isEmpty();
+            checkScheduled |= scheduleCheck;
+        }
+        if (scheduleCheck) {
+            try {
+                getExecutor().execute(this::checkPending);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    checkScheduled = false;
+                    pending.values().forEach(prefetch -> prefetch.complete(true));
+                    pending.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for the prefetch of the given key to finish, if there is one, and returns whether the remote build cache may have an entry for the key.
+     */
+    boolean mayExistInRemote(BuildCacheKey key) {
+        CompletableFuture<Boolean> prefetch = prefetches.remove(key.getHashCode());
+        return prefetch == null || prefetch.join();
+    }
+
+    /**
+     * Checks the pending keys in batches until there are none left.
+     */
+    private void checkPending() {
+        while (true) {
+            Map<BuildCacheKey, CompletableFuture<Boolean>> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    checkScheduled = false;
+                    return;
+                }
+                batch = new LinkedHashMap<>(pending);
+                pending.clear();
+            }
+            try {
+                findExisting(batch);
+            } catch (Exception e) {
+                LOGGER.warn("Could not prefetch entries from remote build cache: {}", e.getMessage());
+                batch.values().forEach(prefetch -> prefetch.complete(true));
+            }
+        }
+    }
+
+    private void findExisting(Map<BuildCacheKey, CompletableFuture<Boolean>> started) {
+        Set<String> existing = new HashSet<>();
+        try {
+            if (!closed && remote.canLoad()) {
+                for (BuildCacheKey key : remote.findExisting(started.keySet())) {
+                    existing.add(key.getHashCode());
+                }
+            }
+        } finally {
+            for (Map.Entry<BuildCacheKey, CompletableFuture<Boolean>> entry : started.entrySet()) {
+                BuildCacheKey key = entry.getKey();
+                CompletableFuture<Boolean> prefetch = entry.getValue();
+                if (existing.contains(key.getHashCode())) {
+                    submit(() -> download(key, prefetch), Collections.singleton(prefetch));
+                } else {
+                    prefetch.complete(closed || !remote.canLoad());
+                }
+            }
+        }
+    }
+
+    private void download(BuildCacheKey key, CompletableFuture<Boolean> prefetch) {
+        try {
+            if (closed || !remote.canLoad() || local.contains(key)) {
+                return;
+            }
+            tmp.withTempFile(key, file -> {
+                LoadTarget loadTarget = new LoadTarget(file);
+                remote.load(key, loadTarget);
+                if (loadTarget.isLoaded()) {
+                    local.store(key, file);
+                } else if (remote.canLoad()) {
+                    prefetch.complete(false);
+                }
+            });
+        } catch (Exception e) {
+            LOGGER.warn("Could not prefetch entry {} from remote build cache: {}", key.getDisplayName(), e.getMessage());
+        } finally {
+            prefetch.complete(true);
+        }
+    }
+
+    /**
+     * Runs the given action in the background. The given prefetches are marked as finished if the action cannot be run or fails, so that loads do not wait for them forever.
+     */
+    private void submit(Runnable action, Collection<CompletableFuture<Boolean>> prefetches) {
+        try {
+            getExecutor().execute(() -> {
+                try {
+                    action.run();
+                } catch (Exception e) {
+                    LOGGER.warn("Could not prefetch entries from remote build cache: {}", e.getMessage());
+                    prefetches.forEach(prefetch -> prefetch.complete(true));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            prefetches.forEach(prefetch -> prefetch.complete(true));
+        }
+    }
+
+    private synchronized ManagedExecutor getExecutor() {
+        if (closed) {
+            throw new RejectedExecutionException("The build cache has been closed.");
+        }
+        if (executor == null) {
+            executor = executorFactory.create("Build cache prefetch", MAX_PARALLEL_DOWNLOADS);
+        }
+        return executor;
+    }
+
+    @Override
+    public void close() {
+        ManagedExecutor toStop;
+        synchronized (this) {
+            closed = true;
+            toStop = executor;
+        }
+        if (toStop != null) {
+            toStop.stop();
+        }
+        prefetches.values().forEach(prefetch -> prefetch.complete(true));
+        prefetches.clear();
+    }
+}
@@ -23,6 +23,9 @@
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class BaseBuildCacheServiceHandle implements BuildCacheServiceHandle {
 
@@ -73,6 +76,17 @@ protected void loadInner(BuildCacheKey key, BuildCacheEntryReader entryReader) {
         service.load(key, entryReader);
     }
 
+    @Override
+    public final Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys) {
+        LOGGER.debug("Find existing entries for {} keys in {} build cache", keys.size(), role.getDisplayName());
+        try {
+            return service.findExisting(keys);
+        } catch (Exception e) {
+            failure("Could not find existing entries in " + role.getDisplayName() + " build cache", e);
+            return new LinkedHashSet<BuildCacheKey>(keys);
+        }
+    }
+
     @Override
     public boolean canStore() {
         return pushEnabled && !disabled;
@@ -94,9 +108,12 @@ protected void storeInner(String description, BuildCacheKey key, StoreTarget sto
     }
 
     private void failure(String verb, String preposition, BuildCacheKey key, Throwable e) {
+        failure("Could not " + verb + " entry " + key.getDisplayName() + " " + preposition + " " + role.getDisplayName() + " build cache", e);
+    }
+
+    private void failure(String description, Throwable e) {
         disabled = true;
 
-        String description = "Could not " + verb + " entry " + key.getDisplayName() + " " + preposition + " " + role.getDisplayName() + " build cache";
         if (LOGGER.isWarnEnabled()) {
             if (logStackTraces) {
                 LOGGER.warn(description, e);
@@ -22,6 +22,8 @@
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.util.Collection;
+import java.util.Set;
 
 public interface BuildCacheServiceHandle extends Closeable {
 
@@ -33,6 +35,11 @@ public interface BuildCacheServiceHandle extends Closeable {
 
     void load(BuildCacheKey key, LoadTarget loadTarget);
 
+    /**
+     * Returns the given keys for which the cache may have an entry, see {@link BuildCacheService#findExisting(Collection)}.
+     */
+    Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys);
+
     boolean canStore();
 
     void store(BuildCacheKey key, StoreTarget storeTarget);
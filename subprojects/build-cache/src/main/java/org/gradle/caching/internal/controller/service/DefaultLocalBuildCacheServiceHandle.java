@@ -22,6 +22,7 @@
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DefaultLocalBuildCacheServiceHandle implements LocalBuildCacheServiceHandle {
 
@@ -49,6 +50,13 @@ public void load(BuildCacheKey key, Action<? super File> reader) {
         service.loadLocally(key, reader);
     }
 
+    @Override
+    public boolean contains(BuildCacheKey key) {
+        AtomicBoolean found = new AtomicBoolean();
+        service.loadLocally(key, file -> found.set(true));
+        return found.get();
+    }
+
     @Override
     public boolean canStore() {
         return pushEnabled;
@@ -36,6 +36,11 @@ public interface LocalBuildCacheServiceHandle extends Closeable {
     // TODO: what if this errors?
     void load(BuildCacheKey key, Action<? super File> reader);
 
+    /**
+     * Returns whether the cache has an entry for the given key. The entry is marked as accessed, as if it had been loaded.
+     */
+    boolean contains(BuildCacheKey key);
+
     boolean canStore();
 
     // TODO: what if this errors?
@@ -20,6 +20,8 @@
 import org.gradle.caching.BuildCacheService;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Set;
 
 public class NullBuildCacheServiceHandle implements BuildCacheServiceHandle {
 
@@ -41,6 +43,11 @@ public void load(BuildCacheKey key, LoadTarget loadTarget) {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public boolean canStore() {
         return false;
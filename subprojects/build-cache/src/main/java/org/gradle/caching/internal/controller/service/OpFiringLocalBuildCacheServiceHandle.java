@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller.service;
+
+import org.gradle.api.Action;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.internal.controller.operations.LocalLoadOperationDetails;
+import org.gradle.caching.internal.controller.operations.LocalLoadOperationResult;
+import org.gradle.caching.internal.controller.operations.LocalStoreOperationDetails;
+import org.gradle.caching.internal.controller.operations.LocalStoreOperationResult;
+import org.gradle.caching.local.internal.LocalBuildCacheService;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import java.io.File;
+
+public class OpFiringLocalBuildCacheServiceHandle extends DefaultLocalBuildCacheServiceHandle {
+
+    private final BuildOperationExecutor buildOperationExecutor;
+
+    public OpFiringLocalBuildCacheServiceHandle(LocalBuildCacheService service, boolean pushEnabled, BuildOperationExecutor buildOperationExecutor) {
+        super(service, pushEnabled);
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    @Override
+    public void load(final BuildCacheKey key, final Action<? super File> reader) {
+        buildOperationExecutor.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                SizeRecordingAction loadAction = new SizeRecordingAction(reader);
+                OpFiringLocalBuildCacheServiceHandle.super.load(key, loadAction);
+                context.setResult(
+                    loadAction.loaded
+                        ? LocalLoadOperationResult.hit(loadAction.size)
+                        : LocalLoadOperationResult.MISS
+                );
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Load entry " + key.getDisplayName() + " from local build cache")
+                    .details(new LocalLoadOperationDetails(key))
+                    .progressDisplayName("Loading from local build cache");
+            }
+        });
+    }
+
+    @Override
+    public void store(final BuildCacheKey key, final File file) {
+        buildOperationExecutor.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                OpFiringLocalBuildCacheServiceHandle.super.store(key, file);
+                context.setResult(LocalStoreOperationResult.INSTANCE);
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Store entry " + key.getDisplayName() + " in local build cache")
+                    .details(new LocalStoreOperationDetails(key, file.length()))
+                    .progressDisplayName("Storing in local build cache");
+            }
+        });
+    }
+
+    private static class SizeRecordingAction implements Action<File> {
+        private final Action<? super File> delegate;
+        boolean loaded;
+        long size;
+
+        SizeRecordingAction(Action<? super File> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(File file) {
+            loaded = true;
+            size = file.length();
+            delegate.execute(file);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.operations;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+/**
+ * The removal of the least recently used entries from the local build cache, when the cache has grown beyond its maximum size.
+ */
+public final class BuildCacheLocalEvictionBuildOperationType implements BuildOperationType<BuildCacheLocalEvictionBuildOperationType.Details, BuildCacheLocalEvictionBuildOperationType.Result> {
+
+    public interface Details {
+
+        /**
+         * The maximum number of bytes of the cache artifacts in the cache.
+         */
+        long getMaximumSize();
+
+    }
+
+    public interface Result {
+
+        /**
+         * The number of cache artifacts that were removed.
+         */
+        int getEvictedEntryCount();
+
+        /**
+         * The number of bytes of the cache artifacts that were removed.
+         */
+        long getEvictedSize();
+
+        /**
+         * The number of bytes of the cache artifacts that remain in the cache.
+         */
+        long getRemainingSize();
+
+    }
+
+    private BuildCacheLocalEvictionBuildOperationType() {
+    }
+}
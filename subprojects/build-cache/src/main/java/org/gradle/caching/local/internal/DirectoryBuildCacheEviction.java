@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal;
+
+import org.gradle.caching.internal.operations.BuildCacheLocalEvictionBuildOperationType;
+import org.gradle.internal.file.FileAccessTimeJournal;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps the total size of the entries of a directory build cache below a maximum, by removing the least recently used entries once the maximum is exceeded.
+ *
+ * <p>The size of the cache is determined once and then updated as entries are stored, so that the cache directory is only listed when the maximum is exceeded.
+ * Entries are then removed until the cache is below {@value #LOW_WATERMARK_PERCENT} percent of the maximum, so that the cost of listing the directory is spread
+ * over many stores, rather than paid for every store once the cache is full, or in one long pass when the cache is closed.</p>
+ *
+ * <p>Entries stored by other processes are only accounted for the next time this process evicts entries. Must only be used while holding the lock of the cache.</p>
+ */
+public class DirectoryBuildCacheEviction {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryBuildCacheEviction.class);
+    private static final int LOW_WATERMARK_PERCENT = 90;
+
+    private final File baseDir;
+    private final long maximumSize;
+    private final FileAccessTimeJournal fileAccessTimeJournal;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private long currentSize = -1;
+
+    public DirectoryBuildCacheEviction(File baseDir, long maximumSize, FileAccessTimeJournal fileAccessTimeJournal, BuildOperationExecutor buildOperationExecutor) {
+        this.baseDir = baseDir;
+        this.maximumSize = maximumSize;
+        this.fileAccessTimeJournal = fileAccessTimeJournal;
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    /**
+     * Records that the given entry has been stored, removing the least recently used entries if the cache has grown beyond its maximum size.
+     *
+     * @param replacedSize the size of the entry that the stored entry replaced, or 0 when there was no entry with the same key.
+     */
+    public void entryStored(File entry, long replacedSize) {
+        if (currentSize < 0) {
+            currentSize = 0;
+            for (Entry existing : listEntries()) {
+                currentSize += existing.size;
+            }
+        } else {
+            currentSize += entry.length() - replacedSize;
+        }
+        if (currentSize > maximumSize) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        buildOperationExecutor.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                List<Entry> entries = listEntries();
+                long remainingSize = 0;
+                for (Entry entry : entries) {
+                    remainingSize += entry.size;
+                }
+                entries.sort(Comparator.comparingLong(entry -> entry.lastAccessTime));
+
+                long targetSize = maximumSize / 100 * LOW_WATERMARK_PERCENT;
+                int evictedEntryCount = 0;
+                long evictedSize = 0;
+                for (Entry entry : entries) {
+                    if (remainingSize <= targetSize) {
+                        break;
+                    }
+                    if (entry.file.delete()) {
+                        fileAccessTimeJournal.deleteLastAccessTime(entry.file);
+                        remainingSize -= entry.size;
+                        evictedSize += entry.size;
+                        evictedEntryCount++;
+                    }
+                }
+                currentSize = remainingSize;
+                LOGGER.info("Removed {} entries ({} bytes) from local build cache in {}, {} bytes remaining.", evictedEntryCount, evictedSize, baseDir, remainingSize);
+                context.setResult(new EvictionResult(evictedEntryCount, evictedSize, remainingSize));
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Evict entries from local build cache")
+                    .details(new EvictionDetails(maximumSize))
+                    .progressDisplayName("Evicting entries from local build cache");
+            }
+        });
+    }
+
+    private List<Entry> listEntries() {
+        List<Entry> entries = new ArrayList<Entry>();
+        File[] files = baseDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (isEntry(file.getName()) && file.isFile()) {
+                    entries.add(new Entry(file, file.length(), fileAccessTimeJournal.getLastAccessTime(file)));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Entries are named after their cache key. Partial, failed and lock files all have a suffix.
+     */
+    private static boolean isEntry(String fileName) {
+        for (int i = 0; i < fileName.length(); i++) {
+            if (Character.digit(fileName.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return !fileName.isEmpty();
+    }
+
+    private static class Entry {
+        private final File file;
+        private final long size;
+        private final long lastAccessTime;
+
+        Entry(File file, long size, long lastAccessTime) {
+            this.file = file;
+            this.size = size;
+            this.lastAccessTime = lastAccessTime;
+        }
+    }
+
+    private static class EvictionDetails implements BuildCacheLocalEvictionBuildOperationType.Details {
+        private final long maximumSize;
+
+        EvictionDetails(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+    }
+
+    private static class EvictionResult implements BuildCacheLocalEvictionBuildOperationType.Result {
+        private final int evictedEntryCount;
+        private final long evictedSize;
+        private final long remainingSize;
+
+        EvictionResult(int evictedEntryCount, long evictedSize, long remainingSize) {
+            this.evictedEntryCount = evictedEntryCount;
+            this.evictedSize = evictedSize;
+            this.remainingSize = remainingSize;
+        }
+
+        @Override
+        public int getEvictedEntryCount() {
+            return evictedEntryCount;
+        }
+
+        @Override
+        public long getEvictedSize() {
+            return evictedSize;
+        }
+
+        @Override
+        public long getRemainingSize() {
+            return remainingSize;
+        }
+    }
+}
@@ -32,10 +32,14 @@
 import org.gradle.util.GFileUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -46,14 +50,21 @@ public class DirectoryBuildCacheService implements LocalBuildCacheService, Build
     private final BuildCacheTempFileStore tempFileStore;
     private final FileAccessTracker fileAccessTracker;
     private final String failedFileSuffix;
+    @Nullable
+    private final DirectoryBuildCacheEviction eviction;
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     public DirectoryBuildCacheService(PathKeyFileStore fileStore, PersistentCache persistentCache, BuildCacheTempFileStore tempFileStore, FileAccessTracker fileAccessTracker, String failedFileSuffix) {
+        this(fileStore, persistentCache, tempFileStore, fileAccessTracker, failedFileSuffix, null);
+    }
+
+    public DirectoryBuildCacheService(PathKeyFileStore fileStore, PersistentCache persistentCache, BuildCacheTempFileStore tempFileStore, FileAccessTracker fileAccessTracker, String failedFileSuffix, @Nullable DirectoryBuildCacheEviction eviction) {
         this.fileStore = fileStore;
         this.persistentCache = persistentCache;
         this.tempFileStore = tempFileStore;
         this.fileAccessTracker = fileAccessTracker;
         this.failedFileSuffix = failedFileSuffix;
+        this.eviction = eviction;
     }
 
     private static class LoadAction implements Action<File> {
@@ -127,6 +138,27 @@ private void loadInsideLock(BuildCacheKey key, Action<? super File> reader) {
         }
     }
 
+    @Override
+    public Set<BuildCacheKey> findExisting(final Collection<BuildCacheKey> keys) throws BuildCacheException {
+        final Set<BuildCacheKey> existing = new LinkedHashSet<BuildCacheKey>();
+        persistentCache.withFileLock(new Runnable() {
+            @Override
+            public void run() {
+                lock.readLock().lock();
+                try {
+                    for (BuildCacheKey key : keys) {
+                        if (fileStore.get(key.getHashCode()) != null) {
+                            existing.add(key);
+                        }
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        });
+        return existing;
+    }
+
     @Override
     public void store(final BuildCacheKey key, final BuildCacheEntryWriter result) throws BuildCacheException {
         tempFileStore.withTempFile(key, new Action<File>() {
@@ -166,8 +198,14 @@ public void run() {
     }
 
     private void storeInsideLock(BuildCacheKey key, File file) {
+        // The entry may replace one with the same key, for example when the previous entry was stored by a build with different outputs for the same inputs
+        LocallyAvailableResource replaced = eviction == null ? null : fileStore.get(key.getHashCode());
+        long replacedSize = replaced == null ? 0 : replaced.getFile().length();
         LocallyAvailableResource resource = fileStore.move(key.getHashCode(), file);
         fileAccessTracker.markAccessed(resource.getFile());
+        if (eviction != null) {
+            eviction.entryStored(resource.getFile(), replacedSize);
+        }
     }
 
     @Override
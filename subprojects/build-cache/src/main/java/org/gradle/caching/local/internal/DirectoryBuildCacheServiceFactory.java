@@ -30,6 +30,7 @@
 import org.gradle.caching.local.DirectoryBuildCache;
 import org.gradle.internal.file.FileAccessTimeJournal;
 import org.gradle.internal.file.PathToFileResolver;
+import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.resource.local.FileAccessTracker;
 import org.gradle.internal.resource.local.PathKeyFileStore;
 import org.gradle.internal.resource.local.SingleDepthFileAccessTracker;
@@ -42,6 +43,10 @@
 
 public class DirectoryBuildCacheServiceFactory implements BuildCacheServiceFactory<DirectoryBuildCache> {
     public static final String FAILED_READ_SUFFIX = ".failed";
+    /**
+     * The maximum size of the entries in the local build cache, in MB. When the cache grows beyond this size, the least recently used entries are removed.
+     */
+    public static final String MAXIMUM_SIZE_PROPERTY = "org.gradle.internal.caching.local.maximum-size-mb";
 
     private static final String BUILD_CACHE_VERSION = "1";
     private static final String BUILD_CACHE_KEY = "build-cache-" + BUILD_CACHE_VERSION;
@@ -54,16 +59,18 @@ public class DirectoryBuildCacheServiceFactory implements BuildCacheServiceFacto
     private final DirectoryBuildCacheFileStoreFactory fileStoreFactory;
     private final CleanupActionFactory cleanupActionFactory;
     private final FileAccessTimeJournal fileAccessTimeJournal;
+    private final BuildOperationExecutor buildOperationExecutor;
 
     @Inject
     public DirectoryBuildCacheServiceFactory(CacheRepository cacheRepository, CacheScopeMapping cacheScopeMapping, PathToFileResolver resolver, DirectoryBuildCacheFileStoreFactory fileStoreFactory,
-                                             CleanupActionFactory cleanupActionFactory, FileAccessTimeJournal fileAccessTimeJournal) {
+                                             CleanupActionFactory cleanupActionFactory, FileAccessTimeJournal fileAccessTimeJournal, BuildOperationExecutor buildOperationExecutor) {
         this.cacheRepository = cacheRepository;
         this.cacheScopeMapping = cacheScopeMapping;
         this.resolver = resolver;
         this.fileStoreFactory = fileStoreFactory;
         this.cleanupActionFactory = cleanupActionFactory;
         this.fileAccessTimeJournal = fileAccessTimeJournal;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     @Override
@@ -81,6 +88,10 @@ public BuildCacheService createBuildCacheService(DirectoryBuildCache configurati
         describer.type(DIRECTORY_BUILD_CACHE_TYPE).
             config("location", target.getAbsolutePath()).
             config("removeUnusedEntriesAfter", String.valueOf(removeUnusedEntriesAfterDays) + " days");
+        long maximumSizeInMB = Long.getLong(MAXIMUM_SIZE_PROPERTY, 0);
+        if (maximumSizeInMB > 0) {
+            describer.config("maximumSize", maximumSizeInMB + " MB");
+        }
 
         PathKeyFileStore fileStore = fileStoreFactory.createFileStore(target);
         PersistentCache persistentCache = cacheRepository
@@ -93,7 +104,9 @@ public BuildCacheService createBuildCacheService(DirectoryBuildCache configurati
         BuildCacheTempFileStore tempFileStore = new DefaultBuildCacheTempFileStore(target);
         FileAccessTracker fileAccessTracker = new SingleDepthFileAccessTracker(fileAccessTimeJournal, target, FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP);
 
-        return new DirectoryBuildCacheService(fileStore, persistentCache, tempFileStore, fileAccessTracker, FAILED_READ_SUFFIX);
+        DirectoryBuildCacheEviction eviction = maximumSizeInMB > 0 ? new DirectoryBuildCacheEviction(target, maximumSizeInMB * 1024 * 1024, fileAccessTimeJournal, buildOperationExecutor) : null;
+
+        return new DirectoryBuildCacheService(fileStore, persistentCache, tempFileStore, fileAccessTracker, FAILED_READ_SUFFIX, eviction);
     }
 
     private static void checkDirectory(File directory) {
@@ -22,12 +22,17 @@ import org.gradle.caching.BuildCacheEntryWriter
 import org.gradle.caching.BuildCacheKey
 import org.gradle.caching.BuildCacheService
 import org.gradle.caching.internal.controller.service.BuildCacheServicesConfiguration
+import org.gradle.caching.internal.operations.BuildCacheLocalLoadBuildOperationType
+import org.gradle.caching.internal.operations.BuildCacheLocalStoreBuildOperationType
 import org.gradle.caching.local.internal.LocalBuildCacheService
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import spock.lang.Specification
 import org.junit.Rule
 
+import java.util.concurrent.CountDownLatch
+
 class DefaultBuildCacheControllerTest extends Specification {
 
     def key = Mock(BuildCacheKey) {
@@ -92,6 +97,7 @@ class DefaultBuildCacheControllerTest extends Specification {
                 remotePush
             ),
             operations,
+            new DefaultExecutorFactory(),
             tmpDir.file("dir"),
             false,
             false
@@ -239,6 +245,158 @@ class DefaultBuildCacheControllerTest extends Specification {
         0 * remote.store(key, _)
     }
 
+    def "fires build operations for local load and store"() {
+        given:
+        remote = null
+        def file = tmpDir.file("file")
+        file.text = "alma"
+
+        when:
+        controller.load(loadCommand)
+
+        then:
+        1 * local.loadLocally(key, _) // miss
+        !operations.log.mostRecentResult(BuildCacheLocalLoadBuildOperationType).hit
+
+        when:
+        controller.load(loadCommand)
+
+        then:
+        1 * local.loadLocally(key, _) >> { BuildCacheKey key, Action<File> action ->
+            action.execute(file)
+        }
+        with(operations.log.mostRecentResult(BuildCacheLocalLoadBuildOperationType)) {
+            hit
+            archiveSize == 4
+        }
+        operations.log.mostRecentDetails(BuildCacheLocalLoadBuildOperationType).cacheKey == "key"
+
+        when:
+        controller.store(storeCommand)
+
+        then:
+        1 * local.storeLocally(key, _)
+        operations.log.mostRecentDetails(BuildCacheLocalStoreBuildOperationType).cacheKey == "key"
+    }
+
+    def "prefetches existing entries from remote into local"() {
+        def controller = getController()
+
+        when:
+        controller.prefetch([key])
+        controller.load(loadCommand)
+
+        then:
+        1 * remote.findExisting({ it as List == [key] }) >> { Collection<BuildCacheKey> keys -> keys as Set }
+        1 * local.loadLocally(key, _) // not in local cache yet
+        1 * remote.load(key, _) >> { BuildCacheKey key, BuildCacheEntryReader reader ->
+            reader.readFrom(new ByteArrayInputStream("foo".bytes))
+            true
+        }
+        1 * local.storeLocally(key, _)
+
+        then:
+        1 * local.loadLocally(key, _) >> { BuildCacheKey key, Action<File> action ->
+            def file = tmpDir.file("file")
+            file.text = "alma"
+            action.execute(file)
+        }
+        0 * remote.load(key, _)
+
+        cleanup:
+        controller.close()
+    }
+
+    def "does not load entries from remote that prefetch found to be missing"() {
+        def controller = getController()
+
+        when:
+        controller.prefetch([key])
+        controller.load(loadCommand)
+
+        then:
+        1 * remote.findExisting({ it as List == [key] }) >> [].toSet()
+        1 * local.loadLocally(key, _)
+        0 * remote.load(key, _)
+
+        cleanup:
+        controller.close()
+    }
+
+    def "does not prefetch entries that are already in local"() {
+        def controller = getController()
+
+        when:
+        controller.prefetch([key])
+        controller.load(loadCommand)
+
+        then:
+        1 * remote.findExisting({ it as List == [key] }) >> { Collection<BuildCacheKey> keys -> keys as Set }
+        2 * local.loadLocally(key, _) >> { BuildCacheKey key, Action<File> action ->
+            def file = tmpDir.file("file")
+            file.text = "alma"
+            action.execute(file)
+        }
+        0 * remote.load(key, _)
+        0 * local.storeLocally(key, _)
+
+        cleanup:
+        controller.close()
+    }
+
+    def "checks keys prefetched while a check is in progress in one batch"() {
+        def key2 = Mock(BuildCacheKey) {
+            getHashCode() >> "key2"
+        }
+        def key3 = Mock(BuildCacheKey) {
+            getHashCode() >> "key3"
+        }
+        def checking = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def controller = getController()
+
+        when:
+        controller.prefetch([key])
+        checking.await()
+        controller.prefetch([key2])
+        controller.prefetch([key3])
+        release.countDown()
+        [key, key2, key3].each { prefetchedKey ->
+            controller.load(Stub(BuildCacheLoadCommand) {
+                getKey() >> prefetchedKey
+            })
+        }
+
+        then:
+        1 * remote.findExisting({ it as List == [key] }) >> {
+            checking.countDown()
+            release.await()
+            [].toSet()
+        }
+        1 * remote.findExisting({ it as List == [key2, key3] }) >> [].toSet()
+        0 * remote.load(_, _)
+
+        cleanup:
+        controller.close()
+    }
+
+    def "does not prefetch if local is disabled"() {
+        given:
+        local = null
+
+        when:
+        def controller = getController()
+        controller.prefetch([key])
+        controller.load(loadCommand)
+
+        then:
+        0 * remote.findExisting(_)
+        1 * remote.load(key, _)
+
+        cleanup:
+        controller.close()
+    }
+
     def "close only closes once"() {
         when:
         def controller = getController()
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal
+
+import org.gradle.caching.internal.operations.BuildCacheLocalEvictionBuildOperationType
+import org.gradle.internal.file.FileAccessTimeJournal
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+@CleanupTestDirectory
+class DirectoryBuildCacheEvictionTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+    def cacheDir = temporaryFolder.createDir("cache")
+    def accessTimes = [:]
+    def journal = Stub(FileAccessTimeJournal) {
+        getLastAccessTime(_) >> { File file -> accessTimes[file.name] }
+    }
+    def operations = new TestBuildOperationExecutor()
+    def eviction = new DirectoryBuildCacheEviction(cacheDir, 1000, journal, operations)
+
+    def "does nothing while the cache is below its maximum size"() {
+        given:
+        entry("aa", 400, 1)
+
+        when:
+        eviction.entryStored(entry("bb", 500, 2), 0)
+
+        then:
+        cacheDir.listFiles()*.name.sort() == ["aa", "bb"]
+        operations.log.records.empty
+    }
+
+    def "removes least recently used entries until the cache is below the low watermark"() {
+        given:
+        entry("bb", 300, 1)
+        entry("cc", 300, 2)
+        eviction.entryStored(entry("aa", 300, 3), 0)
+
+        when:
+        eviction.entryStored(entry("dd", 400, 4), 0)
+
+        then:
+        cacheDir.listFiles()*.name.sort() == ["aa", "dd"]
+        with(operations.log.mostRecentResult(BuildCacheLocalEvictionBuildOperationType)) {
+            evictedEntryCount == 2
+            evictedSize == 600
+            remainingSize == 700
+        }
+        operations.log.mostRecentDetails(BuildCacheLocalEvictionBuildOperationType).maximumSize == 1000
+    }
+
+    def "only lists the cache directory again once the tracked size exceeds the maximum"() {
+        given:
+        eviction.entryStored(entry("aa", 300, 1), 0)
+        // Stored by another process, not accounted for until the next eviction
+        entry("bb", 600, 2)
+
+        when:
+        eviction.entryStored(entry("cc", 300, 3), 0)
+
+        then:
+        operations.log.records.empty
+
+        when:
+        eviction.entryStored(entry("dd", 500, 4), 0)
+
+        then:
+        cacheDir.listFiles()*.name.sort() == ["cc", "dd"]
+        operations.log.mostRecentResult(BuildCacheLocalEvictionBuildOperationType).remainingSize == 800
+    }
+
+    def "does not count the size of a replaced entry twice"() {
+        given:
+        eviction.entryStored(entry("aa", 300, 1), 0)
+        eviction.entryStored(entry("bb", 300, 2), 0)
+
+        when:
+        eviction.entryStored(entry("aa", 400, 3), 300)
+        eviction.entryStored(entry("bb", 400, 4), 300)
+
+        then:
+        cacheDir.listFiles()*.name.sort() == ["aa", "bb"]
+        operations.log.records.empty
+    }
+
+    def "ignores files that are not cache entries"() {
+        given:
+        cacheDir.file("aa-123.part").bytes = new byte[2000]
+        cacheDir.file("bb.failed").bytes = new byte[2000]
+        cacheDir.file("gc.properties").bytes = new byte[2000]
+
+        when:
+        eviction.entryStored(entry("cc", 500, 1), 0)
+
+        then:
+        cacheDir.listFiles().length == 4
+        operations.log.records.empty
+    }
+
+    private TestFile entry(String name, int size, long accessTime) {
+        def file = cacheDir.file(name)
+        file.bytes = new byte[size]
+        accessTimes[name] = accessTime
+        return file
+    }
+}
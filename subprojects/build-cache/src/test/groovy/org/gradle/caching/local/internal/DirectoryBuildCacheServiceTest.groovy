@@ -133,4 +133,22 @@ class DirectoryBuildCacheServiceTest extends Specification {
         1 * fileAccessTracker.markAccessed(cachedFile)
         loaded
     }
+
+    def "finds existing entries without marking them accessed"() {
+        def otherKey = Mock(BuildCacheKey) {
+            getHashCode() >> "5678ef01"
+        }
+
+        given:
+        def originalFile = temporaryFolder.createFile("foo")
+        originalFile.text = "bar"
+        service.storeLocally(key, originalFile)
+
+        when:
+        def existing = service.findExisting([key, otherKey])
+
+        then:
+        existing == [key] as Set
+        0 * fileAccessTracker.markAccessed(_)
+    }
 }
@@ -16,8 +16,13 @@
 
 package org.gradle.caching;
 
+import org.gradle.api.Incubating;
+
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Protocol interface to be implemented by a client to a build cache backend.
@@ -58,6 +63,24 @@ public interface BuildCacheService extends Closeable {
      */
     void store(BuildCacheKey key, BuildCacheEntryWriter writer) throws BuildCacheException;
 
+    /**
+     * Checks which of the given cache keys have an entry in the cache, without loading the entries.
+     *
+     * <p>
+     *     Implementations that can check several keys with a single request should do so, so that the latency of the cache is paid once for all of the keys.
+     *     The default implementation does not check the cache and returns all of the given keys, so that each entry is looked up when it is loaded.
+     * </p>
+     *
+     * @param keys the cache keys to check.
+     * @return the given keys for which the cache may have an entry.
+     * @throws BuildCacheException if the cache fails to check whether the entries exist
+     * @since 6.2
+     */
+    @Incubating
+    default Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys) throws BuildCacheException {
+        return new LinkedHashSet<BuildCacheKey>(keys);
+    }
+
     /**
      * Clean up any resources held by the cache once it's not used anymore.
      *
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.compress.archivers.zip.UnixStat;
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.Zip64RequiredException;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.FileCopyDetails;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.copy.CopyAction;
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream;
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.WorkResults;
+import org.gradle.api.tasks.bundling.Zip;
+import org.gradle.internal.UncheckedException;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * A zip {@link CopyAction} that compresses entries concurrently.
+ *
+ * <p>The content of each file is read on the calling thread, in visiting order, and compressed into a memory buffer by a worker thread.
+ * Compressed entries are then written to the archive in visiting order, so the result does not depend on the scheduling of the workers.
+ * Files whose content is already compressed, like jars and images, are stored instead of deflated. Large files are written directly,
+ * without buffering.</p>
+ *
+ * <p>The executor is not stopped by this action, so it can be shared by all archive tasks.</p>
+ */
+public class ParallelZipCopyAction implements CopyAction {
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.zip.parallel";
+
+    private static final Set<String> COMPRESSED_EXTENSIONS = ImmutableSet.of(
+        "jar", "war", "ear", "aar", "zip", "gz", "tgz", "bz2", "xz", "7z",
+        "png", "jpg", "jpeg", "gif", "webp", "woff", "woff2", "mp3", "mp4"
+    );
+    @VisibleForTesting
+    static final long MAX_BUFFERED_ENTRY_SIZE = 8 * 1024 * 1024;
+    @VisibleForTesting
+    static final long MAX_PENDING_BYTES = 64 * 1024 * 1024;
+
+    private final File zipFile;
+    private final boolean deflate;
+    private final boolean allowZip64;
+    private final Executor executor;
+    private final DocumentationRegistry documentationRegistry;
+    private final String encoding;
+    private final boolean preserveFileTimestamps;
+
+    public ParallelZipCopyAction(File zipFile, int entryCompressionMethod, boolean allowZip64, Executor executor, DocumentationRegistry documentationRegistry, String encoding, boolean preserveFileTimestamps) {
+        this.zipFile = zipFile;
+        this.deflate = entryCompressionMethod == ZipEntry.DEFLATED;
+        this.allowZip64 = allowZip64;
+        this.executor = executor;
+        this.documentationRegistry = documentationRegistry;
+        this.encoding = encoding;
+        this.preserveFileTimestamps = preserveFileTimestamps;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    @Override
+    public WorkResult execute(CopyActionProcessingStream stream) {
+        ZipArchiveOutputStream zipOutStr;
+        try {
+            zipOutStr = new ZipArchiveOutputStream(zipFile);
+            zipOutStr.setUseZip64(allowZip64 ? Zip64Mode.AsNeeded : Zip64Mode.Never);
+            zipOutStr.setMethod(deflate ? ZipEntry.DEFLATED : ZipEntry.STORED);
+            if (encoding != null) {
+                zipOutStr.setEncoding(encoding);
+            }
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not create ZIP '%s'.", zipFile), e);
+        }
+
+        StreamAction action = new StreamAction(zipOutStr);
+        try {
+            stream.process(action);
+            action.writeAllPendingEntries();
+            zipOutStr.close();
+        } catch (Zip64RequiredException e) {
+            throw zip64Required(e);
+        } catch (IOException e) {
+            throw new GradleException(String.format("Could not write ZIP '%s'.", zipFile), e);
+        } finally {
+            action.cancelPendingEntries();
+            closeQuietly(zipOutStr);
+        }
+
+        return WorkResults.didWork(true);
+    }
+
+    private RuntimeException zip64Required(Zip64RequiredException e) {
+        return new org.gradle.api.tasks.bundling.internal.Zip64RequiredException(
+            String.format("%s\n\nTo build this archive, please enable the zip64 extension.\nSee: %s", e.getMessage(), documentationRegistry.getDslRefForProperty(Zip.class, "zip64"))
+        );
+    }
+
+    private static void closeQuietly(ZipArchiveOutputStream zipOutStr) {
+        try {
+            zipOutStr.close();
+        } catch (IOException e) {
+            // Ignore, the failure has already been reported
+        }
+    }
+
+    private class StreamAction implements CopyActionProcessingStreamAction {
+        private final ZipArchiveOutputStream zipOutStr;
+        private final Deque<PendingEntry> pendingEntries = new ArrayDeque<PendingEntry>();
+        private long pendingBytes;
+
+        StreamAction(ZipArchiveOutputStream zipOutStr) {
+            this.zipOutStr = zipOutStr;
+        }
+
+        @Override
+        public void processFile(FileCopyDetailsInternal details) {
+            if (details.isDirectory()) {
+                visitDir(details);
+            } else {
+                visitFile(details);
+            }
+        }
+
+        private void visitFile(FileCopyDetails fileDetails) {
+            String displayName = fileDetails.toString();
+            boolean compress = deflate && !isCompressed(fileDetails.getName());
+            try {
+                ZipArchiveEntry archiveEntry = new ZipArchiveEntry(fileDetails.getRelativePath().getPathString());
+                archiveEntry.setTime(getArchiveTimeFor(fileDetails));
+                archiveEntry.setUnixMode(UnixStat.FILE_FLAG | fileDetails.getMode());
+                archiveEntry.setMethod(compress ? ZipEntry.DEFLATED : ZipEntry.STORED);
+                if (fileDetails.getSize() > MAX_BUFFERED_ENTRY_SIZE) {
+                    writeAllPendingEntries();
+                    zipOutStr.putArchiveEntry(archiveEntry);
+                    fileDetails.copyTo(zipOutStr);
+                    zipOutStr.closeArchiveEntry();
+                    return;
+                }
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                fileDetails.copyTo(content);
+                byte[] bytes = content.toByteArray();
+                FutureTask<byte[]> compressed = new FutureTask<byte[]>(new CompressAction(archiveEntry, bytes, compress));
+                executor.execute(compressed);
+                pendingEntries.add(new PendingEntry(archiveEntry, compressed, bytes.length, displayName));
+                pendingBytes += bytes.length;
+                while (pendingBytes > MAX_PENDING_BYTES) {
+                    writeFirstPendingEntry();
+                }
+            } catch (Zip64RequiredException e) {
+                throw zip64Required(e);
+            } catch (GradleException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", displayName, zipFile), e);
+            }
+        }
+
+        private void visitDir(FileCopyDetails dirDetails) {
+            // Trailing slash in name indicates that entry is a directory
+            ZipArchiveEntry archiveEntry = new ZipArchiveEntry(dirDetails.getRelativePath().getPathString() + '/');
+            archiveEntry.setTime(getArchiveTimeFor(dirDetails));
+            archiveEntry.setUnixMode(UnixStat.DIR_FLAG | dirDetails.getMode());
+            pendingEntries.add(new PendingEntry(archiveEntry, null, 0, dirDetails.toString()));
+        }
+
+        void writeAllPendingEntries() {
+            while (!pendingEntries.isEmpty()) {
+                writeFirstPendingEntry();
+            }
+        }
+
+        /**
+         * Discards the entries that have not been written, when the archive could not be completed.
+         */
+        void cancelPendingEntries() {
+            for (PendingEntry entry : pendingEntries) {
+                if (entry.content != null) {
+                    entry.content.cancel(false);
+                }
+            }
+            pendingEntries.clear();
+        }
+
+        /**
+         * Writes the oldest pending entry, waiting for its content to be compressed if required.
+         */
+        private void writeFirstPendingEntry() {
+            PendingEntry entry = pendingEntries.removeFirst();
+            pendingBytes -= entry.size;
+            try {
+                if (entry.content == null) {
+                    zipOutStr.putArchiveEntry(entry.archiveEntry);
+                    zipOutStr.closeArchiveEntry();
+                } else {
+                    zipOutStr.addRawArchiveEntry(entry.archiveEntry, new ByteArrayInputStream(entry.content.get()));
+                }
+            } catch (Zip64RequiredException e) {
+                throw zip64Required(e);
+            } catch (ExecutionException e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", entry.displayName, zipFile), e.getCause());
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", entry.displayName, zipFile), e);
+            }
+        }
+    }
+
+    private static boolean isCompressed(String fileName) {
+        int extensionStart = fileName.lastIndexOf('.');
+        return extensionStart >= 0 && COMPRESSED_EXTENSIONS.contains(fileName.substring(extensionStart + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private long getArchiveTimeFor(FileCopyDetails details) {
+        return preserveFileTimestamps ? details.getLastModified() : ZipCopyAction.CONSTANT_TIME_FOR_ZIP_ENTRIES;
+    }
+
+    private static class PendingEntry {
+        private final ZipArchiveEntry archiveEntry;
+        @Nullable
+        private final Future<byte[]> content;
+        private final long size;
+        private final String displayName;
+
+        PendingEntry(ZipArchiveEntry archiveEntry, @Nullable Future<byte[]> content, long size, String displayName) {
+            this.archiveEntry = archiveEntry;
+            this.content = content;
+            this.size = size;
+            this.displayName = displayName;
+        }
+    }
+
+    /**
+     * Computes the checksum and sizes of an entry, and returns the content to write for it.
+     */
+    private static class CompressAction implements Callable<byte[]> {
+        private final ZipArchiveEntry archiveEntry;
+        private final byte[] content;
+        private final boolean compress;
+
+        CompressAction(ZipArchiveEntry archiveEntry, byte[] content, boolean compress) {
+            this.archiveEntry = archiveEntry;
+            this.content = content;
+            this.compress = compress;
+        }
+
+        @Override
+        public byte[] call() {
+            CRC32 crc = new CRC32();
+            crc.update(content, 0, content.length);
+            archiveEntry.setCrc(crc.getValue());
+            archiveEntry.setSize(content.length);
+            if (!compress) {
+                archiveEntry.setCompressedSize(content.length);
+                return content;
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(32, content.length / 2));
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(compressed, deflater);
+                deflaterOutputStream.write(content);
+                deflaterOutputStream.finish();
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } finally {
+                deflater.end();
+            }
+            archiveEntry.setCompressedSize(compressed.size());
+            return compressed.toByteArray();
+        }
+    }
+}
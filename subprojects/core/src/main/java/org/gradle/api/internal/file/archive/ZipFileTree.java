@@ -35,8 +35,10 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -47,6 +49,7 @@ public class ZipFileTree implements MinimalFileTree, ArchiveFileTree {
     private final Chmod chmod;
     private final DirectoryFileTreeFactory directoryFileTreeFactory;
     private final FileHasher fileHasher;
+    private EntryIndex entryIndex;
 
     public ZipFileTree(File zipFile, File tmpDir, Chmod chmod, DirectoryFileTreeFactory directoryFileTreeFactory, FileHasher fileHasher) {
         this.zipFile = zipFile;
@@ -83,8 +86,35 @@ public void visit(FileVisitor visitor) {
         AtomicBoolean stopFlag = new AtomicBoolean();
 
         try {
+            List<ZipEntry> entries = getSortedEntries();
+            VisitContext context = new VisitContext();
+            try {
+                Iterator<ZipEntry> sortedEntries = entries.iterator();
+                while (!stopFlag.get() && sortedEntries.hasNext()) {
+                    ZipEntry entry = sortedEntries.next();
+                    if (entry.isDirectory()) {
+                        visitor.visitDir(new DetailsImpl(zipFile, context, entry, stopFlag, chmod));
+                    } else {
+                        visitor.visitFile(new DetailsImpl(zipFile, context, entry, stopFlag, chmod));
+                    }
+                }
+            } finally {
+                context.close();
+            }
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not expand %s.", getDisplayName()), e);
+        }
+    }
+
+    /**
+     * Returns the entries of the zip in alphabetical order. The entries are read from the central directory of the zip once, and reused while the zip file does not change,
+     * so that visiting the same zip again does not need to open it unless the content of some entry is used.
+     */
+    private synchronized List<ZipEntry> getSortedEntries() throws IOException {
+        long length = zipFile.length();
+        long lastModified = zipFile.lastModified();
+        if (entryIndex == null || entryIndex.length != length || entryIndex.lastModified != lastModified) {
             ZipFile zip = new ZipFile(zipFile);
-            File expandedDir = getExpandedDir();
             try {
                 // The iteration order of zip.getEntries() is based on the hash of the zip entry. This isn't much use
                 // to us. So, collect the entries in a map and iterate over them in alphabetical order.
@@ -94,21 +124,12 @@ public void visit(FileVisitor visitor) {
                     ZipEntry entry = (ZipEntry) entries.nextElement();
                     entriesByName.put(entry.getName(), entry);
                 }
-                Iterator<ZipEntry> sortedEntries = entriesByName.values().iterator();
-                while (!stopFlag.get() && sortedEntries.hasNext()) {
-                    ZipEntry entry = sortedEntries.next();
-                    if (entry.isDirectory()) {
-                        visitor.visitDir(new DetailsImpl(zipFile, expandedDir, entry, zip, stopFlag, chmod));
-                    } else {
-                        visitor.visitFile(new DetailsImpl(zipFile, expandedDir, entry, zip, stopFlag, chmod));
-                    }
-                }
+                entryIndex = new EntryIndex(length, lastModified, new ArrayList<ZipEntry>(entriesByName.values()));
             } finally {
                 zip.close();
             }
-        } catch (Exception e) {
-            throw new GradleException(String.format("Could not expand %s.", getDisplayName()), e);
         }
+        return entryIndex.entries;
     }
 
     @Override
@@ -121,20 +142,62 @@ private File getExpandedDir() {
         return new File(tmpDir, expandedDirName);
     }
 
+    private static class EntryIndex {
+        private final long length;
+        private final long lastModified;
+        private final List<ZipEntry> entries;
+
+        EntryIndex(long length, long lastModified, List<ZipEntry> entries) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * Opens the zip file and hashes it only when the content of an entry is used during a visit.
+     */
+    private class VisitContext {
+        private ZipFile zip;
+        private File expandedDir;
+
+        InputStream open(ZipEntry entry) throws IOException {
+            if (zip == null) {
+                zip = new ZipFile(zipFile);
+            }
+            ZipEntry currentEntry = zip.getEntry(entry.getName());
+            if (currentEntry == null) {
+                throw new IOException(String.format("Entry %s not found in %s.", entry.getName(), getDisplayName()));
+            }
+            return zip.getInputStream(currentEntry);
+        }
+
+        File getExpandedDir() {
+            if (expandedDir == null) {
+                expandedDir = ZipFileTree.this.getExpandedDir();
+            }
+            return expandedDir;
+        }
+
+        void close() throws IOException {
+            if (zip != null) {
+                zip.close();
+            }
+        }
+    }
+
     private static class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
         private final File originalFile;
-        private final File expandedDir;
+        private final VisitContext context;
         private final ZipEntry entry;
-        private final ZipFile zip;
         private final AtomicBoolean stopFlag;
         private File file;
 
-        public DetailsImpl(File originalFile, File expandedDir, ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag, Chmod chmod) {
+        public DetailsImpl(File originalFile, VisitContext context, ZipEntry entry, AtomicBoolean stopFlag, Chmod chmod) {
             super(chmod);
             this.originalFile = originalFile;
-            this.expandedDir = expandedDir;
+            this.context = context;
             this.entry = entry;
-            this.zip = zip;
             this.stopFlag = stopFlag;
         }
 
@@ -151,7 +214,7 @@ public void stopVisiting() {
         @Override
         public File getFile() {
             if (file == null) {
-                file = new File(expandedDir, entry.getName());
+                file = new File(context.getExpandedDir(), entry.getName());
                 if (!file.exists()) {
                     copyTo(file);
                 }
@@ -177,7 +240,7 @@ public long getSize() {
         @Override
         public InputStream open() {
             try {
-                return zip.getInputStream(entry);
+                return context.open(entry);
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
@@ -23,6 +23,7 @@
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.AbstractFileTreeElement;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
 import org.gradle.internal.file.Chmod;
 
 import javax.annotation.Nullable;
@@ -62,6 +63,11 @@ public String getDisplayName() {
         return fileDetails.toString();
     }
 
+    @Override
+    public boolean isCopiedFromLocalFile() {
+        return !filterChain.hasFilters() && !fileDetails.isDirectory() && fileDetails instanceof DefaultFileTreeElement;
+    }
+
     @Override
     public void stopVisiting() {
         fileDetails.stopVisiting();
@@ -19,23 +19,61 @@
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.WorkResults;
 import org.gradle.internal.FileUtils;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.file.PathToFileResolver;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 public class FileCopyAction implements CopyAction {
+    public static final String PARALLEL_COPY_PROPERTY = "org.gradle.internal.copy.parallel";
 
     private final PathToFileResolver fileResolver;
+    @Nullable
+    private final Executor executor;
 
     public FileCopyAction(PathToFileResolver fileResolver) {
+        this(fileResolver, null);
+    }
+
+    /**
+     * Creates an action that copies files from the local file system concurrently when an executor is provided.
+     * Directories, and files that are filtered or that come from archives, are still copied on the calling thread, in visiting order.
+     * The executor is not stopped by this action, so it can be shared by all copy tasks.
+     */
+    public FileCopyAction(PathToFileResolver fileResolver, @Nullable Executor executor) {
         this.fileResolver = fileResolver;
+        this.executor = executor;
+    }
+
+    public static boolean isParallelCopyEnabled() {
+        return Boolean.getBoolean(PARALLEL_COPY_PROPERTY);
     }
 
     @Override
     public WorkResult execute(CopyActionProcessingStream stream) {
-        FileCopyDetailsInternalAction action = new FileCopyDetailsInternalAction();
-        stream.process(action);
+        if (executor == null) {
+            FileCopyDetailsInternalAction action = new FileCopyDetailsInternalAction();
+            stream.process(action);
+            return WorkResults.didWork(action.didWork);
+        }
+        ConcurrentFileCopyDetailsInternalAction action = new ConcurrentFileCopyDetailsInternalAction(Runtime.getRuntime().availableProcessors() * 16);
+        try {
+            stream.process(action);
+            action.waitForPendingCopies(0);
+        } finally {
+            action.abandonPendingCopies();
+        }
         return WorkResults.didWork(action.didWork);
     }
 
@@ -51,14 +89,106 @@ public void processFile(FileCopyDetailsInternal details) {
                 didWork = true;
             }
         }
+    }
+
+    private static void renameIfCaseChanged(File target) {
+        if (target.exists()) {
+            File canonicalizedTarget = FileUtils.canonicalize(target);
+            if (!Objects.equals(target.getName(), canonicalizedTarget.getName())) {
+                canonicalizedTarget.renameTo(target);
+            }
+        }
+    }
+
+    /**
+     * Copies files from the local file system using a bounded number of concurrent copies. Copies to the same target are applied in visiting order.
+     */
+    private class ConcurrentFileCopyDetailsInternalAction implements CopyActionProcessingStreamAction {
+        private final int maxPendingCopies;
+        private final Deque<PendingCopy> pendingCopies = new ArrayDeque<PendingCopy>();
+        private final Map<File, PendingCopy> pendingCopiesByTarget = new HashMap<File, PendingCopy>();
+        private boolean didWork;
+
+        ConcurrentFileCopyDetailsInternalAction(int maxPendingCopies) {
+            this.maxPendingCopies = maxPendingCopies;
+        }
+
+        @Override
+        public void processFile(final FileCopyDetailsInternal details) {
+            final File target = fileResolver.resolve(details.getRelativePath().getPathString());
+            PendingCopy previousCopy = pendingCopiesByTarget.get(target);
+            if (previousCopy != null) {
+                // A duplicate that replaces a file which is still being copied
+                complete(previousCopy);
+            }
+            renameIfCaseChanged(target);
+            if (!details.isCopiedFromLocalFile()) {
+                if (details.copyTo(target)) {
+                    didWork = true;
+                }
+                return;
+            }
+            FutureTask<Boolean> result = new FutureTask<Boolean>(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return details.copyTo(target);
+                }
+            });
+            executor.execute(result);
+            PendingCopy copy = new PendingCopy(target, result);
+            pendingCopies.add(copy);
+            pendingCopiesByTarget.put(target, copy);
+            waitForPendingCopies(maxPendingCopies);
+        }
+
+        void waitForPendingCopies(int maxPendingCopies) {
+            while (pendingCopies.size() > maxPendingCopies) {
+                complete(pendingCopies.peekFirst());
+            }
+        }
 
-        private void renameIfCaseChanged(File target) {
-            if (target.exists()) {
-                File canonicalizedTarget = FileUtils.canonicalize(target);
-                if (!Objects.equals(target.getName(), canonicalizedTarget.getName())) {
-                    canonicalizedTarget.renameTo(target);
+        /**
+         * Waits for the copies that are still running after a failure, so that none write to the destination once the action has finished. Their results are not reported.
+         */
+        void abandonPendingCopies() {
+            try {
+                for (PendingCopy copy : pendingCopies) {
+                    try {
+                        copy.result.get();
+                    } catch (ExecutionException e) {
+                        // Ignore, the earlier failure is reported
+                    }
                 }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } finally {
+                pendingCopies.clear();
+                pendingCopiesByTarget.clear();
             }
         }
+
+        private void complete(PendingCopy copy) {
+            pendingCopies.remove(copy);
+            pendingCopiesByTarget.remove(copy.target);
+            try {
+                if (copy.result.get()) {
+                    didWork = true;
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+        }
+    }
+
+    private static class PendingCopy {
+        private final File target;
+        private final Future<Boolean> result;
+
+        PendingCopy(File target, Future<Boolean> result) {
+            this.target = target;
+            this.result = result;
+        }
     }
 }
@@ -23,4 +23,9 @@ public interface FileCopyDetailsInternal extends FileCopyDetails {
     boolean isIncludeEmptyDirs();
 
     boolean isDefaultDuplicatesStrategy();
+
+    /**
+     * Returns true when this file is copied unchanged from a regular file on the local file system, so that it can be copied once the visit of its source has completed, on any thread.
+     */
+    boolean isCopiedFromLocalFile();
 }
@@ -191,6 +191,11 @@ public boolean isDefaultDuplicatesStrategy() {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public boolean isCopiedFromLocalFile() {
+            return false;
+        }
+
         @Override
         public String getSourceName() {
             throw new UnsupportedOperationException();
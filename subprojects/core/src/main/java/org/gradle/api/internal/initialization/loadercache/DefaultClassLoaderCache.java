@@ -40,18 +40,33 @@
 import java.util.function.Function;
 
 public class DefaultClassLoaderCache implements ClassLoaderCache, Stoppable, SessionLifecycleListener {
+    /**
+     * When enabled, class loaders that are no longer used are kept until the end of the following build,
+     * so that a build which goes back to a previous class path (e.g. a reverted build script change) reuses
+     * the already loaded and JIT-compiled classes instead of creating a new class loader hierarchy.
+     */
+    public static final String RETAIN_RELEASED_PROPERTY = "org.gradle.classloadercache.retainReleased";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultClassLoaderCache.class);
 
     private final Object lock = new Object();
     private final Map<ClassLoaderId, CachedClassLoader> byId = Maps.newHashMap();
     private final Map<ClassLoaderSpec, CachedClassLoader> bySpec = Maps.newHashMap();
+    private final Map<ClassLoaderSpec, CachedClassLoader> retained = Maps.newHashMap();
     private final Set<ClassLoaderId> usedInThisBuild = Sets.newHashSet();
     private final ClasspathHasher classpathHasher;
     private final HashingClassLoaderFactory classLoaderFactory;
+    private final boolean retainReleased;
+    private int buildCount;
 
     public DefaultClassLoaderCache(HashingClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher) {
+        this(classLoaderFactory, classpathHasher, Boolean.getBoolean(RETAIN_RELEASED_PROPERTY));
+    }
+
+    public DefaultClassLoaderCache(HashingClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher, boolean retainReleased) {
         this.classLoaderFactory = classLoaderFactory;
         this.classpathHasher = classpathHasher;
+        this.retainReleased = retainReleased;
     }
 
     @Override
@@ -107,6 +122,9 @@ public void remove(ClassLoaderId id) {
 
     private CachedClassLoader getAndRetainLoader(ManagedClassLoaderSpec spec, ClassLoaderId id, Function<ManagedClassLoaderSpec, ClassLoader> factoryFunction) {
         CachedClassLoader cachedLoader = bySpec.get(spec);
+        if (cachedLoader == null) {
+            cachedLoader = reviveRetainedLoader(spec, id, factoryFunction);
+        }
         if (cachedLoader == null) {
             ClassLoader classLoader;
             CachedClassLoader parentCachedLoader = null;
@@ -123,6 +141,25 @@ private CachedClassLoader getAndRetainLoader(ManagedClassLoaderSpec spec, ClassL
         return cachedLoader.retain(id);
     }
 
+    @Nullable
+    private CachedClassLoader reviveRetainedLoader(ManagedClassLoaderSpec spec, ClassLoaderId id, Function<ManagedClassLoaderSpec, ClassLoader> factoryFunction) {
+        CachedClassLoader retainedLoader = retained.remove(spec);
+        if (retainedLoader == null) {
+            return null;
+        }
+        if (spec.isFiltered()) {
+            CachedClassLoader parentCachedLoader = getAndRetainLoader(spec.unfiltered(), id, factoryFunction);
+            if (parentCachedLoader != retainedLoader.parent) {
+                // The unfiltered loader has been replaced in the meantime, so the filtering loader cannot be reused
+                parentCachedLoader.release(id);
+                return null;
+            }
+        }
+        LOGGER.debug("Reusing retained classloader for {}", id);
+        bySpec.put(spec, retainedLoader);
+        return retainedLoader;
+    }
+
     private ClassLoader createClassLoader(ManagedClassLoaderSpec spec) {
         return classLoaderFactory.createChildClassLoader(spec.name, spec.parent, spec.classPath, spec.implementationHash);
     }
@@ -134,14 +171,25 @@ public int size() {
         }
     }
 
+    @VisibleForTesting
+    public int retainedSize() {
+        synchronized (lock) {
+            return retained.size();
+        }
+    }
+
     @Override
     public void stop() {
         synchronized (lock) {
             for (CachedClassLoader cachedClassLoader : byId.values()) {
                 ClassLoaderUtils.tryClose(cachedClassLoader.classLoader);
             }
+            for (CachedClassLoader cachedClassLoader : retained.values()) {
+                ClassLoaderUtils.tryClose(cachedClassLoader.classLoader);
+            }
             byId.clear();
             bySpec.clear();
+            retained.clear();
             usedInThisBuild.clear();
         }
     }
@@ -160,10 +208,23 @@ public void beforeComplete() {
                 remove(id);
             }
             usedInThisBuild.clear();
+            discardRetainedLoaders();
+            buildCount++;
         }
         assertInternalIntegrity();
     }
 
+    private void discardRetainedLoaders() {
+        // Loaders released during this build are kept for one more build, older ones are dropped
+        retained.values().removeIf(cachedClassLoader -> {
+            if (cachedClassLoader.releasedInBuild < buildCount) {
+                cachedClassLoader.discard();
+                return true;
+            }
+            return false;
+        });
+    }
+
     private static abstract class ClassLoaderSpec {
     }
 
@@ -220,6 +281,7 @@ private class CachedClassLoader {
         private final ClassLoaderSpec spec;
         private final CachedClassLoader parent;
         private final Multiset<ClassLoaderId> usedBy = HashMultiset.create();
+        private int releasedInBuild;
 
         private CachedClassLoader(ClassLoader classLoader, ClassLoaderSpec spec, @Nullable CachedClassLoader parent) {
             this.classLoader = classLoader;
@@ -247,11 +309,26 @@ public void release(ClassLoaderId loaderId) {
                         parent.release(loaderId);
                     }
                     bySpec.remove(spec);
+                    if (retainReleased) {
+                        releasedInBuild = buildCount;
+                        CachedClassLoader replaced = retained.put(spec, this);
+                        if (replaced != null) {
+                            replaced.discard();
+                        }
+                    }
                 }
             } else {
                 throw new IllegalStateException("Classloader '" + this + "' not used by '" + loaderId + "'");
             }
         }
+
+        /**
+         * Closes a retained class loader that is not going to be reused, as it is closed when the cache is stopped.
+         */
+        public void discard() {
+            LOGGER.debug("Discarding retained classloader {}", classLoader);
+            ClassLoaderUtils.tryClose(classLoader);
+        }
     }
 
     private void assertInternalIntegrity() {
@@ -38,9 +38,11 @@
 import org.gradle.api.internal.file.copy.CopySpecResolver;
 import org.gradle.api.internal.file.copy.CopySpecSource;
 import org.gradle.api.internal.file.copy.DefaultCopySpec;
+import org.gradle.api.internal.file.copy.FileCopyAction;
 import org.gradle.api.specs.Spec;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.internal.reflect.Instantiator;
+import org.gradle.internal.work.SharedWorkExecutor;
 import org.gradle.util.ClosureBackedAction;
 
 import javax.annotation.Nullable;
@@ -49,6 +51,7 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
 /**
@@ -130,6 +133,14 @@ protected DirectoryFileTreeFactory getDirectoryFileTreeFactory() {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns the executor to use to copy files concurrently, or null when files should be copied on the task thread.
+     */
+    @Nullable
+    Executor getCopyExecutor() {
+        return FileCopyAction.isParallelCopyEnabled() ? getServices().get(SharedWorkExecutor.class) : null;
+    }
+
     @TaskAction
     protected void copy() {
         CopyActionExecuter copyActionExecuter = createCopyActionExecuter();
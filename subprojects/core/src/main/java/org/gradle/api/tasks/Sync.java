@@ -77,7 +77,7 @@ protected CopyAction createCopyAction() {
         }
         return new SyncCopyActionDecorator(
             destinationDir,
-            new FileCopyAction(getFileLookup().getFileResolver(destinationDir)),
+            new FileCopyAction(getFileLookup().getFileResolver(destinationDir), getCopyExecutor()),
             preserveInDestination,
             getDeleter(),
             getDirectoryFileTreeFactory()
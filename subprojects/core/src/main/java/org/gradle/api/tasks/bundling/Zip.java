@@ -18,6 +18,7 @@
 import org.apache.tools.zip.ZipOutputStream;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.archive.ParallelZipCopyAction;
 import org.gradle.api.internal.file.archive.ZipCopyAction;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.DefaultZipCompressor;
@@ -25,6 +26,7 @@
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
+import org.gradle.internal.work.SharedWorkExecutor;
 
 import javax.annotation.Nullable;
 import java.nio.charset.Charset;
@@ -60,7 +62,13 @@ protected ZipCompressor getCompressor() {
     @Override
     protected CopyAction createCopyAction() {
         DocumentationRegistry documentationRegistry = getServices().get(DocumentationRegistry.class);
-        return new ZipCopyAction(getArchiveFile().get().getAsFile(), getCompressor(), documentationRegistry, metadataCharset, isPreserveFileTimestamps());
+        ZipCompressor compressor = getCompressor();
+        if (ParallelZipCopyAction.isEnabled() && compressor.getClass() == DefaultZipCompressor.class) {
+            DefaultZipCompressor defaultCompressor = (DefaultZipCompressor) compressor;
+            SharedWorkExecutor executor = getServices().get(SharedWorkExecutor.class);
+            return new ParallelZipCopyAction(getArchiveFile().get().getAsFile(), defaultCompressor.getEntryCompressionMethod(), defaultCompressor.isAllowZip64Mode(), executor, documentationRegistry, metadataCharset, isPreserveFileTimestamps());
+        }
+        return new ZipCopyAction(getArchiveFile().get().getAsFile(), compressor, documentationRegistry, metadataCharset, isPreserveFileTimestamps());
     }
 
     /**
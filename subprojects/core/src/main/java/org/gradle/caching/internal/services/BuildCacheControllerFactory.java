@@ -32,6 +32,7 @@
 import org.gradle.caching.local.DirectoryBuildCache;
 import org.gradle.caching.local.internal.DirectoryBuildCacheService;
 import org.gradle.internal.Cast;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -62,6 +63,7 @@ public enum RemoteAccessMode {
 
     public static BuildCacheController create(
         final BuildOperationExecutor buildOperationExecutor,
+        final ExecutorFactory executorFactory,
         final Path buildIdentityPath,
         final File gradleUserHomeDir,
         final BuildCacheConfigurationInternal buildCacheConfiguration,
@@ -118,6 +120,7 @@ public BuildCacheController call(BuildOperationContext context) {
                     return new DefaultBuildCacheController(
                         config,
                         buildOperationExecutor,
+                        executorFactory,
                         gradleUserHomeDir,
                         logStackTraces,
                         emitDebugLogging
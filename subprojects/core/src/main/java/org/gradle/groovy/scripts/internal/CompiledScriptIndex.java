@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.groovy.scripts.internal;
+
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+
+import javax.annotation.Nullable;
+import java.io.File;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+import static org.gradle.internal.serialize.BaseSerializerFactory.FILE_SERIALIZER;
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * An index of the compiled script caches that have been fully initialized, shared by all processes using the same Gradle user home.
+ *
+ * <p>Allows the classes and metadata of a script that was compiled by another daemon to be located without opening and locking the per-script cache.</p>
+ */
+public class CompiledScriptIndex implements Stoppable {
+
+    public static final String CACHE_KEY = "scripts-index";
+    public static final String INDEX_NAME = "compiled-scripts";
+
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<String, File> store;
+
+    public CompiledScriptIndex(CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory) {
+        cache = cacheRepository
+            .cache(CACHE_KEY)
+            .withDisplayName("compiled script index")
+            .withLockOptions(mode(FileLockManager.LockMode.None)) // lock on demand
+            .open();
+        store = cache.createCache(PersistentIndexedCacheParameters.of(INDEX_NAME, STRING_SERIALIZER, FILE_SERIALIZER)
+            .withCacheDecorator(cacheDecoratorFactory.decorator(2000, true)));
+    }
+
+    /**
+     * Returns the base directory of the script cache with the given key, or null when it is not known or no longer usable.
+     *
+     * <p>The entry is looked up and checked while holding the lock of the index, so that it cannot be invalidated concurrently by another process.</p>
+     */
+    @Nullable
+    public File find(String scriptCacheKey) {
+        return cache.useCache(() -> {
+            File baseDir = store.get(scriptCacheKey);
+            if (baseDir == null) {
+                return null;
+            }
+            if (!FileCacheBackedScriptClassCompiler.classesDir(baseDir).isDirectory() || !FileCacheBackedScriptClassCompiler.metadataDir(baseDir).isDirectory()) {
+                store.remove(scriptCacheKey);
+                return null;
+            }
+            return baseDir;
+        });
+    }
+
+    /**
+     * Records that the script cache with the given key has been initialized in the given directory.
+     */
+    public void put(String scriptCacheKey, File baseDir) {
+        cache.useCache(() -> store.put(scriptCacheKey, baseDir));
+    }
+
+    /**
+     * Forgets the script cache with the given key, before its directory is rebuilt.
+     */
+    public void remove(String scriptCacheKey) {
+        cache.useCache(() -> store.remove(scriptCacheKey));
+    }
+
+    @Override
+    public void stop() {
+        cache.close();
+    }
+}
@@ -58,15 +58,17 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
     private final CacheRepository cacheRepository;
     private final ClassLoaderCache classLoaderCache;
     private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+    private final CompiledScriptIndex compiledScriptIndex;
 
     public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, ScriptCompilationHandler scriptCompilationHandler,
                                               ProgressLoggerFactory progressLoggerFactory, ClassLoaderCache classLoaderCache,
-                                              ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+                                              ClassLoaderHierarchyHasher classLoaderHierarchyHasher, CompiledScriptIndex compiledScriptIndex) {
         this.cacheRepository = cacheRepository;
         this.scriptCompilationHandler = scriptCompilationHandler;
         this.progressLoggerFactory = progressLoggerFactory;
         this.classLoaderCache = classLoaderCache;
         this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+        this.compiledScriptIndex = compiledScriptIndex;
     }
 
     @Override
@@ -97,9 +99,17 @@ public <T extends Script, M> CompiledScript<T, M> compile(final ScriptSource sou
         // Both caches can be closed directly after use because:
         // For 1, if the script changes or its compile classpath changes, a different directory will be used
         // For 2, if the script changes, a different cache is used. If the classpath changes, the cache is invalidated, but classes are remapped to 1. anyway so never directly used
-        PersistentCache remappedClassesCache = cacheRepository.cache("scripts-remapped/" + source.getClassName() + "/" + sourceHash + "/" + classpathHash)
+        // Once 1. has been initialized by any process, it is recorded in the compiled script index so that it can be loaded without opening the cache again
+        // When 1. needs to be rebuilt, its entry is removed from the index first, so that no process loads it from the index while it is being rebuilt
+        String remappedCacheKey = "scripts-remapped/" + source.getClassName() + "/" + sourceHash + "/" + classpathHash;
+        File indexedDir = compiledScriptIndex.find(remappedCacheKey);
+        if (indexedDir != null) {
+            return scriptCompilationHandler.loadFromDir(source, sourceHashCode, targetScope, classesDir(indexedDir), metadataDir(indexedDir), operation, scriptBaseClass);
+        }
+
+        PersistentCache remappedClassesCache = cacheRepository.cache(remappedCacheKey)
             .withDisplayName(dslId + " remapped class cache for " + sourceHash)
-            .withInitializer(new ProgressReportingInitializer(progressLoggerFactory, new RemapBuildScriptsAction<M, T>(remapped, classpathHash, sourceHash, dslId, classLoader, operation, verifier, scriptBaseClass),
+            .withInitializer(new ProgressReportingInitializer(progressLoggerFactory, new IndexInvalidatingAction(remappedCacheKey, new RemapBuildScriptsAction<M, T>(remapped, classpathHash, sourceHash, dslId, classLoader, operation, verifier, scriptBaseClass)),
                 "Compiling script into cache",
                 "Compiling " + source.getFileName() + " into local compilation cache"))
             .open();
@@ -107,7 +117,9 @@ public <T extends Script, M> CompiledScript<T, M> compile(final ScriptSource sou
             File remappedClassesDir = classesDir(remappedClassesCache);
             File remappedMetadataDir = metadataDir(remappedClassesCache);
 
-            return scriptCompilationHandler.loadFromDir(source, sourceHashCode, targetScope, remappedClassesDir, remappedMetadataDir, operation, scriptBaseClass);
+            CompiledScript<T, M> compiledScript = scriptCompilationHandler.loadFromDir(source, sourceHashCode, targetScope, remappedClassesDir, remappedMetadataDir, operation, scriptBaseClass);
+            compiledScriptIndex.put(remappedCacheKey, remappedClassesCache.getBaseDir());
+            return compiledScript;
         } finally {
             remappedClassesCache.close();
         }
@@ -121,12 +133,20 @@ private <T extends Script, M> CompiledScript<T, M> emptyCompiledScript(CompileOp
     public void close() {
     }
 
-    private File classesDir(PersistentCache cache) {
-        return new File(cache.getBaseDir(), "classes");
+    private static File classesDir(PersistentCache cache) {
+        return classesDir(cache.getBaseDir());
+    }
+
+    private static File metadataDir(PersistentCache cache) {
+        return metadataDir(cache.getBaseDir());
     }
 
-    private File metadataDir(PersistentCache cache) {
-        return new File(cache.getBaseDir(), "metadata");
+    static File classesDir(File cacheDir) {
+        return new File(cacheDir, "classes");
+    }
+
+    static File metadataDir(File cacheDir) {
+        return new File(cacheDir, "metadata");
     }
 
     private class CompileToCrossBuildCacheAction implements Action<PersistentCache> {
@@ -153,6 +173,25 @@ public void execute(PersistentCache cache) {
         }
     }
 
+    /**
+     * Removes a script cache from the compiled script index before it is rebuilt, so that other processes stop loading it directly.
+     */
+    private class IndexInvalidatingAction implements Action<PersistentCache> {
+        private final String cacheKey;
+        private final Action<? super PersistentCache> delegate;
+
+        public IndexInvalidatingAction(String cacheKey, Action<? super PersistentCache> delegate) {
+            this.cacheKey = cacheKey;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(PersistentCache cache) {
+            compiledScriptIndex.remove(cacheKey);
+            delegate.execute(cache);
+        }
+    }
+
     static class ProgressReportingInitializer implements Action<PersistentCache> {
         private ProgressLoggerFactory progressLoggerFactory;
         private Action<? super PersistentCache> delegate;
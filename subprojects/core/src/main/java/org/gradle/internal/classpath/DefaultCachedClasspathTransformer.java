@@ -31,28 +31,95 @@
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 public class DefaultCachedClasspathTransformer implements CachedClasspathTransformer, Closeable {
 
     private final PersistentCache cache;
+    private final JarCache jarCache;
+    private final AdditiveCacheLocations additiveCacheLocations;
+    private final FileAccessTracker fileAccessTracker;
     private final Transformer<File, File> jarFileTransformer;
+    private final Executor executor;
 
     public DefaultCachedClasspathTransformer(
         CacheRepository cacheRepository,
         ClasspathTransformerCacheFactory classpathTransformerCacheFactory,
         FileAccessTimeJournal fileAccessTimeJournal,
         JarCache jarCache,
-        AdditiveCacheLocations additiveCacheLocations
+        AdditiveCacheLocations additiveCacheLocations,
+        Executor executor
     ) {
         this.cache = classpathTransformerCacheFactory.createCache(cacheRepository, fileAccessTimeJournal);
-        FileAccessTracker fileAccessTracker = classpathTransformerCacheFactory.createFileAccessTracker(fileAccessTimeJournal);
-        this.jarFileTransformer = new FileAccessTrackingJarFileTransformer(new CachedJarFileTransformer(jarCache, additiveCacheLocations), fileAccessTracker);
+        this.jarCache = jarCache;
+        this.additiveCacheLocations = additiveCacheLocations;
+        this.fileAccessTracker = classpathTransformerCacheFactory.createFileAccessTracker(fileAccessTimeJournal);
+        this.jarFileTransformer = new FileAccessTrackingJarFileTransformer(new CachedJarFileTransformer(), fileAccessTracker);
+        this.executor = executor;
     }
 
     @Override
     public ClassPath transform(ClassPath classPath) {
-        return DefaultClassPath.of(CollectionUtils.collect(classPath.getAsFiles(), jarFileTransformer));
+        List<File> originals = classPath.getAsFiles();
+        int toCache = 0;
+        for (File original : originals) {
+            if (shouldUseFromCache(original)) {
+                toCache++;
+            }
+        }
+        if (toCache < 2) {
+            return DefaultClassPath.of(CollectionUtils.collect(originals, jarFileTransformer));
+        }
+        List<File> cachedFiles = cache.useCache(() -> cacheInParallel(originals));
+        for (File cachedFile : cachedFiles) {
+            fileAccessTracker.markAccessed(cachedFile);
+        }
+        return DefaultClassPath.of(cachedFiles);
+    }
+
+    /**
+     * Hashes and copies the entries concurrently on the given executor, while the calling thread holds the cache,
+     * and returns the results in the order of the original entries.
+     */
+    private List<File> cacheInParallel(List<File> originals) {
+        List<Future<File>> pending = new ArrayList<>(originals.size());
+        for (File original : originals) {
+            if (shouldUseFromCache(original)) {
+                pending.add(CompletableFuture.supplyAsync(() -> jarCache.getCachedJar(original, cache.getBaseDir()), executor));
+            } else {
+                pending.add(null);
+            }
+        }
+        List<File> cachedFiles = new ArrayList<>(originals.size());
+        for (int i = 0; i < originals.size(); i++) {
+            Future<File> cachedFile = pending.get(i);
+            cachedFiles.add(cachedFile == null ? originals.get(i) : waitFor(cachedFile));
+        }
+        return cachedFiles;
+    }
+
+    private static File waitFor(Future<File> cachedFile) {
+        try {
+            return cachedFile.get();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+
+    private boolean shouldUseFromCache(File original) {
+        if (!original.isFile()) {
+            return false;
+        }
+        String absolutePath = original.getAbsolutePath();
+        return !additiveCacheLocations.isInsideAdditiveCache(absolutePath);
     }
 
     @Override
@@ -71,14 +138,6 @@ public Collection<URL> transform(Collection<URL> urls) {
     }
 
     private class CachedJarFileTransformer implements Transformer<File, File> {
-        private final JarCache jarCache;
-        private final AdditiveCacheLocations additiveCacheLocations;
-
-        CachedJarFileTransformer(JarCache jarCache, AdditiveCacheLocations additiveCacheLocations) {
-            this.jarCache = jarCache;
-            this.additiveCacheLocations = additiveCacheLocations;
-        }
-
         @Override
         public File transform(final File original) {
             if (shouldUseFromCache(original)) {
@@ -86,14 +145,6 @@ public File transform(final File original) {
             }
             return original;
         }
-
-        private boolean shouldUseFromCache(File original) {
-            if (!original.isFile()) {
-                return false;
-            }
-            String absolutePath = original.getAbsolutePath();
-            return !additiveCacheLocations.isInsideAdditiveCache(absolutePath);
-        }
     }
 
     private static class FileAccessTrackingJarFileTransformer implements Transformer<File, File> {
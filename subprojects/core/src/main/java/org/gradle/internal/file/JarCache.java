@@ -16,12 +16,19 @@
 
 package org.gradle.internal.file;
 
+import org.gradle.api.UncheckedIOException;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.util.GFileUtils;
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 @ThreadSafe
 public class JarCache {
@@ -38,8 +45,47 @@ public File getCachedJar(File original, File cacheDir) {
         HashCode hashValue = fileHasher.hash(original);
         File cachedFile = new File(cacheDir, hashValue.toString() + '/' + original.getName());
         if (!cachedFile.isFile()) {
-            GFileUtils.copyFile(original, cachedFile);
+            copyAtomically(original, cachedFile);
         }
         return cachedFile;
     }
+
+    /**
+     * Copies the file to a temporary file next to the destination using channel transfers, then moves it into place,
+     * so that concurrent copies of the same jar never expose a partially written file.
+     */
+    private static void copyAtomically(File original, File destination) {
+        File destinationDir = destination.getParentFile();
+        GFileUtils.mkdirs(destinationDir);
+        try {
+            Path tempFile = Files.createTempFile(destinationDir.toPath(), destination.getName(), ".tmp");
+            try {
+                try (FileChannel source = FileChannel.open(original.toPath(), StandardOpenOption.READ);
+                     FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                    long size = source.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += source.transferTo(position, size - position, target);
+                    }
+                }
+                Files.setLastModifiedTime(tempFile, Files.getLastModifiedTime(original.toPath()));
+                moveIntoPlace(tempFile, destination);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not copy " + original + " to " + destination, e);
+        }
+    }
+
+    private static void moveIntoPlace(Path tempFile, File destination) throws IOException {
+        try {
+            Files.move(tempFile, destination.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Another thread or process may have moved the same content into place, which can then be in use
+            if (!destination.isFile()) {
+                throw e;
+            }
+        }
+    }
 }
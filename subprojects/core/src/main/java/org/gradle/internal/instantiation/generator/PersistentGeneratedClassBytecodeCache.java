@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.instantiation.generator;
+
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.HashCode;
+
+import javax.annotation.Nullable;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+import static org.gradle.internal.serialize.BaseSerializerFactory.BYTE_ARRAY_SERIALIZER;
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * Stores the bytecode of generated classes in the Gradle user home, so that new daemons can define the generated classes without generating them again.
+ *
+ * <p>Entries are keyed by the hash of the class loader hierarchy of the decorated type, as the generated class depends on the decorated type and the types it references.
+ * Types loaded by class loaders that cannot be hashed are not cached.</p>
+ */
+public class PersistentGeneratedClassBytecodeCache implements GeneratedClassBytecodeCache, Stoppable {
+
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.classgeneration.persistent-cache";
+    public static final String CACHE_KEY = "generated-classes";
+
+    private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<String, byte[]> store;
+
+    public PersistentGeneratedClassBytecodeCache(CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+        cache = cacheRepository
+            .cache(CACHE_KEY)
+            .withDisplayName("generated classes")
+            .withLockOptions(mode(FileLockManager.LockMode.None)) // lock on demand
+            .open();
+        store = cache.createCache(PersistentIndexedCacheParameters.of("bytecode", STRING_SERIALIZER, BYTE_ARRAY_SERIALIZER)
+            .withCacheDecorator(cacheDecoratorFactory.decorator(1000, true)));
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    @Nullable
+    @Override
+    public byte[] load(Class<?> type, String generatedClassName) {
+        String key = keyFor(type, generatedClassName);
+        if (key == null) {
+            return null;
+        }
+        return store.get(key);
+    }
+
+    @Override
+    public void store(Class<?> type, String generatedClassName, byte[] bytecode) {
+        String key = keyFor(type, generatedClassName);
+        if (key != null) {
+            store.put(key, bytecode);
+        }
+    }
+
+    @Nullable
+    private String keyFor(Class<?> type, String generatedClassName) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+        HashCode classLoaderHash = classLoaderHierarchyHasher.getClassLoaderHash(classLoader);
+        if (classLoaderHash == null) {
+            return null;
+        }
+        return generatedClassName + "/" + classLoaderHash;
+    }
+
+    @Override
+    public void stop() {
+        AsmBackedClassGenerator.discardBytecodeCache(this);
+        cache.close();
+    }
+}
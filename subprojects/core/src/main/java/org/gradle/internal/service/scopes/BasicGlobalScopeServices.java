@@ -45,6 +45,7 @@
 import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.internal.remote.internal.inet.InetAddressFactory;
+import org.gradle.internal.remote.internal.inet.SharedMemoryConnection;
 import org.gradle.internal.remote.services.MessagingServices;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.process.internal.DefaultExecActionFactory;
@@ -58,7 +59,7 @@
  */
 public class BasicGlobalScopeServices {
     void configure(ServiceRegistration serviceRegistration) {
-        serviceRegistration.addProvider(new MessagingServices());
+        serviceRegistration.addProvider(new MessagingServices(SharedMemoryConnection.isEnabled()));
     }
 
     FileLockManager createFileLockManager(ProcessEnvironment processEnvironment, FileLockContentionHandler fileLockContentionHandler) {
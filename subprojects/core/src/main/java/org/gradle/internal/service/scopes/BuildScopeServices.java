@@ -105,6 +105,7 @@
 import org.gradle.groovy.scripts.ScriptExecutionListener;
 import org.gradle.groovy.scripts.internal.BuildOperationBackedScriptCompilationHandler;
 import org.gradle.groovy.scripts.internal.BuildScopeInMemoryCachingScriptClassCompiler;
+import org.gradle.groovy.scripts.internal.CompiledScriptIndex;
 import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache;
 import org.gradle.groovy.scripts.internal.DefaultScriptCompilationHandler;
 import org.gradle.groovy.scripts.internal.DefaultScriptRunnerFactory;
@@ -324,6 +325,7 @@ protected FileCacheBackedScriptClassCompiler createFileCacheBackedScriptClassCom
         CacheRepository cacheRepository,
         ClassLoaderCache classLoaderCache,
         ClassLoaderHierarchyHasher classLoaderHierarchyHasher,
+        CompiledScriptIndex compiledScriptIndex,
         Deleter deleter,
         ImportsReader importsReader,
         ProgressLoggerFactory progressLoggerFactory
@@ -334,7 +336,8 @@ protected FileCacheBackedScriptClassCompiler createFileCacheBackedScriptClassCom
                 new DefaultScriptCompilationHandler(deleter, importsReader), buildOperationExecutor),
             progressLoggerFactory,
             classLoaderCache,
-            classLoaderHierarchyHasher);
+            classLoaderHierarchyHasher,
+            compiledScriptIndex);
     }
 
     protected ScriptPluginFactory createScriptPluginFactory(InstantiatorFactory instantiatorFactory, BuildOperationExecutor buildOperationExecutor, UserCodeApplicationContext userCodeApplicationContext) {
@@ -46,13 +46,22 @@
 import org.gradle.initialization.layout.BuildLayoutFactory;
 import org.gradle.initialization.layout.ProjectCacheDir;
 import org.gradle.internal.buildevents.BuildStartedTime;
+import org.gradle.internal.classpath.CachedClasspathTransformer;
 import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.classpath.ClasspathTransformerCacheFactory;
+import org.gradle.internal.classpath.DefaultCachedClasspathTransformer;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ParallelismConfigurationManager;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.featurelifecycle.DeprecatedUsageBuildOperationProgressBroadaster;
 import org.gradle.internal.file.Deleter;
+import org.gradle.internal.file.FileAccessTimeJournal;
+import org.gradle.internal.file.JarCache;
 import org.gradle.internal.filewatch.PendingChangesManager;
 import org.gradle.internal.hash.ChecksumService;
 import org.gradle.internal.hash.DefaultChecksumService;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.instantiation.generator.PersistentGeneratedClassBytecodeCache;
 import org.gradle.internal.isolation.IsolatableFactory;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
@@ -68,8 +77,10 @@
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.time.Clock;
+import org.gradle.internal.vfs.AdditiveCacheLocations;
 import org.gradle.internal.work.AsyncWorkTracker;
 import org.gradle.internal.work.DefaultAsyncWorkTracker;
+import org.gradle.internal.work.SharedWorkExecutor;
 import org.gradle.plugin.use.internal.InjectedPluginClasspath;
 import org.gradle.process.internal.ExecFactory;
 
@@ -99,6 +110,11 @@ public BuildSessionScopeServices(final ServiceRegistry parent, CrossBuildSession
 
         // Must be no higher than this scope as needs cache repository services.
         addProvider(new ScopeIdsServices());
+
+        if (PersistentGeneratedClassBytecodeCache.isEnabled()) {
+            // Attaches the cache to the class generator. The cache is owned by the user home services, and stays attached until they are stopped
+            get(PersistentGeneratedClassBytecodeCache.class);
+        }
     }
 
     PendingChangesManager createPendingChangesManager(ListenerManager listenerManager) {
@@ -150,6 +166,28 @@ AsyncWorkTracker createAsyncWorkTracker(ProjectLeaseRegistry projectLeaseRegistr
         return new DefaultAsyncWorkTracker(projectLeaseRegistry);
     }
 
+    SharedWorkExecutor createSharedWorkExecutor(ExecutorFactory executorFactory, ParallelismConfigurationManager parallelismConfigurationManager) {
+        return new SharedWorkExecutor(executorFactory, parallelismConfigurationManager);
+    }
+
+    CachedClasspathTransformer createCachedClasspathTransformer(
+        AdditiveCacheLocations additiveCacheLocations,
+        CacheRepository cacheRepository,
+        ClasspathTransformerCacheFactory classpathTransformerCacheFactory,
+        FileAccessTimeJournal fileAccessTimeJournal,
+        FileHasher fileHasher,
+        SharedWorkExecutor sharedWorkExecutor
+    ) {
+        return new DefaultCachedClasspathTransformer(
+            cacheRepository,
+            classpathTransformerCacheFactory,
+            fileAccessTimeJournal,
+            new JarCache(fileHasher),
+            additiveCacheLocations,
+            sharedWorkExecutor
+        );
+    }
+
     UserScopeId createUserScopeId(PersistentScopeIdLoader persistentScopeIdLoader) {
         return persistentScopeIdLoader.getUser();
     }
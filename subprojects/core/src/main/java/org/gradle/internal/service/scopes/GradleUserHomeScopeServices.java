@@ -35,6 +35,7 @@
 import org.gradle.cache.internal.GradleUserHomeCleanupServices;
 import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
 import org.gradle.cache.internal.UsedGradleVersions;
+import org.gradle.groovy.scripts.internal.CompiledScriptIndex;
 import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache;
 import org.gradle.groovy.scripts.internal.DefaultScriptSourceHasher;
 import org.gradle.groovy.scripts.internal.RegistryAwareClassLoaderHierarchyHasher;
@@ -44,19 +45,17 @@
 import org.gradle.internal.classloader.ClasspathHasher;
 import org.gradle.internal.classloader.DefaultHashingClassLoaderFactory;
 import org.gradle.internal.classloader.HashingClassLoaderFactory;
-import org.gradle.internal.classpath.CachedClasspathTransformer;
 import org.gradle.internal.classpath.ClasspathTransformerCacheFactory;
-import org.gradle.internal.classpath.DefaultCachedClasspathTransformer;
 import org.gradle.internal.classpath.DefaultClasspathTransformerCacheFactory;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.execution.timeout.TimeoutHandler;
 import org.gradle.internal.execution.timeout.impl.DefaultTimeoutHandler;
 import org.gradle.internal.file.FileAccessTimeJournal;
-import org.gradle.internal.file.JarCache;
 import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
-import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.id.LongIdGenerator;
+import org.gradle.internal.instantiation.generator.AsmBackedClassGenerator;
+import org.gradle.internal.instantiation.generator.PersistentGeneratedClassBytecodeCache;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.logging.events.OutputEventListener;
@@ -142,22 +141,6 @@ AdditiveCacheLocations createAdditiveCacheLocations(List<AdditiveCache> additive
         return new DefaultAdditiveCacheLocations(additiveCaches);
     }
 
-    CachedClasspathTransformer createCachedClasspathTransformer(
-        AdditiveCacheLocations additiveCacheLocations,
-        CacheRepository cacheRepository,
-        ClasspathTransformerCacheFactory classpathTransformerCacheFactory,
-        FileAccessTimeJournal fileAccessTimeJournal,
-        FileHasher fileHasher
-    ) {
-        return new DefaultCachedClasspathTransformer(
-            cacheRepository,
-            classpathTransformerCacheFactory,
-            fileAccessTimeJournal,
-            new JarCache(fileHasher),
-            additiveCacheLocations
-        );
-    }
-
     WorkerProcessFactory createWorkerProcessFactory(LoggingManagerInternal loggingManagerInternal, MessagingServer messagingServer, ClassPathRegistry classPathRegistry,
                                                     TemporaryFileProvider temporaryFileProvider, JavaExecHandleFactory execHandleFactory, JvmVersionDetector jvmVersionDetector,
                                                     MemoryManager memoryManager, GradleUserHomeDirProvider gradleUserHomeDirProvider, OutputEventListener outputEventListener) {
@@ -199,6 +182,16 @@ FileAccessTimeJournal createFileAccessTimeJournal(CacheRepository cacheRepositor
         return new DefaultFileAccessTimeJournal(cacheRepository, cacheDecoratorFactory);
     }
 
+    CompiledScriptIndex createCompiledScriptIndex(CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory) {
+        return new CompiledScriptIndex(cacheRepository, cacheDecoratorFactory);
+    }
+
+    PersistentGeneratedClassBytecodeCache createGeneratedClassBytecodeCache(CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        PersistentGeneratedClassBytecodeCache bytecodeCache = new PersistentGeneratedClassBytecodeCache(cacheRepository, cacheDecoratorFactory, classLoaderHierarchyHasher);
+        AsmBackedClassGenerator.useBytecodeCache(bytecodeCache);
+        return bytecodeCache;
+    }
+
     TimeoutHandler createTimeoutHandler(ExecutorFactory executorFactory) {
         return new DefaultTimeoutHandler(executorFactory.createScheduled("execution timeouts", 1));
     }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.work;
+
+import org.gradle.concurrent.ParallelismConfiguration;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.ParallelismConfigurationListener;
+import org.gradle.internal.concurrent.ParallelismConfigurationManager;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A pool of threads shared by all tasks of a build session, which a task can hand fine-grained pieces of its work to, such as copying or parsing individual files.
+ *
+ * <p>The pool has as many threads as the build has workers, so tasks that use it concurrently do not each start a thread per processor.
+ * Work run by the pool must not wait for other work run by the pool, and must handle its own failures.</p>
+ */
+public class SharedWorkExecutor implements Executor, Stoppable, ParallelismConfigurationListener {
+    private final ParallelismConfigurationManager parallelismConfigurationManager;
+    private final ManagedExecutor executor;
+
+    public SharedWorkExecutor(ExecutorFactory executorFactory, ParallelismConfigurationManager parallelismConfigurationManager) {
+        this.parallelismConfigurationManager = parallelismConfigurationManager;
+        this.executor = executorFactory.create("Shared work", parallelismConfigurationManager.getParallelismConfiguration().getMaxWorkerCount());
+        parallelismConfigurationManager.addListener(this);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    @Override
+    public void onParallelismConfigurationChange(ParallelismConfiguration parallelismConfiguration) {
+        executor.setFixedPoolSize(parallelismConfiguration.getMaxWorkerCount());
+    }
+
+    @Override
+    public void stop() {
+        parallelismConfigurationManager.removeListener(this);
+        executor.stop();
+    }
+}
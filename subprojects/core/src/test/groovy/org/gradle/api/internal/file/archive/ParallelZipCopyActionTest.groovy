@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive
+package org.gradle.api.internal.file.archive
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.test.fixtures.archive.ZipTestFixture
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.zip.ZipEntry
+import java.util.zip.ZipFile
+
+import static org.gradle.api.internal.file.copy.CopyActionExecuterUtil.visit
+import static org.hamcrest.CoreMatchers.equalTo
+
+class ParallelZipCopyActionTest extends Specification {
+
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def executorFactory = new DefaultExecutorFactory()
+    def executor = executorFactory.create("test", 2)
+    ParallelZipCopyAction visitor
+    TestFile zipFile
+
+    def setup() {
+        zipFile = tmpDir.getTestDirectory().file("test.zip")
+        visitor = new ParallelZipCopyAction(zipFile, ZipEntry.DEFLATED, false, executor, new DocumentationRegistry(), 'UTF-8', false)
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "creates zip file with entries in visiting order"() {
+        given:
+        zip(dir("dir"), file("dir/file1"), file("file2"), dir("other"), file("other/file3"))
+
+        when:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+
+        then:
+        expandDir.file("dir/file1").assertContents(equalTo("contents of dir/file1"))
+        expandDir.file("file2").assertContents(equalTo("contents of file2"))
+        expandDir.file("other/file3").assertContents(equalTo("contents of other/file3"))
+
+        and:
+        new ZipFile(zipFile).withCloseable { it.entries()*.name } == ["dir/", "dir/file1", "file2", "other/", "other/file3"]
+    }
+
+    def "stores already compressed files and deflates other files"() {
+        given:
+        zip(file("lib/library.jar"), file("image.PNG"), file("text.txt"))
+
+        expect:
+        new ZipFile(zipFile).withCloseable { zip ->
+            assert zip.getEntry("lib/library.jar").method == ZipEntry.STORED
+            assert zip.getEntry("image.PNG").method == ZipEntry.STORED
+            assert zip.getEntry("text.txt").method == ZipEntry.DEFLATED
+            assert zip.getInputStream(zip.getEntry("lib/library.jar")).text == "contents of lib/library.jar"
+            true
+        }
+    }
+
+    def "creates identical archives from identical content"() {
+        given:
+        def files = (1..50).collect { file("dir/file${it}") }
+
+        when:
+        zip(files as FileCopyDetailsInternal[])
+        def first = zipFile.bytes
+        zipFile.delete()
+        zip((1..50).collect { file("dir/file${it}") } as FileCopyDetailsInternal[])
+
+        then:
+        zipFile.bytes == first
+    }
+
+    def "zip file contains expected permissions"() {
+        given:
+        zip(dir("dir"), file("file"))
+
+        expect:
+        def zipFixture = new ZipTestFixture(zipFile)
+        zipFixture.assertFileMode("dir/", 2)
+        zipFixture.assertFileMode("file", 1)
+    }
+
+    def "writes large files directly to the archive in visiting order"() {
+        given:
+        def largeSize = ParallelZipCopyAction.MAX_BUFFERED_ENTRY_SIZE + 1
+        def large = fileOfSize("large.bin", largeSize)
+
+        when:
+        zip(file("file1"), large, file("file2"))
+
+        then:
+        1 * large.copyTo({ it instanceof ZipArchiveOutputStream }) >> { OutputStream out -> writeZeros(out, largeSize) }
+
+        and:
+        new ZipFile(zipFile).withCloseable { zip ->
+            assert zip.entries()*.name == ["file1", "large.bin", "file2"]
+            assert zip.getEntry("large.bin").size == largeSize
+            assert zip.getInputStream(zip.getEntry("file2")).text == "contents of file2"
+            true
+        }
+    }
+
+    def "writes pending entries once they hold more content than the limit"() {
+        given:
+        def entrySize = ParallelZipCopyAction.MAX_BUFFERED_ENTRY_SIZE
+        def entriesWithinLimit = (int) (ParallelZipCopyAction.MAX_PENDING_BYTES / entrySize)
+        def archiveSizeWhenVisited = []
+        def files = (0..entriesWithinLimit + 1).collect { index ->
+            def mock = fileOfSize("file${index}.bin", entrySize)
+            mock.copyTo(_ as OutputStream) >> { OutputStream out ->
+                archiveSizeWhenVisited << zipFile.length()
+                writeZeros(out, entrySize)
+            }
+            mock
+        }
+
+        when:
+        zip(files as FileCopyDetailsInternal[])
+
+        then:
+        // Nothing is written until the entries exceed the limit, then the oldest entry is written
+        archiveSizeWhenVisited.take(entriesWithinLimit + 1).every { it == 0 }
+        archiveSizeWhenVisited.last() > 0
+
+        and:
+        new ZipFile(zipFile).withCloseable { it.entries()*.name } == files*.name
+    }
+
+    def "wraps failure to add element"() {
+        given:
+        Throwable failure = new RuntimeException("broken")
+        def brokenFile = brokenFile("dir/file1", failure)
+
+        when:
+        visit(visitor, brokenFile)
+
+        then:
+        def e = thrown(Exception)
+        e.message == String.format("Could not add $brokenFile to ZIP '%s'.", zipFile)
+        e.cause.is(failure)
+    }
+
+    private void zip(final FileCopyDetailsInternal... files) {
+        visitor.execute(new CopyActionProcessingStream() {
+            void process(CopyActionProcessingStreamAction action) {
+                for (FileCopyDetailsInternal f : files) {
+                    action.processFile(f)
+                }
+            }
+        })
+    }
+
+    private FileCopyDetailsInternal file(final String path) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(true, path)
+        mock.getName() >> RelativePath.parse(true, path).lastName
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.copyTo(_ as OutputStream) >> { OutputStream out ->
+            out << "contents of $path"
+        }
+        mock
+    }
+
+    private FileCopyDetailsInternal fileOfSize(final String path, long size) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(true, path)
+        mock.getName() >> RelativePath.parse(true, path).lastName
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.getSize() >> size
+        mock
+    }
+
+    private static void writeZeros(OutputStream out, long size) {
+        def buffer = new byte[64 * 1024]
+        for (long remaining = size; remaining > 0; remaining -= buffer.length) {
+            out.write(buffer, 0, (int) Math.min(buffer.length, remaining))
+        }
+    }
+
+    private FileCopyDetailsInternal dir(final String path) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> true
+        mock.getMode() >> 2
+        mock
+    }
+
+    private FileCopyDetailsInternal brokenFile(final String path, final Throwable failure) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(true, path)
+        mock.getName() >> RelativePath.parse(true, path).lastName
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.copyTo(_ as OutputStream) >> { OutputStream out ->
+            failure.fillInStackTrace()
+            throw failure
+        }
+        mock
+    }
+}
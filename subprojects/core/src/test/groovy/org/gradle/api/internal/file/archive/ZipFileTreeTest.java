@@ -135,4 +135,18 @@ public void doesNotOverwriteFilesOnSecondVisit() throws InterruptedException {
         assertVisits(tree, toList("file1.txt"), new ArrayList<String>());
         content.assertHasNotChangedSince(snapshot);
     }
+
+    @Test
+    public void visitsNewContentsWhenZipFileChanges() {
+        rootDir.file("file1.txt").write("content");
+        rootDir.zipTo(zipFile);
+
+        assertVisits(tree, toList("file1.txt"), new ArrayList<String>());
+
+        rootDir.file("subdir/file2.txt").write("content");
+        rootDir.zipTo(zipFile);
+        zipFile.makeOlder();
+
+        assertVisits(tree, toList("file1.txt", "subdir/file2.txt"), toList("subdir"));
+    }
 }
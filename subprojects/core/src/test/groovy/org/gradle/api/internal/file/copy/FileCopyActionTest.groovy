@@ -18,10 +18,13 @@ package org.gradle.api.internal.file.copy
 
 import org.gradle.api.file.RelativePath
 import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.CopyOnWriteArrayList
+
 import static org.gradle.api.internal.file.copy.CopyActionExecuterUtil.visit
 
 class FileCopyActionTest extends Specification {
@@ -44,6 +47,49 @@ class FileCopyActionTest extends Specification {
         )
     }
 
+    def concurrentCopy() {
+        def executor = new DefaultExecutorFactory().create("file copy", 4)
+        FileCopyAction visitor = new FileCopyAction(TestFiles.resolver(destDir), executor)
+        def copied = new CopyOnWriteArrayList<String>()
+
+        when:
+        def result = visit(visitor,
+                localFile(new RelativePath(true, "rootfile.txt"), "first", copied),
+                dir(new RelativePath(false, "subdir")),
+                localFile(new RelativePath(true, "subdir", "anotherfile.txt"), "second", copied),
+                localFile(new RelativePath(true, "rootfile.txt"), "duplicate", copied)
+        )
+
+        then:
+        result.didWork
+        copied.containsAll(["first", "second", "duplicate"])
+        copied.indexOf("first") < copied.indexOf("duplicate")
+
+        cleanup:
+        executor.stop()
+    }
+
+    private FileCopyDetailsInternal dir(final RelativePath relativePath) {
+        final FileCopyDetailsInternal details = Mock(FileCopyDetailsInternal)
+        _ * details.relativePath >> relativePath
+        _ * details.copiedFromLocalFile >> false
+        1 * details.copyTo(new File(destDir, relativePath.pathString)) >> true
+        0 * details._
+        return details
+    }
+
+    private FileCopyDetailsInternal localFile(final RelativePath relativePath, String name, List<String> copied) {
+        final FileCopyDetailsInternal details = Mock(FileCopyDetailsInternal)
+        _ * details.relativePath >> relativePath
+        _ * details.copiedFromLocalFile >> true
+        1 * details.copyTo(new File(destDir, relativePath.pathString)) >> {
+            copied << name
+            true
+        }
+        0 * details._
+        return details
+    }
+
     private FileCopyDetailsInternal file(final RelativePath relativePath, final File targetFile) {
         final FileCopyDetailsInternal details = Mock(FileCopyDetailsInternal)
         _ * details.relativePath >> relativePath
@@ -216,4 +216,126 @@ class DefaultClassLoaderCacheTest extends Specification {
         then:
         cache.size() == 0
     }
+
+    def "released class loaders are discarded when not retained"() {
+        def root = classLoader(classPath("root"))
+        def c1 = cache.get(id1, classPath("c1"), root, null)
+
+        when:
+        cache.get(id1, classPath("c2"), root, null)
+
+        then:
+        cache.retainedSize() == 0
+        !c1.is(cache.get(id1, classPath("c1"), root, null))
+    }
+
+    def "released class loaders are reused during the next build when retained"() {
+        def retainingCache = new DefaultClassLoaderCache(new DefaultHashingClassLoaderFactory(classpathHasher), classpathHasher, true)
+        def root = classLoader(classPath("root"))
+        def c1 = retainingCache.get(id1, classPath("c1"), root, null)
+
+        when:
+        def c2 = retainingCache.get(id1, classPath("c2"), root, null)
+        retainingCache.beforeComplete()
+
+        then:
+        retainingCache.size() == 1
+        retainingCache.retainedSize() == 1
+
+        when:
+        def reused = retainingCache.get(id1, classPath("c1"), root, null)
+
+        then:
+        reused.is(c1)
+        retainingCache.size() == 1
+        retainingCache.retainedSize() == 1
+
+        when:
+        retainingCache.beforeComplete()
+
+        then:
+        retainingCache.retainedSize() == 1
+        retainingCache.get(id1, classPath("c2"), root, null).is(c2)
+    }
+
+    def "retained class loaders are discarded when not reused during the next build"() {
+        def retainingCache = new DefaultClassLoaderCache(new DefaultHashingClassLoaderFactory(classpathHasher), classpathHasher, true)
+        def root = classLoader(classPath("root"))
+        def c1 = retainingCache.get(id1, classPath("c1"), root, null)
+        retainingCache.get(id1, classPath("c2"), root, null)
+
+        when:
+        retainingCache.beforeComplete()
+        retainingCache.get(id1, classPath("c2"), root, null)
+        retainingCache.beforeComplete()
+
+        then:
+        retainingCache.retainedSize() == 0
+        !retainingCache.get(id1, classPath("c1"), root, null).is(c1)
+    }
+
+    def "retained class loaders are closed when discarded"() {
+        def retainingCache = new DefaultClassLoaderCache(new DefaultHashingClassLoaderFactory(classpathHasher), classpathHasher, true)
+        def root = classLoader(classPath("root"))
+        def closed = []
+        def factory = { ClassLoader parent ->
+            new URLClassLoader(new URL[0], parent) {
+                @Override
+                void close() {
+                    closed << this
+                    super.close()
+                }
+            }
+        } as Function<ClassLoader, ClassLoader>
+        def c1 = retainingCache.createIfAbsent(id1, classPath("c1"), root, factory, null)
+        def c2 = retainingCache.createIfAbsent(id1, classPath("c2"), root, factory, null)
+
+        when:
+        retainingCache.beforeComplete()
+
+        then:
+        retainingCache.retainedSize() == 1
+        closed.empty
+
+        when:
+        retainingCache.beforeComplete()
+
+        then:
+        retainingCache.retainedSize() == 1
+        closed == [c1]
+
+        when:
+        retainingCache.stop()
+
+        then:
+        closed == [c1, c2]
+    }
+
+    def "retained filtered class loaders are reused together with their unfiltered base"() {
+        def retainingCache = new DefaultClassLoaderCache(new DefaultHashingClassLoaderFactory(classpathHasher), classpathHasher, true)
+        def root = classLoader(classPath("root"))
+        def f1 = new FilteringClassLoader.Spec(["1"], [], [], [], [], [], [])
+        def filtered = retainingCache.get(id1, classPath("c1"), root, f1)
+
+        when:
+        retainingCache.remove(id1)
+
+        then:
+        retainingCache.size() == 0
+        retainingCache.retainedSize() == 2
+
+        when:
+        def reused = retainingCache.get(id1, classPath("c1"), root, f1)
+
+        then:
+        reused.is(filtered)
+        retainingCache.size() == 2
+        retainingCache.retainedSize() == 0
+
+        when:
+        retainingCache.remove(id1)
+
+        then:
+        retainingCache.size() == 0
+    }
 }
@@ -53,7 +53,8 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
     final File localDir = new File("local-dir")
     final File globalDir = new File("global-dir")
     final File classesDir = new File(globalDir, "classes")
-    final FileCacheBackedScriptClassCompiler compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, scriptCompilationHandler, Stub(ProgressLoggerFactory), classLoaderCache, classLoaderHierarchyHasher)
+    final CompiledScriptIndex compiledScriptIndex = Mock()
+    final FileCacheBackedScriptClassCompiler compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, scriptCompilationHandler, Stub(ProgressLoggerFactory), classLoaderCache, classLoaderHierarchyHasher, compiledScriptIndex)
     final Action verifier = Stub()
     final CompiledScript compiledScript = Stub() {
         loadClass() >> Script
@@ -99,6 +100,20 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
 
         1 * scriptCompilationHandler.loadFromDir(source, _, targetScope, new File(localDir, 'classes'), new File(localDir, 'metadata'), operation, Script) >> compiledScript
         0 * scriptCompilationHandler._
+        1 * compiledScriptIndex.put({ it =~ "scripts-remapped/ScriptClassName/\\p{XDigit}+/TransformerId\\p{XDigit}+" }, localDir)
+    }
+
+    def "loads classes from indexed cache directory without opening the cache"() {
+        when:
+        def result = compiler.compile(source, targetScope, operation, Script, verifier).loadClass()
+
+        then:
+        result == Script
+        1 * compiledScriptIndex.find({ it =~ "scripts-remapped/ScriptClassName/\\p{XDigit}+/TransformerId\\p{XDigit}+" }) >> localDir
+        1 * scriptCompilationHandler.loadFromDir(source, _, targetScope, new File(localDir, 'classes'), new File(localDir, 'metadata'), operation, Script) >> compiledScript
+        0 * cacheRepository._
+        0 * scriptCompilationHandler._
+        0 * compiledScriptIndex.put(_, _)
     }
 
     def "compiles classes to cache directory when cache is invalid"() {
@@ -123,6 +138,7 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
             initializer.execute(localCache)
             localCache
         }
+        1 * compiledScriptIndex.remove({ it =~ "scripts-remapped/ScriptClassName/\\p{XDigit}+/TransformerId\\p{XDigit}+" })
 
         1 * cacheRepository.cache({ it =~ "scripts/\\p{XDigit}+/TransformerId/TransformerId\\p{XDigit}+" }) >> globalCacheBuilder
         1 * globalCacheBuilder.withDisplayName(!null) >> globalCacheBuilder
@@ -138,6 +154,9 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
         1 * scriptCompilationHandler.compileToDir({ it instanceof RemappingScriptSource }, classLoader, classesDir, metadataDir, operation, Script, verifier)
         1 * scriptCompilationHandler.loadFromDir(source, _, targetScope, localClassesDir, localMetadataDir, operation, Script) >> compiledScript
         0 * scriptCompilationHandler._
+
+        then:
+        1 * compiledScriptIndex.put({ it =~ "scripts-remapped/ScriptClassName/\\p{XDigit}+/TransformerId\\p{XDigit}+" }, localDir)
     }
 
     def "reports compilation progress even in case of a failure"() {
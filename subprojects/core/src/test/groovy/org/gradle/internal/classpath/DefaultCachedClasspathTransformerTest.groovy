@@ -22,6 +22,7 @@ import org.gradle.cache.PersistentCache
 import org.gradle.cache.internal.CacheScopeMapping
 import org.gradle.cache.internal.UsedGradleVersions
 import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.file.FileAccessTimeJournal
 import org.gradle.internal.file.JarCache
 import org.gradle.internal.vfs.AdditiveCache
@@ -60,12 +61,19 @@ class DefaultCachedClasspathTransformerTest extends Specification {
     def jarCache = Mock(JarCache)
     def fileAccessTimeJournal = Mock(FileAccessTimeJournal)
     def usedGradleVersions = Stub(UsedGradleVersions)
+    def executorFactory = new DefaultExecutorFactory()
+    def executor = executorFactory.create("test", 2)
 
     def cacheFactory = new DefaultClasspathTransformerCacheFactory(cacheScopeMapping, usedGradleVersions)
     def additiveCacheLocations = new DefaultAdditiveCacheLocations([cacheFactory, jarFileStore])
 
     @Subject
-    DefaultCachedClasspathTransformer transformer = new DefaultCachedClasspathTransformer(cacheRepository, cacheFactory, fileAccessTimeJournal, jarCache, additiveCacheLocations)
+    DefaultCachedClasspathTransformer transformer = new DefaultCachedClasspathTransformer(cacheRepository, cacheFactory, fileAccessTimeJournal, jarCache, additiveCacheLocations, executor)
+
+    def cleanup() {
+        transformer.close()
+        executorFactory.stop()
+    }
 
     def "can convert a classpath to cached jars"() {
         given:
@@ -86,6 +94,24 @@ class DefaultCachedClasspathTransformerTest extends Specification {
         cachedClassPath.asFiles == [ externalFileCached, alreadyCachedFile, cachedInOtherStore, externalDir ]
     }
 
+    def "converts multiple jars in parallel preserving class path order"() {
+        given:
+        def externalFiles = (1..10).collect { testDir.file("external/file${it}").createFile() }
+        File alreadyCachedFile = cachedDir.file("cached").createFile()
+        File externalDir = testDir.file("external/dir1").createDir()
+        ClassPath classPath = DefaultClassPath.of([externalFiles[0], alreadyCachedFile] + externalFiles.drop(1) + [externalDir])
+
+        when:
+        ClassPath cachedClassPath = transformer.transform(classPath)
+
+        then:
+        10 * jarCache.getCachedJar(_, _) >> { File original, File baseDir -> cachedDir.file("hash/${original.name}") }
+        0 * jarCache._
+
+        and:
+        cachedClassPath.asFiles == [cachedDir.file("hash/file1"), alreadyCachedFile] + (2..10).collect { cachedDir.file("hash/file${it}") } + [externalDir]
+    }
+
     def "can convert a url collection to cached jars"() {
         given:
         File externalFile = testDir.file("external/file1").createFile()
@@ -93,6 +93,18 @@ class JarCacheTest extends Specification {
         copy.text == original.text
     }
 
+    def "leaves no temporary files behind when copying into cache"() {
+        given:
+        fileHasher.hash(original) >> HashCode.fromInt(123)
+
+        when:
+        def result = cache.getCachedJar(original, cacheDir)
+
+        then:
+        result.parentFile.list() as List == [original.name]
+        result.lastModified() == original.lastModified()
+    }
+
     def cache(TestFile original)  {
         return cache.getCachedJar(original, cacheDir)
     }
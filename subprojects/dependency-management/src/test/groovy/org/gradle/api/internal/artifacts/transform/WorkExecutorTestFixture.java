@@ -17,6 +17,7 @@
 package org.gradle.api.internal.artifacts.transform;
 
 import org.apache.commons.io.FileUtils;
+import org.gradle.caching.BuildCacheKey;
 import org.gradle.caching.internal.command.BuildCacheCommandFactory;
 import org.gradle.caching.internal.controller.BuildCacheController;
 import org.gradle.caching.internal.controller.BuildCacheLoadCommand;
@@ -45,6 +46,7 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Optional;
 
 public class WorkExecutorTestFixture {
@@ -78,6 +80,11 @@ public void store(BuildCacheStoreCommand command) {
 
             }
 
+            @Override
+            public void prefetch(Collection<BuildCacheKey> keys) {
+
+            }
+
             @Override
             public void close() {
 
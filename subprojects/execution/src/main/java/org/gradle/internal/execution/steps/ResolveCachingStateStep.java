@@ -42,6 +42,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.Formatter;
 import java.util.List;
 import java.util.Optional;
@@ -86,7 +87,9 @@ public CachingResult execute(BeforeExecutionContext context) {
         ImmutableList<CachingDisabledReason> disabledReasons = cachingState.getDisabledReasons();
         if (disabledReasons.isEmpty()) {
             //noinspection OptionalGetWithoutIsPresent
-            logCacheKey(cachingState.getKey().get(), work);
+            BuildCacheKey cacheKey = cachingState.getKey().get();
+            logCacheKey(cacheKey, work);
+            prefetchIfLoadExpected(cacheKey, context, work);
         } else {
             logDisabledReasons(disabledReasons, work);
         }
@@ -167,6 +170,17 @@ private CachingState calculateCachingState(BeforeExecutionState executionState,
         return builder.build();
     }
 
+    /**
+     * Starts loading the entry from the remote cache when the work cannot be up-to-date, as the entry is then going to be loaded anyway.
+     * The download overlaps with the steps before the load, and the existence check is shared with other work that is resolving its caching state at the same time.
+     */
+    private void prefetchIfLoadExpected(BuildCacheKey cacheKey, BeforeExecutionContext context, UnitOfWork work) {
+        boolean cannotBeUpToDate = !context.getAfterPreviousExecutionState().isPresent() || context.getRebuildReason().isPresent();
+        if (buildCache.isEnabled() && cannotBeUpToDate && work.isAllowedToLoadFromCache()) {
+            buildCache.prefetch(Collections.singleton(cacheKey));
+        }
+    }
+
     private void logCacheKey(BuildCacheKey cacheKey, UnitOfWork work) {
         if (buildCache.isEmitDebugLogging()) {
             LOGGER.warn("Build cache key for {} is {}", work.getDisplayName(), cacheKey.getDisplayName());
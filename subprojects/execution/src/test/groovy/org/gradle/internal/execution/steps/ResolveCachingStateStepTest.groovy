@@ -16,11 +16,17 @@
 
 package org.gradle.internal.execution.steps
 
+import com.google.common.collect.ImmutableList
+import com.google.common.collect.ImmutableSortedMap
 import org.gradle.caching.internal.controller.BuildCacheController
 import org.gradle.internal.execution.BeforeExecutionContext
 import org.gradle.internal.execution.CachingContext
 import org.gradle.internal.execution.caching.CachingDisabledReason
 import org.gradle.internal.execution.caching.CachingDisabledReasonCategory
+import org.gradle.internal.execution.history.AfterPreviousExecutionState
+import org.gradle.internal.execution.history.BeforeExecutionState
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.snapshot.impl.ImplementationSnapshot
 
 class ResolveCachingStateStepTest extends StepSpec<BeforeExecutionContext> {
 
@@ -56,4 +62,57 @@ class ResolveCachingStateStepTest extends StepSpec<BeforeExecutionContext> {
             assert context.cachingState.disabledReasons.get(0) == disabledReason
         }
     }
+
+    def "prefetches entry when work cannot be up-to-date"() {
+        when:
+        step.execute(context)
+        then:
+        _ * buildCache.enabled >> true
+        _ * context.beforeExecutionState >> Optional.of(beforeExecutionState)
+        _ * context.afterPreviousExecutionState >> Optional.empty()
+        _ * work.shouldDisableCaching(null) >> Optional.empty()
+        _ * work.allowedToLoadFromCache >> true
+        1 * buildCache.prefetch({ it.size() == 1 })
+        1 * delegate.execute(_) >> { CachingContext context ->
+            assert context.cachingState.disabledReasons.empty
+        }
+    }
+
+    def "does not prefetch entry when work may be up-to-date"() {
+        when:
+        step.execute(context)
+        then:
+        _ * buildCache.enabled >> true
+        _ * context.beforeExecutionState >> Optional.of(beforeExecutionState)
+        _ * context.afterPreviousExecutionState >> Optional.of(Stub(AfterPreviousExecutionState))
+        _ * context.rebuildReason >> Optional.empty()
+        _ * work.shouldDisableCaching(null) >> Optional.empty()
+        _ * work.allowedToLoadFromCache >> true
+        0 * buildCache.prefetch(_)
+        1 * delegate.execute(_)
+    }
+
+    def "does not prefetch entry when work is not allowed to load from cache"() {
+        when:
+        step.execute(context)
+        then:
+        _ * buildCache.enabled >> true
+        _ * context.beforeExecutionState >> Optional.of(beforeExecutionState)
+        _ * context.afterPreviousExecutionState >> Optional.empty()
+        _ * work.shouldDisableCaching(null) >> Optional.empty()
+        _ * work.allowedToLoadFromCache >> false
+        0 * buildCache.prefetch(_)
+        1 * delegate.execute(_)
+    }
+
+    private BeforeExecutionState getBeforeExecutionState() {
+        Stub(BeforeExecutionState) {
+            getImplementation() >> ImplementationSnapshot.of("MyWorkClass", HashCode.fromInt(1234))
+            getAdditionalImplementations() >> ImmutableList.of()
+            getInputProperties() >> ImmutableSortedMap.of()
+            getInputFileProperties() >> ImmutableSortedMap.of()
+            getOutputFileProperties() >> ImmutableSortedMap.of()
+            getDetectedOverlappingOutputs() >> Optional.empty()
+        }
+    }
 }
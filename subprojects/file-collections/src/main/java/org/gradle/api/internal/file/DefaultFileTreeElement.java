@@ -22,7 +22,10 @@
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 public class DefaultFileTreeElement extends AbstractFileTreeElement {
     private final File file;
@@ -71,6 +74,26 @@ public InputStream open() {
         return GFileUtils.openInputStream(file);
     }
 
+    /**
+     * Copies the content using a channel transfer, which allows the operating system to copy without moving the content through the JVM.
+     */
+    @Override
+    protected void copyFile(File target) throws IOException {
+        try (FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             FileChannel destination = FileChannel.open(target.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = source.transferTo(position, size - position, destination);
+                if (transferred <= 0) {
+                    // The file has been truncated while copying
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
     @Override
     public RelativePath getRelativePath() {
         return relativePath;
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.mutator
+
+import org.gradle.performance.fixture.BuildExperimentInvocationInfo
+
+/**
+ * Switches a Groovy or Kotlin DSL build script between two buildscript class paths: every other build adds a directory to the class path of the script,
+ * and the builds in between use the original script. Only this script needs to be recompiled, and each build goes back to the class path used two builds before.
+ */
+class ApplyChangeToBuildScriptMutator extends AbstractFileChangeMutator {
+    private static final String CLASSPATH_DIR = 'build-script-classpath'
+
+    ApplyChangeToBuildScriptMutator(String sourceFilePath) {
+        super(sourceFilePath)
+        if (!sourceFilePath.endsWith('.gradle') && !sourceFilePath.endsWith('.gradle.kts')) {
+            throw new IllegalArgumentException('Can only modify Groovy or Kotlin DSL build scripts')
+        }
+    }
+
+    @Override
+    void beforeInvocation(BuildExperimentInvocationInfo invocationInfo) {
+        new File(new File(invocationInfo.projectDir, sourceFilePath).parentFile, CLASSPATH_DIR).mkdirs()
+        super.beforeInvocation(invocationInfo)
+    }
+
+    @Override
+    protected void applyChangeTo(StringBuilder text) {
+        if (counter % 2 == 0) {
+            // Use the original script and class path
+            return
+        }
+        if (sourceFilePath.endsWith('.kts')) {
+            text.insert(0, "buildscript { dependencies { classpath(files(\"${CLASSPATH_DIR}\")) } }\n")
+        } else {
+            text.insert(0, "buildscript { dependencies { classpath files('${CLASSPATH_DIR}') } }\n")
+        }
+    }
+}
@@ -80,6 +80,52 @@ class KotlinBuildScriptIntegrationTest : AbstractKotlinIntegrationTest() {
         )
     }
 
+    @Test
+    fun `can prefetch build scripts of sibling projects`() {
+
+        withSettings("""
+            include("a", "b", "c")
+        """)
+
+        withBuildScript("")
+
+        listOf("a", "b", "c").forEach { name ->
+            withBuildScriptIn(name, """
+                plugins { base }
+
+                tasks.register("run") {
+                    doLast { println(project.name + ":42") }
+                }
+            """)
+        }
+
+        assertThat(
+            build("run", "-Dorg.gradle.kotlin.dsl.prefetch=true").output,
+            allOf(
+                containsString("a:42"),
+                containsString("b:42"),
+                containsString("c:42")
+            )
+        )
+    }
+
+    @Test
+    fun `reports compilation failure of prefetched build script when project is evaluated`() {
+
+        withSettings("""
+            include("a", "b")
+        """)
+
+        withBuildScript("")
+        withBuildScriptIn("a", "plugins { base }")
+        withBuildScriptIn("b", "plugins { unknown.reference }")
+
+        assertThat(
+            buildAndFail("help", "-Dorg.gradle.kotlin.dsl.prefetch=true").error,
+            containsString("Unresolved reference: unknown")
+        )
+    }
+
     private
     fun withBuildScriptLargerThan64KB(suffix: String) =
         withBuildScript(StringWriter().run {
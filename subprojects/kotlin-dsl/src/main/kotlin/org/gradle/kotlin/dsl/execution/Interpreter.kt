@@ -228,6 +228,43 @@ class Interpreter(val host: Host) {
     fun programHostFor(options: EvalOptions) =
         if (EvalOption.SkipBody in options) FirstStageOnlyProgramHost() else defaultProgramHost
 
+    /**
+     * Compiles the stage 1 program of a top-level [Project] script into the script cache without
+     * evaluating it, so that a later [eval] of the same script only has to load the cached program.
+     *
+     * The parent of [targetScope] must already be locked.
+     */
+    fun compileFirstStageOf(
+        target: Project,
+        scriptSource: ScriptSource,
+        sourceHash: HashCode,
+        scriptHandler: ScriptHandler,
+        targetScope: ClassLoaderScope,
+        baseScope: ClassLoaderScope,
+        pluginAccessorsClassPath: ClassPath
+    ) {
+
+        val programKind =
+            ProgramKind.TopLevel
+
+        val programTarget =
+            ProgramTarget.Project
+
+        val scriptHost =
+            scriptHostFor(programTarget, target, scriptSource, scriptHandler, targetScope, baseScope)
+
+        cachedFirstStageDirFor(
+            scriptHost,
+            scriptSource,
+            sourceHash,
+            templateIdFor(programTarget, programKind, "stage1"),
+            baseScope.exportClassLoader,
+            targetScope,
+            programKind,
+            programTarget
+        ) { pluginAccessorsClassPath }
+    }
+
     private
     fun emitSpecializedProgramFor(
         scriptHost: KotlinScriptHost<Any>,
@@ -247,59 +284,24 @@ class Interpreter(val host: Host) {
             else null
         }
 
-        val scriptPath =
-            scriptHost.fileName
-
         val cachedDir =
-            host.cachedDirFor(
+            cachedFirstStageDirFor(
                 scriptHost,
-                templateId,
+                scriptSource,
                 sourceHash,
+                templateId,
                 parentClassLoader,
-                null
-            ) { cachedDir ->
-
-                startCompilerOperationFor(scriptSource, templateId).use {
-
-                    val outputDir =
-                        stage1SubDirOf(cachedDir).apply { mkdir() }
-
-                    val sourceText =
-                        scriptSource.resource!!.text
-
-                    val programSource =
-                        ProgramSource(scriptPath, sourceText)
-
-                    val program =
-                        ProgramParser.parse(programSource, programKind, programTarget)
-
-                    val residualProgram = program.map(
-                        PartialEvaluator(programKind, programTarget)::reduce
-                    )
-
-                    scriptSource.withLocationAwareExceptionHandling {
-                        ResidualProgramCompiler(
-                            outputDir = outputDir,
-                            classPath = host.compilationClassPathOf(targetScope.parent),
-                            originalSourceHash = sourceHash,
-                            programKind = programKind,
-                            programTarget = programTarget,
-                            implicitImports = host.implicitImports,
-                            logger = interpreterLogger,
-                            compileBuildOperationRunner = host::runCompileBuildOperation,
-                            pluginAccessorsClassPath = pluginAccessorsClassPath ?: ClassPath.EMPTY,
-                            packageName = residualProgram.packageName
-                        ).compile(residualProgram.document)
-                    }
-                }
-            }
+                targetScope,
+                programKind,
+                programTarget
+            ) { pluginAccessorsClassPath }
 
         val classesDir =
             stage1SubDirOf(cachedDir)
 
         return loadClassInChildScopeOf(
             baseScope,
-            scriptPath,
+            scriptHost.fileName,
             classesDir,
             templateId,
             pluginAccessorsClassPath,
@@ -307,6 +309,66 @@ class Interpreter(val host: Host) {
         )
     }
 
+    private
+    fun cachedFirstStageDirFor(
+        scriptHost: KotlinScriptHost<Any>,
+        scriptSource: ScriptSource,
+        sourceHash: HashCode,
+        templateId: String,
+        parentClassLoader: ClassLoader,
+        targetScope: ClassLoaderScope,
+        programKind: ProgramKind,
+        programTarget: ProgramTarget,
+        pluginAccessorsClassPath: () -> ClassPath?
+    ): File {
+
+        val scriptPath =
+            scriptHost.fileName
+
+        return host.cachedDirFor(
+            scriptHost,
+            templateId,
+            sourceHash,
+            parentClassLoader,
+            null
+        ) { cachedDir ->
+
+            startCompilerOperationFor(scriptSource, templateId).use {
+
+                val outputDir =
+                    stage1SubDirOf(cachedDir).apply { mkdir() }
+
+                val sourceText =
+                    scriptSource.resource!!.text
+
+                val programSource =
+                    ProgramSource(scriptPath, sourceText)
+
+                val program =
+                    ProgramParser.parse(programSource, programKind, programTarget)
+
+                val residualProgram = program.map(
+                    PartialEvaluator(programKind, programTarget)::reduce
+                )
+
+                scriptSource.withLocationAwareExceptionHandling {
+                    ResidualProgramCompiler(
+                        outputDir = outputDir,
+                        classPath = host.compilationClassPathOf(targetScope.parent),
+                        originalSourceHash = sourceHash,
+                        programKind = programKind,
+                        programTarget = programTarget,
+                        implicitImports = host.implicitImports,
+                        logger = interpreterLogger,
+                        compileBuildOperationRunner = host::runCompileBuildOperation,
+                        pluginAccessorsClassPath = pluginAccessorsClassPath() ?: ClassPath.EMPTY,
+                        packageName = residualProgram.packageName
+                    ).compile(residualProgram.document)
+                }
+            }
+        }
+    }
+
     private
     fun stage1SubDirOf(cachedDir: File) =
         cachedDir.resolve("stage-1")
@@ -21,6 +21,7 @@ import org.gradle.api.initialization.dsl.ScriptHandler
 import org.gradle.api.internal.initialization.ClassLoaderScope
 import org.gradle.api.internal.initialization.ScriptHandlerInternal
 import org.gradle.api.internal.plugins.PluginAwareInternal
+import org.gradle.api.internal.project.ProjectInternal
 
 import org.gradle.cache.CacheOpenException
 import org.gradle.cache.internal.CacheKeyBuilder
@@ -40,10 +41,12 @@ import org.gradle.internal.operations.BuildOperationContext
 import org.gradle.internal.operations.BuildOperationDescriptor
 import org.gradle.internal.operations.BuildOperationExecutor
 import org.gradle.internal.operations.CallableBuildOperation
+import org.gradle.internal.operations.RunnableBuildOperation
 
 import org.gradle.internal.scripts.CompileScriptBuildOperationType.Details
 import org.gradle.internal.scripts.CompileScriptBuildOperationType.Result
 
+import org.gradle.kotlin.dsl.accessors.getOrCreateProperty
 import org.gradle.kotlin.dsl.accessors.pluginSpecBuildersClassPath
 
 import org.gradle.kotlin.dsl.cache.ScriptCache
@@ -58,6 +61,7 @@ import org.gradle.kotlin.dsl.support.EmbeddedKotlinProvider
 import org.gradle.kotlin.dsl.support.ImplicitImports
 import org.gradle.kotlin.dsl.support.KotlinScriptHost
 import org.gradle.kotlin.dsl.support.ScriptCompilationException
+import org.gradle.kotlin.dsl.support.loggerFor
 
 import org.gradle.plugin.management.internal.PluginRequests
 
@@ -84,6 +88,19 @@ internal
 const val scriptCacheKeyPrefix = "gradle-kotlin-dsl"
 
 
+/**
+ * When `true`, the stage 1 programs of all Kotlin DSL build scripts of sibling projects are compiled
+ * in parallel as soon as the first of them is evaluated.
+ */
+internal
+const val scriptPrefetchSystemProperty = "org.gradle.kotlin.dsl.prefetch"
+
+
+private
+val isScriptPrefetchEnabled: Boolean
+    get() = System.getProperty(scriptPrefetchSystemProperty, null) == "true"
+
+
 internal
 class StandardKotlinScriptEvaluator(
     private val classPathProvider: KotlinScriptClassPathProvider,
@@ -112,6 +129,10 @@ class StandardKotlinScriptEvaluator(
     ) {
         withOptions(options) {
 
+            if (topLevelScript && target is ProjectInternal && isScriptPrefetchEnabled) {
+                prefetchSiblingScriptsOf(target)
+            }
+
             interpreter.eval(
                 target,
                 scriptSource,
@@ -133,6 +154,75 @@ class StandardKotlinScriptEvaluator(
             action()
     }
 
+    /**
+     * Compiles the stage 1 programs of the Kotlin DSL build scripts of [project] and its siblings in parallel.
+     *
+     * Sibling projects share both the base scope and the parent of their target scope, which is already
+     * locked once the first sibling gets evaluated, so their stage 1 programs can be compiled ahead of
+     * their evaluation. Stage 2 depends on the plugins applied to each project and is still compiled
+     * when the project is evaluated.
+     */
+    private
+    fun prefetchSiblingScriptsOf(project: ProjectInternal) {
+
+        val parent = project.parent
+            ?: return
+
+        if (!project.classLoaderScope.parent.isLocked || !project.baseClassLoaderScope.isLocked) {
+            return
+        }
+
+        parent.getOrCreateProperty("gradleKotlinDsl.childScriptsPrefetched") {
+
+            val scripts = parent.childProjects.values
+                .map { it as ProjectInternal }
+                .filter { isExistingKotlinScript(it.buildScriptSource) }
+
+            if (scripts.size > 1) {
+                // Computed on the configuring thread as it's cached on the root project
+                val pluginAccessorsClassPath = pluginSpecBuildersClassPath(project).bin
+                buildOperationExecutor.runAll<RunnableBuildOperation> { queue ->
+                    scripts.forEach {
+                        queue.add(PrefetchScriptBuildOperation(it, pluginAccessorsClassPath))
+                    }
+                }
+            }
+            true
+        }
+    }
+
+    private
+    fun isExistingKotlinScript(scriptSource: ScriptSource) =
+        scriptSource.fileName.endsWith(".gradle.kts") && scriptSource.resource.exists
+
+    private
+    inner class PrefetchScriptBuildOperation(
+        private val project: ProjectInternal,
+        private val pluginAccessorsClassPath: ClassPath
+    ) : RunnableBuildOperation {
+
+        override fun run(context: BuildOperationContext) {
+            val scriptSource = project.buildScriptSource
+            try {
+                interpreter.compileFirstStageOf(
+                    project,
+                    scriptSource,
+                    scriptSourceHasher.hash(scriptSource),
+                    project.buildscript,
+                    project.classLoaderScope,
+                    project.baseClassLoaderScope,
+                    pluginAccessorsClassPath
+                )
+            } catch (e: Exception) {
+                // The script will be compiled again, and the failure reported, when the project is evaluated
+                prefetchLogger.debug("Failed to prefetch {}", scriptSource.displayName, e)
+            }
+        }
+
+        override fun description(): BuildOperationDescriptor.Builder =
+            BuildOperationDescriptor.displayName("Prefetch ${project.buildScriptSource.displayName}")
+    }
+
     private
     fun setupEmbeddedKotlinForBuildscript(scriptHandler: ScriptHandler) {
         embeddedKotlinProvider.pinEmbeddedKotlinDependenciesOn(
@@ -310,3 +400,7 @@ class StandardKotlinScriptEvaluator(
         fun prepareClassLoaderScope() = classLoaderScope.createLockedChild(childScopeId, DefaultClassPath.of(location).plus(accessorsClassPath ?: ClassPath.EMPTY), null, null)
     }
 }
+
+
+private
+val prefetchLogger = loggerFor<KotlinScriptEvaluator>()
@@ -275,26 +275,90 @@ inline fun <T> ignoringOutputOf(action: () -> T): T =
 
 
 private
-inline fun <T> redirectingOutputTo(noinline outputStream: () -> OutputStream, action: () -> T): T =
-    redirecting(System.err, System::setErr, outputStream()) {
-        redirecting(System.out, System::setOut, outputStream()) {
-            action()
-        }
+inline fun <T> redirectingOutputTo(noinline outputStream: () -> OutputStream, action: () -> T): T {
+    val previous = StandardOutputRedirection.acquire(outputStream)
+    try {
+        return action()
+    } finally {
+        StandardOutputRedirection.release(previous)
     }
+}
 
 
+/**
+ * Redirects the standard streams of the threads running a compilation.
+ *
+ * Scripts can be compiled concurrently, so a single pair of streams is installed by the first compilation
+ * and restored by the last one. Those streams forward to the output of the compilation running on the
+ * writing thread, or to the original streams when the writing thread is not compiling.
+ */
 private
-inline fun <T> redirecting(
-    stream: PrintStream,
-    set: (PrintStream) -> Unit,
-    to: OutputStream,
-    action: () -> T
-): T = try {
-    set(PrintStream(to, true))
-    action()
-} finally {
-    set(stream)
-    to.flush()
+object StandardOutputRedirection {
+
+    class Sinks(val out: OutputStream, val err: OutputStream)
+
+    private
+    val sinks = ThreadLocal<Sinks>()
+
+    private
+    var users = 0
+
+    private
+    var originalOut: PrintStream? = null
+
+    private
+    var originalErr: PrintStream? = null
+
+    fun acquire(outputStream: () -> OutputStream): Sinks? {
+        val previous = sinks.get()
+        sinks.set(Sinks(outputStream(), outputStream()))
+        synchronized(this) {
+            if (users++ == 0) {
+                originalOut = System.out.also { System.setOut(PrintStream(ThreadSinkOutputStream(it, Sinks::out), true)) }
+                originalErr = System.err.also { System.setErr(PrintStream(ThreadSinkOutputStream(it, Sinks::err), true)) }
+            }
+        }
+        return previous
+    }
+
+    fun release(previous: Sinks?) {
+        try {
+            System.out.flush()
+            System.err.flush()
+            sinks.get().run {
+                out.flush()
+                err.flush()
+            }
+        } finally {
+            if (previous == null) sinks.remove()
+            else sinks.set(previous)
+            synchronized(this) {
+                if (--users == 0) {
+                    System.setOut(originalOut)
+                    System.setErr(originalErr)
+                    originalOut = null
+                    originalErr = null
+                }
+            }
+        }
+    }
+
+    private
+    class ThreadSinkOutputStream(
+        private val original: OutputStream,
+        private val sinkOf: (Sinks) -> OutputStream
+    ) : OutputStream() {
+
+        private
+        val target: OutputStream
+            get() = sinks.get()?.let(sinkOf) ?: original
+
+        override fun write(b: Int) = target.write(b)
+
+        override fun write(b: ByteArray, off: Int, len: Int) = target.write(b, off, len)
+
+        override fun flush() = target.flush()
+    }
 }
 
 
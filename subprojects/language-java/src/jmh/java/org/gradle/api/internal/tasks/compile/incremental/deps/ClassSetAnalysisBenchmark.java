@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSets;
+import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.internal.serialize.InputStreamBackedDecoder;
+import org.gradle.internal.serialize.OutputStreamBackedEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the steps of the recompilation analysis that depend on the size of the class set: loading the analysis of the previous compilation,
+ * writing it back, and finding the classes to recompile when a few classes have changed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ClassSetAnalysisBenchmark {
+    private static final int CLASSES_PER_LAYER = 300;
+    private static final int PRIVATE_DEPENDENCIES_PER_CLASS = 8;
+    private static final int ACCESSIBLE_DEPENDENCIES_PER_CLASS = 2;
+    private static final int CHANGED_CLASSES = 20;
+
+    @Param({"3000", "30000"})
+    int classCount;
+
+    private final ClassSetAnalysisData.Serializer serializer = new ClassSetAnalysisData.Serializer(new StringInterner());
+    private ClassSetAnalysisData data;
+    private byte[] serialized;
+    private List<String> changedClasses;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(42);
+        List<String> classNames = new ArrayList<String>(classCount);
+        for (int i = 0; i < classCount; i++) {
+            classNames.add("org.gradle.sample.module" + (i % 30) + ".pkg" + (i % 300) + ".SampleClass" + i);
+        }
+        // The classes are arranged in layers, and each class depends on classes of the few layers below it, as in a typical layered code base
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
+        for (int i = 0; i < classCount; i++) {
+            Set<String> privateDependencies = new HashSet<String>();
+            Set<String> accessibleDependencies = new HashSet<String>();
+            int layer = i / CLASSES_PER_LAYER;
+            if (layer > 0) {
+                int lowestDependency = Math.max(0, layer - 3) * CLASSES_PER_LAYER;
+                int dependencyRange = layer * CLASSES_PER_LAYER - lowestDependency;
+                for (int j = 0; j < PRIVATE_DEPENDENCIES_PER_CLASS; j++) {
+                    privateDependencies.add(classNames.get(lowestDependency + random.nextInt(dependencyRange)));
+                }
+                for (int j = 0; j < ACCESSIBLE_DEPENDENCIES_PER_CLASS; j++) {
+                    accessibleDependencies.add(classNames.get(lowestDependency + random.nextInt(dependencyRange)));
+                }
+            }
+            accumulator.addClass(classNames.get(i), false, privateDependencies, accessibleDependencies, random.nextInt(20) == 0 ? new IntOpenHashSet(new int[]{random.nextInt()}) : IntSets.EMPTY_SET);
+        }
+        data = accumulator.getAnalysis();
+        serialized = serialize();
+
+        Set<String> changed = new LinkedHashSet<String>();
+        while (changed.size() < CHANGED_CLASSES) {
+            changed.add(classNames.get(random.nextInt(classCount)));
+        }
+        changedClasses = new ArrayList<String>(changed);
+    }
+
+    @Benchmark
+    public ClassSetAnalysisData read() throws Exception {
+        return serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(serialized)));
+    }
+
+    @Benchmark
+    public byte[] write() throws Exception {
+        return serialize();
+    }
+
+    @Benchmark
+    public DependentsSet findDependentsOfChangedClasses() {
+        return new ClassSetAnalysis(data).getRelevantDependents(changedClasses, IntSets.EMPTY_SET);
+    }
+
+    private byte[] serialize() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        OutputStreamBackedEncoder encoder = new OutputStreamBackedEncoder(outputStream);
+        serializer.write(encoder, data);
+        encoder.flush();
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.execution.OutputChangeListener;
+
+import javax.annotation.Nullable;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the standard file managers of the in-process Java compiler between the compilations of a build, so that jars that are on the classpath
+ * of several compile tasks are opened and indexed by the compiler once per build, rather than once per compile task.
+ *
+ * <p>A file manager is only reused for compilations that use the same encoding and the same options, apart from the locations of
+ * the classpath, source path and outputs. Before it is reused, the archives it has opened are closed if the build has changed any of the files on the paths
+ * of its previous compilations, as announced to the {@link OutputChangeListener}s. Files that change outside of the build while the build runs are not noticed,
+ * as with the build's file system view. All file managers are closed at the end of the build, so that no file handles are kept open between builds.</p>
+ */
+public class JavaFileManagerPool implements OutputChangeListener, Closeable {
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.java.compile.reuse-file-managers";
+
+    /**
+     * Options whose value is a set of locations, which are set on the file manager for each compilation.
+     */
+    private static final Set<String> LOCATION_OPTIONS = ImmutableSet.of(
+        "-d", "-s", "-h",
+        "-classpath", "-cp", "--class-path",
+        "-sourcepath", "--source-path",
+        "-processorpath", "--processor-path"
+    );
+    /**
+     * Options whose value is a list of files that the compiler may open and keep open as archives.
+     */
+    private static final Set<String> PATH_OPTIONS = ImmutableSet.of(
+        "-classpath", "-cp", "--class-path",
+        "-processorpath", "--processor-path",
+        "--module-path", "-p", "--processor-module-path", "--upgrade-module-path",
+        "-bootclasspath", "--boot-class-path"
+    );
+
+    private final Map<List<Object>, Deque<PooledFileManager>> available = new HashMap<List<Object>, Deque<PooledFileManager>>();
+    private final List<PooledFileManager> created = new ArrayList<PooledFileManager>();
+    private boolean closed;
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Returns a file manager to use for a compilation with the given options. The file manager must be released by closing the returned lease once the compilation has finished.
+     */
+    public Lease acquire(JavaCompiler compiler, @Nullable Charset charset, List<String> options) {
+        List<Object> key = new ArrayList<Object>();
+        key.add(compiler.getClass().getName());
+        key.add(charset == null ? null : charset.name());
+        Set<File> paths = new LinkedHashSet<File>();
+        for (Iterator<String> iterator = options.iterator(); iterator.hasNext();) {
+            String option = iterator.next();
+            key.add(option);
+            if ((LOCATION_OPTIONS.contains(option) || PATH_OPTIONS.contains(option)) && iterator.hasNext()) {
+                String value = iterator.next();
+                if (!LOCATION_OPTIONS.contains(option)) {
+                    key.add(value);
+                }
+                if (PATH_OPTIONS.contains(option)) {
+                    for (String path : value.split(File.pathSeparator)) {
+                        if (!path.isEmpty()) {
+                            paths.add(new File(path).getAbsoluteFile());
+                        }
+                    }
+                }
+            }
+        }
+
+        PooledFileManager fileManager;
+        synchronized (available) {
+            if (closed) {
+                throw new IllegalStateException("Cannot use file managers after the end of the build.");
+            }
+            Deque<PooledFileManager> candidates = available.get(key);
+            fileManager = candidates == null ? null : candidates.poll();
+            if (fileManager == null) {
+                fileManager = new PooledFileManager(compiler.getStandardFileManager(null, null, charset));
+                created.add(fileManager);
+            }
+        }
+        fileManager.flushIfChanged();
+        fileManager.recordPaths(paths);
+        return new Lease(key, fileManager);
+    }
+
+    private void release(List<Object> key, PooledFileManager fileManager) {
+        synchronized (available) {
+            if (!closed) {
+                Deque<PooledFileManager> candidates = available.get(key);
+                if (candidates == null) {
+                    candidates = new ArrayDeque<PooledFileManager>();
+                    available.put(key, candidates);
+                }
+                candidates.push(fileManager);
+                return;
+            }
+        }
+        CompositeStoppable.stoppable(fileManager.fileManager).stop();
+    }
+
+    @Override
+    public void beforeOutputChange() {
+        synchronized (available) {
+            for (PooledFileManager fileManager : created) {
+                fileManager.markChanged();
+            }
+        }
+    }
+
+    @Override
+    public void beforeOutputChange(Iterable<String> affectedOutputPaths) {
+        synchronized (available) {
+            for (PooledFileManager fileManager : created) {
+                fileManager.markChangedIfAffected(affectedOutputPaths);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        List<StandardJavaFileManager> toClose = new ArrayList<StandardJavaFileManager>();
+        synchronized (available) {
+            closed = true;
+            available.clear();
+            for (PooledFileManager fileManager : created) {
+                toClose.add(fileManager.fileManager);
+            }
+            created.clear();
+        }
+        CompositeStoppable.stoppable(toClose).stop();
+        ResourceCleaningCompilationTask.cleanupZipCache();
+    }
+
+    /**
+     * A file manager that is in use by a compilation.
+     */
+    public class Lease implements Closeable {
+        private final List<Object> key;
+        private final PooledFileManager fileManager;
+
+        private Lease(List<Object> key, PooledFileManager fileManager) {
+            this.key = key;
+            this.fileManager = fileManager;
+        }
+
+        public StandardJavaFileManager getFileManager() {
+            return fileManager.fileManager;
+        }
+
+        @Override
+        public void close() {
+            release(key, fileManager);
+        }
+    }
+
+    /**
+     * The file manager and the paths of its compilations. The paths and the changed flag are guarded by the pool.
+     */
+    private class PooledFileManager {
+        private final StandardJavaFileManager fileManager;
+        private final Set<File> paths = new HashSet<File>();
+        private boolean changed;
+
+        PooledFileManager(StandardJavaFileManager fileManager) {
+            this.fileManager = fileManager;
+        }
+
+        void recordPaths(Set<File> newPaths) {
+            synchronized (available) {
+                paths.addAll(newPaths);
+            }
+        }
+
+        void markChanged() {
+            if (!paths.isEmpty()) {
+                changed = true;
+            }
+        }
+
+        void markChangedIfAffected(Iterable<String> affectedOutputPaths) {
+            for (String affectedOutputPath : affectedOutputPaths) {
+                for (File path : paths) {
+                    if (isSameOrNested(path.getPath(), affectedOutputPath) || isSameOrNested(affectedOutputPath, path.getPath())) {
+                        changed = true;
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Closes the archives opened by the file manager when any of the files on its paths have changed. The file manager opens them again when they are next used.
+         */
+        void flushIfChanged() {
+            synchronized (available) {
+                if (!changed) {
+                    return;
+                }
+                changed = false;
+                paths.clear();
+            }
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static boolean isSameOrNested(String path, String parent) {
+        return path.startsWith(parent) && (path.length() == parent.length() || path.charAt(parent.length()) == File.separatorChar);
+    }
+}
@@ -31,10 +31,19 @@
 class ResourceCleaningCompilationTask implements JavaCompiler.CompilationTask {
     private final JavaCompiler.CompilationTask delegate;
     private final Closeable fileManager;
+    private final boolean cleanupZipCache;
 
     ResourceCleaningCompilationTask(JavaCompiler.CompilationTask delegate, Closeable fileManager) {
+        this(delegate, fileManager, true);
+    }
+
+    /**
+     * @param cleanupZipCache whether to clean the shared ZIP cache of the compiler after compilation. Not required when the file manager is reused, as the cache is cleaned when the file manager is finally closed.
+     */
+    ResourceCleaningCompilationTask(JavaCompiler.CompilationTask delegate, Closeable fileManager, boolean cleanupZipCache) {
         this.delegate = delegate;
         this.fileManager = fileManager;
+        this.cleanupZipCache = cleanupZipCache;
     }
 
     @Override
@@ -57,7 +66,9 @@ public Boolean call() {
             return delegate.call();
         } finally {
             CompositeStoppable.stoppable(fileManager).stop();
-            cleanupZipCache();
+            if (cleanupZipCache) {
+                cleanupZipCache();
+            }
         }
     }
 
@@ -68,7 +79,7 @@ public Boolean call() {
      * method does not take arguments, so the cache can't be turned off.
      * So instead we clean it ourselves using reflection.
      */
-    private void cleanupZipCache() {
+    static void cleanupZipCache() {
         try {
             Class<?> zipFileIndexCache = Class.forName("com.sun.tools.javac.file.ZipFileIndexCache");
             Object instance = zipFileIndexCache.getMethod("getSharedInstance").invoke(null);
@@ -39,4 +39,9 @@ public ClassAnalysis create() {
             }
         });
     }
+
+    @Override
+    public ClassAnalysis getClassAnalysis(HashCode classFileHash, byte[] classFileContent) {
+        return cache.get(classFileHash, () -> analyzer.getClassAnalysis(classFileHash, classFileContent));
+    }
 }
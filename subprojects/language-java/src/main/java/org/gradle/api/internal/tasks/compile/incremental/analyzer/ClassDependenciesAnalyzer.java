@@ -22,4 +22,6 @@
 
 public interface ClassDependenciesAnalyzer {
     ClassAnalysis getClassAnalysis(HashCode classFileHash, FileTreeElement classFile);
+
+    ClassAnalysis getClassAnalysis(HashCode classFileHash, byte[] classFileContent);
 }
@@ -16,22 +16,28 @@
 package org.gradle.api.internal.tasks.compile.incremental.classpath;
 
 import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
-import org.gradle.internal.IoActions;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.StreamHasher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.Enumeration;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
@@ -66,20 +72,54 @@ public ClasspathEntrySnapshot createSnapshot(HashCode hash, File classpathEntry)
         return new ClasspathEntrySnapshot(new ClasspathEntrySnapshotData(hash, hashes, accumulator.getAnalysis()));
     }
 
-    private void visit(File classpathEntry, Map<String, HashCode> hashes, ClassDependentsAccumulator accumulator) {
+    private void visit(File classpathEntry, Map<String, HashCode> hashes, ClassDependentsAccumulator accumulator) throws IOException {
         if (hasExtension(classpathEntry, ".jar")) {
-            fileOperations.zipTree(classpathEntry).visit(new JarEntryVisitor(accumulator, hashes));
+            visitJar(classpathEntry, hashes, accumulator);
         }
         if (classpathEntry.isDirectory()) {
             fileOperations.fileTree(classpathEntry).visit(new DirectoryEntryVisitor(accumulator, hashes));
         }
     }
 
-    private abstract class EntryVisitor implements FileVisitor {
+    /**
+     * Reads each class file of the jar only once, to both hash and analyze it.
+     */
+    private void visitJar(File jar, Map<String, HashCode> hashes, ClassDependentsAccumulator accumulator) throws IOException {
+        try (ZipFile zipFile = new ZipFile(jar)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory() || !entry.getName().endsWith(".class")) {
+                    continue;
+                }
+                byte[] content;
+                try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                    content = ByteStreams.toByteArray(inputStream);
+                }
+                HashCode classFileHash = hasher.hash(new ByteArrayInputStream(content));
+                addClass(entry.getName(), classFileHash, () -> analyzer.getClassAnalysis(classFileHash, content), accumulator, hashes);
+            }
+        }
+    }
+
+    private static void addClass(String classFileName, HashCode classFileHash, Supplier<ClassAnalysis> analysis, ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes) {
+        try {
+            ClassAnalysis classAnalysis = analysis.get();
+            accumulator.addClass(classAnalysis);
+            hashes.put(classAnalysis.getClassName(), classFileHash);
+        } catch (Exception e) {
+            accumulator.fullRebuildNeeded(classFileName + " could not be analyzed for incremental compilation. See the debug log for more details");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Could not analyze " + classFileName + " for incremental compilation", e);
+            }
+        }
+    }
+
+    private class DirectoryEntryVisitor implements FileVisitor {
         private final ClassDependentsAccumulator accumulator;
         private final Map<String, HashCode> hashes;
 
-        public EntryVisitor(ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes) {
+        public DirectoryEntryVisitor(ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes) {
             this.accumulator = accumulator;
             this.hashes = hashes;
         }
@@ -94,50 +134,8 @@ public void visitFile(FileVisitDetails fileDetails) {
                 return;
             }
 
-            HashCode classFileHash = getHashCode(fileDetails);
-
-            try {
-                ClassAnalysis analysis = analyzer.getClassAnalysis(classFileHash, fileDetails);
-                accumulator.addClass(analysis);
-                hashes.put(analysis.getClassName(), classFileHash);
-            } catch (Exception e) {
-                accumulator.fullRebuildNeeded(fileDetails.getName() + " could not be analyzed for incremental compilation. See the debug log for more details");
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Could not analyze " + fileDetails.getName() + " for incremental compilation", e);
-                }
-            }
+            HashCode classFileHash = fileHasher.hash(fileDetails.getFile(), fileDetails.getSize(), fileDetails.getLastModified());
+            addClass(fileDetails.getName(), classFileHash, () -> analyzer.getClassAnalysis(classFileHash, fileDetails), accumulator, hashes);
         }
-
-        protected abstract HashCode getHashCode(FileVisitDetails fileDetails);
     }
-
-    private class JarEntryVisitor extends EntryVisitor {
-
-        public JarEntryVisitor(ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes) {
-            super(accumulator, hashes);
-        }
-
-        @Override
-        protected HashCode getHashCode(FileVisitDetails fileDetails) {
-            InputStream inputStream = fileDetails.open();
-            try {
-                return hasher.hash(inputStream);
-            } finally {
-                IoActions.closeQuietly(inputStream);
-            }
-        }
-    }
-
-    private class DirectoryEntryVisitor extends EntryVisitor {
-
-        public DirectoryEntryVisitor(ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes) {
-            super(accumulator, hashes);
-        }
-
-        @Override
-        protected HashCode getHashCode(FileVisitDetails fileDetails) {
-            return fileHasher.hash(fileDetails.getFile(), fileDetails.getSize(), fileDetails.getLastModified());
-        }
-    }
-
 }
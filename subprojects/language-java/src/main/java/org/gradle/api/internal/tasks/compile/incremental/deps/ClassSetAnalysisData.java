@@ -16,9 +16,10 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps;
 
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.ints.IntSets;
 import org.apache.commons.lang.StringUtils;
@@ -26,26 +27,105 @@
 import org.gradle.internal.serialize.AbstractSerializer;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
-import org.gradle.internal.serialize.IntSetSerializer;
 
 import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
+/**
+ * The dependents of the classes of a class set, such as a classpath entry or the output of a compile task.
+ *
+ * <p>The analysis of a large class set can involve many thousands of classes, so it is kept in a compact form: each class name is stored once, in a sorted table,
+ * and classes are referred to by their index in this table. The dependents of a class are stored as arrays of indexes, and per-class flags as bit sets.</p>
+ */
 public class ClassSetAnalysisData {
     public static final String PACKAGE_INFO = "package-info";
 
-    private final Set<String> classes;
-    private final Map<String, DependentsSet> dependents;
-    private final Map<String, IntSet> classesToConstants;
+    /**
+     * The names of the classes of this class set and of all classes they refer to, sorted so that consecutive names share their package when serialized.
+     */
+    private final String[] classNames;
+    /**
+     * An open addressing hash table holding the index of each class name plus one, or zero for empty slots.
+     */
+    private final int[] classNameLookup;
+    /**
+     * The classes that belong to this class set, rather than only being depended on by it.
+     */
+    private final BitSet classes;
+    /**
+     * The classes for which any change requires all classes to be recompiled.
+     */
+    private final BitSet dependenciesToAll;
+    private final Map<Integer, String> dependencyToAllReasons;
+    /**
+     * The sorted indexes of the dependents of each class, or null when the class has no such dependents.
+     */
+    private final int[][] privateDependents;
+    private final int[][] accessibleDependents;
+    private final int[][] constants;
     private final String fullRebuildCause;
 
     public ClassSetAnalysisData(Set<String> classes, Map<String, DependentsSet> dependents, Map<String, IntSet> classesToConstants, String fullRebuildCause) {
+        Set<String> classNames = new TreeSet<String>(classes);
+        classNames.addAll(dependents.keySet());
+        classNames.addAll(classesToConstants.keySet());
+        for (DependentsSet dependentsSet : dependents.values()) {
+            if (!dependentsSet.isDependencyToAll()) {
+                classNames.addAll(dependentsSet.getPrivateDependentClasses());
+                classNames.addAll(dependentsSet.getAccessibleDependentClasses());
+            }
+        }
+        this.classNames = classNames.toArray(new String[0]);
+        this.classNameLookup = createLookup(this.classNames);
+        this.classes = new BitSet(this.classNames.length);
+        for (String className : classes) {
+            this.classes.set(indexOf(className));
+        }
+
+        this.dependenciesToAll = new BitSet(this.classNames.length);
+        ImmutableMap.Builder<Integer, String> dependencyToAllReasons = ImmutableMap.builder();
+        this.privateDependents = new int[this.classNames.length][];
+        this.accessibleDependents = new int[this.classNames.length][];
+        for (Map.Entry<String, DependentsSet> entry : dependents.entrySet()) {
+            int index = indexOf(entry.getKey());
+            DependentsSet dependentsSet = entry.getValue();
+            if (dependentsSet.isDependencyToAll()) {
+                dependenciesToAll.set(index);
+                if (dependentsSet.getDescription() != null) {
+                    dependencyToAllReasons.put(index, dependentsSet.getDescription());
+                }
+            } else {
+                privateDependents[index] = indexesOf(dependentsSet.getPrivateDependentClasses());
+                accessibleDependents[index] = indexesOf(dependentsSet.getAccessibleDependentClasses());
+            }
+        }
+        this.dependencyToAllReasons = dependencyToAllReasons.build();
+
+        this.constants = new int[this.classNames.length][];
+        for (Map.Entry<String, IntSet> entry : classesToConstants.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                constants[indexOf(entry.getKey())] = entry.getValue().toIntArray();
+            }
+        }
+        this.fullRebuildCause = fullRebuildCause;
+    }
+
+    private ClassSetAnalysisData(String[] classNames, BitSet classes, BitSet dependenciesToAll, Map<Integer, String> dependencyToAllReasons, int[][] privateDependents, int[][] accessibleDependents, int[][] constants, String fullRebuildCause) {
+        this.classNames = classNames;
+        this.classNameLookup = createLookup(classNames);
         this.classes = classes;
-        this.dependents = dependents;
-        this.classesToConstants = classesToConstants;
+        this.dependenciesToAll = dependenciesToAll;
+        this.dependencyToAllReasons = dependencyToAllReasons;
+        this.privateDependents = privateDependents;
+        this.accessibleDependents = accessibleDependents;
+        this.constants = constants;
         this.fullRebuildCause = fullRebuildCause;
     }
 
@@ -57,13 +137,24 @@ public DependentsSet getDependents(String className) {
             String packageName = className.equals(PACKAGE_INFO) ? null : StringUtils.removeEnd(className, "." + PACKAGE_INFO);
             return getDependentsOfPackage(packageName);
         }
-        DependentsSet dependentsSet = dependents.get(className);
-        return dependentsSet == null ? DependentsSet.empty() : dependentsSet;
+        int index = indexOf(className);
+        if (index < 0) {
+            return DependentsSet.empty();
+        }
+        if (dependenciesToAll.get(index)) {
+            String reason = dependencyToAllReasons.get(index);
+            return reason == null ? DependentsSet.dependencyToAll() : DependentsSet.dependencyToAll(reason);
+        }
+        if (privateDependents[index] == null && accessibleDependents[index] == null) {
+            return DependentsSet.empty();
+        }
+        return DependentsSet.dependentClassesOf(namesOf(privateDependents[index]), namesOf(accessibleDependents[index]));
     }
 
     private DependentsSet getDependentsOfPackage(String packageName) {
         Set<String> typesInPackage = Sets.newHashSet();
-        for (String type : classes) {
+        for (int index = classes.nextSetBit(0); index >= 0; index = classes.nextSetBit(index + 1)) {
+            String type = classNames[index];
             int i = type.lastIndexOf(".");
             if (i < 0 && packageName == null || i > 0 && type.substring(0, i).equals(packageName)) {
                 typesInPackage.add(type);
@@ -73,11 +164,89 @@ private DependentsSet getDependentsOfPackage(String packageName) {
     }
 
     public IntSet getConstants(String className) {
-        IntSet integers = classesToConstants.get(className);
-        if (integers == null) {
+        int index = indexOf(className);
+        if (index < 0 || constants[index] == null) {
             return IntSets.EMPTY_SET;
         }
-        return integers;
+        return IntSets.unmodifiable(new IntOpenHashSet(constants[index]));
+    }
+
+    private static int[] createLookup(String[] classNames) {
+        int[] lookup = new int[Integer.highestOneBit(Math.max(1, classNames.length)) * 4];
+        for (int index = 0; index < classNames.length; index++) {
+            int slot = classNames[index].hashCode() & (lookup.length - 1);
+            while (lookup[slot] != 0) {
+                slot = (slot + 1) & (lookup.length - 1);
+            }
+            lookup[slot] = index + 1;
+        }
+        return lookup;
+    }
+
+    private int indexOf(Object className) {
+        int slot = className.hashCode() & (classNameLookup.length - 1);
+        while (classNameLookup[slot] != 0) {
+            int index = classNameLookup[slot] - 1;
+            if (classNames[index].equals(className)) {
+                return index;
+            }
+            slot = (slot + 1) & (classNameLookup.length - 1);
+        }
+        return -1;
+    }
+
+    private int[] indexesOf(Set<String> classNames) {
+        if (classNames.isEmpty()) {
+            return null;
+        }
+        int[] indexes = new int[classNames.size()];
+        int i = 0;
+        for (String className : classNames) {
+            indexes[i++] = indexOf(className);
+        }
+        Arrays.sort(indexes);
+        return indexes;
+    }
+
+    private Set<String> namesOf(int[] indexes) {
+        return indexes == null ? Collections.<String>emptySet() : new ClassNameSet(indexes);
+    }
+
+    /**
+     * A set of class names backed by the sorted indexes of the names in the class name table.
+     */
+    private class ClassNameSet extends AbstractSet<String> {
+        private final int[] indexes;
+
+        ClassNameSet(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof String)) {
+                return false;
+            }
+            int index = indexOf(o);
+            return index >= 0 && Arrays.binarySearch(indexes, index) >= 0;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new AbstractIterator<String>() {
+                private int next;
+
+                @Override
+                protected String computeNext() {
+                    return next < indexes.length ? classNames[indexes[next++]] : endOfData();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return indexes.length;
+        }
     }
 
     public static class Serializer extends AbstractSerializer<ClassSetAnalysisData> {
@@ -90,117 +259,146 @@ public Serializer(StringInterner interner) {
 
         @Override
         public ClassSetAnalysisData read(Decoder decoder) throws Exception {
-            Map<Integer, String> classNameMap = new HashMap<Integer, String>();
+            String[] classNames = new String[decoder.readSmallInt()];
+            String previous = "";
+            for (int i = 0; i < classNames.length; i++) {
+                int commonPrefixLength = decoder.readSmallInt();
+                previous = interner.intern(previous.substring(0, commonPrefixLength).concat(decoder.readString()));
+                classNames[i] = previous;
+            }
+            BitSet classes = readBitSet(decoder);
+            BitSet dependenciesToAll = readBitSet(decoder);
 
             int count = decoder.readSmallInt();
-            ImmutableSet.Builder<String> classes = ImmutableSet.builder();
+            ImmutableMap.Builder<Integer, String> dependencyToAllReasons = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
-                classes.add(readClassName(decoder, classNameMap));
+                dependencyToAllReasons.put(decoder.readSmallInt(), decoder.readString());
             }
 
-            count = decoder.readSmallInt();
-            ImmutableMap.Builder<String, DependentsSet> dependentsBuilder = ImmutableMap.builder();
-            for (int i = 0; i < count; i++) {
-                String className = readClassName(decoder, classNameMap);
-                DependentsSet dependents = readDependentsSet(decoder, classNameMap);
-                dependentsBuilder.put(className, dependents);
-            }
+            int[][] privateDependents = readIndexes(decoder, classNames.length);
+            int[][] accessibleDependents = readIndexes(decoder, classNames.length);
 
+            int[][] constants = new int[classNames.length][];
             count = decoder.readSmallInt();
-            ImmutableMap.Builder<String, IntSet> classesToConstantsBuilder = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
-                String className = readClassName(decoder, classNameMap);
-                IntSet constants = IntSetSerializer.INSTANCE.read(decoder);
-                classesToConstantsBuilder.put(className, constants);
+                int[] classConstants = new int[decoder.readSmallInt()];
+                constants[decoder.readSmallInt()] = classConstants;
+                for (int j = 0; j < classConstants.length; j++) {
+                    classConstants[j] = decoder.readInt();
+                }
             }
 
             String fullRebuildCause = decoder.readNullableString();
 
-            return new ClassSetAnalysisData(classes.build(), dependentsBuilder.build(), classesToConstantsBuilder.build(), fullRebuildCause);
+            return new ClassSetAnalysisData(classNames, classes, dependenciesToAll, dependencyToAllReasons.build(), privateDependents, accessibleDependents, constants, fullRebuildCause);
         }
 
         @Override
         public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
-            Map<String, Integer> classNameMap = new HashMap<String, Integer>();
-            encoder.writeSmallInt(value.classes.size());
-            for (String clazz : value.classes) {
-                writeClassName(clazz, classNameMap, encoder);
+            // The class names are sorted, so consecutive names usually share their package
+            encoder.writeSmallInt(value.classNames.length);
+            String previous = "";
+            for (String className : value.classNames) {
+                int commonPrefixLength = StringUtils.indexOfDifference(previous, className);
+                if (commonPrefixLength < 0) {
+                    commonPrefixLength = className.length();
+                }
+                encoder.writeSmallInt(commonPrefixLength);
+                encoder.writeString(className.substring(commonPrefixLength));
+                previous = className;
             }
+            writeBitSet(encoder, value.classes);
+            writeBitSet(encoder, value.dependenciesToAll);
 
-            encoder.writeSmallInt(value.dependents.size());
-            for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
-                writeDependentSet(entry.getValue(), classNameMap, encoder);
+            encoder.writeSmallInt(value.dependencyToAllReasons.size());
+            for (Map.Entry<Integer, String> entry : value.dependencyToAllReasons.entrySet()) {
+                encoder.writeSmallInt(entry.getKey());
+                encoder.writeString(entry.getValue());
             }
 
-            encoder.writeSmallInt(value.classesToConstants.size());
-            for (Map.Entry<String, IntSet> entry : value.classesToConstants.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
-                IntSetSerializer.INSTANCE.write(encoder, entry.getValue());
+            writeIndexes(encoder, value.privateDependents);
+            writeIndexes(encoder, value.accessibleDependents);
+
+            encoder.writeSmallInt(countNonNull(value.constants));
+            for (int i = 0; i < value.constants.length; i++) {
+                int[] classConstants = value.constants[i];
+                if (classConstants != null) {
+                    encoder.writeSmallInt(classConstants.length);
+                    encoder.writeSmallInt(i);
+                    for (int constant : classConstants) {
+                        encoder.writeInt(constant);
+                    }
+                }
             }
             encoder.writeNullableString(value.fullRebuildCause);
         }
 
-        private DependentsSet readDependentsSet(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
-            byte b = decoder.readByte();
-            if (b == 1) {
-                return DependentsSet.dependencyToAll(decoder.readNullableString());
-            }
-
-            ImmutableSet.Builder<String> privateBuilder = ImmutableSet.builder();
-            int count = decoder.readSmallInt();
-            for (int i = 0; i < count; i++) {
-                privateBuilder.add(readClassName(decoder, classNameMap));
+        private static BitSet readBitSet(Decoder decoder) throws IOException {
+            long[] words = new long[decoder.readSmallInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = decoder.readLong();
             }
+            return BitSet.valueOf(words);
+        }
 
-            ImmutableSet.Builder<String> accessibleBuilder = ImmutableSet.builder();
-            count = decoder.readSmallInt();
-            for (int i = 0; i < count; i++) {
-                accessibleBuilder.add(readClassName(decoder, classNameMap));
+        private static void writeBitSet(Encoder encoder, BitSet bitSet) throws IOException {
+            long[] words = bitSet.toLongArray();
+            encoder.writeSmallInt(words.length);
+            for (long word : words) {
+                encoder.writeLong(word);
             }
-
-            return DependentsSet.dependentClasses(privateBuilder.build(), accessibleBuilder.build());
         }
 
-        private void writeDependentSet(DependentsSet dependentsSet, Map<String, Integer> classNameMap, Encoder encoder) throws IOException {
-            if (dependentsSet.isDependencyToAll()) {
-                encoder.writeByte((byte) 1);
-                encoder.writeNullableString(dependentsSet.getDescription());
-            } else {
-                encoder.writeByte((byte) 2);
-                encoder.writeSmallInt(dependentsSet.getPrivateDependentClasses().size());
-                for (String className : dependentsSet.getPrivateDependentClasses()) {
-                    writeClassName(className, classNameMap, encoder);
-                }
-                encoder.writeSmallInt(dependentsSet.getAccessibleDependentClasses().size());
-                for (String className : dependentsSet.getAccessibleDependentClasses()) {
-                    writeClassName(className, classNameMap, encoder);
+        /**
+         * Reads index arrays written by {@link #writeIndexes(Encoder, int[][])}.
+         */
+        private static int[][] readIndexes(Decoder decoder, int size) throws IOException {
+            int[][] result = new int[size][];
+            int count = decoder.readSmallInt();
+            int index = 0;
+            for (int i = 0; i < count; i++) {
+                index += decoder.readSmallInt();
+                int[] indexes = new int[decoder.readSmallInt()];
+                int previous = 0;
+                for (int j = 0; j < indexes.length; j++) {
+                    previous += decoder.readSmallInt();
+                    indexes[j] = previous;
                 }
+                result[index] = indexes;
             }
+            return result;
         }
 
-        private String readClassName(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
-            int id = decoder.readSmallInt();
-            if (id == 0) {
-                id = decoder.readSmallInt();
-                String className = interner.intern(decoder.readString());
-                classNameMap.put(id, className);
-                return className;
+        /**
+         * Writes the non-null arrays of sorted indexes, along with their position. As both the positions and the indexes are increasing, only the difference
+         * with the previous value is written, which is usually small enough to fit in one or two bytes.
+         */
+        private static void writeIndexes(Encoder encoder, int[][] value) throws IOException {
+            encoder.writeSmallInt(countNonNull(value));
+            int previousIndex = 0;
+            for (int index = 0; index < value.length; index++) {
+                int[] indexes = value[index];
+                if (indexes != null) {
+                    encoder.writeSmallInt(index - previousIndex);
+                    previousIndex = index;
+                    encoder.writeSmallInt(indexes.length);
+                    int previous = 0;
+                    for (int i : indexes) {
+                        encoder.writeSmallInt(i - previous);
+                        previous = i;
+                    }
+                }
             }
-            return classNameMap.get(id);
         }
 
-        private void writeClassName(String className, Map<String, Integer> classIdMap, Encoder encoder) throws IOException {
-            Integer id = classIdMap.get(className);
-            if (id == null) {
-                id = classIdMap.size() + 1;
-                classIdMap.put(className, id);
-                encoder.writeSmallInt(0);
-                encoder.writeSmallInt(id);
-                encoder.writeString(className);
-            } else {
-                encoder.writeSmallInt(id);
+        private static int countNonNull(int[][] value) {
+            int count = 0;
+            for (int[] element : value) {
+                if (element != null) {
+                    count++;
+                }
             }
+            return count;
         }
     }
 }
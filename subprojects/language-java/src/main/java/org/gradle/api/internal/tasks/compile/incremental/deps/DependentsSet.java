@@ -38,6 +38,13 @@ public static DependentsSet dependents(Set<String> privateDependentClasses, Set<
         }
     }
 
+    /**
+     * Creates a set of dependent classes that uses the given sets as they are, rather than copying them. The sets must not be modified afterwards.
+     */
+    static DependentsSet dependentClassesOf(Set<String> privateDependentClasses, Set<String> accessibleDependentClasses) {
+        return new DefaultDependentsSet(privateDependentClasses, accessibleDependentClasses, Collections.<GeneratedResource>emptySet());
+    }
+
     public static DependentsSet dependencyToAll() {
         return DependencyToAll.INSTANCE;
     }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import java.nio.charset.StandardCharsets
+
+class JavaFileManagerPoolTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def compiler = Mock(JavaCompiler)
+    def pool = new JavaFileManagerPool()
+
+    def "reuses file manager for compilations that differ only in their locations"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = pool.acquire(compiler, StandardCharsets.UTF_8, ["-d", "out1", "-classpath", "a.jar", "-g"])
+        first.close()
+        def second = pool.acquire(compiler, StandardCharsets.UTF_8, ["-d", "out2", "-classpath", "b.jar", "-g"])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8) >> fileManager
+        first.fileManager.is(fileManager)
+        second.fileManager.is(fileManager)
+        0 * fileManager.close()
+    }
+
+    def "uses separate file managers for concurrent compilations and compilations with different options"() {
+        when:
+        def first = pool.acquire(compiler, null, ["-g"])
+        def second = pool.acquire(compiler, null, ["-g"])
+        first.close()
+        def third = pool.acquire(compiler, null, ["-g", "-parameters"])
+        def fourth = pool.acquire(compiler, StandardCharsets.UTF_8, ["-g"])
+
+        then:
+        4 * compiler.getStandardFileManager(null, null, _) >> { Mock(StandardJavaFileManager) }
+        [first, second, third, fourth]*.fileManager.unique(false).size() == 4
+    }
+
+    def "closes archives of reused file manager when the build changes a file on the classpath"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def jar = tmpDir.file("lib.jar").createFile()
+        def options = ["-classpath", jar.absolutePath]
+
+        when:
+        pool.acquire(compiler, null, options).close()
+        pool.beforeOutputChange([tmpDir.file("other.jar").absolutePath, tmpDir.file("lib.jar.tmp").absolutePath])
+        pool.acquire(compiler, null, options).close()
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        0 * fileManager.close()
+
+        when:
+        pool.beforeOutputChange([jar.absolutePath])
+        pool.acquire(compiler, null, options).close()
+
+        then:
+        1 * fileManager.close()
+        0 * compiler._
+
+        when:
+        pool.acquire(compiler, null, options).close()
+
+        then:
+        0 * fileManager.close()
+    }
+
+    def "closes archives of reused file manager when the build changes a directory containing a file on the classpath"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def jar = tmpDir.file("libs/lib.jar").createFile()
+        def options = ["-classpath", jar.absolutePath]
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        when:
+        pool.acquire(compiler, null, options).close()
+        pool.beforeOutputChange([tmpDir.file("libs").absolutePath])
+        pool.acquire(compiler, null, options).close()
+
+        then:
+        1 * fileManager.close()
+    }
+
+    def "closes archives of reused file manager when the build changes unknown outputs"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def options = ["-classpath", tmpDir.file("lib.jar").absolutePath]
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        when:
+        pool.acquire(compiler, null, options).close()
+        pool.beforeOutputChange()
+        pool.acquire(compiler, null, options).close()
+
+        then:
+        1 * fileManager.close()
+    }
+
+    def "closes all file managers when closed"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager1, fileManager2]
+
+        given:
+        pool.acquire(compiler, null, []).close()
+        def inUse = pool.acquire(compiler, null, [])
+        def inUse2 = pool.acquire(compiler, null, [])
+
+        when:
+        pool.close()
+
+        then:
+        1 * fileManager1.close()
+        1 * fileManager2.close()
+
+        when:
+        inUse2.close()
+
+        then:
+        1 * fileManager2.close()
+    }
+}
@@ -31,6 +31,9 @@ import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Subject
 
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
 @UsesNativeServices
 class DefaultClasspathEntrySnapshotterTest extends Specification {
 
@@ -85,4 +88,38 @@ class DefaultClasspathEntrySnapshotterTest extends Specification {
         snapshot.hashes == ["Foo": f1Hash, "com.Foo2": f2Hash]
         snapshot.classAnalysis
     }
+
+    def "creates snapshot of a jar reading each class file once"() {
+        def jar = temp.file("foo.jar")
+        jar.withOutputStream { outputStream ->
+            def zip = new ZipOutputStream(outputStream)
+            ["com/": null, "com/Foo.class": "foo", "com/Bar.class": "bar", "app.properties": "props"].each { name, content ->
+                zip.putNextEntry(new ZipEntry(name))
+                if (content != null) {
+                    zip.write(content.bytes)
+                }
+                zip.closeEntry()
+            }
+            zip.close()
+        }
+        def fooHash = HashCode.fromInt(1)
+        def barHash = HashCode.fromInt(2)
+
+        when:
+        def snapshot = snapshotter.createSnapshot(HashCode.fromInt(123), jar)
+
+        then:
+        2 * streamHasher.hash(_) >> { InputStream input -> input.text == "foo" ? fooHash : barHash }
+        1 * classDependenciesAnalyzer.getClassAnalysis(fooHash, "foo".bytes) >> Stub(ClassAnalysis) {
+            getClassName() >> "com.Foo"
+        }
+        1 * classDependenciesAnalyzer.getClassAnalysis(barHash, "bar".bytes) >> Stub(ClassAnalysis) {
+            getClassName() >> "com.Bar"
+        }
+        0 * _._
+
+        and:
+        snapshot.hashes == ["com.Foo": fooHash, "com.Bar": barHash]
+        snapshot.classAnalysis
+    }
 }
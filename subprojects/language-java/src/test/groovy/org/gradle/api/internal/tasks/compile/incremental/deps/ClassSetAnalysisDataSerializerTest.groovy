@@ -33,29 +33,53 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
     @Subject serializer = new ClassSetAnalysisData.Serializer(new StringInterner())
 
     def "serializes"() {
-        def data = new ClassSetAnalysisData(["A", "B", "C", "D"] as Set,
-            ["A": dependentClasses(["B", "C"] as Set, [] as Set), "B": dependentClasses(["C"] as Set, [] as Set), "C": dependentClasses([] as Set, [] as Set), "D": dependencyToAll(),],
-            [C: new IntOpenHashSet([1, 2]) as IntSet, D: IntSets.EMPTY_SET]
-            ,"Because"
+        def data = new ClassSetAnalysisData(["org.A", "org.B", "org.C", "org.D", "org.sub.E", "com.F"] as Set,
+            ["org.A": dependentClasses(["org.B", "org.C"] as Set, ["com.F"] as Set), "org.B": dependentClasses(["org.C"] as Set, [] as Set), "org.C": dependentClasses([] as Set, [] as Set),
+             "org.D": dependencyToAll(), "org.sub.E": dependencyToAll("reason"), "external.G": dependentClasses([] as Set, ["org.sub.E"] as Set)],
+            ["org.C": new IntOpenHashSet([1, 2]) as IntSet, "org.D": IntSets.EMPTY_SET],
+            null
         )
-        def os = new ByteArrayOutputStream()
-        def e = new OutputStreamBackedEncoder(os)
 
         when:
-        serializer.write(e, data)
-        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+        ClassSetAnalysisData read = serializeAndRead(data)
 
         then:
-        read.dependents.keySet() == data.dependents.keySet()
-
-        ["A", "B", "C"].each {
-            assert read.dependents[it].privateDependentClasses == data.dependents[it].privateDependentClasses
-            assert read.dependents[it].accessibleDependentClasses == data.dependents[it].accessibleDependentClasses
-            assert read.dependents[it].dependencyToAll == data.dependents[it].dependencyToAll
+        ["org.A", "org.B", "org.C", "external.G", "unknown.H", "org.package-info"].each {
+            assert !read.getDependents(it).dependencyToAll
+            assert read.getDependents(it).privateDependentClasses == data.getDependents(it).privateDependentClasses
+            assert read.getDependents(it).accessibleDependentClasses == data.getDependents(it).accessibleDependentClasses
         }
+        read.getDependents("org.A").privateDependentClasses == ["org.B", "org.C"] as Set
+        read.getDependents("org.A").accessibleDependentClasses == ["com.F"] as Set
+        read.getDependents("external.G").accessibleDependentClasses == ["org.sub.E"] as Set
+        read.getDependents("org.package-info").accessibleDependentClasses == ["org.A", "org.B", "org.C", "org.D"] as Set
+
+        read.getDependents("org.D").dependencyToAll
+        read.getDependents("org.D").description == null
+        read.getDependents("org.sub.E").dependencyToAll
+        read.getDependents("org.sub.E").description == "reason"
+
+        read.getConstants("org.C") == [1, 2] as Set
+        read.getConstants("org.D").empty
+        read.getConstants("unknown.H").empty
+    }
+
+    def "serializes full rebuild cause"() {
+        def data = new ClassSetAnalysisData(["A"] as Set, [:], [:], "Because")
 
-        read.dependents["D"].dependencyToAll
-        read.classesToConstants == [C: [1,2] as Set, D: [] as Set]
-        read.fullRebuildCause == "Because"
+        when:
+        ClassSetAnalysisData read = serializeAndRead(data)
+
+        then:
+        read.getDependents("A").dependencyToAll
+        read.getDependents("A").description == "Because"
+    }
+
+    private ClassSetAnalysisData serializeAndRead(ClassSetAnalysisData data) {
+        def os = new ByteArrayOutputStream()
+        def e = new OutputStreamBackedEncoder(os)
+        serializer.write(e, data)
+        e.flush()
+        return serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
     }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a header by scanning its bytes with parsing it through {@link PreprocessingReader}.
+ *
+ * <p>The headers are generated to resemble two styles of real world headers: Boost style headers, where most lines are preprocessor directives and macros are used heavily,
+ * and Windows SDK style headers, which are very large and consist mostly of declarations and documentation comments, with comparatively few directives.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class CSourceParserBenchmark {
+    @Param({"boost", "windows-sdk"})
+    String style;
+
+    private final RegexBackedCSourceParser parser = new RegexBackedCSourceParser(StandardCharsets.UTF_8);
+    private File header;
+
+    @Setup
+    public void setup() throws IOException {
+        header = File.createTempFile("header", ".h");
+        String content = style.equals("boost") ? boostStyleHeader() : windowsSdkStyleHeader();
+        Files.write(header.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        header.delete();
+    }
+
+    @Benchmark
+    public IncludeDirectives scanBytes() {
+        return parser.parseSource(header);
+    }
+
+    @Benchmark
+    public IncludeDirectives readLines() throws IOException {
+        try (Reader reader = new FileReader(header)) {
+            return parser.parseSource(reader);
+        }
+    }
+
+    private static String boostStyleHeader() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("// Copyright (c) 2001-2020 Some Authors\n");
+        builder.append("// Distributed under the Software License, Version 1.0.\n\n");
+        builder.append("#ifndef BOOST_PREPROCESSOR_REPETITION_REPEAT_HPP\n");
+        builder.append("#define BOOST_PREPROCESSOR_REPETITION_REPEAT_HPP\n\n");
+        builder.append("#include <boost/preprocessor/cat.hpp>\n");
+        builder.append("#include <boost/preprocessor/config/config.hpp>\n");
+        builder.append("#include <boost/preprocessor/debug/error.hpp>\n");
+        builder.append("#include BOOST_PP_ITERATE()\n\n");
+        for (int i = 0; i < 2000; i++) {
+            builder.append("# define BOOST_PP_REPEAT_1_").append(i).append("(m, d) BOOST_PP_REPEAT_1_").append(i - 1).append("(m, d) m(2, ").append(i).append(", d)\n");
+            if (i % 10 == 0) {
+                builder.append("/* BOOST_PP_REPEAT_").append(i).append(" */\n");
+                builder.append("# if BOOST_PP_CONFIG_FLAGS() & BOOST_PP_CONFIG_EDG()\n");
+                builder.append("#    define BOOST_PP_REPEAT_").append(i).append(" BOOST_PP_CAT(BOOST_PP_REPEAT_, BOOST_PP_AUTO_REC(BOOST_PP_REPEAT_P, 4))\n");
+                builder.append("# else\n");
+                builder.append("#    define BOOST_PP_REPEAT_I_").append(i).append("(m, d) BOOST_PP_REPEAT_ ## ").append(i).append(" (m, d) \\\n");
+                builder.append("        BOOST_PP_TUPLE_EAT_3\n");
+                builder.append("# endif\n");
+            }
+        }
+        builder.append("\n#endif\n");
+        return builder.toString();
+    }
+
+    private static String windowsSdkStyleHeader() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("/*++ BUILD Version: 0001    Increment this if a change has global effects\n\n");
+        builder.append("Copyright (c) Some Corporation. All rights reserved.\n\n");
+        builder.append("Module Name:\n\n    winbase.h\n\n--*/\n\n");
+        builder.append("#ifndef _WINBASE_\n#define _WINBASE_\n\n");
+        builder.append("#pragma once\n\n");
+        builder.append("#include <apiset.h>\n#include <apisetcconv.h>\n#include <minwindef.h>\n#include \"winapifamily.h\"\n\n");
+        for (int i = 0; i < 3000; i++) {
+            builder.append("//\n// Retrieves information about the object with index ").append(i).append(".\n//\n\n");
+            builder.append("typedef struct _OBJECT_INFORMATION_").append(i).append(" {\n");
+            builder.append("    DWORD dwSize;           // size of this structure, in bytes\n");
+            builder.append("    DWORD dwFlags;          /* combination of OBJECT_FLAG_* values */\n");
+            builder.append("    LPCWSTR lpszName;       // \"name\" of the object\n");
+            builder.append("    ULONG_PTR Reserved[4];\n");
+            builder.append("} OBJECT_INFORMATION_").append(i).append(", *POBJECT_INFORMATION_").append(i).append(";\n\n");
+            builder.append("WINBASEAPI\nBOOL\nWINAPI\nGetObjectInformation").append(i).append("(\n");
+            builder.append("    _In_ HANDLE hObject,\n    _Out_writes_bytes_(nLength) LPVOID lpInformation,\n    _In_ DWORD nLength\n    );\n\n");
+            if (i % 50 == 0) {
+                builder.append("#if (_WIN32_WINNT >= 0x0600)\n");
+                builder.append("#define OBJECT_FLAG_").append(i).append(" 0x").append(Integer.toHexString(i)).append("\n");
+                builder.append("#endif // _WIN32_WINNT >= 0x0600\n\n");
+            }
+        }
+        builder.append("#endif // _WINBASE_\n");
+        return builder.toString();
+    }
+}
@@ -28,6 +28,7 @@
 import org.gradle.internal.file.Deleter;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.vfs.VirtualFileSystem;
+import org.gradle.internal.work.SharedWorkExecutor;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.language.nativeplatform.internal.Expression;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
@@ -51,6 +52,7 @@ public class DefaultIncrementalCompilerBuilder implements IncrementalCompilerBui
     private final DirectoryFileTreeFactory directoryFileTreeFactory;
     private final VirtualFileSystem virtualFileSystem;
     private final TaskFileVarFactory fileVarFactory;
+    private final SharedWorkExecutor sharedWorkExecutor;
 
     public DefaultIncrementalCompilerBuilder(
         BuildOperationExecutor buildOperationExecutor,
@@ -59,7 +61,8 @@ public DefaultIncrementalCompilerBuilder(
         Deleter deleter,
         DirectoryFileTreeFactory directoryFileTreeFactory,
         VirtualFileSystem virtualFileSystem,
-        TaskFileVarFactory fileVarFactory
+        TaskFileVarFactory fileVarFactory,
+        SharedWorkExecutor sharedWorkExecutor
     ) {
         this.buildOperationExecutor = buildOperationExecutor;
         this.compilationStateCacheFactory = compilationStateCacheFactory;
@@ -68,6 +71,7 @@ public DefaultIncrementalCompilerBuilder(
         this.virtualFileSystem = virtualFileSystem;
         this.fileVarFactory = fileVarFactory;
         this.sourceParser = sourceParser;
+        this.sharedWorkExecutor = sharedWorkExecutor;
     }
 
     @Override
@@ -84,7 +88,8 @@ public IncrementalCompiler newCompiler(TaskInternal task, FileCollection sourceF
             deleter,
             directoryFileTreeFactory,
             virtualFileSystem,
-            fileVarFactory
+            fileVarFactory,
+            sharedWorkExecutor
         );
     }
 
@@ -95,6 +100,7 @@ private static class StateCollectingIncrementalCompiler implements IncrementalCo
         private final Deleter deleter;
         private final DirectoryFileTreeFactory directoryFileTreeFactory;
         private final VirtualFileSystem virtualFileSystem;
+        private final SharedWorkExecutor sharedWorkExecutor;
 
         private final Map<String, String> macros;
         private final Provider<Boolean> importAware;
@@ -119,7 +125,8 @@ private static class StateCollectingIncrementalCompiler implements IncrementalCo
             Deleter deleter,
             DirectoryFileTreeFactory directoryFileTreeFactory,
             VirtualFileSystem virtualFileSystem,
-            TaskFileVarFactory fileVarFactory
+            TaskFileVarFactory fileVarFactory,
+            SharedWorkExecutor sharedWorkExecutor
         ) {
             this.taskOutputs = task.getOutputs();
             this.taskPath = task.getPath();
@@ -135,6 +142,7 @@ private static class StateCollectingIncrementalCompiler implements IncrementalCo
             this.directoryFileTreeFactory = directoryFileTreeFactory;
             this.virtualFileSystem = virtualFileSystem;
             this.sourceParser = sourceParser;
+            this.sharedWorkExecutor = sharedWorkExecutor;
         }
 
         @Override
@@ -152,7 +160,8 @@ public Set<File> getFiles() {
             DefaultSourceIncludesParser sourceIncludesParser = new DefaultSourceIncludesParser(sourceParser, importAware.get());
             DefaultSourceIncludesResolver dependencyParser = new DefaultSourceIncludesResolver(includeRoots, virtualFileSystem);
             IncludeDirectives includeDirectives = directivesForMacros(macros);
-            IncrementalCompileFilesFactory incrementalCompileFilesFactory = new IncrementalCompileFilesFactory(includeDirectives, sourceIncludesParser, dependencyParser, virtualFileSystem);
+            IncrementalCompileFilesFactory incrementalCompileFilesFactory = new IncrementalCompileFilesFactory(includeDirectives, sourceIncludesParser, dependencyParser, virtualFileSystem,
+                IncrementalCompileFilesFactory.isParallelAnalysisEnabled() ? sharedWorkExecutor : null);
             IncrementalCompileProcessor incrementalCompileProcessor = new IncrementalCompileProcessor(compileStateCache, incrementalCompileFilesFactory, buildOperationExecutor);
 
             incrementalCompilation = incrementalCompileProcessor.processSourceFiles(sourceFiles.getFiles());
@@ -36,8 +36,13 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 public class IncrementalCompileFilesFactory {
+    /**
+     * When set, the include directives of the source files and their headers are parsed using multiple threads before the include graph is walked.
+     */
+    public static final String PARALLEL_ANALYSIS_PROPERTY = "org.gradle.internal.native.headers.parallel-analysis";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalCompileFilesFactory.class);
     private static final String IGNORE_UNRESOLVED_HEADERS_IN_DEPENDENCIES_PROPERTY_NAME = "org.gradle.internal.native.headers.unresolved.dependencies.ignore";
@@ -47,17 +52,39 @@ public class IncrementalCompileFilesFactory {
     private final SourceIncludesResolver sourceIncludesResolver;
     private final VirtualFileSystem virtualFileSystem;
     private final boolean ignoreUnresolvedHeadersInDependencies;
+    @Nullable
+    private final ParallelIncludeDirectivesParser parallelParser;
 
     public IncrementalCompileFilesFactory(IncludeDirectives initialIncludeDirectives, SourceIncludesParser sourceIncludesParser, SourceIncludesResolver sourceIncludesResolver, VirtualFileSystem virtualFileSystem) {
+        this(initialIncludeDirectives, sourceIncludesParser, sourceIncludesResolver, virtualFileSystem, null);
+    }
+
+    /**
+     * @param executor used to parse headers in parallel, or null to parse them as the include graph is walked.
+     */
+    public IncrementalCompileFilesFactory(IncludeDirectives initialIncludeDirectives, SourceIncludesParser sourceIncludesParser, SourceIncludesResolver sourceIncludesResolver, VirtualFileSystem virtualFileSystem, @Nullable Executor executor) {
         this.initialIncludeDirectives = initialIncludeDirectives;
         this.sourceIncludesParser = sourceIncludesParser;
         this.sourceIncludesResolver = sourceIncludesResolver;
         this.virtualFileSystem = virtualFileSystem;
         this.ignoreUnresolvedHeadersInDependencies = Boolean.getBoolean(IGNORE_UNRESOLVED_HEADERS_IN_DEPENDENCIES_PROPERTY_NAME);
+        this.parallelParser = executor == null ? null : new ParallelIncludeDirectivesParser(sourceIncludesParser, sourceIncludesResolver, executor);
+    }
+
+    public static boolean isParallelAnalysisEnabled() {
+        return Boolean.getBoolean(PARALLEL_ANALYSIS_PROPERTY);
     }
 
-    public IncrementalCompileSourceProcessor files(CompilationState previousCompileState) {
-        return new DefaultIncrementalCompileSourceProcessor(previousCompileState);
+    /**
+     * Creates a processor for the given source files. When parallel analysis is enabled, the source files that have changed and the headers they include are parsed up front.
+     * The include graph is then walked in the same order as without parallel analysis, so the resulting compilation state is the same.
+     */
+    public IncrementalCompileSourceProcessor files(CompilationState previousCompileState, Collection<File> sourceFiles) {
+        DefaultIncrementalCompileSourceProcessor processor = new DefaultIncrementalCompileSourceProcessor(previousCompileState);
+        if (parallelParser != null) {
+            processor.parsedFiles.putAll(parallelParser.parseAll(processor.changedSources(sourceFiles)));
+        }
+        return processor;
     }
 
     private class DefaultIncrementalCompileSourceProcessor implements IncrementalCompileSourceProcessor {
@@ -66,6 +93,7 @@ private class DefaultIncrementalCompileSourceProcessor implements IncrementalCom
         private final List<File> toRecompile = new ArrayList<File>();
         private final Set<File> existingHeaders = new HashSet<File>();
         private final Map<File, FileDetails> visitedFiles = new HashMap<File, FileDetails>();
+        private final Map<File, IncludeDirectives> parsedFiles = new HashMap<File, IncludeDirectives>();
         private boolean hasUnresolvedHeaders;
 
         DefaultIncrementalCompileSourceProcessor(CompilationState previousCompileState) {
@@ -77,6 +105,23 @@ public IncrementalCompilation getResult() {
             return new DefaultIncrementalCompilation(current.snapshot(), toRecompile, getRemovedSources(), existingHeaders, hasUnresolvedHeaders);
         }
 
+        /**
+         * Selects the source files whose content is different to last time, which will need their include graph to be calculated.
+         */
+        private List<File> changedSources(Collection<File> sourceFiles) {
+            List<File> changed = new ArrayList<File>();
+            for (File sourceFile : sourceFiles) {
+                SourceFileState previousState = previous.getState(sourceFile);
+                boolean unchanged = virtualFileSystem.readRegularFileContentHash(sourceFile.getAbsolutePath(),
+                    fileContent -> previousState != null && fileContent.equals(previousState.getHash())
+                ).orElse(true);
+                if (!unchanged) {
+                    changed.add(sourceFile);
+                }
+            }
+            return changed;
+        }
+
         @Override
         public void processSource(File sourceFile) {
             if (visitSourceFile(sourceFile)) {
@@ -174,7 +219,10 @@ private FileVisitResult visitFile(File file, HashCode newHash, CollectingMacroLo
             }
 
             if (fileDetails == null) {
-                IncludeDirectives includeDirectives = sourceIncludesParser.parseIncludes(file);
+                IncludeDirectives includeDirectives = parsedFiles.get(file);
+                if (includeDirectives == null) {
+                    includeDirectives = sourceIncludesParser.parseIncludes(file);
+                }
                 fileDetails = new FileDetails(includeDirectives);
                 visitedFiles.put(file, fileDetails);
             }
@@ -40,7 +40,7 @@ public IncrementalCompilation processSourceFiles(final Collection<File> sourceFi
             @Override
             public IncrementalCompilation call(BuildOperationContext context) {
                 CompilationState previousCompileState = previousCompileStateCache.get();
-                IncrementalCompileSourceProcessor processor = incrementalCompileFilesFactory.files(previousCompileState);
+                IncrementalCompileSourceProcessor processor = incrementalCompileFilesFactory.files(previousCompileState, sourceFiles);
                 for (File sourceFile : sourceFiles) {
                     processor.processSource(sourceFile);
                 }
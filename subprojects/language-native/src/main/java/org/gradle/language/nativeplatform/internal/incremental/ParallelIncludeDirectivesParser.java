@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.language.nativeplatform.internal.Include;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+import org.gradle.language.nativeplatform.internal.IncludeType;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parses the include directives of a set of source files and the header files they include, using the threads of the given executor.
+ * The executor is shared by all compile tasks, so it must not be stopped by this parser.
+ *
+ * <p>Only includes whose location does not depend on macros are followed, as the macros that are visible at a given include depend on the order in which the
+ * include graph is traversed. Headers that are only reachable through macro includes are parsed later, when the include graph is walked.</p>
+ *
+ * <p>A file that cannot be parsed or whose includes cannot be resolved is skipped, so that the failure is reported when the include graph is walked, as it would be without this parser.</p>
+ */
+public class ParallelIncludeDirectivesParser {
+    private static final MacroLookup NO_MACROS = new CollectingMacroLookup();
+
+    private final SourceIncludesParser sourceIncludesParser;
+    private final SourceIncludesResolver sourceIncludesResolver;
+    private final Executor executor;
+
+    public ParallelIncludeDirectivesParser(SourceIncludesParser sourceIncludesParser, SourceIncludesResolver sourceIncludesResolver, Executor executor) {
+        this.sourceIncludesParser = sourceIncludesParser;
+        this.sourceIncludesResolver = sourceIncludesResolver;
+        this.executor = executor;
+    }
+
+    /**
+     * Parses the given files and the headers reachable from them. The resolver must be safe to use from multiple threads.
+     *
+     * @return the include directives of each file that was parsed.
+     */
+    public Map<File, IncludeDirectives> parseAll(Collection<File> files) {
+        Map<File, IncludeDirectives> results = new ConcurrentHashMap<File, IncludeDirectives>();
+        if (files.isEmpty()) {
+            return results;
+        }
+        ParseSession session = new ParseSession(results);
+        for (File file : files) {
+            session.schedule(file);
+        }
+        session.await();
+        return results;
+    }
+
+    private class ParseSession {
+        private final Map<File, IncludeDirectives> results;
+        private final Set<File> scheduled = ConcurrentHashMap.newKeySet();
+        // Starts at 1 so that the session cannot complete while the initial files are being scheduled
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        ParseSession(Map<File, IncludeDirectives> results) {
+            this.results = results;
+        }
+
+        void schedule(final File file) {
+            if (!scheduled.add(file)) {
+                return;
+            }
+            pending.incrementAndGet();
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        parse(file);
+                    } catch (Throwable e) {
+                        // Ignore, the failure is reported when the include graph is walked
+                    } finally {
+                        completed();
+                    }
+                }
+            });
+        }
+
+        void await() {
+            completed();
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        private void completed() {
+            if (pending.decrementAndGet() == 0) {
+                finished.countDown();
+            }
+        }
+
+        private void parse(File file) {
+            IncludeDirectives directives = sourceIncludesParser.parseIncludes(file);
+            results.put(file, directives);
+            for (Include include : directives.getAll()) {
+                if (include.getType() != IncludeType.QUOTED && include.getType() != IncludeType.SYSTEM) {
+                    continue;
+                }
+                for (SourceIncludesResolver.IncludeFile includeFile : sourceIncludesResolver.resolveInclude(file, include, NO_MACROS).getFiles()) {
+                    schedule(includeFile.getFile());
+                }
+            }
+        }
+    }
+}
@@ -18,18 +18,27 @@
 
 import org.gradle.cache.internal.FileContentCache;
 import org.gradle.cache.internal.FileContentCacheFactory;
+import org.gradle.internal.vfs.VirtualFileSystem;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 
 import java.io.File;
 
+/**
+ * Caches the include directives of each file for the build, and looks up files that have not been seen by the build in the {@link SharedIncludeDirectivesCache} before parsing them.
+ */
 public class CachingCSourceParser implements CSourceParser {
     private final FileContentCache<IncludeDirectives> cache;
 
-    public CachingCSourceParser(FileContentCacheFactory cacheFactory) {
+    public CachingCSourceParser(FileContentCacheFactory cacheFactory, VirtualFileSystem virtualFileSystem, SharedIncludeDirectivesCache sharedCache) {
         final RegexBackedCSourceParser parser = new RegexBackedCSourceParser();
         cache = cacheFactory.newCache("parsedCSource", 40000, new FileContentCacheFactory.Calculator<IncludeDirectives>() {
             @Override
             public IncludeDirectives calculate(File file, boolean isRegularFile) {
+                if (isRegularFile) {
+                    // The content hash has just been calculated by the build's virtual file system, which knows about the outputs written by this build
+                    return virtualFileSystem.readRegularFileContentHash(file.getAbsolutePath(), contentHash -> sharedCache.get(contentHash, file, parser))
+                        .orElseGet(() -> parser.parseSource(file));
+                }
                 return parser.parseSource(file);
             }
         }, IncludeDirectivesSerializer.INSTANCE);
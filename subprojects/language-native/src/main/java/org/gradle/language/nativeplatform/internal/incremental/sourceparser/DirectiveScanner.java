@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Scans the bytes of a source file for the lines that may hold a preprocessor directive, that is, lines whose first character other than whitespace is a '#'.
+ * Filters the content in the same way as {@link PreprocessingReader}, so comments are replaced by a single space and line continuations are removed,
+ * but the other lines are skipped without being decoded or copied.
+ *
+ * <p>The content must use an encoding where each ASCII character is a single byte that is not part of the encoding of any other character, such as UTF-8 or ISO-8859-1.
+ * A line that starts with a non-ASCII character is also returned, so that the caller can decide whether the character is whitespace.</p>
+ */
+public class DirectiveScanner {
+    private final byte[] content;
+    private final Charset charset;
+    private int pos;
+    private byte[] line = new byte[256];
+    private int lineLength;
+
+    /**
+     * Whether or not the scanner is currently in the middle of a string literal.
+     */
+    private boolean inString;
+
+    /**
+     * Whether or not the last char has been a backslash.
+     */
+    private boolean quoted;
+
+    public DirectiveScanner(byte[] content, Charset charset) {
+        this.content = content;
+        this.charset = charset;
+    }
+
+    /**
+     * Collects the next line that may hold a directive into the given buffer, with leading whitespace removed. Does not include the line separators.
+     *
+     * @return true if a line is available, false when the end of the content is reached.
+     */
+    public boolean readNextDirectiveLine(StringBuilder buffer) {
+        while (true) {
+            int ch = read();
+            while (isWhitespace(ch)) {
+                if (ch == '\r') {
+                    discardLineFeed();
+                }
+                ch = read();
+            }
+            if (ch < 0) {
+                return false;
+            }
+            if (ch == '#' || ch >= 0x80) {
+                lineLength = 0;
+                while (ch >= 0 && ch != '\n' && ch != '\r') {
+                    append(ch);
+                    ch = read();
+                }
+                if (ch == '\r') {
+                    discardLineFeed();
+                }
+                buffer.append(new String(line, 0, lineLength, charset));
+                return true;
+            }
+            // Not a directive, skip the rest of the line
+            while (ch >= 0 && ch != '\n' && ch != '\r') {
+                ch = read();
+            }
+            if (ch < 0) {
+                return false;
+            }
+            if (ch == '\r') {
+                discardLineFeed();
+            }
+        }
+    }
+
+    /**
+     * Matches the characters skipped by {@code RegexBackedCSourceParser}, with the exception of the line separators, which have already been handled.
+     */
+    private static boolean isWhitespace(int ch) {
+        return ch == ' ' || ch == 0 || (ch >= 0x09 && ch <= 0x0D) || (ch >= 0x1C && ch <= 0x1F);
+    }
+
+    private void append(int ch) {
+        if (lineLength == line.length) {
+            line = Arrays.copyOf(line, line.length * 2);
+        }
+        line[lineLength++] = (byte) ch;
+    }
+
+    private void discardLineFeed() {
+        if (pos < content.length && content[pos] == '\n') {
+            pos++;
+        }
+    }
+
+    /**
+     * Returns the next character in the filtered content, see {@link PreprocessingReader}.
+     */
+    private int read() {
+        int ch = next();
+        while (ch == '\\' && discardNewLine()) {
+            ch = next();
+        }
+
+        if (ch == '"' && !quoted) {
+            inString = !inString;
+            quoted = false;
+        } else if (ch == '\\') {
+            quoted = !quoted;
+        } else {
+            quoted = false;
+            if (!inString && ch == '/') {
+                ch = next();
+                if (ch == '/') {
+                    while (ch != '\n' && ch != -1 && ch != '\r') {
+                        ch = next();
+                    }
+                } else if (ch == '*') {
+                    while (ch != -1) {
+                        ch = next();
+                        if (ch == '*') {
+                            ch = next();
+                            while (ch == '*') {
+                                ch = next();
+                            }
+
+                            if (ch == '/') {
+                                ch = ' ';
+                                break;
+                            }
+                        }
+                    }
+                } else {
+                    pushBack(ch);
+                    ch = '/';
+                }
+            }
+        }
+
+        return ch;
+    }
+
+    private boolean discardNewLine() {
+        int nextChar = next();
+        if (nextChar == '\n') {
+            return true; // '\\\n' discarded
+        } else if (nextChar == '\r') {
+            int followingChar = next();
+            if (followingChar == '\n') {
+                return true; // '\\\r\n' discarded
+            }
+            pushBack(followingChar);
+            pushBack(nextChar);
+            return false;
+        } else {
+            pushBack(nextChar);
+            return false;
+        }
+    }
+
+    private int next() {
+        if (pos < content.length) {
+            return content[pos++] & 0xff;
+        }
+        return -1;
+    }
+
+    private void pushBack(int ch) {
+        if (ch != -1) {
+            pos--;
+        }
+    }
+}
@@ -17,6 +17,8 @@
 package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.gradle.api.GradleException;
@@ -33,6 +35,9 @@
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -45,25 +50,53 @@
  * used as the body of these directives.
  */
 public class RegexBackedCSourceParser implements CSourceParser {
+    private static final Interner<String> MACRO_NAMES = Interners.newWeakInterner();
+    private final Charset charset;
+
+    public RegexBackedCSourceParser() {
+        this(Charset.defaultCharset());
+    }
+
+    RegexBackedCSourceParser(Charset charset) {
+        this.charset = charset;
+    }
+
     @Override
     public IncludeDirectives parseSource(File sourceFile) {
-        try (Reader fileReader = new FileReader(sourceFile)) {
-            return parseSource(fileReader);
+        try {
+            if (canScanBytes(charset)) {
+                // Read the whole file rather than mapping it, as a mapped file cannot be deleted or replaced on Windows until the mapping is garbage collected
+                DirectiveScanner scanner = new DirectiveScanner(Files.readAllBytes(sourceFile.toPath()), charset);
+                return parseSource(scanner::readNextDirectiveLine);
+            }
+            try (Reader fileReader = new FileReader(sourceFile)) {
+                return parseSource(fileReader);
+            }
         } catch (Exception e) {
             throw new GradleException(String.format("Could not extract includes from source file %s.", sourceFile), e);
         }
     }
 
+    /**
+     * Can the bytes of a file in the given encoding be scanned for directives without decoding them first? See {@link DirectiveScanner}.
+     */
+    private static boolean canScanBytes(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1);
+    }
+
     protected IncludeDirectives parseSource(Reader sourceReader) throws IOException {
+        PreprocessingReader lineReader = new PreprocessingReader(new BufferedReader(sourceReader));
+        return parseSource(lineReader::readNextLine);
+    }
+
+    private IncludeDirectives parseSource(LineSource lineSource) throws IOException {
         Set<Include> includes = Sets.newLinkedHashSet();
         List<Macro> macros = Lists.newArrayList();
         List<MacroFunction> macroFunctions = Lists.newArrayList();
-        BufferedReader reader = new BufferedReader(sourceReader);
-        PreprocessingReader lineReader = new PreprocessingReader(reader);
         Buffer buffer = new Buffer();
         while (true) {
             buffer.reset();
-            if (!lineReader.readNextLine(buffer.value)) {
+            if (!lineSource.readNextLine(buffer.value)) {
                 break;
             }
             buffer.consumeWhitespace();
@@ -121,6 +154,8 @@ private void parseDefineDirectiveBody(Buffer buffer, Collection<Macro> macros, C
             // No macro name
             return;
         }
+        // The same names are defined by many headers, for example include guards and configuration macros
+        name = MACRO_NAMES.intern(name);
         if (buffer.consume('(')) {
             // A function-like macro
             parseMacroFunctionDirectiveBody(buffer, name, macroFunctions);
@@ -505,6 +540,15 @@ private static int consumeWhitespace(CharSequence value, int startOffset) {
         return pos;
     }
 
+    private interface LineSource {
+        /**
+         * Collects the next line into the given buffer.
+         *
+         * @return true if a line is available, false when the end of the input is reached.
+         */
+        boolean readNextLine(StringBuilder buffer) throws IOException;
+    }
+
     private static class Buffer {
         final StringBuilder value = new StringBuilder();
         int pos = 0;
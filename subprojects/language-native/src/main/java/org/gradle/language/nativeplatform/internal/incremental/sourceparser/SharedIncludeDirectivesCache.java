@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+
+import java.io.File;
+import java.nio.charset.Charset;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * The include directives of source and header files, keyed by file content and shared by all builds and processes using the same Gradle user home.
+ *
+ * <p>Allows the system and toolchain headers, and headers shared between components, to be parsed once rather than once per build.
+ * As entries are keyed by content only, they never need to be invalidated.</p>
+ */
+public class SharedIncludeDirectivesCache implements Stoppable {
+
+    public static final String CACHE_KEY = "native-include-directives";
+
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<HashCode, IncludeDirectives> store;
+
+    public SharedIncludeDirectivesCache(CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory) {
+        cache = cacheRepository
+            .cache(CACHE_KEY)
+            .withDisplayName("parsed include directives")
+            .withLockOptions(mode(FileLockManager.LockMode.None)) // lock on demand
+            .open();
+        // The parser decodes files using the default charset, so files with non-ASCII content may be parsed differently by processes that use another charset
+        String indexName = "parsedCSource-" + Charset.defaultCharset().name();
+        store = cache.createCache(PersistentIndexedCacheParameters.of(indexName, new HashCodeSerializer(), IncludeDirectivesSerializer.INSTANCE)
+            .withCacheDecorator(cacheDecoratorFactory.decorator(40000, true)));
+    }
+
+    /**
+     * Returns the include directives of the given file with the given content hash, using the given parser when they have not been parsed from a file with the same content before.
+     *
+     * <p>The content hash must be calculated by the caller, using the file system view of the build that reads the file.</p>
+     */
+    public IncludeDirectives get(HashCode contentHash, File file, CSourceParser parser) {
+        return store.get(contentHash, key -> parser.parseSource(file));
+    }
+
+    @Override
+    public void stop() {
+        cache.close();
+    }
+}
@@ -17,6 +17,7 @@ package org.gradle.language.nativeplatform.internal.incremental
 
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.cache.PersistentStateCache
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.hash.HashCode
 import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.snapshot.MissingFileSnapshot
@@ -380,6 +381,34 @@ class IncrementalCompileProcessorTest extends Specification {
         result.unresolvedHeaders
     }
 
+    def "calculates same compilation state when headers are analysed in parallel"() {
+        given:
+        graph.keySet().each { parse(it) }
+        sourceFiles = [source1, source2]
+        def executor = new DefaultExecutorFactory().create("header analysis", 4)
+        def filesFactory = new IncrementalCompileFilesFactory(IncludeDirectives.EMPTY, includesParser, dependencyResolver, virtualFileSystem, executor)
+        def parallelProcessor = new IncrementalCompileProcessor(new DummyPersistentStateCache(), filesFactory, new TestBuildOperationExecutor())
+
+        when:
+        def sequential = incrementalCompileProcessor.processSourceFiles(sourceFiles)
+        def parallel = parallelProcessor.processSourceFiles(sourceFiles)
+
+        then:
+        parallel.recompile == sequential.recompile
+        parallel.existingHeaders == sequential.existingHeaders
+        parallel.finalState.sourceInputs == sequential.finalState.sourceInputs
+        sourceFiles.each { sourceFile ->
+            def expected = sequential.finalState.getState(sourceFile)
+            def actual = parallel.finalState.getState(sourceFile)
+            assert actual.hash == expected.hash
+            assert actual.hasUnresolved == expected.hasUnresolved
+            assert actual.edges as List == expected.edges as List
+        }
+
+        cleanup:
+        executor.stop()
+    }
+
     def checkCompile(Map<String, List<File>> args) {
         parseAndResolve()
         with(state) {
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import org.gradle.cache.CacheDecorator
+import org.gradle.cache.internal.DefaultCacheRepository
+import org.gradle.cache.internal.DefaultCacheScopeMapping
+import org.gradle.cache.internal.FileContentCache
+import org.gradle.cache.internal.FileContentCacheFactory
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.vfs.VirtualFileSystem
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.InMemoryCacheFactory
+import org.gradle.util.GradleVersion
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.function.Function
+
+class CachingCSourceParserTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def cacheRepository = new DefaultCacheRepository(new DefaultCacheScopeMapping(tmpDir.createDir("user-home"), null, GradleVersion.current()), new InMemoryCacheFactory())
+    def cacheDecoratorFactory = Stub(InMemoryCacheDecoratorFactory) {
+        decorator(_, _) >> Stub(CacheDecorator) {
+            decorate(_, _, _, _, _) >> { cacheId, cacheName, persistentCache, crossProcessCacheAccess, asyncCacheAccess ->
+                persistentCache
+            }
+        }
+    }
+    def sharedCache = new SharedIncludeDirectivesCache(cacheRepository, cacheDecoratorFactory)
+    def virtualFileSystem = Mock(VirtualFileSystem)
+    def sourceFile = tmpDir.file("source.c")
+
+    def cleanup() {
+        sharedCache.stop()
+    }
+
+    def "parsers with different build caches share include directives of files with the same content"() {
+        def buildCache1 = newBuildCache()
+        def buildCache2 = newBuildCache()
+        def contentHash = HashCode.fromInt(1)
+
+        given:
+        sourceFile.text = '#include "a.h"'
+
+        when:
+        def first = buildCache1.calculate(sourceFile, true)
+
+        then:
+        1 * virtualFileSystem.readRegularFileContentHash(sourceFile.absolutePath, _) >> { String location, Function visitor -> Optional.of(visitor.apply(contentHash)) }
+        includes(first) == ['a.h']
+
+        when:
+        // The content is not parsed again, so a file with a different content but the same hash shows which entry is used
+        sourceFile.text = '#include "b.h"'
+        def second = buildCache2.calculate(sourceFile, true)
+
+        then:
+        1 * virtualFileSystem.readRegularFileContentHash(sourceFile.absolutePath, _) >> { String location, Function visitor -> Optional.of(visitor.apply(contentHash)) }
+        includes(second) == ['a.h']
+    }
+
+    def "parses file again when its content has changed"() {
+        def buildCache = newBuildCache()
+
+        given:
+        sourceFile.text = '#include "a.h"'
+
+        when:
+        def first = buildCache.calculate(sourceFile, true)
+
+        then:
+        1 * virtualFileSystem.readRegularFileContentHash(sourceFile.absolutePath, _) >> { String location, Function visitor -> Optional.of(visitor.apply(HashCode.fromInt(1))) }
+        includes(first) == ['a.h']
+
+        when:
+        sourceFile.text = '#include "b.h"'
+        def second = buildCache.calculate(sourceFile, true)
+
+        then:
+        1 * virtualFileSystem.readRegularFileContentHash(sourceFile.absolutePath, _) >> { String location, Function visitor -> Optional.of(visitor.apply(HashCode.fromInt(2))) }
+        includes(second) == ['b.h']
+    }
+
+    def "does not use shared cache for file that is not a regular file"() {
+        def buildCache = newBuildCache()
+
+        given:
+        sourceFile.text = '#include "a.h"'
+
+        when:
+        def result = buildCache.calculate(sourceFile, false)
+
+        then:
+        0 * virtualFileSystem._
+        includes(result) == ['a.h']
+    }
+
+    /**
+     * Creates a parser with its own build cache, and returns the calculator that fills the build cache.
+     */
+    private FileContentCacheFactory.Calculator<?> newBuildCache() {
+        FileContentCacheFactory.Calculator<?> calculator = null
+        def cacheFactory = Stub(FileContentCacheFactory) {
+            newCache(_, _, _, _) >> { String name, int size, FileContentCacheFactory.Calculator<?> c, serializer ->
+                calculator = c
+                Stub(FileContentCache)
+            }
+        }
+        new CachingCSourceParser(cacheFactory, virtualFileSystem, sharedCache)
+        return calculator
+    }
+
+    private static List<String> includes(def directives) {
+        return directives.all.collect { it.value }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.charset.StandardCharsets
+
+class DirectiveScannerTest extends Specification {
+
+    List<String> directiveLines(String input) {
+        def scanner = new DirectiveScanner(input.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8)
+        def result = []
+        def line = new StringBuilder()
+        while (scanner.readNextDirectiveLine(line)) {
+            result << line.toString()
+            line.setLength(0)
+        }
+        return result
+    }
+
+    def "reads from empty text"() {
+        expect:
+        directiveLines("") == []
+    }
+
+    def "returns only lines that start with a directive"() {
+        expect:
+        directiveLines("""int a;
+#include <a.h>
+  \t# define A 1
+void f() { return; }
+#import "b.h\"""") == ['#include <a.h>', '# define A 1', '#import "b.h"']
+    }
+
+    @Unroll
+    def "handles line separator #separator"() {
+        expect:
+        directiveLines(["#a", "b", "", "#c", "  #d"].join(separator)) == ["#a", "#c", "#d"]
+
+        where:
+        separator << ["\n", "\r", "\r\n"]
+    }
+
+    def "replaces comments with a space and removes line continuations"() {
+        expect:
+        directiveLines("""/* comment */#define A /* multi
+line */ 1 // trailing
+#define B \\
+  2
+/*
+#define C 3
+*/
+// #define D 4
+#define E "/* not a comment */\"""") == ["#define A   1 ", "#define B   2", '#define E "/* not a comment */"']
+    }
+
+    def "returns lines that start with non-ascii characters"() {
+        expect:
+        directiveLines("\u00e9t\u00e9\n\u2003#define A\n#define \u00e9 1") == ["\u00e9t\u00e9", "\u2003#define A", "#define \u00e9 1"]
+    }
+
+    @Unroll
+    def "finds the same directives as PreprocessingReader for '#input'"() {
+        def reader = new PreprocessingReader(new StringReader(input))
+        def expected = []
+        def line = new StringBuilder()
+        while (reader.readNextLine(line)) {
+            def text = line.toString().trim()
+            if (text.startsWith("#")) {
+                expected << text
+            }
+            line.setLength(0)
+        }
+
+        expect:
+        directiveLines(input)*.trim() == expected
+
+        where:
+        input << [
+            '"unterminated\n#define A\n"\n#define B',
+            '\\"\n#define A',
+            '/*/\n#define A */#define B',
+            '#define A \\\r\n1\\\r#define B',
+            '/**/#define A\n/***/ /**/ #define B',
+            '// comment \\\n#define A',
+            '#define A "\\\\"\n#define B "\\""\n#define C'
+        ]
+    }
+}
@@ -20,6 +20,7 @@
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.initialization.ClassLoaderRegistry;
 import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.logging.LoggingManagerInternal;
@@ -40,6 +41,7 @@
 import org.gradle.launcher.daemon.server.Daemon;
 import org.gradle.launcher.daemon.server.DaemonServices;
 import org.gradle.launcher.daemon.server.MasterExpirationStrategy;
+import org.gradle.launcher.daemon.server.StandbyDaemonWarmUp;
 import org.gradle.launcher.daemon.server.expiry.DaemonExpirationStrategy;
 import org.gradle.process.internal.shutdown.ShutdownHooks;
 
@@ -81,6 +83,8 @@ protected void doAction(String[] args, ExecutionListener listener) {
         boolean singleUse;
         String daemonUid;
         DaemonParameters.Priority priority;
+        int standbyDaemons;
+        boolean standby;
         List<File> additionalClassPath;
 
         KryoBackedDecoder decoder = new KryoBackedDecoder(new EncodedStream.EncodedInput(System.in));
@@ -92,6 +96,8 @@ protected void doAction(String[] args, ExecutionListener listener) {
             singleUse = decoder.readBoolean();
             daemonUid = decoder.readString();
             priority = DaemonParameters.Priority.values()[decoder.readSmallInt()];
+            standbyDaemons = decoder.readSmallInt();
+            standby = decoder.readBoolean();
             int argCount = decoder.readSmallInt();
             startupOpts = new ArrayList<String>(argCount);
             for (int i = 0; i < argCount; i++) {
@@ -107,7 +113,7 @@ protected void doAction(String[] args, ExecutionListener listener) {
         }
 
         NativeServices.initialize(gradleHomeDir);
-        DaemonServerConfiguration parameters = new DefaultDaemonServerConfiguration(daemonUid, daemonBaseDir, idleTimeoutMs, periodicCheckIntervalMs, singleUse, priority, startupOpts);
+        DaemonServerConfiguration parameters = new DefaultDaemonServerConfiguration(daemonUid, daemonBaseDir, idleTimeoutMs, periodicCheckIntervalMs, singleUse, priority, startupOpts, standbyDaemons, standby);
         LoggingServiceRegistry loggingRegistry = LoggingServiceRegistry.newCommandLineProcessLogging();
         LoggingManagerInternal loggingManager = loggingRegistry.newInstance(LoggingManagerInternal.class);
 
@@ -130,6 +136,10 @@ protected void doAction(String[] args, ExecutionListener listener) {
             DaemonContext daemonContext = daemonServices.get(DaemonContext.class);
             Long pid = daemonContext.getPid();
             daemonStarted(pid, daemon.getUid(), daemon.getAddress(), daemonLog);
+            if (parameters.isStandby()) {
+                new StandbyDaemonWarmUp(daemonServices.get(ClassLoaderRegistry.class), daemonServices.get(GradleUserHomeScopeServiceRegistry.class), gradleHomeDir)
+                    .warmUp(daemon.getStateCoordinator());
+            }
             DaemonExpirationStrategy expirationStrategy = daemonServices.get(MasterExpirationStrategy.class);
             daemon.stopOnExpiration(expirationStrategy, parameters.getPeriodicCheckIntervalMs());
         } finally {
@@ -51,6 +51,7 @@
 import org.gradle.launcher.exec.BuildActionParameters;
 import org.gradle.launcher.exec.BuildActionResult;
 
+import javax.annotation.Nullable;
 import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
@@ -100,11 +101,18 @@ public class DaemonClient implements BuildActionExecuter<BuildActionParameters>
     private final ExecutorFactory executorFactory;
     private final IdGenerator<UUID> idGenerator;
     private final ProcessEnvironment processEnvironment;
+    private final DaemonStandbyPool standbyPool;
 
     //TODO - outputEventListener and buildStandardInput are per-build settings
     //so down the road we should refactor the code accordingly and potentially attach them to BuildActionParameters
     public DaemonClient(DaemonConnector connector, OutputEventListener outputEventListener, ExplainingSpec<DaemonContext> compatibilitySpec,
                         InputStream buildStandardInput, ExecutorFactory executorFactory, IdGenerator<UUID> idGenerator, ProcessEnvironment processEnvironment) {
+        this(connector, outputEventListener, compatibilitySpec, buildStandardInput, executorFactory, idGenerator, processEnvironment, null);
+    }
+
+    public DaemonClient(DaemonConnector connector, OutputEventListener outputEventListener, ExplainingSpec<DaemonContext> compatibilitySpec,
+                        InputStream buildStandardInput, ExecutorFactory executorFactory, IdGenerator<UUID> idGenerator, ProcessEnvironment processEnvironment,
+                        @Nullable DaemonStandbyPool standbyPool) {
         this.connector = connector;
         this.outputEventListener = outputEventListener;
         this.compatibilitySpec = compatibilitySpec;
@@ -112,6 +120,7 @@ public DaemonClient(DaemonConnector connector, OutputEventListener outputEventLi
         this.executorFactory = executorFactory;
         this.idGenerator = idGenerator;
         this.processEnvironment = processEnvironment;
+        this.standbyPool = standbyPool;
     }
 
     protected IdGenerator<UUID> getIdGenerator() {
@@ -138,16 +147,22 @@ public BuildActionResult execute(BuildAction action, BuildRequestContext request
 
         for (int i = 1; i < saneNumberOfAttempts; i++) {
             final DaemonClientConnection connection = connector.connect(compatibilitySpec);
+            BuildActionResult result;
             try {
                 Build build = new Build(buildId, connection.getDaemon().getToken(), action, requestContext.getClient(), requestContext.getStartTime(), requestContext.isInteractive(), parameters);
-                return executeBuild(build, connection, requestContext.getCancellationToken(), requestContext.getEventConsumer());
+                result = executeBuild(build, connection, requestContext.getCancellationToken(), requestContext.getEventConsumer());
             } catch (DaemonInitialConnectException e) {
                 // this exception means that we want to try again.
                 LOGGER.debug("{}, Trying a different daemon...", e.getMessage());
                 accumulatedExceptions.add(e);
+                continue;
             } finally {
                 connection.stop();
             }
+            if (standbyPool != null && !result.hasFailure()) {
+                standbyPool.replenish(compatibilitySpec, connection.getDaemon());
+            }
+            return result;
         }
 
         throw new NoUsableDaemonFoundException("Unable to find a usable idle daemon. I have connected to "
@@ -19,6 +19,7 @@
 import org.gradle.launcher.daemon.configuration.DaemonParameters;
 import org.gradle.launcher.daemon.context.DaemonContextBuilder;
 import org.gradle.launcher.daemon.registry.DaemonDir;
+import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.launcher.daemon.registry.DaemonRegistryServices;
 
 import java.io.InputStream;
@@ -39,6 +40,10 @@ DaemonStarter createDaemonStarter(DaemonDir daemonDir, DaemonParameters daemonPa
         return new DefaultDaemonStarter(daemonDir, daemonParameters, daemonGreeter, jvmVersionValidator);
     }
 
+    DaemonStandbyPool createDaemonStandbyPool(DaemonRegistry daemonRegistry, DaemonStarter daemonStarter, DaemonParameters daemonParameters) {
+        return new DaemonStandbyPool(daemonRegistry, daemonStarter, daemonParameters.getStandbyDaemons());
+    }
+
     @Override
     protected void configureDaemonContextBuilder(DaemonContextBuilder builder) {
         builder.setDaemonRegistryDir(get(DaemonDir.class).getBaseDir());
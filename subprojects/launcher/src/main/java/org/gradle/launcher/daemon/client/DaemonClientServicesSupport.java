@@ -82,7 +82,8 @@ protected DaemonClient createDaemonClient(IdGenerator<UUID> idGenerator) {
                 buildStandardInput,
                 get(ExecutorFactory.class),
                 idGenerator,
-                get(ProcessEnvironment.class));
+                get(ProcessEnvironment.class),
+                get(DaemonStandbyPool.class));
     }
 
     DaemonContext createDaemonContext(ProcessEnvironment processEnvironment) {
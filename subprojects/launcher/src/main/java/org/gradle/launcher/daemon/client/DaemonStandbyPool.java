@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.client;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.gradle.api.internal.specs.ExplainingSpec;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.launcher.daemon.context.DaemonConnectDetails;
+import org.gradle.launcher.daemon.context.DaemonContext;
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
+import org.gradle.launcher.daemon.registry.DaemonInfo;
+import org.gradle.launcher.daemon.registry.DaemonRegistry;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a number of warmed up, compatible daemons idle in addition to the daemon that ran the last build, so that concurrent builds do not have to wait for a daemon to start.
+ *
+ * <p>Standby daemons are started in the background, so that the client does not wait for them to start before returning the result of the build.
+ * The thread that starts them is a daemon thread that is not waited for when the client stops, so the client can exit while a standby daemon is still starting.</p>
+ */
+public class DaemonStandbyPool implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(DaemonStandbyPool.class);
+
+    private final DaemonRegistry daemonRegistry;
+    private final DaemonStarter daemonStarter;
+    private final ExecutorService executor;
+    private final int size;
+    private final AtomicInteger starting = new AtomicInteger();
+
+    public DaemonStandbyPool(DaemonRegistry daemonRegistry, DaemonStarter daemonStarter, int size) {
+        this(daemonRegistry, daemonStarter, Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Standby daemon starter");
+                thread.setDaemon(true);
+                return thread;
+            }
+        }), size);
+    }
+
+    @VisibleForTesting
+    DaemonStandbyPool(DaemonRegistry daemonRegistry, DaemonStarter daemonStarter, ExecutorService executor, int size) {
+        this.daemonRegistry = daemonRegistry;
+        this.daemonStarter = daemonStarter;
+        this.executor = executor;
+        this.size = size;
+    }
+
+    /**
+     * Starts standby daemons in the background until there are enough compatible idle daemons other than the given one.
+     * Daemons that this pool is still starting count towards the pool size. Daemons that are still warming up are not idle yet, so builds run from other clients
+     * may start more daemons than needed. The extra daemons expire as duplicates.
+     */
+    public void replenish(ExplainingSpec<DaemonContext> constraint, DaemonConnectDetails usedDaemon) {
+        if (size == 0) {
+            return;
+        }
+        int available = 0;
+        for (DaemonInfo daemonInfo : daemonRegistry.getIdle()) {
+            if (!daemonInfo.getUid().equals(usedDaemon.getUid()) && constraint.isSatisfiedBy(daemonInfo.getContext())) {
+                available++;
+            }
+        }
+        while (true) {
+            int current = starting.get();
+            if (available + current >= size) {
+                return;
+            }
+            if (starting.compareAndSet(current, current + 1) && !submitStart()) {
+                return;
+            }
+        }
+    }
+
+    private boolean submitStart() {
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        DaemonStartupInfo startupInfo = daemonStarter.startStandbyDaemon();
+                        LOGGER.debug("Started standby Gradle daemon {}", startupInfo);
+                    } catch (Throwable e) {
+                        LOGGER.info("Could not start a standby Gradle daemon.", e);
+                    } finally {
+                        starting.decrementAndGet();
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            starting.decrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Stops starting new standby daemons. Does not wait for the standby daemons that are being started.
+     */
+    @Override
+    public void stop() {
+        executor.shutdown();
+    }
+}
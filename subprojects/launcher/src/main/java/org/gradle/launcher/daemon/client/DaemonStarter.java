@@ -19,4 +19,9 @@
 
 public interface DaemonStarter {
     DaemonStartupInfo startDaemon(boolean singleRun);
+
+    /**
+     * Starts a daemon that warms itself up and then becomes idle, without a client connecting to it.
+     */
+    DaemonStartupInfo startStandbyDaemon();
 }
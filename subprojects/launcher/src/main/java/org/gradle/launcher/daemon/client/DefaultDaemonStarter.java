@@ -70,6 +70,15 @@ public DefaultDaemonStarter(DaemonDir daemonDir, DaemonParameters daemonParamete
 
     @Override
     public DaemonStartupInfo startDaemon(boolean singleUse) {
+        return startDaemon(singleUse, false);
+    }
+
+    @Override
+    public DaemonStartupInfo startStandbyDaemon() {
+        return startDaemon(false, true);
+    }
+
+    private DaemonStartupInfo startDaemon(boolean singleUse, boolean standby) {
         String daemonUid = UUID.randomUUID().toString();
 
         GradleInstallation gradleInstallation = CurrentGradleInstallation.get();
@@ -120,6 +129,8 @@ public DaemonStartupInfo startDaemon(boolean singleUse) {
             encoder.writeBoolean(singleUse);
             encoder.writeString(daemonUid);
             encoder.writeSmallInt(daemonParameters.getPriority().ordinal());
+            encoder.writeSmallInt(daemonParameters.getStandbyDaemons());
+            encoder.writeBoolean(standby);
             encoder.writeSmallInt(daemonOpts.size());
             for (String daemonOpt : daemonOpts) {
                 encoder.writeString(daemonOpt);
@@ -42,6 +42,7 @@ public class DaemonBuildOptions {
         List<BuildOption<DaemonParameters>> options = new ArrayList<BuildOption<DaemonParameters>>();
         options.add(new IdleTimeoutOption());
         options.add(new HealthCheckOption());
+        options.add(new StandbyDaemonsOption());
         options.add(new BaseDirOption());
         options.add(new JvmArgsOption());
         options.add(new JavaHomeOption());
@@ -96,6 +97,28 @@ public void applyTo(String value, DaemonParameters settings, Origin origin) {
         }
     }
 
+    public static class StandbyDaemonsOption extends StringBuildOption<DaemonParameters> {
+        public static final String GRADLE_PROPERTY = "org.gradle.daemon.standby";
+
+        public StandbyDaemonsOption() {
+            super(GRADLE_PROPERTY);
+        }
+
+        @Override
+        public void applyTo(String value, DaemonParameters settings, Origin origin) {
+            try {
+                int standbyDaemons = Integer.parseInt(value);
+                if (standbyDaemons < 0) {
+                    origin.handleInvalidValue(value, "the value should be a non-negative int");
+                } else {
+                    settings.setStandbyDaemons(standbyDaemons);
+                }
+            } catch (NumberFormatException e) {
+                origin.handleInvalidValue(value, "the value should be an int");
+            }
+        }
+    }
+
     public static class BaseDirOption extends StringBuildOption<DaemonParameters> {
         public static final String GRADLE_PROPERTY = "org.gradle.daemon.registry.base";
 
@@ -45,6 +45,7 @@ public class DaemonParameters {
     private int idleTimeout = DEFAULT_IDLE_TIMEOUT;
 
     private int periodicCheckInterval = DEFAULT_PERIODIC_CHECK_INTERVAL_MILLIS;
+    private int standbyDaemons;
     private final DaemonJvmOptions jvmOptions;
     private Map<String, String> envVariables;
     private boolean enabled = true;
@@ -105,6 +106,17 @@ public void setPeriodicCheckInterval(int periodicCheckInterval) {
         this.periodicCheckInterval = periodicCheckInterval;
     }
 
+    /**
+     * The number of warmed up, compatible daemons to keep idle in addition to the daemon running the build.
+     */
+    public int getStandbyDaemons() {
+        return standbyDaemons;
+    }
+
+    public void setStandbyDaemons(int standbyDaemons) {
+        this.standbyDaemons = standbyDaemons;
+    }
+
     public List<String> getEffectiveJvmArgs() {
         return jvmOptions.getAllImmutableJvmArgs();
     }
@@ -34,4 +34,14 @@ public interface DaemonServerConfiguration {
     DaemonParameters.Priority getPriority();
 
     boolean isSingleUse();
+
+    /**
+     * The number of compatible idle daemons that are kept as standby, in addition to the most recently used one.
+     */
+    int getStandbyDaemons();
+
+    /**
+     * Whether this daemon was started as a standby daemon, which warms itself up before becoming idle.
+     */
+    boolean isStandby();
 }
@@ -28,8 +28,10 @@ public class DefaultDaemonServerConfiguration implements DaemonServerConfigurati
     private final boolean singleUse;
     private final DaemonParameters.Priority priority;
     private final List<String> jvmOptions;
+    private final int standbyDaemons;
+    private final boolean standby;
 
-    public DefaultDaemonServerConfiguration(String daemonUid, File daemonBaseDir, int idleTimeoutMs, int periodicCheckIntervalMs, boolean singleUse, DaemonParameters.Priority priority, List<String> jvmOptions) {
+    public DefaultDaemonServerConfiguration(String daemonUid, File daemonBaseDir, int idleTimeoutMs, int periodicCheckIntervalMs, boolean singleUse, DaemonParameters.Priority priority, List<String> jvmOptions, int standbyDaemons, boolean standby) {
         this.daemonUid = daemonUid;
         this.daemonBaseDir = daemonBaseDir;
         this.idleTimeoutMs = idleTimeoutMs;
@@ -37,6 +39,8 @@ public DefaultDaemonServerConfiguration(String daemonUid, File daemonBaseDir, in
         this.singleUse = singleUse;
         this.priority = priority;
         this.jvmOptions = jvmOptions;
+        this.standbyDaemons = standbyDaemons;
+        this.standby = standby;
     }
 
     @Override
@@ -73,4 +77,14 @@ public List<String> getJvmOptions() {
     public boolean isSingleUse() {
         return singleUse;
     }
+
+    @Override
+    public int getStandbyDaemons() {
+        return standbyDaemons;
+    }
+
+    @Override
+    public boolean isStandby() {
+        return standby;
+    }
 }
@@ -31,16 +31,18 @@
 public class CompatibleDaemonExpirationStrategy implements DaemonExpirationStrategy {
     private final Daemon daemon;
     private final ExplainingSpec<DaemonContext> compatibilitySpec;
+    private final int standbyDaemons;
 
     public static final String EXPIRATION_REASON = "other compatible daemons were started";
 
-    CompatibleDaemonExpirationStrategy(Daemon daemon, ExplainingSpec<DaemonContext> compatibilitySpec) {
+    CompatibleDaemonExpirationStrategy(Daemon daemon, ExplainingSpec<DaemonContext> compatibilitySpec, int standbyDaemons) {
         this.daemon = daemon;
         this.compatibilitySpec = compatibilitySpec;
+        this.standbyDaemons = standbyDaemons;
     }
 
-    CompatibleDaemonExpirationStrategy(Daemon daemon) {
-        this(daemon, new DaemonCompatibilitySpec(daemon.getDaemonContext()));
+    CompatibleDaemonExpirationStrategy(Daemon daemon, int standbyDaemons) {
+        this(daemon, new DaemonCompatibilitySpec(daemon.getDaemonContext()), standbyDaemons);
     }
 
     @Override
@@ -53,7 +55,8 @@ public boolean isSatisfiedBy(DaemonInfo daemonInfo) {
         };
         Collection<DaemonInfo> compatibleIdleDaemons = CollectionUtils.filter(daemon.getDaemonRegistry().getIdle(), spec);
 
-        if (compatibleIdleDaemons.size() > 1) {
+        // Keep the requested number of standby daemons around, in addition to the most recently used one
+        if (compatibleIdleDaemons.size() > 1 + standbyDaemons) {
             return new DaemonExpirationResult(DaemonExpirationStatus.GRACEFUL_EXPIRE, EXPIRATION_REASON);
         } else {
             return DaemonExpirationResult.NOT_TRIGGERED;
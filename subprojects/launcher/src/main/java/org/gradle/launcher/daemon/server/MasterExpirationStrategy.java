@@ -41,7 +41,7 @@ public MasterExpirationStrategy(Daemon daemon, DaemonServerConfiguration params,
 
         // Expire compatible, idle, not recently used Daemons after a short time
         strategies.add(new AllDaemonExpirationStrategy(ImmutableList.of(
-            new CompatibleDaemonExpirationStrategy(daemon),
+            new CompatibleDaemonExpirationStrategy(daemon, params.getStandbyDaemons()),
             new DaemonIdleTimeoutExpirationStrategy(daemon, DUPLICATE_DAEMON_GRACE_PERIOD_MS, TimeUnit.MILLISECONDS),
             new NotMostRecentlyUsedDaemonExpirationStrategy(daemon)
         )));
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.initialization.ClassLoaderRegistry;
+import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.internal.service.scopes.GradleUserHomeScopeServiceRegistry;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
+import org.gradle.launcher.daemon.server.api.DaemonStateControl;
+import org.gradle.launcher.daemon.server.api.DaemonUnavailableException;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Warms up a standby daemon before it advertises itself as idle, so that the first build it runs does not pay for loading the core services and classes.
+ */
+public class StandbyDaemonWarmUp implements Runnable {
+    private static final Logger LOGGER = Logging.getLogger(StandbyDaemonWarmUp.class);
+
+    // Classes that nearly every build loads from the plugins class loader
+    private static final List<String> WARM_UP_CLASSES = ImmutableList.of(
+        "org.gradle.api.plugins.BasePlugin",
+        "org.gradle.api.plugins.JavaBasePlugin",
+        "org.gradle.api.plugins.JavaPlugin",
+        "org.gradle.api.plugins.JavaLibraryPlugin",
+        "org.gradle.api.tasks.compile.JavaCompile",
+        "org.gradle.api.tasks.testing.Test",
+        "org.gradle.api.tasks.bundling.Jar",
+        "org.gradle.api.tasks.javadoc.Javadoc",
+        "org.gradle.language.jvm.tasks.ProcessResources"
+    );
+
+    private final ClassLoaderRegistry classLoaderRegistry;
+    private final GradleUserHomeScopeServiceRegistry userHomeServiceRegistry;
+    private final File gradleUserHomeDir;
+
+    public StandbyDaemonWarmUp(ClassLoaderRegistry classLoaderRegistry, GradleUserHomeScopeServiceRegistry userHomeServiceRegistry, File gradleUserHomeDir) {
+        this.classLoaderRegistry = classLoaderRegistry;
+        this.userHomeServiceRegistry = userHomeServiceRegistry;
+        this.gradleUserHomeDir = gradleUserHomeDir;
+    }
+
+    /**
+     * Runs the warm up as a command of the given daemon. The daemon is marked idle in the registry once the warm up has finished.
+     */
+    public void warmUp(DaemonStateControl stateControl) {
+        try {
+            stateControl.runCommand(this, "warm up standby daemon");
+        } catch (DaemonUnavailableException e) {
+            LOGGER.info("Daemon stopped before it was warmed up: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void run() {
+        Timer timer = Time.startTimer();
+        try {
+            // The user home services are retained by the registry after release, ready for the first build
+            ServiceRegistry userHomeServices = userHomeServiceRegistry.getServicesFor(gradleUserHomeDir);
+            userHomeServiceRegistry.release(userHomeServices);
+
+            ClassLoader pluginsClassLoader = classLoaderRegistry.getPluginsClassLoader();
+            for (String className : WARM_UP_CLASSES) {
+                try {
+                    Class.forName(className, false, pluginsClassLoader);
+                } catch (ClassNotFoundException e) {
+                    LOGGER.debug("Could not load {} while warming up the daemon.", className);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.info("Could not warm up the daemon.", e);
+        } finally {
+            LOGGER.info("Warming up the standby daemon took {}.", timer.getElapsed());
+        }
+    }
+}
@@ -58,6 +58,7 @@
 import org.gradle.tooling.internal.protocol.InternalBuildCancelledException;
 import org.gradle.tooling.internal.protocol.InternalBuildProgressListener;
 import org.gradle.tooling.internal.protocol.InternalPhasedAction;
+import org.gradle.tooling.internal.protocol.InternalStreamedValueListener;
 import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException;
 import org.gradle.tooling.internal.protocol.ModelIdentifier;
 import org.gradle.tooling.internal.protocol.PhasedActionResultListener;
@@ -153,7 +154,12 @@ public Object runClientAction(Object clientAction, BuildCancellationToken cancel
         StartParameterInternal startParameter = new ProviderStartParameterConverter().toStartParameter(providerParameters, params.properties);
         ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.from(providerParameters);
         BuildAction action = new ClientProvidedBuildAction(startParameter, serializedAction, tasks != null, listenerConfig.clientSubscriptions);
-        return run(action, cancellationToken, listenerConfig, listenerConfig.buildEventConsumer, providerParameters, params);
+        StreamedValueEventConsumer streamedValueEventConsumer = createStreamedValueEventConsumer(providerParameters, listenerConfig.buildEventConsumer);
+        try {
+            return run(action, cancellationToken, listenerConfig, streamedValueEventConsumer, providerParameters, params);
+        } finally {
+            streamedValueEventConsumer.rethrowErrors();
+        }
     }
 
     public Object runPhasedAction(InternalPhasedAction clientPhasedAction,
@@ -167,12 +173,27 @@ public Object runPhasedAction(InternalPhasedAction clientPhasedAction,
         FailsafePhasedActionResultListener failsafePhasedActionResultListener = new FailsafePhasedActionResultListener(resultListener);
         ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.from(providerParameters);
         BuildAction action = new ClientProvidedPhasedAction(startParameter, serializedAction, tasks != null, listenerConfig.clientSubscriptions);
+        StreamedValueEventConsumer streamedValueEventConsumer = createStreamedValueEventConsumer(providerParameters, listenerConfig.buildEventConsumer);
         try {
-            return run(action, cancellationToken, listenerConfig, new PhasedActionEventConsumer(failsafePhasedActionResultListener, payloadSerializer, listenerConfig.buildEventConsumer),
+            return run(action, cancellationToken, listenerConfig, new PhasedActionEventConsumer(failsafePhasedActionResultListener, payloadSerializer, streamedValueEventConsumer),
                     providerParameters, params);
         } finally {
             failsafePhasedActionResultListener.rethrowErrors();
+            streamedValueEventConsumer.rethrowErrors();
+        }
+    }
+
+    private StreamedValueEventConsumer createStreamedValueEventConsumer(ProviderOperationParameters providerParameters, BuildEventConsumer delegate) {
+        InternalStreamedValueListener streamedValueListener = providerParameters.getStreamedValueListener(null);
+        if (streamedValueListener == null) {
+            // Discard the values
+            streamedValueListener = new InternalStreamedValueListener() {
+                @Override
+                public void onValue(Object value) {
+                }
+            };
         }
+        return new StreamedValueEventConsumer(streamedValueListener, payloadSerializer, delegate);
     }
 
     public Object runTests(ProviderInternalTestExecutionRequest testExecutionRequest, BuildCancellationToken cancellationToken, ProviderOperationParameters providerParameters) {
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider;
+
+import org.gradle.initialization.BuildEventConsumer;
+import org.gradle.internal.event.ListenerNotificationException;
+import org.gradle.tooling.internal.protocol.InternalStreamedValueListener;
+import org.gradle.tooling.internal.provider.serialization.PayloadSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumer of values streamed by a build action. This consumer deserializes the values and forwards them to the client's listener.
+ * Failures from the listener are collected and rethrown once the build has completed.
+ */
+public class StreamedValueEventConsumer implements BuildEventConsumer {
+    private final InternalStreamedValueListener listener;
+    private final PayloadSerializer payloadSerializer;
+    private final BuildEventConsumer delegate;
+    private final List<Throwable> listenerFailures = new ArrayList<Throwable>();
+
+    StreamedValueEventConsumer(InternalStreamedValueListener listener, PayloadSerializer payloadSerializer, BuildEventConsumer delegate) {
+        this.listener = listener;
+        this.payloadSerializer = payloadSerializer;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void dispatch(Object event) {
+        if (event instanceof StreamedValue) {
+            Object value = payloadSerializer.deserialize(((StreamedValue) event).value);
+            try {
+                listener.onValue(value);
+            } catch (Throwable t) {
+                listenerFailures.add(t);
+            }
+        } else {
+            delegate.dispatch(event);
+        }
+    }
+
+    public void rethrowErrors() {
+        if (!listenerFailures.isEmpty()) {
+            throw new ListenerNotificationException(null, "One or more streamed value listeners failed with an exception.", listenerFailures);
+        }
+    }
+}
@@ -124,6 +124,24 @@ class PropertiesToDaemonParametersConverterTest extends Specification {
         ex.message.contains 'bogus'
     }
 
+    def "configures standby daemons from gradle properties"() {
+        when:
+        converter.convert((DaemonBuildOptions.StandbyDaemonsOption.GRADLE_PROPERTY): '2', params)
+
+        then:
+        params.standbyDaemons == 2
+    }
+
+    def "shows nice message for invalid standby daemons"() {
+        when:
+        converter.convert((DaemonBuildOptions.StandbyDaemonsOption.GRADLE_PROPERTY): '-1', params)
+
+        then:
+        def ex = thrown(IllegalArgumentException)
+        ex.message.contains 'org.gradle.daemon.standby'
+        ex.message.contains '-1'
+    }
+
     @Unroll
     def "explicitly sets daemon usage if daemon system property is specified"() {
         when:
@@ -86,6 +86,36 @@ class DaemonClientTest extends ConcurrentSpecification {
         0 * _
     }
 
+    def "replenishes standby daemons after a successful build"() {
+        def standbyPool = Mock(DaemonStandbyPool)
+        def daemon = Stub(DaemonConnectDetails)
+        def client = new DaemonClient(connector, outputEventListener, compatibilitySpec, new ByteArrayInputStream(new byte[0]), executorFactory, idGenerator, processEnvironment, standbyPool)
+
+        when:
+        client.execute(Stub(BuildAction), Stub(BuildRequestContext), Stub(BuildActionParameters), Stub(ServiceRegistry))
+
+        then:
+        1 * connector.connect(compatibilitySpec) >> connection
+        _ * connection.daemon >> daemon
+        2 * connection.receive() >>> [Stub(BuildStarted), new Success(BuildActionResult.of(null))]
+        1 * standbyPool.replenish(compatibilitySpec, daemon)
+    }
+
+    def "does not replenish standby daemons after a failed build"() {
+        def standbyPool = Mock(DaemonStandbyPool)
+        def client = new DaemonClient(connector, outputEventListener, compatibilitySpec, new ByteArrayInputStream(new byte[0]), executorFactory, idGenerator, processEnvironment, standbyPool)
+
+        when:
+        def result = client.execute(Stub(BuildAction), Stub(BuildRequestContext), Stub(BuildActionParameters), Stub(ServiceRegistry))
+
+        then:
+        result.hasFailure()
+        1 * connector.connect(compatibilitySpec) >> connection
+        _ * connection.daemon >> Stub(DaemonConnectDetails)
+        2 * connection.receive() >>> [Stub(BuildStarted), new Success(BuildActionResult.failed(new RuntimeException("broken")))]
+        0 * standbyPool._
+    }
+
     def "fails with an exception when build is cancelled and daemon is forcefully stopped"() {
         def cancellationToken = Mock(BuildCancellationToken)
         def buildRequestContext = Stub(BuildRequestContext) {
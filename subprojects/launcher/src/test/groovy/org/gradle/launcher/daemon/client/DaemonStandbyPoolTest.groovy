@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.client
+
+import org.gradle.api.internal.specs.ExplainingSpec
+import org.gradle.launcher.daemon.context.DaemonConnectDetails
+import org.gradle.launcher.daemon.context.DaemonContext
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo
+import org.gradle.launcher.daemon.registry.DaemonInfo
+import org.gradle.launcher.daemon.registry.DaemonRegistry
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class DaemonStandbyPoolTest extends Specification {
+    def daemonRegistry = Mock(DaemonRegistry)
+    def daemonStarter = Mock(DaemonStarter)
+    def executor = Executors.newSingleThreadExecutor()
+    def compatibleContext = Stub(DaemonContext)
+    def incompatibleContext = Stub(DaemonContext)
+    def constraint = Stub(ExplainingSpec) {
+        isSatisfiedBy(compatibleContext) >> true
+        isSatisfiedBy(incompatibleContext) >> false
+    }
+    def usedDaemon = Stub(DaemonConnectDetails) {
+        getUid() >> "used"
+    }
+
+    def "starts standby daemons until enough compatible daemons are idle"() {
+        def pool = new DaemonStandbyPool(daemonRegistry, daemonStarter, executor, 3)
+
+        when:
+        pool.replenish(constraint, usedDaemon)
+        stopAndWait(pool)
+
+        then:
+        1 * daemonRegistry.getIdle() >> [daemon("used", compatibleContext), daemon("other", compatibleContext), daemon("incompatible", incompatibleContext)]
+        2 * daemonStarter.startStandbyDaemon() >> Stub(DaemonStartupInfo)
+        0 * daemonStarter._
+    }
+
+    def "does nothing when enough compatible daemons are idle"() {
+        def pool = new DaemonStandbyPool(daemonRegistry, daemonStarter, executor, 1)
+
+        when:
+        pool.replenish(constraint, usedDaemon)
+        stopAndWait(pool)
+
+        then:
+        1 * daemonRegistry.getIdle() >> [daemon("other", compatibleContext)]
+        0 * daemonStarter._
+    }
+
+    def "does nothing when no standby daemons are requested"() {
+        def pool = new DaemonStandbyPool(daemonRegistry, daemonStarter, executor, 0)
+
+        when:
+        pool.replenish(constraint, usedDaemon)
+        stopAndWait(pool)
+
+        then:
+        0 * daemonRegistry._
+        0 * daemonStarter._
+    }
+
+    def "counts daemons that are still starting towards the pool size"() {
+        def pool = new DaemonStandbyPool(daemonRegistry, daemonStarter, executor, 2)
+        def release = new CountDownLatch(1)
+
+        when:
+        pool.replenish(constraint, usedDaemon)
+        pool.replenish(constraint, usedDaemon)
+        release.countDown()
+        stopAndWait(pool)
+
+        then:
+        2 * daemonRegistry.getIdle() >> []
+        2 * daemonStarter.startStandbyDaemon() >> {
+            release.await()
+            Stub(DaemonStartupInfo)
+        }
+        0 * daemonStarter._
+    }
+
+    def "keeps starting standby daemons after a failure"() {
+        def pool = new DaemonStandbyPool(daemonRegistry, daemonStarter, executor, 2)
+
+        when:
+        pool.replenish(constraint, usedDaemon)
+        stopAndWait(pool)
+
+        then:
+        1 * daemonRegistry.getIdle() >> []
+        1 * daemonStarter.startStandbyDaemon() >> { throw new RuntimeException("broken") }
+        1 * daemonStarter.startStandbyDaemon() >> Stub(DaemonStartupInfo)
+        0 * daemonStarter._
+    }
+
+    def "does not start standby daemons after the pool is stopped"() {
+        def pool = new DaemonStandbyPool(daemonRegistry, daemonStarter, executor, 2)
+
+        when:
+        pool.stop()
+        pool.replenish(constraint, usedDaemon)
+
+        then:
+        1 * daemonRegistry.getIdle() >> []
+        0 * daemonStarter._
+    }
+
+    def "does not wait for standby daemons that are still starting when stopped"() {
+        def pool = new DaemonStandbyPool(daemonRegistry, daemonStarter, executor, 1)
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        daemonRegistry.getIdle() >> []
+        daemonStarter.startStandbyDaemon() >> {
+            started.countDown()
+            release.await()
+            Stub(DaemonStartupInfo)
+        }
+
+        when:
+        pool.replenish(constraint, usedDaemon)
+        started.await()
+        pool.stop()
+
+        then:
+        !executor.terminated
+
+        cleanup:
+        release.countDown()
+    }
+
+    private void stopAndWait(DaemonStandbyPool pool) {
+        pool.stop()
+        assert executor.awaitTermination(10, TimeUnit.SECONDS)
+    }
+
+    private DaemonInfo daemon(String uid, DaemonContext context) {
+        return Stub(DaemonInfo) {
+            getUid() >> uid
+            getContext() >> context
+        }
+    }
+}
@@ -72,7 +72,22 @@ class CompatibleDaemonExpirationStrategyTest extends DaemonExpirationStrategyTes
         !wouldExpire(d1)
     }
 
-    boolean wouldExpire(DaemonInfo info, Boolean timeoutReached = true) {
+    def "does not expire compatible daemons kept as standby"() {
+        given:
+        DaemonInfo d1 = registerDaemon(Idle)
+        DaemonInfo d2 = registerDaemon(Idle)
+        DaemonInfo d3 = registerDaemon(Idle)
+
+        when:
+        compatible = [ d1, d2, d3 ]
+
+        then:
+        !wouldExpire(d1, true, 2)
+        !wouldExpire(d2, true, 2)
+        wouldExpire(d3, true, 1)
+    }
+
+    boolean wouldExpire(DaemonInfo info, Boolean timeoutReached = true, int standbyDaemons = 0) {
         Daemon daemon = Mock(Daemon) {
             1 * getDaemonRegistry() >> { registry }
             _ * getDaemonContext() >> { info.getContext() }
@@ -88,6 +103,6 @@ class CompatibleDaemonExpirationStrategyTest extends DaemonExpirationStrategyTes
             compatibleWithCurrent = []
         }
 
-        return new CompatibleDaemonExpirationStrategy(daemon, compatibilitySpec).checkExpiration().status == GRACEFUL_EXPIRE
+        return new CompatibleDaemonExpirationStrategy(daemon, compatibilitySpec, standbyDaemons).checkExpiration().status == GRACEFUL_EXPIRE
     }
 }
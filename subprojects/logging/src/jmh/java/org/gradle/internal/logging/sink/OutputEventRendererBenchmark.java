@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.sink;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.logging.events.LogEvent;
+import org.gradle.internal.logging.events.OutputEvent;
+import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.time.Time;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of {@link OutputEventRenderer} when many threads produce log output at the same time.
+ */
+@Threads(32)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class OutputEventRendererBenchmark {
+    private static final AtomicLong OPERATION_IDS = new AtomicLong();
+
+    @Param({"synchronous", "batched"})
+    String mode;
+
+    OutputEventRenderer renderer;
+    long received;
+
+    @Setup
+    public void setup() {
+        renderer = new OutputEventRenderer(Time.clock(), mode.equals("batched"));
+        renderer.configure(LogLevel.INFO);
+        renderer.addOutputEventListener(new OutputEventListener() {
+            @Override
+            public void onOutput(OutputEvent event) {
+                // Called while holding the renderer lock
+                received++;
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        renderer.flush();
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        final OperationIdentifier operationId = new OperationIdentifier(OPERATION_IDS.incrementAndGet());
+    }
+
+    @Benchmark
+    public void log(Producer producer) {
+        renderer.onOutput(new LogEvent(0, "category", LogLevel.LIFECYCLE, "message", null, producer.operationId));
+    }
+}
@@ -54,15 +54,26 @@
 
 import javax.annotation.Nullable;
 import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A {@link OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>Events are appended to a lock-free queue and rendered in batches by whichever producer thread manages to claim the queue,
+ * so that threads producing output do not block while another thread is rendering. Events are rendered in the order they were
+ * queued, which preserves the order of the events of each operation. Flush and log level change events, and changes to the
+ * destinations, wait for all previously queued events to be rendered.</p>
  */
 @ThreadSafe
 public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     private final Object lock = new Object();
+    private final Queue<OutputEvent> pendingEvents = new ConcurrentLinkedQueue<OutputEvent>();
+    private final AtomicBoolean rendering = new AtomicBoolean();
+    private final boolean batched;
     private final AtomicReference<LogLevel> logLevel = new AtomicReference<LogLevel>(LogLevel.LIFECYCLE);
     private final Clock clock;
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
@@ -79,7 +90,12 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     private ListenerBroadcast<StandardOutputListener> userStderrListeners;
 
     public OutputEventRenderer(final Clock clock) {
+        this(clock, true);
+    }
+
+    OutputEventRenderer(Clock clock, boolean batched) {
         this.clock = clock;
+        this.batched = batched;
     }
 
     @Override
@@ -111,11 +127,13 @@ public void restore(Snapshot state) {
     }
 
     private void addChain(OutputEventListener listener) {
+        renderPendingEvents();
         listener.onOutput(new LogLevelChangeEvent(logLevel.get()));
         formatters.add(listener);
     }
 
     private void removeChain(OutputEventListener listener) {
+        renderPendingEvents();
         formatters.remove(listener);
         listener.onOutput(new EndOutputEvent());
     }
@@ -364,6 +382,7 @@ private void assertUserListenersEnabled() {
         if (userListenerChain == null) {
             throw new IllegalStateException("Custom standard output listeners not enabled.");
         }
+        renderPendingEvents();
         userListenerChain.onOutput(new FlushOutputEvent());
     }
 
@@ -427,7 +446,46 @@ public void onOutput(OutputEvent event) {
             }
             this.logLevel.set(newLogLevel);
         }
-        synchronized (lock) {
+        if (!batched) {
+            synchronized (lock) {
+                transformer.onOutput(event);
+            }
+            return;
+        }
+        pendingEvents.add(event);
+        if (event instanceof FlushOutputEvent || event instanceof LogLevelChangeEvent || event instanceof EndOutputEvent) {
+            // The caller expects the event to have been handled on return
+            synchronized (lock) {
+                renderPendingEvents();
+            }
+        } else {
+            tryRenderPendingEvents();
+        }
+    }
+
+    /**
+     * Renders the queued events, unless another thread is already doing so. The thread that is rendering picks up the events queued
+     * while it is rendering, so the caller does not need to wait for it.
+     */
+    private void tryRenderPendingEvents() {
+        // Check the queue again after releasing the claim, as an event may have been queued after the last poll and before the release
+        while (!pendingEvents.isEmpty() && rendering.compareAndSet(false, true)) {
+            try {
+                synchronized (lock) {
+                    renderPendingEvents();
+                }
+            } finally {
+                rendering.set(false);
+            }
+        }
+    }
+
+    /**
+     * Renders all queued events. Must be called while holding the lock.
+     */
+    private void renderPendingEvents() {
+        OutputEvent event;
+        while ((event = pendingEvents.poll()) != null) {
             transformer.onOutput(event);
         }
     }
@@ -25,14 +25,19 @@ import org.gradle.internal.logging.console.ConsoleStub
 import org.gradle.internal.logging.events.EndOutputEvent
 import org.gradle.internal.logging.events.LogEvent
 import org.gradle.internal.logging.events.LogLevelChangeEvent
+import org.gradle.internal.logging.events.OutputEvent
 import org.gradle.internal.logging.events.OutputEventListener
 import org.gradle.internal.nativeintegration.console.ConsoleMetaData
 import org.gradle.internal.operations.BuildOperationCategory
+import org.gradle.internal.operations.OperationIdentifier
 import org.gradle.internal.time.Time
 import org.gradle.util.RedirectStdOutAndErr
 import org.junit.Rule
 import spock.lang.Unroll
 
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
 class OutputEventRendererTest extends OutputSpecification {
     @Rule
     public final RedirectStdOutAndErr outputs = new RedirectStdOutAndErr()
@@ -472,6 +477,39 @@ class OutputEventRendererTest extends OutputSpecification {
         outputs.stdOut == ''
         outputs.stdErr == ''
     }
+
+    def "forwards events of each operation in order when events are produced concurrently"() {
+        def received = [:].withDefault { [] }
+        def listener = Stub(OutputEventListener) {
+            onOutput(_) >> { OutputEvent event ->
+                if (event instanceof LogEvent) {
+                    received[event.buildOperationId] << event.message
+                }
+            }
+        }
+        def threads = 8
+        def eventsPerThread = 500
+
+        when:
+        renderer.addOutputEventListener(listener)
+        def executor = Executors.newFixedThreadPool(threads)
+        (1..threads).each { operation ->
+            executor.execute {
+                (1..eventsPerThread).each { index ->
+                    renderer.onOutput(event("${operation}-${index}", LogLevel.INFO, operation))
+                }
+            }
+        }
+        executor.shutdown()
+        executor.awaitTermination(30, TimeUnit.SECONDS)
+        renderer.flush()
+
+        then:
+        received.size() == threads
+        (1..threads).each { operation ->
+            assert received[new OperationIdentifier(operation)] == (1..eventsPerThread).collect { "${operation}-${it}".toString() }
+        }
+    }
 }
 
 class TestListener implements StandardOutputListener {
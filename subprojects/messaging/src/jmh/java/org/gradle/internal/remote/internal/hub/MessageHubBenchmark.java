@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.hub;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.dispatch.Dispatch;
+import org.gradle.internal.id.UUIDGenerator;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.internal.ConnectCompletion;
+import org.gradle.internal.remote.internal.RemoteConnection;
+import org.gradle.internal.remote.internal.hub.protocol.InterHubMessage;
+import org.gradle.internal.remote.internal.inet.InetAddressFactory;
+import org.gradle.internal.remote.internal.inet.TcpIncomingConnector;
+import org.gradle.internal.remote.internal.inet.TcpOutgoingConnector;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Serializers;
+import org.gradle.internal.serialize.StatefulSerializer;
+import org.gradle.internal.serialize.kryo.TypeSafeSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of messages per second sent from one {@link MessageHub} to another over a loopback connection, for payloads about the size of a test event.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class MessageHubBenchmark {
+    private static final String CHANNEL = "events";
+    private static final int MESSAGES_PER_INVOCATION = 1000;
+    private static final String PAYLOAD = "org.gradle.SomeTest > someTestMethod[1] PASSED (12ms) with some output written to System.out";
+    private static final Action<Throwable> ERROR_HANDLER = new Action<Throwable>() {
+        @Override
+        public void execute(Throwable throwable) {
+            throwable.printStackTrace();
+        }
+    };
+
+    @Param({"0", "200"})
+    int batchWindowMicros;
+
+    @Param({"0", "4096"})
+    int outgoingCapacity;
+
+    private final Semaphore received = new Semaphore(0);
+    private DefaultExecutorFactory executorFactory;
+    private ConnectionAcceptor acceptor;
+    private MessageHub sender;
+    private MessageHub receiver;
+    private RemoteConnection<InterHubMessage> senderConnection;
+    private RemoteConnection<InterHubMessage> receiverConnection;
+    private Dispatch<String> dispatch;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        executorFactory = new DefaultExecutorFactory();
+        final BlockingQueue<RemoteConnection<InterHubMessage>> accepted = new ArrayBlockingQueue<RemoteConnection<InterHubMessage>>(1);
+        acceptor = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator()).accept(new Action<ConnectCompletion>() {
+            @Override
+            public void execute(ConnectCompletion completion) {
+                accepted.add(completion.create(serializer()));
+            }
+        }, false);
+        senderConnection = new TcpOutgoingConnector().connect(acceptor.getAddress()).create(serializer());
+        receiverConnection = accepted.take();
+
+        receiver = new MessageHub("receiver", executorFactory, ERROR_HANDLER);
+        receiver.addHandler(CHANNEL, new Dispatch<Object>() {
+            @Override
+            public void dispatch(Object message) {
+                received.release();
+            }
+        });
+        receiver.addConnection(receiverConnection);
+
+        sender = new MessageHub("sender", executorFactory, ERROR_HANDLER, TimeUnit.MICROSECONDS.toNanos(batchWindowMicros), outgoingCapacity);
+        sender.addConnection(senderConnection);
+        dispatch = sender.getOutgoing(CHANNEL, String.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        sender.requestStop();
+        receiver.requestStop();
+        CompositeStoppable.stoppable(sender, receiver, senderConnection, receiverConnection, acceptor, executorFactory).stop();
+    }
+
+    private static StatefulSerializer<InterHubMessage> serializer() {
+        return new InterHubMessageSerializer(new TypeSafeSerializer<String>(String.class, Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES_PER_INVOCATION)
+    public void sendMessages() throws InterruptedException {
+        for (int i = 0; i < MESSAGES_PER_INVOCATION; i++) {
+            dispatch.dispatch(PAYLOAD);
+        }
+        received.acquire(MESSAGES_PER_INVOCATION);
+    }
+}
@@ -30,6 +30,7 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -42,24 +43,47 @@
  *
  */
 public class MessageHub implements AsyncStoppable {
+    /**
+     * The time in microseconds that a connection waits for further outgoing messages before writing and flushing a batch. Defaults to 0, which writes whatever is queued straight away.
+     */
+    public static final String BATCH_WINDOW_PROPERTY = "org.gradle.internal.remote.hub.batch-window-micros";
+    /**
+     * The maximum number of outgoing messages to queue before blocking the producers. Defaults to 0, which does not limit the queue.
+     */
+    public static final String OUTGOING_CAPACITY_PROPERTY = "org.gradle.internal.remote.hub.outgoing-capacity";
+    private static final int MAX_BATCH_SIZE = 512;
+
     private enum State {Running, Stopping, Stopped}
 
     private static final Discard DISCARD = new Discard();
     private final ManagedExecutor workers;
     private final String displayName;
     private final Action<? super Throwable> errorHandler;
+    private final long batchWindowNanos;
     private final Lock lock = new ReentrantLock();
     private State state = State.Running;
     private final IncomingQueue incomingQueue = new IncomingQueue(lock);
-    private final OutgoingQueue outgoingQueue = new OutgoingQueue(incomingQueue, lock);
-    private final ConnectionSet connections = new ConnectionSet(incomingQueue, outgoingQueue);
+    private final OutgoingQueue outgoingQueue;
+    private final ConnectionSet connections;
 
     /**
      * @param errorHandler Notified when some async activity fails. Must be thread-safe.
      */
     public MessageHub(String displayName, ExecutorFactory executorFactory, Action<? super Throwable> errorHandler) {
+        this(displayName, executorFactory, errorHandler, TimeUnit.MICROSECONDS.toNanos(Integer.getInteger(BATCH_WINDOW_PROPERTY, 0)), Integer.getInteger(OUTGOING_CAPACITY_PROPERTY, 0));
+    }
+
+    /**
+     * @param errorHandler Notified when some async activity fails. Must be thread-safe.
+     * @param batchWindowNanos The time that a connection waits for further outgoing messages before writing and flushing a batch, or 0 to not wait.
+     * @param outgoingCapacity The maximum number of outgoing messages to queue before {@link Dispatch#dispatch(Object)} blocks, or 0 for no limit.
+     */
+    public MessageHub(String displayName, ExecutorFactory executorFactory, Action<? super Throwable> errorHandler, long batchWindowNanos, int outgoingCapacity) {
         this.displayName = displayName;
         this.errorHandler = errorHandler;
+        this.batchWindowNanos = batchWindowNanos;
+        this.outgoingQueue = new OutgoingQueue(incomingQueue, lock, outgoingCapacity);
+        this.connections = new ConnectionSet(incomingQueue, outgoingQueue);
         workers = executorFactory.create(displayName + " workers");
     }
 
@@ -67,7 +91,7 @@ public MessageHub(String displayName, ExecutorFactory executorFactory, Action<?
      * <p>Adds a {@link Dispatch} implementation that can be used to send outgoing unicast messages on the given channel. Messages are queued in the order that they are
      * dispatched, and are forwarded to at most one handler.</p>
      *
-     * <p>The returned value is thread-safe.</p>
+     * <p>The returned value is thread-safe. When the number of outgoing messages is limited, dispatching a message blocks while the queue is full and there is a connection.</p>
      */
     public <T> Dispatch<T> getOutgoing(final String channelName, final Class<T> type) {
         lock.lock();
@@ -318,6 +342,9 @@ public void run() {
                         lock.lock();
                         try {
                             queue.take(messages);
+                            if (batchWindowNanos > 0) {
+                                takeBatch(messages);
+                            }
                         } finally {
                             lock.unlock();
                         }
@@ -347,6 +374,24 @@ public void run() {
                 errorHandler.execute(t);
             }
         }
+
+        /**
+         * Waits up to the batch window for more messages, so that they are written and flushed together.
+         */
+        private void takeBatch(List<InterHubMessage> messages) {
+            long deadline = System.nanoTime() + batchWindowNanos;
+            while (messages.size() < MAX_BATCH_SIZE && !(messages.get(messages.size() - 1) instanceof EndOfStream)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                int taken = messages.size();
+                queue.take(messages, remaining);
+                if (messages.size() == taken) {
+                    return;
+                }
+            }
+        }
     }
 
     private class ChannelDispatch<T> implements Dispatch<T> {
@@ -367,6 +412,7 @@ public String toString() {
         public void dispatch(T message) {
             lock.lock();
             try {
+                outgoingQueue.awaitCapacity();
                 assertRunning("dispatch message");
                 outgoingQueue.dispatch(new ChannelMessage(channelIdentifier, message));
             } finally {
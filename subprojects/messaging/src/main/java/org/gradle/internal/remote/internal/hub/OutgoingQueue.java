@@ -16,6 +16,7 @@
 
 package org.gradle.internal.remote.internal.hub;
 
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.remote.internal.hub.protocol.ChannelMessage;
 import org.gradle.internal.remote.internal.hub.protocol.EndOfStream;
 import org.gradle.internal.remote.internal.hub.queue.MultiEndPointQueue;
@@ -24,17 +25,53 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 
 class OutgoingQueue extends MultiEndPointQueue {
     private final IncomingQueue incomingQueue;
+    private final Condition notFull;
+    private final int capacity;
+    private boolean ended;
 
     OutgoingQueue(IncomingQueue incomingQueue, Lock lock) {
+        this(incomingQueue, lock, 0);
+    }
+
+    /**
+     * @param capacity the maximum number of messages to queue before producers are blocked, or 0 for no limit.
+     */
+    OutgoingQueue(IncomingQueue incomingQueue, Lock lock, int capacity) {
         super(lock);
         this.incomingQueue = incomingQueue;
+        this.notFull = lock.newCondition();
+        this.capacity = capacity;
+    }
+
+    /**
+     * Blocks while the queue is full and there is a connection that will drain it. Does not block when there are no connections, as there may never be one.
+     * Must be called while holding the lock.
+     */
+    void awaitCapacity() {
+        while (capacity > 0 && !ended && size() >= capacity && hasEndpoints()) {
+            try {
+                notFull.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    @Override
+    protected void messagesForwarded() {
+        if (capacity > 0) {
+            notFull.signalAll();
+        }
     }
 
     void endOutput() {
+        ended = true;
+        notFull.signalAll();
         dispatch(new EndOfStream());
     }
 
@@ -49,7 +49,10 @@ public void dispatch(InterHubMessage message) {
     }
 
     void empty(EndPointQueue endPointQueue) {
-        waiting.add(endPointQueue);
+        // An endpoint that stopped waiting for more messages without receiving any is still waiting
+        if (!waiting.contains(endPointQueue)) {
+            waiting.add(endPointQueue);
+        }
         flush();
     }
 
@@ -57,6 +60,24 @@ void stopped(EndPointQueue queue) {
         waiting.remove(queue);
         endpoints.remove(queue);
         queue.dispatch(new EndOfStream());
+        messagesForwarded();
+    }
+
+    /**
+     * Returns the number of messages that have not been forwarded to an endpoint yet.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    public boolean hasEndpoints() {
+        return !endpoints.isEmpty();
+    }
+
+    /**
+     * Called when messages have been forwarded to endpoints, or an endpoint has been removed.
+     */
+    protected void messagesForwarded() {
     }
 
     public void drain(Collection<InterHubMessage> drainTo) {
@@ -65,6 +86,17 @@ public void drain(Collection<InterHubMessage> drainTo) {
     }
 
     private void flush() {
+        int queued = queue.size();
+        try {
+            forwardQueued();
+        } finally {
+            if (queue.size() < queued) {
+                messagesForwarded();
+            }
+        }
+    }
+
+    private void forwardQueued() {
         // TODO - need to do a better job of routing messages when there are multiple endpoints. This is just going to forward all queued messages to the first
         // waiting endpoint, even if there are multiple waiting to do work
         EndPointQueue selected = waiting.isEmpty() ? null : waiting.get(0);
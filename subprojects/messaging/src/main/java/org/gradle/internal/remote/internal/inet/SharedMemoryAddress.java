@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The address of a local endpoint that offers shared memory to the peers that connect to it, see {@link SharedMemoryConnection}.
+ *
+ * <p>The accepting side decides whether a connection uses shared memory. Whoever starts the peer passes this decision on to it, so that the peer connects with a
+ * {@link TcpOutgoingConnector} that expects the offer.</p>
+ */
+public class SharedMemoryAddress extends MultiChoiceAddress {
+    public SharedMemoryAddress(UUID canonicalAddress, int port, List<InetAddress> candidates) {
+        super(canonicalAddress, port, candidates);
+    }
+
+    /**
+     * Returns whether the peers that connect to the given address must expect to be offered shared memory.
+     */
+    public static boolean offersSharedMemory(Object address) {
+        return address instanceof SharedMemoryAddress;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.remote.internal.ConnectCompletion;
+import org.gradle.internal.remote.internal.KryoBackedMessageSerializer;
+import org.gradle.internal.remote.internal.RemoteConnection;
+import org.gradle.internal.serialize.StatefulSerializer;
+
+import javax.annotation.Nullable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * Sets up a {@link SharedMemoryConnection} over a socket connection.
+ *
+ * <p>The accepting side creates and maps the shared memory file and sends its path over the socket. The connecting side maps the file and acknowledges.
+ * The accepting side then deletes the file, as the mappings stay valid. When the connecting side cannot map the file, for example because it runs on a JVM that
+ * does not support the required memory fences, it declines the offer and both sides use the socket for messages instead.</p>
+ */
+class SharedMemoryConnectCompletion implements ConnectCompletion {
+    private static final int RING_BUFFER_CAPACITY = 1024 * 1024;
+    private static final int ACK = 1;
+    private static final int NACK = 2;
+    private final SocketChannel socket;
+    private final File sharedMemoryDir;
+
+    /**
+     * @param sharedMemoryDir the directory to create the shared memory file in, or null for the connecting side.
+     */
+    SharedMemoryConnectCompletion(SocketChannel socket, @Nullable File sharedMemoryDir) {
+        this.socket = socket;
+        this.sharedMemoryDir = sharedMemoryDir;
+    }
+
+    @Override
+    public String toString() {
+        return socket.socket().getLocalSocketAddress() + " to " + socket.socket().getRemoteSocketAddress() + " using shared memory";
+    }
+
+    @Override
+    public <T> RemoteConnection<T> create(StatefulSerializer<T> serializer) {
+        try {
+            // The streams are not closed, as that would close the socket
+            DataInputStream inputStream = new DataInputStream(Channels.newInputStream(socket));
+            DataOutputStream outputStream = new DataOutputStream(Channels.newOutputStream(socket));
+            int regionSize = SharedMemoryRingBuffer.sizeFor(RING_BUFFER_CAPACITY);
+            File file;
+            MappedByteBuffer buffer;
+            if (sharedMemoryDir != null) {
+                file = OwnerOnlyFiles.createTempFile(sharedMemoryDir);
+                try {
+                    buffer = map(file, 2 * regionSize);
+                    outputStream.writeUTF(file.getAbsolutePath());
+                    outputStream.flush();
+                    int reply = inputStream.read();
+                    if (reply == NACK) {
+                        return new SocketConnectCompletion(socket).create(serializer);
+                    }
+                    if (reply != ACK) {
+                        throw new IOException("Peer did not map shared memory file " + file + ".");
+                    }
+                } finally {
+                    if (!file.delete()) {
+                        // Cannot delete a mapped file on Windows
+                        file.deleteOnExit();
+                    }
+                }
+                return new SharedMemoryConnection<T>(socket, file, new SharedMemoryRingBuffer(buffer, regionSize, RING_BUFFER_CAPACITY), new SharedMemoryRingBuffer(buffer, 0, RING_BUFFER_CAPACITY), new KryoBackedMessageSerializer(), serializer);
+            } else {
+                file = new File(inputStream.readUTF());
+                buffer = SharedMemoryRingBuffer.isSupported() ? tryMap(file, 2 * regionSize) : null;
+                outputStream.write(buffer != null ? ACK : NACK);
+                outputStream.flush();
+                if (buffer == null) {
+                    return new SocketConnectCompletion(socket).create(serializer);
+                }
+                return new SharedMemoryConnection<T>(socket, file, new SharedMemoryRingBuffer(buffer, 0, RING_BUFFER_CAPACITY), new SharedMemoryRingBuffer(buffer, regionSize, RING_BUFFER_CAPACITY), new KryoBackedMessageSerializer(), serializer);
+            }
+        } catch (Exception e) {
+            CompositeStoppable.stoppable(socket).stop();
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static MappedByteBuffer map(File file, int size) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(size);
+            // The mapping remains valid after the file is closed
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    @Nullable
+    private static MappedByteBuffer tryMap(File file, int size) {
+        try {
+            return map(file, size);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates files that only their owner can read and write, so that other users cannot read or inject messages. The permissions are set as the file is created,
+     * as the shared memory directory is usually listable by everyone.
+     *
+     * <p>Only used by the accepting side, as the connecting side may run on a JVM that does not have NIO.2.</p>
+     */
+    private static class OwnerOnlyFiles {
+        static File createTempFile(File dir) throws IOException {
+            if (Files.getFileStore(dir.toPath()).supportsFileAttributeView("posix")) {
+                return Files.createTempFile(dir.toPath(), "gradle-messaging-", ".bin", PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"))).toFile();
+            }
+            // Without POSIX permissions, as on Windows, the temporary directory is private to the user
+            return Files.createTempFile(dir.toPath(), "gradle-messaging-", ".bin").toFile();
+        }
+    }
+}
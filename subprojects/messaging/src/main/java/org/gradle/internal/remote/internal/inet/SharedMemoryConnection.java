@@ -0,0 +1,291 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.io.BufferCaster;
+import org.gradle.internal.remote.internal.MessageIOException;
+import org.gradle.internal.remote.internal.MessageSerializer;
+import org.gradle.internal.remote.internal.RecoverableMessageIOException;
+import org.gradle.internal.remote.internal.RemoteConnection;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.ObjectReader;
+import org.gradle.internal.serialize.ObjectWriter;
+import org.gradle.internal.serialize.StatefulSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A connection to a process on the same machine that exchanges messages through a pair of ring buffers in shared memory, see {@link SharedMemoryRingBuffer}.
+ *
+ * <p>The socket that was used to set up the connection is kept open. It is used to wake up a reader that is blocked waiting for data, and to detect that the peer has gone away.
+ * A reader first spins for a while, then sets a flag in shared memory and blocks reading from the socket. The writer sends a byte over the socket only when the flag is set.
+ * When messages are flowing, no system calls are made and each message is copied once in each process. A writer that waits for space in a full buffer sends a byte over the
+ * socket from time to time, so that it notices when the peer has gone away. The reader treats these bytes as spurious wake-ups.</p>
+ */
+public class SharedMemoryConnection<T> implements RemoteConnection<T> {
+    /**
+     * When set, worker processes use shared memory rather than the socket to exchange messages with the build process. Only read by the build process, which tells each
+     * worker process whether to use shared memory through the address it passes to it, see {@link SharedMemoryAddress}.
+     */
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.remote.shared-memory";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedMemoryConnection.class);
+    private static final int SPINS_BEFORE_BLOCKING = 1000;
+    private static final long MAX_WRITER_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long PEER_PROBE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final SocketChannel socket;
+    private final String displayName;
+    private final SharedMemoryRingBuffer incoming;
+    private final SharedMemoryRingBuffer outgoing;
+    private final ObjectWriter<T> objectWriter;
+    private final ObjectReader<T> objectReader;
+    private final FlushableEncoder encoder;
+    private final ByteBuffer signal = ByteBuffer.allocate(1);
+    private final ByteBuffer signals = ByteBuffer.allocate(64);
+    private volatile boolean disconnected;
+
+    public SharedMemoryConnection(SocketChannel socket, File sharedMemoryFile, SharedMemoryRingBuffer incoming, SharedMemoryRingBuffer outgoing, MessageSerializer streamSerializer, StatefulSerializer<T> messageSerializer) {
+        this.socket = socket;
+        this.displayName = "shared memory connection using " + sharedMemoryFile + " with " + socket.socket().getRemoteSocketAddress();
+        this.incoming = incoming;
+        this.outgoing = outgoing;
+        objectReader = messageSerializer.newReader(streamSerializer.newDecoder(new RingBufferInputStream()));
+        encoder = streamSerializer.newEncoder(new RingBufferOutputStream());
+        objectWriter = messageSerializer.newWriter(encoder);
+    }
+
+    /**
+     * Returns whether shared memory has been asked for and can be used on this machine.
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY) && SharedMemoryRingBuffer.isSupported();
+    }
+
+    /**
+     * Returns the directory to create shared memory files in. Prefers a memory backed file system, so that the kernel does not write the pages back to disk.
+     */
+    public static File getDefaultDirectory() {
+        File devShm = new File("/dev/shm");
+        if (devShm.isDirectory() && devShm.canWrite()) {
+            return devShm;
+        }
+        return new File(System.getProperty("java.io.tmpdir"));
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+
+    @Override
+    public T receive() throws MessageIOException {
+        try {
+            return objectReader.read();
+        } catch (EOFException e) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Discarding EOFException: {}", e.toString());
+            }
+            return null;
+        } catch (ObjectStreamException e) {
+            throw new RecoverableMessageIOException(String.format("Could not read message from '%s'.", displayName), e);
+        } catch (ClassNotFoundException e) {
+            throw new RecoverableMessageIOException(String.format("Could not read message from '%s'.", displayName), e);
+        } catch (IOException e) {
+            throw new RecoverableMessageIOException(String.format("Could not read message from '%s'.", displayName), e);
+        } catch (Throwable e) {
+            throw new MessageIOException(String.format("Could not read message from '%s'.", displayName), e);
+        }
+    }
+
+    @Override
+    public void dispatch(T message) throws MessageIOException {
+        try {
+            objectWriter.write(message);
+        } catch (ObjectStreamException e) {
+            throw new RecoverableMessageIOException(String.format("Could not write message %s to '%s'.", message, displayName), e);
+        } catch (ClassNotFoundException e) {
+            throw new RecoverableMessageIOException(String.format("Could not write message %s to '%s'.", message, displayName), e);
+        } catch (IOException e) {
+            throw new RecoverableMessageIOException(String.format("Could not write message %s to '%s'.", message, displayName), e);
+        } catch (Throwable e) {
+            throw new MessageIOException(String.format("Could not write message %s to '%s'.", message, displayName), e);
+        }
+    }
+
+    @Override
+    public void flush() throws MessageIOException {
+        try {
+            encoder.flush();
+        } catch (Throwable e) {
+            throw new MessageIOException(String.format("Could not write '%s'.", displayName), e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        CompositeStoppable.stoppable(new Closeable() {
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        }, new Closeable() {
+            @Override
+            public void close() throws IOException {
+                // Let the peer read whatever is left in the buffer, then see the end of the stream
+                outgoing.closeWriter();
+                signalReader();
+            }
+        }, socket).stop();
+    }
+
+    private void signalReader() throws IOException {
+        if (outgoing.takeReaderWaiting()) {
+            sendSignal();
+        }
+    }
+
+    private void sendSignal() throws IOException {
+        synchronized (signal) {
+            BufferCaster.cast(signal).clear();
+            while (signal.hasRemaining()) {
+                socket.write(signal);
+            }
+        }
+    }
+
+    /**
+     * Blocks until the peer sends a signal. Returns false when the socket has been closed by either end.
+     */
+    private boolean awaitSignal() {
+        BufferCaster.cast(signals).clear();
+        try {
+            // Several signals may have been sent since the last time the reader blocked, so consume them all at once
+            return socket.read(signals) >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private class RingBufferInputStream extends InputStream {
+        private final byte[] readBuffer = new byte[1];
+
+        @Override
+        public int read() throws IOException {
+            int nread = read(readBuffer, 0, 1);
+            if (nread <= 0) {
+                return nread;
+            }
+            return readBuffer[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] dest, int offset, int max) throws IOException {
+            if (max == 0) {
+                return 0;
+            }
+            int spins = 0;
+            while (true) {
+                int count = incoming.read(dest, offset, max);
+                if (count > 0) {
+                    return count;
+                }
+                if (incoming.isWriterClosed() || disconnected) {
+                    // Pick up anything written before the peer closed
+                    count = incoming.read(dest, offset, max);
+                    return count > 0 ? count : -1;
+                }
+                if (spins < SPINS_BEFORE_BLOCKING) {
+                    spins++;
+                    continue;
+                }
+                incoming.setReaderWaiting(true);
+                if (incoming.isEmpty() && !incoming.isWriterClosed()) {
+                    if (!awaitSignal()) {
+                        disconnected = true;
+                    }
+                }
+                incoming.setReaderWaiting(false);
+                spins = 0;
+            }
+        }
+    }
+
+    private class RingBufferOutputStream extends OutputStream {
+        private final byte[] writeBuffer = new byte[1];
+
+        @Override
+        public void write(int b) throws IOException {
+            writeBuffer[0] = (byte) b;
+            write(writeBuffer, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] src, int offset, int length) throws IOException {
+            long backoff = 1;
+            long waitingSince = 0;
+            while (length > 0) {
+                int count = outgoing.write(src, offset, length);
+                if (count > 0) {
+                    offset += count;
+                    length -= count;
+                    signalReader();
+                    backoff = 1;
+                    waitingSince = 0;
+                } else {
+                    // The buffer is full. The reader is busy draining it, so poll rather than ask it to signal
+                    if (disconnected || !socket.isOpen()) {
+                        throw new EOFException("The peer has closed the connection.");
+                    }
+                    long now = System.nanoTime();
+                    if (waitingSince == 0) {
+                        waitingSince = now;
+                    } else if (now - waitingSince >= PEER_PROBE_INTERVAL_NANOS) {
+                        // The reader may have stopped draining the buffer because it has gone away, which only shows when writing to the socket
+                        probePeer();
+                        waitingSince = now;
+                    }
+                    LockSupport.parkNanos(backoff);
+                    backoff = Math.min(backoff * 2, MAX_WRITER_BACKOFF_NANOS);
+                }
+            }
+        }
+
+        private void probePeer() throws IOException {
+            try {
+                sendSignal();
+            } catch (IOException e) {
+                EOFException eofException = new EOFException("The peer has closed the connection.");
+                eofException.initCause(e);
+                throw eofException;
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.internal.io.BufferCaster;
+import sun.misc.Unsafe;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * A single producer, single consumer ring buffer held in memory that is shared with another process. One process writes to the buffer and the other reads from it.
+ *
+ * <p>The header holds the total number of bytes written, the total number of bytes read and two flags, each in its own cache line. The data follows the header.
+ * The buffer is empty when the positions are equal, and full when they differ by the capacity.</p>
+ *
+ * <p>The Java memory model says nothing about memory shared with another process, so the accesses to the shared memory are ordered with the fences of
+ * {@link Unsafe}: a full fence after each update of the positions and flags, and a load fence before the data is read. These are hardware fences, unlike the ordering
+ * implied by volatile or atomic accesses to local variables, which only holds for the accessed variable. The positions are read and written as 8 byte values, which is only
+ * atomic on 64 bit machines. The ring buffer must only be used when both hold, see {@link #isSupported()}.</p>
+ */
+class SharedMemoryRingBuffer {
+    static final int HEADER_SIZE = 256;
+    private static final int WRITE_POSITION = 0;
+    private static final int READ_POSITION = 64;
+    private static final int READER_WAITING = 128;
+    private static final int WRITER_CLOSED = 192;
+
+    private final ByteBuffer header;
+    private final ByteBuffer readView;
+    private final ByteBuffer writeView;
+    private final int offset;
+    private final int dataOffset;
+    private final int capacity;
+    // Only this process updates the position that it owns, so it does not need to be read back from shared memory
+    private long readPosition;
+    private long writePosition;
+
+    /**
+     * @param buffer the shared memory
+     * @param offset the offset of this ring buffer in the shared memory
+     * @param capacity the number of bytes of data the buffer can hold, must be a power of 2
+     */
+    SharedMemoryRingBuffer(ByteBuffer buffer, int offset, int capacity) {
+        this.header = buffer.duplicate();
+        this.readView = buffer.duplicate();
+        this.writeView = buffer.duplicate();
+        this.offset = offset;
+        this.dataOffset = offset + HEADER_SIZE;
+        this.capacity = capacity;
+        this.readPosition = header.getLong(offset + READ_POSITION);
+        this.writePosition = header.getLong(offset + WRITE_POSITION);
+    }
+
+    /**
+     * Returns whether the fences used by the ring buffer are available on this JVM, and the positions can be accessed atomically on this machine.
+     */
+    static boolean isSupported() {
+        String arch = System.getProperty("os.arch");
+        return Fences.UNSAFE != null && ("amd64".equals(arch) || "x86_64".equals(arch) || "aarch64".equals(arch));
+    }
+
+    static int sizeFor(int capacity) {
+        return HEADER_SIZE + capacity;
+    }
+
+    /**
+     * Copies as many bytes as are available, up to the given maximum. Does not block.
+     *
+     * @return the number of bytes copied, 0 when the buffer is empty.
+     */
+    int read(byte[] dest, int destOffset, int max) {
+        long available = header.getLong(offset + WRITE_POSITION) - readPosition;
+        // Acquire: do not read the data before the write position
+        acquireFence();
+        if (available == 0) {
+            return 0;
+        }
+        int count = (int) Math.min(available, max);
+        int index = (int) (readPosition & (capacity - 1));
+        int first = Math.min(count, capacity - index);
+        BufferCaster.cast(readView).position(dataOffset + index);
+        readView.get(dest, destOffset, first);
+        if (first < count) {
+            BufferCaster.cast(readView).position(dataOffset);
+            readView.get(dest, destOffset + first, count - first);
+        }
+        readPosition += count;
+        // Release: finish reading the data before the writer can overwrite it
+        fullFence();
+        header.putLong(offset + READ_POSITION, readPosition);
+        fullFence();
+        return count;
+    }
+
+    /**
+     * Copies as many bytes as there is space for, up to the given length, and makes them visible to the reader. Does not block.
+     *
+     * @return the number of bytes copied, 0 when the buffer is full.
+     */
+    int write(byte[] src, int srcOffset, int length) {
+        long free = capacity - (writePosition - header.getLong(offset + READ_POSITION));
+        acquireFence();
+        if (free == 0) {
+            return 0;
+        }
+        int count = (int) Math.min(free, length);
+        int index = (int) (writePosition & (capacity - 1));
+        int first = Math.min(count, capacity - index);
+        BufferCaster.cast(writeView).position(dataOffset + index);
+        writeView.put(src, srcOffset, first);
+        if (first < count) {
+            BufferCaster.cast(writeView).position(dataOffset);
+            writeView.put(src, srcOffset + first, count - first);
+        }
+        writePosition += count;
+        fullFence();
+        header.putLong(offset + WRITE_POSITION, writePosition);
+        // Make the write position visible before the writer checks whether the reader is waiting
+        fullFence();
+        return count;
+    }
+
+    boolean isEmpty() {
+        boolean empty = header.getLong(offset + WRITE_POSITION) == readPosition;
+        acquireFence();
+        return empty;
+    }
+
+    /**
+     * Called by the reader before it blocks, so that the writer signals it when there is more data. The reader must check the buffer again after calling this method.
+     */
+    void setReaderWaiting(boolean waiting) {
+        header.putInt(offset + READER_WAITING, waiting ? 1 : 0);
+        // Make the flag visible before the reader checks whether the buffer is empty
+        fullFence();
+    }
+
+    /**
+     * Called by the writer after writing. Returns true when the reader is waiting and needs to be signalled, and clears the flag.
+     */
+    boolean takeReaderWaiting() {
+        if (header.getInt(offset + READER_WAITING) == 0) {
+            return false;
+        }
+        header.putInt(offset + READER_WAITING, 0);
+        fullFence();
+        return true;
+    }
+
+    void closeWriter() {
+        fullFence();
+        header.putInt(offset + WRITER_CLOSED, 1);
+        fullFence();
+    }
+
+    boolean isWriterClosed() {
+        boolean closed = header.getInt(offset + WRITER_CLOSED) != 0;
+        acquireFence();
+        return closed;
+    }
+
+    /**
+     * Orders all earlier loads and stores before all later loads and stores.
+     */
+    private static void fullFence() {
+        Fences.UNSAFE.fullFence();
+    }
+
+    /**
+     * Orders all earlier loads before all later loads and stores.
+     */
+    private static void acquireFence() {
+        Fences.UNSAFE.loadFence();
+    }
+
+    private static class Fences {
+        // Null when the JVM does not provide the fences, which were added in Java 8
+        @Nullable
+        static final Unsafe UNSAFE = loadUnsafe();
+
+        @Nullable
+        private static Unsafe loadUnsafe() {
+            try {
+                Unsafe.class.getMethod("fullFence");
+                Unsafe.class.getMethod("loadFence");
+                Field field = Unsafe.class.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                return (Unsafe) field.get(null);
+            } catch (Exception e) {
+                return null;
+            } catch (LinkageError e) {
+                return null;
+            }
+        }
+    }
+}
@@ -43,11 +43,20 @@ public class TcpIncomingConnector implements IncomingConnector {
     private final ExecutorFactory executorFactory;
     private final InetAddressFactory addressFactory;
     private final IdGenerator<UUID> idGenerator;
+    private final boolean useSharedMemory;
 
     public TcpIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory addressFactory, IdGenerator<UUID> idGenerator) {
+        this(executorFactory, addressFactory, idGenerator, false);
+    }
+
+    /**
+     * @param useSharedMemory when true, messages are exchanged with local peers through shared memory, see {@link SharedMemoryConnection}. The peers must use a {@link TcpOutgoingConnector} that also uses shared memory.
+     */
+    public TcpIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory addressFactory, IdGenerator<UUID> idGenerator, boolean useSharedMemory) {
         this.executorFactory = executorFactory;
         this.addressFactory = addressFactory;
         this.idGenerator = idGenerator;
+        this.useSharedMemory = useSharedMemory;
     }
 
     @Override
@@ -64,11 +73,12 @@ public ConnectionAcceptor accept(Action<ConnectCompletion> action, boolean allow
 
         UUID id = idGenerator.generateId();
         List<InetAddress> addresses = Collections.singletonList(addressFactory.getLocalBindingAddress());
-        final Address address = new MultiChoiceAddress(id, localPort, addresses);
+        final boolean offerSharedMemory = useSharedMemory && !allowRemote;
+        final Address address = offerSharedMemory ? new SharedMemoryAddress(id, localPort, addresses) : new MultiChoiceAddress(id, localPort, addresses);
         LOGGER.debug("Listening on {}.", address);
 
         final ManagedExecutor executor = executorFactory.create("Incoming " + (allowRemote ? "remote" : "local")+ " TCP Connector on port " + localPort);
-        executor.execute(new Receiver(serverSocket, action, allowRemote));
+        executor.execute(new Receiver(serverSocket, action, allowRemote, offerSharedMemory));
 
         return new ConnectionAcceptor() {
             @Override
@@ -93,11 +103,13 @@ private class Receiver implements Runnable {
         private final ServerSocketChannel serverSocket;
         private final Action<ConnectCompletion> action;
         private final boolean allowRemote;
+        private final boolean offerSharedMemory;
 
-        public Receiver(ServerSocketChannel serverSocket, Action<ConnectCompletion> action, boolean allowRemote) {
+        public Receiver(ServerSocketChannel serverSocket, Action<ConnectCompletion> action, boolean allowRemote, boolean offerSharedMemory) {
             this.serverSocket = serverSocket;
             this.action = action;
             this.allowRemote = allowRemote;
+            this.offerSharedMemory = offerSharedMemory;
         }
 
         @Override
@@ -115,7 +127,7 @@ public void run() {
                         }
                         LOGGER.debug("Accepted connection from {} to {}.", socket.socket().getRemoteSocketAddress(), socket.socket().getLocalSocketAddress());
                         try {
-                            action.execute(new SocketConnectCompletion(socket));
+                            action.execute(offerSharedMemory ? new SharedMemoryConnectCompletion(socket, SharedMemoryConnection.getDefaultDirectory()) : new SocketConnectCompletion(socket));
                         } catch (Throwable t) {
                             socket.close();
                             throw t;
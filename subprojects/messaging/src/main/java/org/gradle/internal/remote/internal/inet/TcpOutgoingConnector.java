@@ -31,6 +31,18 @@
 public class TcpOutgoingConnector implements OutgoingConnector {
     private static final Logger LOGGER = LoggerFactory.getLogger(TcpOutgoingConnector.class);
     private static final int CONNECT_TIMEOUT = 10000;
+    private final boolean useSharedMemory;
+
+    public TcpOutgoingConnector() {
+        this(false);
+    }
+
+    /**
+     * @param useSharedMemory when true, messages are exchanged through shared memory, see {@link SharedMemoryConnection}. The peer must use a {@link TcpIncomingConnector} that also uses shared memory.
+     */
+    public TcpOutgoingConnector(boolean useSharedMemory) {
+        this.useSharedMemory = useSharedMemory;
+    }
 
     @Override
     public ConnectCompletion connect(Address destinationAddress) throws org.gradle.internal.remote.internal.ConnectException {
@@ -62,7 +74,7 @@ public ConnectCompletion connect(Address destinationAddress) throws org.gradle.i
                     continue;
                 }
                 LOGGER.debug("Connected to address {}.", socketChannel.socket().getRemoteSocketAddress());
-                return new SocketConnectCompletion(socketChannel);
+                return useSharedMemory ? new SharedMemoryConnectCompletion(socketChannel, null) : new SocketConnectCompletion(socketChannel);
             }
             throw new org.gradle.internal.remote.internal.ConnectException(String.format("Could not connect to server %s. Tried addresses: %s.",
                     destinationAddress, candidateAddresses), lastFailure);
@@ -44,20 +44,33 @@
  */
 public class MessagingServices {
     private final IdGenerator<UUID> idGenerator = new UUIDGenerator();
+    private final boolean useSharedMemory;
+
+    public MessagingServices() {
+        this(false);
+    }
+
+    /**
+     * @param useSharedMemory when true, connections to local peers exchange messages through shared memory. Both ends of a connection must agree on this.
+     */
+    public MessagingServices(boolean useSharedMemory) {
+        this.useSharedMemory = useSharedMemory;
+    }
 
     protected InetAddressFactory createInetAddressFactory() {
         return new InetAddressFactory();
     }
 
     protected OutgoingConnector createOutgoingConnector() {
-        return new TcpOutgoingConnector();
+        return new TcpOutgoingConnector(useSharedMemory);
     }
 
     protected IncomingConnector createIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory inetAddressFactory) {
         return new TcpIncomingConnector(
                 executorFactory,
                 inetAddressFactory,
-                idGenerator
+                idGenerator,
+                useSharedMemory
         );
     }
 
@@ -31,6 +31,7 @@ import spock.lang.Timeout
 import java.util.concurrent.BlockingQueue
 import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
 
 @Timeout(60)
 class MessageHubTest extends ConcurrentSpec {
@@ -110,6 +111,69 @@ class MessageHubTest extends ConcurrentSpec {
         connection.stop()
     }
 
+    def "outgoing messages dispatched within the batch window are flushed together"() {
+        RemoteConnection<InterHubMessage> outgoing = Mock()
+        def connection = new MockOutgoingConnection(outgoing)
+        def batchingHub = new MessageHub("<hub>", executorFactory, errorHandler, TimeUnit.SECONDS.toNanos(10), 0)
+
+        given:
+        batchingHub.addConnection(connection)
+        def dispatch = batchingHub.getOutgoing("channel", String)
+
+        when:
+        dispatch.dispatch("message1")
+        dispatch.dispatch("message2")
+        dispatch.dispatch("message3")
+        batchingHub.requestStop()
+        thread.blockUntil.flushed
+
+        then:
+        3 * outgoing.dispatch({ it instanceof ChannelMessage })
+        1 * outgoing.dispatch({ it instanceof EndOfStream })
+        1 * outgoing.flush() >> { instant.flushed }
+        0 * _._
+
+        cleanup:
+        connection.stop()
+        batchingHub.stop()
+    }
+
+    def "dispatch blocks while outgoing queue is full"() {
+        RemoteConnection<InterHubMessage> outgoing = Mock()
+        def connection = new MockOutgoingConnection(outgoing)
+        def boundedHub = new MessageHub("<hub>", executorFactory, errorHandler, 0, 1)
+
+        given:
+        boundedHub.addConnection(connection)
+        def dispatch = boundedHub.getOutgoing("channel", String)
+
+        when:
+        dispatch.dispatch("message1")
+        thread.blockUntil.message1Writing
+        dispatch.dispatch("message2")
+        operation.dispatch3 {
+            dispatch.dispatch("message3")
+        }
+        thread.blockUntil.message3Written
+
+        then:
+        1 * outgoing.dispatch({ it.payload == "message1" }) >> {
+            instant.message1Writing
+            thread.block()
+            instant.message1Written
+        }
+        1 * outgoing.dispatch({ it.payload == "message2" })
+        1 * outgoing.dispatch({ it.payload == "message3" }) >> { instant.message3Written }
+        _ * outgoing.flush()
+
+        and:
+        operation.dispatch3.end > instant.message1Written
+
+        cleanup:
+        connection.stop()
+        boundedHub.stop()
+    }
+
     def "queued outgoing messages are dispatched asynchronously to connection when connection is added"() {
         RemoteConnection<InterHubMessage> outgoing = Mock()
         def connection = new MockOutgoingConnection(outgoing)
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet
+
+import org.gradle.api.Action
+import org.gradle.internal.id.UUIDGenerator
+import org.gradle.internal.remote.internal.ConnectCompletion
+import org.gradle.internal.remote.internal.MessageIOException
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.internal.serialize.Serializers
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import spock.lang.Shared
+import spock.lang.Timeout
+
+import java.nio.ByteBuffer
+
+@Timeout(60)
+class SharedMemoryConnectionTest extends ConcurrentSpec {
+    @Shared def serializer = Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER)
+    final def outgoingConnector = new TcpOutgoingConnector(true)
+    final def incomingConnector = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator(), true)
+
+    def "peers exchange messages through shared memory"() {
+        def messages = (1..20000).collect { "message ${it} ".padRight(100, "x") }
+        def received = []
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion completion ->
+            def connection = completion.create(serializer)
+            messages.each { connection.dispatch(it) }
+            connection.flush()
+            assert connection.receive() == "done"
+            connection.stop()
+            instant.closed
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        messages.size().times { received << connection.receive() }
+        connection.dispatch("done")
+        connection.flush()
+        thread.blockUntil.closed
+
+        then:
+        connection instanceof SharedMemoryConnection
+        received == messages
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "can receive message from peer after peer has closed connection"() {
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion completion ->
+            def connection = completion.create(serializer)
+            connection.dispatch("bye")
+            connection.stop()
+            instant.closed
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        thread.blockUntil.closed
+
+        then:
+        connection.receive() == "bye"
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "receive returns null when connection is stopped while waiting for messages"() {
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion completion ->
+            completion.create(serializer)
+            instant.connected
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        thread.blockUntil.connected
+        async {
+            start {
+                assert connection.receive() == null
+                instant.received
+            }
+            thread.block()
+            instant.stopping
+            connection.stop()
+        }
+
+        then:
+        instant.received > instant.stopping
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "offers shared memory to local peers only"() {
+        when:
+        def localAcceptor = incomingConnector.accept({} as Action, false)
+        def remoteAcceptor = incomingConnector.accept({} as Action, true)
+
+        then:
+        localAcceptor.address instanceof SharedMemoryAddress
+        SharedMemoryAddress.offersSharedMemory(localAcceptor.address)
+        !SharedMemoryAddress.offersSharedMemory(remoteAcceptor.address)
+
+        cleanup:
+        localAcceptor?.stop()
+        remoteAcceptor?.stop()
+    }
+
+    def "writer fails when peer goes away while buffer is full"() {
+        def message = "x" * 10000
+        def failure = null
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion completion ->
+            def connection = completion.create(serializer)
+            thread.blockUntil.peerStopped
+            try {
+                // Fills the buffer, which the peer no longer drains
+                1000.times {
+                    connection.dispatch(message)
+                    connection.flush()
+                }
+            } catch (MessageIOException e) {
+                failure = e
+            }
+            instant.done
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        connection.stop()
+        instant.peerStopped
+        thread.blockUntil.done
+
+        then:
+        failure != null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "ring buffer wraps around when reader keeps up with writer"() {
+        def capacity = 16
+        def memory = ByteBuffer.allocate(SharedMemoryRingBuffer.sizeFor(capacity))
+        def writer = new SharedMemoryRingBuffer(memory, 0, capacity)
+        def reader = new SharedMemoryRingBuffer(memory, 0, capacity)
+        def dest = new byte[16]
+
+        expect:
+        writer.write("0123456789".bytes, 0, 10) == 10
+        reader.read(dest, 0, 16) == 10
+        writer.write("abcdefghijklmnopqrs".bytes, 0, 19) == 16
+        writer.write("s".bytes, 0, 1) == 0
+        reader.read(dest, 0, 16) == 16
+        new String(dest, "us-ascii") == "abcdefghijklmnop"
+        reader.isEmpty()
+    }
+}
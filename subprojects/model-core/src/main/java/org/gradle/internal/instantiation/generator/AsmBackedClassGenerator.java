@@ -38,6 +38,7 @@
 import org.gradle.cache.internal.CrossBuildInMemoryCache;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
 import org.gradle.internal.extensibility.ConventionAwareHelper;
 import org.gradle.internal.instantiation.ClassGenerationException;
 import org.gradle.internal.instantiation.InjectAnnotationHandler;
@@ -121,9 +122,11 @@
 public class AsmBackedClassGenerator extends AbstractClassGenerator {
     private static final ThreadLocal<ObjectCreationDetails> SERVICES_FOR_NEXT_OBJECT = new ThreadLocal<>();
     private static final AtomicReference<CrossBuildInMemoryCache<Class<?>, GeneratedClassImpl>> GENERATED_CLASSES_CACHES = new AtomicReference<>();
+    private static final AtomicReference<GeneratedClassBytecodeCache> BYTECODE_CACHE = new AtomicReference<>();
     private final boolean decorate;
     private final String suffix;
     private final int factoryId;
+    private final boolean persistent;
 
     private static final String GET_DISPLAY_NAME_FOR_NEXT_METHOD_NAME = "getDisplayNameForNext";
 
@@ -151,11 +154,28 @@ public static ManagedObjectFactory getFactoryForNext() {
         return new ManagedObjectFactory(details.services, details.instantiator);
     }
 
-    private AsmBackedClassGenerator(boolean decorate, String suffix, Collection<? extends InjectAnnotationHandler> allKnownAnnotations, Collection<Class<? extends Annotation>> enabledAnnotations, CrossBuildInMemoryCache<Class<?>, GeneratedClassImpl> generatedClasses, int factoryId) {
+    private AsmBackedClassGenerator(boolean decorate, String suffix, Collection<? extends InjectAnnotationHandler> allKnownAnnotations, Collection<Class<? extends Annotation>> enabledAnnotations, CrossBuildInMemoryCache<Class<?>, GeneratedClassImpl> generatedClasses, int factoryId, boolean persistent) {
         super(allKnownAnnotations, enabledAnnotations, generatedClasses);
         this.decorate = decorate;
         this.suffix = suffix;
         this.factoryId = factoryId;
+        this.persistent = persistent;
+    }
+
+    /**
+     * Uses the given cache to reuse the bytecode of generated classes across processes.
+     *
+     * <p>Only classes whose generated name does not depend on the order in which generators are created are stored, that is the classes generated by the shared decorating generator.</p>
+     */
+    public static void useBytecodeCache(GeneratedClassBytecodeCache bytecodeCache) {
+        BYTECODE_CACHE.set(bytecodeCache);
+    }
+
+    /**
+     * Stops using the given cache, if it is the current one.
+     */
+    public static void discardBytecodeCache(GeneratedClassBytecodeCache bytecodeCache) {
+        BYTECODE_CACHE.compareAndSet(bytecodeCache, null);
     }
 
     /**
@@ -164,6 +184,7 @@ private AsmBackedClassGenerator(boolean decorate, String suffix, Collection<? ex
     static ClassGenerator decorateAndInject(Collection<? extends InjectAnnotationHandler> allKnownAnnotations, Collection<Class<? extends Annotation>> enabledAnnotations, CrossBuildInMemoryCacheFactory cacheFactory, int factoryId) {
         String suffix;
         CrossBuildInMemoryCache<Class<?>, GeneratedClassImpl> generatedClasses;
+        boolean persistent;
         if (enabledAnnotations.isEmpty()) {
             // TODO wolfs: We use `_Decorated` here, since IDEA import currently relies on this
             // See https://github.com/gradle/gradle/issues/8244
@@ -175,14 +196,16 @@ static ClassGenerator decorateAndInject(Collection<? extends InjectAnnotationHan
                 }
             }
             generatedClasses = GENERATED_CLASSES_CACHES.get();
+            persistent = true;
         } else {
             // TODO - the suffix should be a deterministic function of the known and enabled annotations
             // For now, just assign using a counter
             suffix = ClassGeneratorSuffixRegistry.assign("$Decorated");
             generatedClasses = cacheFactory.newClassMap();
+            persistent = false;
         }
 
-        return new AsmBackedClassGenerator(true, suffix, allKnownAnnotations, enabledAnnotations, generatedClasses, factoryId);
+        return new AsmBackedClassGenerator(true, suffix, allKnownAnnotations, enabledAnnotations, generatedClasses, factoryId, persistent);
     }
 
     /**
@@ -192,7 +215,7 @@ static ClassGenerator injectOnly(Collection<? extends InjectAnnotationHandler> a
         // TODO - the suffix should be a deterministic function of the known and enabled annotations
         // For now, just assign using a counter
         String suffix = ClassGeneratorSuffixRegistry.assign("$Inject");
-        return new AsmBackedClassGenerator(false, suffix, allKnownAnnotations, enabledAnnotations, cacheFactory.newClassMap(), factoryId);
+        return new AsmBackedClassGenerator(false, suffix, allKnownAnnotations, enabledAnnotations, cacheFactory.newClassMap(), factoryId, false);
     }
 
     @Override
@@ -223,7 +246,7 @@ protected ClassInspectionVisitor start(Class<?> type) {
             formatter.append(" is not a class or interface.");
             throw new ClassGenerationException(formatter.toString());
         }
-        return new ClassInspectionVisitorImpl(type, decorate, suffix, factoryId);
+        return new ClassInspectionVisitorImpl(type, decorate, suffix, factoryId, persistent ? BYTECODE_CACHE.get() : null);
     }
 
     private static class ClassInspectionVisitorImpl implements ClassInspectionVisitor {
@@ -231,6 +254,8 @@ private static class ClassInspectionVisitorImpl implements ClassInspectionVisito
         private final boolean decorate;
         private final String suffix;
         private final int factoryId;
+        @Nullable
+        private final GeneratedClassBytecodeCache bytecodeCache;
         private boolean extensible;
         private boolean serviceInjection;
         private boolean conventionAware;
@@ -241,11 +266,12 @@ private static class ClassInspectionVisitorImpl implements ClassInspectionVisito
         private boolean instantiatesNestedObjects;
         private final List<PropertyMetadata> propertiesToAttach = new ArrayList<>();
 
-        public ClassInspectionVisitorImpl(Class<?> type, boolean decorate, String suffix, int factoryId) {
+        public ClassInspectionVisitorImpl(Class<?> type, boolean decorate, String suffix, int factoryId, @Nullable GeneratedClassBytecodeCache bytecodeCache) {
             this.type = type;
             this.decorate = decorate;
             this.suffix = suffix;
             this.factoryId = factoryId;
+            this.bytecodeCache = bytecodeCache;
         }
 
         @Override
@@ -317,9 +343,16 @@ public ClassGenerationVisitor builder() {
                 formatter.append(" is final.");
                 throw new ClassGenerationException(formatter.toString());
             }
+            if (bytecodeCache != null) {
+                String generatedClassName = type.getName() + suffix;
+                byte[] bytecode = bytecodeCache.load(type, generatedClassName);
+                if (bytecode != null) {
+                    return new CachedBytecodeBuilder(type, generatedClassName, bytecode, managed, factoryId);
+                }
+            }
             boolean requiresServicesMethod = (extensible || serviceInjection) && !providesOwnServicesImplementation;
             boolean requiresToString = !providesOwnToStringImplementation;
-            ClassBuilderImpl builder = new ClassBuilderImpl(type, decorate, suffix, factoryId, extensible, conventionAware, managed, providesOwnDynamicObjectImplementation, requiresToString, requiresServicesMethod, instantiatesNestedObjects, propertiesToAttach);
+            ClassBuilderImpl builder = new ClassBuilderImpl(type, decorate, suffix, factoryId, extensible, conventionAware, managed, providesOwnDynamicObjectImplementation, requiresToString, requiresServicesMethod, instantiatesNestedObjects, propertiesToAttach, bytecodeCache);
             builder.startClass();
             return builder;
         }
@@ -427,6 +460,8 @@ private static class ClassBuilderImpl implements ClassGenerationVisitor {
         private final boolean providesOwnDynamicObject;
         private final boolean requiresToString;
         private final List<PropertyMetadata> propertiesToAttach;
+        @Nullable
+        private final GeneratedClassBytecodeCache bytecodeCache;
         private final boolean requiresServicesMethod;
         private final boolean requiresFactory;
 
@@ -442,7 +477,8 @@ private ClassBuilderImpl(
             boolean requiresToString,
             boolean requiresServicesMethod,
             boolean requiresFactory,
-            List<PropertyMetadata> propertiesToAttach
+            List<PropertyMetadata> propertiesToAttach,
+            @Nullable GeneratedClassBytecodeCache bytecodeCache
         ) {
             this.type = type;
             this.factoryId = factoryId;
@@ -459,6 +495,7 @@ private ClassBuilderImpl(
             this.providesOwnDynamicObject = providesOwnDynamicObject;
             this.requiresServicesMethod = requiresServicesMethod;
             this.requiresFactory = requiresFactory;
+            this.bytecodeCache = bytecodeCache;
         }
 
         public void startClass() {
@@ -1639,7 +1676,7 @@ private Object getAnnotationParameterValue(Annotation annotation, Method method)
             }
         }
 
-        private void attachFactoryIdToImplType(Class<?> implClass, int id) {
+        private static void attachFactoryIdToImplType(Class<?> implClass, int id) {
             try {
                 Field factoryField = implClass.getDeclaredField(FACTORY_ID_FIELD);
                 factoryField.setAccessible(true);
@@ -1654,7 +1691,14 @@ public Class<?> generate() {
             writeGenericReturnTypeFields();
             visitor.visitEnd();
 
-            Class<?> generatedClass = classGenerator.define();
+            Class<?> generatedClass;
+            if (bytecodeCache != null) {
+                byte[] bytecode = visitor.toByteArray();
+                generatedClass = classGenerator.define(bytecode);
+                bytecodeCache.store(type, classGenerator.getGeneratedTypeName(), bytecode);
+            } else {
+                generatedClass = classGenerator.define();
+            }
 
             if (managed) {
                 attachFactoryIdToImplType(generatedClass, factoryId);
@@ -1734,6 +1778,31 @@ private static class ObjectCreationDetails {
         }
     }
 
+    private static class CachedBytecodeBuilder extends NoOpBuilder {
+        private final String generatedClassName;
+        private final byte[] bytecode;
+        private final boolean managed;
+        private final int factoryId;
+
+        public CachedBytecodeBuilder(Class<?> type, String generatedClassName, byte[] bytecode, boolean managed, int factoryId) {
+            super(type);
+            this.generatedClassName = generatedClassName;
+            this.bytecode = bytecode;
+            this.managed = managed;
+            this.factoryId = factoryId;
+        }
+
+        @Override
+        public Class<?> generate() {
+            Class<?> type = super.generate();
+            Class<?> generatedClass = ClassLoaderUtils.defineDecorator(type, type.getClassLoader(), generatedClassName, bytecode);
+            if (managed) {
+                ClassBuilderImpl.attachFactoryIdToImplType(generatedClass, factoryId);
+            }
+            return generatedClass;
+        }
+    }
+
     private static class NoOpBuilder implements ClassGenerationVisitor {
         private final Class<?> type;
 
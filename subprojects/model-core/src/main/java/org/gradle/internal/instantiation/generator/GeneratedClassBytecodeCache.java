@@ -0,0 +1,34 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.instantiation.generator;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores the bytecode of generated classes, so that other processes can define them without generating them again.
+ *
+ * <p>Implementations are responsible for only returning bytecode that was generated from the same version of the given type and of all types visible to it.</p>
+ */
+public interface GeneratedClassBytecodeCache {
+    /**
+     * Returns the bytecode previously stored for the given generated class of the given type, or null when not available.
+     */
+    @Nullable
+    byte[] load(Class<?> type, String generatedClassName);
+
+    void store(Class<?> type, String generatedClassName, byte[] bytecode);
+}
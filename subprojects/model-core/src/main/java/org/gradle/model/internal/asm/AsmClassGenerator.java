@@ -57,4 +57,8 @@ public <T> Class<T> define() {
     public <T> Class<T> define(ClassLoader targetClassLoader) {
         return ClassLoaderUtils.defineDecorator(targetType, targetClassLoader, generatedTypeName, visitor.toByteArray());
     }
+
+    public <T> Class<T> define(byte[] bytecode) {
+        return ClassLoaderUtils.defineDecorator(targetType, targetType.getClassLoader(), generatedTypeName, bytecode);
+    }
 }
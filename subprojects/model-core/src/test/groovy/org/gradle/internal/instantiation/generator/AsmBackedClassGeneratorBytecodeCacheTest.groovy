@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.instantiation.generator
+
+import org.gradle.cache.internal.TestCrossBuildInMemoryCacheFactory
+import spock.lang.Specification
+
+class AsmBackedClassGeneratorBytecodeCacheTest extends Specification {
+    def bytecodeCache = Mock(GeneratedClassBytecodeCache)
+
+    def setup() {
+        AsmBackedClassGenerator.useBytecodeCache(bytecodeCache)
+    }
+
+    def cleanup() {
+        AsmBackedClassGenerator.discardBytecodeCache(bytecodeCache)
+    }
+
+    def "stores bytecode of generated class and defines class from stored bytecode"() {
+        def generator = AsmBackedClassGenerator.decorateAndInject([], [], new TestCrossBuildInMemoryCacheFactory(), 0)
+        def type1 = beanType()
+        def type2 = beanType()
+        byte[] stored = null
+
+        when:
+        def generated1 = generator.generate(type1).generatedClass
+
+        then:
+        1 * bytecodeCache.load(type1, "CachedBean_Decorated") >> null
+        1 * bytecodeCache.store(type1, "CachedBean_Decorated", _) >> { Class<?> type, String name, byte[] bytecode -> stored = bytecode }
+        0 * bytecodeCache._
+
+        and:
+        generated1.superclass == type1
+
+        when:
+        def generated2 = generator.generate(type2).generatedClass
+
+        then:
+        1 * bytecodeCache.load(type2, "CachedBean_Decorated") >> stored
+        0 * bytecodeCache._
+
+        and:
+        generated2.name == "CachedBean_Decorated"
+        generated2.superclass == type2
+        generated2.newInstance().prop == null
+    }
+
+    def "does not use cache for generators with non-deterministic class names"() {
+        def generator = AsmBackedClassGenerator.injectOnly([], [], new TestCrossBuildInMemoryCacheFactory(), 0)
+        def type = beanType()
+
+        when:
+        generator.generate(type)
+
+        then:
+        0 * bytecodeCache._
+    }
+
+    private static Class<?> beanType() {
+        // Use a new class loader for each type, so that the generated class can be defined more than once
+        return new GroovyClassLoader(AsmBackedClassGeneratorBytecodeCacheTest.classLoader).parseClass("class CachedBean { String prop }")
+    }
+}
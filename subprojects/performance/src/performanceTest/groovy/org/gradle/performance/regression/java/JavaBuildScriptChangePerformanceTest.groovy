@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.regression.java
+
+import org.gradle.api.internal.initialization.loadercache.DefaultClassLoaderCache
+import org.gradle.performance.AbstractCrossVersionGradleInternalPerformanceTest
+import org.gradle.performance.mutator.ApplyChangeToBuildScriptMutator
+import spock.lang.Unroll
+
+import static org.gradle.performance.generator.JavaTestProject.LARGE_JAVA_MULTI_PROJECT
+import static org.gradle.performance.generator.JavaTestProject.LARGE_JAVA_MULTI_PROJECT_KOTLIN_DSL
+
+class JavaBuildScriptChangePerformanceTest extends AbstractCrossVersionGradleInternalPerformanceTest {
+
+    @Unroll
+    def "configure #testProject after build script change"() {
+        given:
+        runner.testProject = testProject
+        runner.gradleOpts = ["-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}", "-D${DefaultClassLoaderCache.RETAIN_RELEASED_PROPERTY}=true"]
+        runner.tasksToRun = ['help']
+        runner.addBuildExperimentListener(new ApplyChangeToBuildScriptMutator(buildScript))
+        runner.targetVersions = ["6.2-20191228230026+0000"]
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+
+        where:
+        testProject                         | buildScript
+        LARGE_JAVA_MULTI_PROJECT            | 'project250/build.gradle'
+        LARGE_JAVA_MULTI_PROJECT_KOTLIN_DSL | 'project250/build.gradle.kts'
+    }
+}
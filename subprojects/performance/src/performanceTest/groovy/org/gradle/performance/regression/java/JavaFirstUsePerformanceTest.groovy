@@ -17,6 +17,7 @@
 package org.gradle.performance.regression.java
 
 import org.apache.commons.io.FileUtils
+import org.gradle.internal.instantiation.generator.PersistentGeneratedClassBytecodeCache
 import org.gradle.performance.AbstractCrossVersionGradleInternalPerformanceTest
 import org.gradle.performance.categories.SlowPerformanceRegressionTest
 import org.gradle.performance.fixture.BuildExperimentInvocationInfo
@@ -118,4 +119,25 @@ class JavaFirstUsePerformanceTest extends AbstractCrossVersionGradleInternalPerf
         LARGE_JAVA_MULTI_PROJECT                 | _
         LARGE_JAVA_MULTI_PROJECT_KOTLIN_DSL      | _
     }
+
+    @Unroll
+    def "cold daemon with persistent generated classes on #testProject"() {
+        given:
+        runner.testProject = testProject
+        runner.gradleOpts = ["-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}", "-D${PersistentGeneratedClassBytecodeCache.ENABLED_PROPERTY}=true"]
+        runner.tasksToRun = ['help']
+        runner.useDaemon = false
+        runner.targetVersions = ["6.2-20191228230026+0000"]
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+
+        where:
+        testProject                              | _
+        LARGE_JAVA_MULTI_PROJECT                 | _
+        LARGE_JAVA_MULTI_PROJECT_KOTLIN_DSL      | _
+    }
 }
@@ -16,26 +16,219 @@
 
 package org.gradle.nativeplatform.toolchain.internal.gcc;
 
+import com.google.common.base.Joiner;
+import com.google.common.collect.Iterables;
+import org.gradle.api.Action;
 import org.gradle.api.Transformer;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.logging.BuildOperationLogger;
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.nativeplatform.internal.CompilerOutputFileNamingSchemeFactory;
 import org.gradle.nativeplatform.toolchain.internal.ArgsTransformer;
 import org.gradle.nativeplatform.toolchain.internal.CommandLineToolContext;
+import org.gradle.nativeplatform.toolchain.internal.CommandLineToolInvocation;
 import org.gradle.nativeplatform.toolchain.internal.CommandLineToolInvocationWorker;
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec;
 import org.gradle.nativeplatform.toolchain.internal.NativeCompiler;
 import org.gradle.nativeplatform.toolchain.internal.OptionsFileArgsWriter;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 class GccCompatibleNativeCompiler<T extends NativeCompileSpec> extends NativeCompiler<T> {
+    /**
+     * When set, compilers that support it compile several source files with each compiler process, rather than starting a process per source file.
+     */
+    public static final String BATCH_PROPERTY = "org.gradle.internal.native.compiler.batch";
+    private static final int MAX_BATCH_SIZE = 8;
+
+    private final String objectFileExtension;
+    private final WorkerLeaseService workerLeaseService;
 
     GccCompatibleNativeCompiler(BuildOperationExecutor buildOperationExecutor, CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory, CommandLineToolInvocationWorker commandLineTool, CommandLineToolContext invocationContext, final ArgsTransformer<T> argsTransformer, Transformer<T, T> specTransformer, String objectFileExtension, boolean useCommandFile, WorkerLeaseService workerLeaseService) {
-        super(buildOperationExecutor, compilerOutputFileNamingSchemeFactory, commandLineTool, invocationContext, argsTransformer, specTransformer, objectFileExtension, useCommandFile, workerLeaseService);
+        super(buildOperationExecutor, compilerOutputFileNamingSchemeFactory, new BatchAwareInvocationWorker(commandLineTool), invocationContext, argsTransformer, specTransformer, objectFileExtension, useCommandFile, workerLeaseService);
+        this.objectFileExtension = objectFileExtension;
+        this.workerLeaseService = workerLeaseService;
+    }
+
+    public static boolean isBatchCompilationEnabled() {
+        return Boolean.getBoolean(BATCH_PROPERTY);
+    }
+
+    /**
+     * Whether this compiler produces one object file per source file, named after the source file, so that several source files can be compiled by one compiler process.
+     */
+    protected boolean canCompileInBatches() {
+        return false;
+    }
+
+    @Override
+    protected Action<BuildOperationQueue<CommandLineToolInvocation>> newInvocationAction(final T spec, final List<String> genericArgs) {
+        // Without -o, the compiler names each object file after its source file, with the .o extension
+        if (!canCompileInBatches() || !isBatchCompilationEnabled() || !objectFileExtension.equals(".o")) {
+            return super.newInvocationAction(spec, genericArgs);
+        }
+        final File objectDir = spec.getObjectFileDir();
+        return new Action<BuildOperationQueue<CommandLineToolInvocation>>() {
+            @Override
+            public void execute(BuildOperationQueue<CommandLineToolInvocation> buildQueue) {
+                buildQueue.setLogLocation(spec.getOperationLogger().getLogLocation());
+                int batchSize = getBatchSize(spec.getSourceFiles().size());
+                int batchCount = 0;
+                // Source files can only be compiled together when they use the same precompiled header
+                Map<List<String>, Batch> batches = new LinkedHashMap<List<String>, Batch>();
+                for (File sourceFile : spec.getSourceFiles()) {
+                    File outputFile = getOutputFileDir(sourceFile, objectDir, objectFileExtension);
+                    List<String> pchArgs = maybeGetPCHArgs(spec, sourceFile);
+                    Batch batch = batches.get(pchArgs);
+                    if (batch == null) {
+                        batch = new Batch(new File(spec.getTempDir(), "batch-" + batchCount++), pchArgs);
+                        batches.put(pchArgs, batch);
+                    } else if (batch.objectFiles.containsKey(outputFile.getName())) {
+                        // The object files would overwrite each other
+                        buildQueue.add(createPerFileInvocation(genericArgs, sourceFile, objectDir, spec));
+                        continue;
+                    }
+                    batch.add(sourceFile, outputFile);
+                    if (batch.sourceFiles.size() == batchSize) {
+                        buildQueue.add(createBatchInvocation(genericArgs, batch, objectDir, spec));
+                        batches.remove(pchArgs);
+                    }
+                }
+                for (Batch batch : batches.values()) {
+                    buildQueue.add(createBatchInvocation(genericArgs, batch, objectDir, spec));
+                }
+            }
+        };
+    }
+
+    /**
+     * Keeps a couple of invocations per worker, so that batching does not reduce the parallelism of the compilation.
+     */
+    private int getBatchSize(int sourceFileCount) {
+        int maxWorkers = Math.max(1, workerLeaseService.getMaxWorkerCount());
+        return Math.min(MAX_BATCH_SIZE, Math.max(1, sourceFileCount / (2 * maxWorkers)));
+    }
+
+    private CommandLineToolInvocation createBatchInvocation(List<String> genericArgs, Batch batch, File objectDir, T spec) {
+        if (batch.sourceFiles.size() == 1) {
+            return createPerFileInvocation(genericArgs, batch.sourceFiles.get(0), objectDir, spec);
+        }
+        List<String> sourceArgs = new ArrayList<String>(batch.sourceFiles.size());
+        List<String> sourceNames = new ArrayList<String>(batch.sourceFiles.size());
+        for (File sourceFile : batch.sourceFiles) {
+            sourceArgs.addAll(getSourceArgs(sourceFile));
+            sourceNames.add(sourceFile.getName());
+        }
+        // The compiler writes the object files to its working directory, from where they are moved once the compilation has finished
+        CommandLineToolInvocation invocation = newInvocation("compiling ".concat(Joiner.on(", ").join(sourceNames)), batch.workDir, Iterables.concat(genericArgs, batch.pchArgs, sourceArgs), spec.getOperationLogger());
+        return new BatchCompileInvocation(invocation, batch.objectFiles);
+    }
+
+    private static class Batch {
+        final File workDir;
+        final List<String> pchArgs;
+        final List<File> sourceFiles = new ArrayList<File>();
+        final Map<String, File> objectFiles = new HashMap<String, File>();
+
+        Batch(File workDir, List<String> pchArgs) {
+            this.workDir = workDir;
+            this.pchArgs = pchArgs;
+        }
+
+        void add(File sourceFile, File objectFile) {
+            sourceFiles.add(sourceFile);
+            objectFiles.put(objectFile.getName(), objectFile);
+        }
+    }
+
+    /**
+     * An invocation that compiles several source files, along with the location that each of the object files it produces should be moved to.
+     */
+    private static class BatchCompileInvocation implements CommandLineToolInvocation {
+        private final CommandLineToolInvocation delegate;
+        private final Map<String, File> objectFiles;
+
+        BatchCompileInvocation(CommandLineToolInvocation delegate, Map<String, File> objectFiles) {
+            this.delegate = delegate;
+            this.objectFiles = objectFiles;
+        }
+
+        void moveObjectFiles() {
+            for (Map.Entry<String, File> entry : objectFiles.entrySet()) {
+                try {
+                    Files.move(new File(getWorkDirectory(), entry.getKey()).toPath(), entry.getValue().toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not move object file to " + entry.getValue(), e);
+                }
+            }
+        }
+
+        @Override
+        public Iterable<String> getArgs() {
+            return delegate.getArgs();
+        }
+
+        @Override
+        public List<File> getPath() {
+            return delegate.getPath();
+        }
+
+        @Override
+        public Map<String, String> getEnvironment() {
+            return delegate.getEnvironment();
+        }
+
+        @Override
+        public File getWorkDirectory() {
+            return delegate.getWorkDirectory();
+        }
+
+        @Override
+        public BuildOperationLogger getLogger() {
+            return delegate.getLogger();
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return delegate.description();
+        }
+    }
+
+    /**
+     * Moves the object files of a batch to their final location as soon as the batch has been compiled.
+     */
+    private static class BatchAwareInvocationWorker implements CommandLineToolInvocationWorker {
+        private final CommandLineToolInvocationWorker delegate;
+
+        BatchAwareInvocationWorker(CommandLineToolInvocationWorker delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return delegate.getDisplayName();
+        }
+
+        @Override
+        public void execute(CommandLineToolInvocation invocation, BuildOperationContext context) {
+            delegate.execute(invocation, context);
+            if (invocation instanceof BatchCompileInvocation) {
+                ((BatchCompileInvocation) invocation).moveObjectFiles();
+            }
+        }
     }
 
     @Override
@@ -16,12 +16,18 @@
 
 package org.gradle.nativeplatform.toolchain.internal.gcc
 
-
+import org.gradle.internal.concurrent.GradleThread
+import org.gradle.internal.operations.logging.BuildOperationLogger
 import org.gradle.nativeplatform.toolchain.internal.CommandLineToolContext
+import org.gradle.nativeplatform.toolchain.internal.DefaultMutableCommandLineToolContext
 import org.gradle.nativeplatform.toolchain.internal.NativeCompiler
 import org.gradle.nativeplatform.toolchain.internal.compilespec.CCompileSpec
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 
 class CCompilerTest extends GccCompatibleNativeCompilerTest {
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
 
     @Override
     protected NativeCompiler getCompiler(CommandLineToolContext invocationContext, String objectFileExtension, boolean useCommandFile) {
@@ -38,4 +44,46 @@ class CCompilerTest extends GccCompatibleNativeCompilerTest {
         def arguments = super.getCompilerSpecificArguments(includeDir, systemIncludeDir)
         [ '-x', 'c' ] + arguments
     }
+
+    def "compiles source files in batches when enabled"() {
+        given:
+        GradleThread.setManaged()
+        System.setProperty(GccCompatibleNativeCompiler.BATCH_PROPERTY, "true")
+
+        def compiler = getCompiler(new DefaultMutableCommandLineToolContext(), ".o", false)
+        def testDir = tmpDirProvider.testDirectory
+        def objectFileDir = testDir.file("output/objects")
+        def sourceFiles = (1..8).collect { testDir.file("source${it}.c") }
+        def compileSpec = Stub(CCompileSpec) {
+            getTempDir() >> testDir.file("tmp")
+            getObjectFileDir() >> objectFileDir
+            getSourceFiles() >> sourceFiles
+            getOperationLogger() >> Mock(BuildOperationLogger) {
+                getLogLocation() >> "<log location>"
+            }
+        }
+        def compiledSourceFiles = [].asSynchronized()
+
+        when:
+        compiler.execute(compileSpec)
+
+        then:
+        2 * commandLineTool.execute(_, _) >> { invocation, context ->
+            assert !invocation.args.contains("-o")
+            def sources = invocation.args.findAll { it.endsWith(".c") }.collect { new File(it) }
+            invocation.workDirectory.mkdirs()
+            sources.each { new File(invocation.workDirectory, it.name.replace(".c", ".o")).text = it.name }
+            compiledSourceFiles << sources
+        }
+
+        and:
+        compiledSourceFiles as Set == [sourceFiles[0..3], sourceFiles[4..7]] as Set
+        sourceFiles.every { sourceFile ->
+            def objectFile = compilerOutputFileNamingSchemeFactory.create().withObjectFileNameSuffix(".o").withOutputBaseFolder(objectFileDir).map(sourceFile)
+            objectFile.text == sourceFile.name
+        }
+
+        cleanup:
+        GradleThread.setUnmanaged()
+    }
 }
@@ -20,10 +20,14 @@ import org.gradle.api.BuildCancelledException
 import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.initialization.BuildCancellationToken
+import org.gradle.initialization.BuildEventConsumer
 import org.gradle.internal.service.ServiceRegistry
 import org.gradle.tooling.internal.gradle.GradleProjectIdentity
 import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException
 import org.gradle.tooling.internal.protocol.ModelIdentifier
+import org.gradle.tooling.internal.provider.StreamedValue
+import org.gradle.tooling.internal.provider.serialization.PayloadSerializer
+import org.gradle.tooling.internal.provider.serialization.SerializedPayload
 import org.gradle.tooling.provider.model.ToolingModelBuilder
 import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry
 import org.gradle.tooling.provider.model.ParameterizedToolingModelBuilder
@@ -32,9 +36,13 @@ import spock.lang.Specification
 
 class DefaultBuildControllerTest extends Specification {
     def cancellationToken = Stub(BuildCancellationToken)
+    def payloadSerializer = Stub(PayloadSerializer)
+    def buildEventConsumer = Mock(BuildEventConsumer)
     def gradle = Stub(GradleInternal) {
         getServices() >> Stub(ServiceRegistry) {
             get(BuildCancellationToken) >> cancellationToken
+            get(PayloadSerializer) >> payloadSerializer
+            get(BuildEventConsumer) >> buildEventConsumer
         }
     }
     def registry = Stub(ToolingModelBuilderRegistry)
@@ -175,6 +183,20 @@ class DefaultBuildControllerTest extends Specification {
         thrown(InternalUnsupportedModelException)
     }
 
+    def "sends serialized value to client as build event"() {
+        def value = new Object()
+        def serializedValue = Stub(SerializedPayload)
+
+        given:
+        _ * payloadSerializer.serialize(value) >> serializedValue
+
+        when:
+        controller.dispatch(value)
+
+        then:
+        1 * buildEventConsumer.dispatch({ it instanceof StreamedValue && it.value == serializedValue })
+    }
+
     interface CustomParameter {
         String getValue()
         void setValue(String value)
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.integtests.tooling.r62
+
+import org.gradle.integtests.tooling.fixture.TargetGradleVersion
+import org.gradle.integtests.tooling.fixture.ToolingApiSpecification
+import org.gradle.integtests.tooling.fixture.ToolingApiVersion
+import org.gradle.tooling.BuildActionFailureException
+import org.gradle.tooling.StreamedValueListener
+import org.gradle.tooling.UnsupportedVersionException
+
+@ToolingApiVersion(">=6.2")
+class StreamedValueCrossVersionSpec extends ToolingApiSpecification {
+    def setup() {
+        settingsFile << """
+            rootProject.name = 'root'
+            include 'a', 'b'
+        """
+    }
+
+    @TargetGradleVersion(">=6.2")
+    def "build action can stream values to the client"() {
+        def values = []
+
+        when:
+        def result = withConnection { connection ->
+            connection.action(new SendProjectPathsAction())
+                .setStreamedValueListener({ values << it } as StreamedValueListener)
+                .run()
+        }
+
+        then:
+        result == 3
+        values == [':', ':a', ':b']
+    }
+
+    @TargetGradleVersion(">=6.2")
+    def "values are discarded when no listener is registered"() {
+        when:
+        def result = withConnection { connection ->
+            connection.action(new SendProjectPathsAction()).run()
+        }
+
+        then:
+        result == 3
+    }
+
+    @TargetGradleVersion(">=6.2")
+    def "phased build action can stream values to the client"() {
+        def values = []
+        def result = null
+
+        when:
+        withConnection { connection ->
+            connection.action()
+                .projectsLoaded(new SendProjectPathsAction(), { result = it })
+                .build()
+                .setStreamedValueListener({ values << it } as StreamedValueListener)
+                .run()
+        }
+
+        then:
+        result == 3
+        values == [':', ':a', ':b']
+    }
+
+    @TargetGradleVersion(">=4.4 <6.2")
+    def "fails when target Gradle version does not support streaming values"() {
+        when:
+        withConnection { connection ->
+            connection.action(new SendProjectPathsAction())
+                .setStreamedValueListener({} as StreamedValueListener)
+                .run()
+        }
+
+        then:
+        BuildActionFailureException e = thrown()
+        e.cause instanceof UnsupportedVersionException
+        e.cause.message == "Gradle version ${targetDist.version.version} does not support streaming values to the client."
+    }
+}
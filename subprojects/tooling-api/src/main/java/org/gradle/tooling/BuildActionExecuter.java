@@ -16,6 +16,8 @@
 
 package org.gradle.tooling;
 
+import org.gradle.api.Incubating;
+
 /**
  * Used to execute a {@link BuildAction} in the build process.
  *
@@ -91,6 +93,18 @@ interface Builder {
      */
     BuildActionExecuter<T> forTasks(Iterable<String> tasks);
 
+    /**
+     * Registers a listener for values that the action sends to the client using {@link BuildController#send(Object)}.
+     *
+     * <p>The listener is notified while the action is running. Only one listener can be registered, and a later call replaces the listener.</p>
+     *
+     * @param listener The listener.
+     * @return this
+     * @since 6.2
+     */
+    @Incubating
+    BuildActionExecuter<T> setStreamedValueListener(StreamedValueListener listener);
+
     /**
      * Runs the action, blocking until its result is available.
      *
@@ -17,6 +17,7 @@
 package org.gradle.tooling;
 
 import org.gradle.api.Action;
+import org.gradle.api.Incubating;
 import org.gradle.tooling.model.Model;
 import org.gradle.tooling.model.gradle.GradleBuild;
 
@@ -188,4 +189,21 @@ public interface BuildController {
      */
     @Nullable
     <T, P> T findModel(Model target, Class<T> modelType, Class<P> parameterType, Action<? super P> parameterInitializer);
+
+    /**
+     * Sends a value to the client, while the action is still running.
+     *
+     * <p>The value is serialized and delivered to the {@link StreamedValueListener} registered using {@link BuildActionExecuter#setStreamedValueListener(StreamedValueListener)},
+     * as soon as possible and in the order that values are sent. An action that builds a large model can use this to send the model in pieces, for example one
+     * piece for each project, rather than returning the whole model as its result. This way, the client can process each piece as it arrives and the piece does
+     * not need to be held in memory until the action completes.</p>
+     *
+     * <p>Values are discarded when no listener has been registered.</p>
+     *
+     * @param value The value to send. Must be serializable.
+     * @throws UnsupportedVersionException When the target Gradle version does not support streaming values to the client.
+     * @since 6.2
+     */
+    @Incubating
+    void send(Object value) throws UnsupportedVersionException;
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling;
+
+import org.gradle.api.Incubating;
+
+/**
+ * A listener for values sent by a {@link BuildAction} using {@link BuildController#send(Object)}.
+ *
+ * <p>Values are delivered in the order they were sent, and before the result of the action is returned to the client.</p>
+ *
+ * @since 6.2
+ */
+@Incubating
+public interface StreamedValueListener {
+    /**
+     * Handles a value sent by the build action.
+     *
+     * @param value The value, deserialized in the client.
+     */
+    void onValue(Object value);
+}
@@ -16,6 +16,9 @@
 package org.gradle.tooling.internal.adapter;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.reflect.DirectInstantiator;
 import org.gradle.internal.time.CountdownTimer;
@@ -31,23 +34,29 @@
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.ref.SoftReference;
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
+import java.util.AbstractList;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -215,6 +224,9 @@ private static Map<Object, Object> convertMap(Class<?> mapClass, Type targetKeyT
     }
 
     private static Object convertCollectionInternal(Class<?> collectionClass, Type targetElementType, Iterable<?> sourceObject, ViewDecoration decoration, ViewGraphDetails graphDetails) {
+        if (canConvertLazily(collectionClass, targetElementType)) {
+            return convertCollectionLazily(collectionClass, targetElementType, sourceObject, decoration, graphDetails);
+        }
         Collection<Object> convertedElements = COLLECTION_MAPPER.createEmptyCollection(collectionClass);
         convertCollectionInternal(convertedElements, targetElementType, sourceObject, decoration, graphDetails);
         if (collectionClass.equals(DomainObjectSet.class)) {
@@ -224,6 +236,39 @@ private static Object convertCollectionInternal(Class<?> collectionClass, Type t
         }
     }
 
+    /**
+     * Collection interfaces are converted lazily, as consumers often only visit some of the elements of large models. Sorted sets are converted eagerly, as their order
+     * depends on the views. Collections of enums are also converted eagerly, as distinct source objects can map to the same literal and the elements of a set must be distinct.
+     */
+    private static boolean canConvertLazily(Class<?> collectionClass, Type targetElementType) {
+        if (targetElementType instanceof Class && ((Class<?>) targetElementType).isEnum()) {
+            return false;
+        }
+        if (collectionClass.equals(DomainObjectSet.class)) {
+            return true;
+        }
+        return collectionClass.isInterface() && (collectionClass.isAssignableFrom(ArrayList.class) || collectionClass.isAssignableFrom(LinkedHashSet.class));
+    }
+
+    private static Object convertCollectionLazily(Class<?> collectionClass, Type targetElementType, Iterable<?> sourceObject, ViewDecoration decoration, ViewGraphDetails graphDetails) {
+        boolean isList = !collectionClass.equals(DomainObjectSet.class) && collectionClass.isAssignableFrom(ArrayList.class);
+        Collection<?> sourceElements;
+        if (isList || sourceObject instanceof Set) {
+            sourceElements = sourceObject instanceof Collection ? (Collection<?>) sourceObject : Lists.newArrayList(sourceObject);
+        } else {
+            // Views are equal when their source objects are equal, so remove duplicates from the source elements rather than from the views
+            sourceElements = Sets.newLinkedHashSet(sourceObject);
+        }
+        LazilyConvertedElements elements = new LazilyConvertedElements(sourceElements.toArray(), targetElementType, decoration, graphDetails);
+        if (isList) {
+            return new LazilyConvertedList(elements);
+        }
+        if (collectionClass.equals(DomainObjectSet.class)) {
+            return new LazilyConvertedDomainObjectSet(elements);
+        }
+        return new LazilyConvertedSet(elements);
+    }
+
     private static void convertCollectionInternal(Collection<Object> targetCollection, Type targetElementType, Iterable<?> sourceObject, ViewDecoration viewDecoration, ViewGraphDetails graphDetails) {
         for (Object element : sourceObject) {
             targetCollection.add(convert(targetElementType, element, viewDecoration, graphDetails));
@@ -250,6 +295,133 @@ public Object unpack(Object viewObject) {
         return handler.sourceObject;
     }
 
+    /**
+     * Holds the source elements of a collection and converts each element to a view the first time it is accessed.
+     */
+    private static class LazilyConvertedElements {
+        private final Object[] sourceElements;
+        private final Object[] convertedElements;
+        private final boolean[] converted;
+        private final Type targetElementType;
+        private final ViewDecoration decoration;
+        private final ViewGraphDetails graphDetails;
+
+        LazilyConvertedElements(Object[] sourceElements, Type targetElementType, ViewDecoration decoration, ViewGraphDetails graphDetails) {
+            this.sourceElements = sourceElements;
+            this.convertedElements = new Object[sourceElements.length];
+            this.converted = new boolean[sourceElements.length];
+            this.targetElementType = targetElementType;
+            this.decoration = decoration;
+            this.graphDetails = graphDetails;
+        }
+
+        int size() {
+            return sourceElements.length;
+        }
+
+        synchronized Object get(int index) {
+            if (!converted[index]) {
+                Object sourceElement = sourceElements[index];
+                convertedElements[index] = sourceElement == null ? null : convert(targetElementType, sourceElement, decoration, graphDetails);
+                converted[index] = true;
+            }
+            return convertedElements[index];
+        }
+
+        Iterator<Object> iterator() {
+            return new AbstractIterator<Object>() {
+                private int next;
+
+                @Override
+                protected Object computeNext() {
+                    if (next == size()) {
+                        return endOfData();
+                    }
+                    return get(next++);
+                }
+            };
+        }
+    }
+
+    /**
+     * A read-only list whose elements are converted on first access. Replaced with an {@link ArrayList} when serialized.
+     */
+    private static class LazilyConvertedList extends AbstractList<Object> implements RandomAccess, Serializable {
+        private final transient LazilyConvertedElements elements;
+
+        LazilyConvertedList(LazilyConvertedElements elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public Object get(int index) {
+            if (index < 0 || index >= elements.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + elements.size());
+            }
+            return elements.get(index);
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        private Object writeReplace() {
+            return new ArrayList<Object>(this);
+        }
+    }
+
+    /**
+     * A read-only set whose elements are converted on first access. Replaced with a {@link LinkedHashSet} when serialized.
+     */
+    private static class LazilyConvertedSet extends AbstractSet<Object> implements Serializable {
+        final transient LazilyConvertedElements elements;
+
+        LazilyConvertedSet(LazilyConvertedElements elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return elements.iterator();
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        private Object writeReplace() {
+            return new LinkedHashSet<Object>(this);
+        }
+    }
+
+    /**
+     * A {@link DomainObjectSet} whose elements are converted on first access. Replaced with an {@link ImmutableDomainObjectSet} when serialized.
+     */
+    private static class LazilyConvertedDomainObjectSet extends LazilyConvertedSet implements DomainObjectSet<Object> {
+        LazilyConvertedDomainObjectSet(LazilyConvertedElements elements) {
+            super(elements);
+        }
+
+        @Override
+        public Object getAt(int index) throws IndexOutOfBoundsException {
+            if (index < 0 || index >= elements.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + elements.size());
+            }
+            return elements.get(index);
+        }
+
+        @Override
+        public List<Object> getAll() {
+            return new ArrayList<Object>(this);
+        }
+
+        private Object writeReplace() {
+            return new ImmutableDomainObjectSet<Object>(this);
+        }
+    }
+
     private static class ViewGraphDetails implements Serializable {
         // Transient, don't serialize all the views that happen to have been visited, recreate them when visited via the deserialized view
         private transient Map<ViewKey, Object> views = new HashMap<ViewKey, Object>();
@@ -408,7 +580,7 @@ public void invoke(MethodInvocation invocation) throws Throwable {
     }
 
     private static class MethodInvocationCache {
-        private final Map<MethodInvocationKey, Optional<Method>> store = new HashMap<MethodInvocationKey, Optional<Method>>();
+        private final Map<MethodInvocationKey, Optional<MethodHandle>> store = new HashMap<MethodInvocationKey, Optional<MethodHandle>>();
         private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
         private final static long MINIMAL_CLEANUP_INTERVAL = 30000;
 
@@ -490,7 +662,11 @@ public int hashCode() {
             }
         }
 
-        public Method get(MethodInvocation invocation) {
+        /**
+         * Returns a handle that accepts the target object and an array of parameters and returns the result, boxed when primitive.
+         */
+        @Nullable
+        public MethodHandle get(MethodInvocation invocation) {
             Class<?> owner = invocation.getDelegate().getClass();
             String name = invocation.getName();
             Class<?>[] parameterTypes = invocation.getParameterTypes();
@@ -500,7 +676,7 @@ public Method get(MethodInvocation invocation) {
                 parameterTypes
             );
             lock.readLock().lock();
-            Optional<Method> cached = store.get(key);
+            Optional<MethodHandle> cached = store.get(key);
             if (cached == null) {
                 cacheMiss++;
                 lock.readLock().unlock();
@@ -550,7 +726,7 @@ private void removeDirtyEntries() {
             }
         }
 
-        private static Optional<Method> lookup(Class<?> sourceClass, String methodName, Class<?>[] parameterTypes) {
+        private static Optional<MethodHandle> lookup(Class<?> sourceClass, String methodName, Class<?>[] parameterTypes) {
             Method match;
             try {
                 match = sourceClass.getMethod(methodName, parameterTypes);
@@ -575,7 +751,14 @@ private static Optional<Method> lookup(Class<?> sourceClass, String methodName,
                 }
             }
             match.setAccessible(true);
-            return Optional.of(match);
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.lookup().unreflect(match);
+            } catch (IllegalAccessException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            // Adapt to a single signature, so that the handle can be invoked without going through reflection
+            return Optional.of(handle.asType(handle.type().generic()).asSpreader(Object[].class, parameterTypes.length));
         }
 
         @Override
@@ -589,22 +772,18 @@ private static class ReflectionMethodInvoker implements MethodInvoker {
 
         @Override
         public void invoke(MethodInvocation invocation) throws Throwable {
-            Method targetMethod = locateMethod(invocation);
+            MethodHandle targetMethod = locateMethod(invocation);
             if (targetMethod == null) {
                 return;
             }
 
-            Object returnValue;
-            try {
-                returnValue = targetMethod.invoke(invocation.getDelegate(), invocation.getParameters());
-            } catch (InvocationTargetException e) {
-                throw e.getCause();
-            }
-
+            Object[] parameters = invocation.getParameters() == null ? EMPTY : invocation.getParameters();
+            Object returnValue = (Object) targetMethod.invokeExact(invocation.getDelegate(), parameters);
             invocation.setResult(returnValue);
         }
 
-        private Method locateMethod(MethodInvocation invocation) {
+        @Nullable
+        private MethodHandle locateMethod(MethodInvocation invocation) {
             return lookupCache.get(invocation);
         }
     }
@@ -22,6 +22,7 @@
 import org.gradle.tooling.GradleConnectionException;
 import org.gradle.tooling.IntermediateResultHandler;
 import org.gradle.tooling.ResultHandler;
+import org.gradle.tooling.StreamedValueListener;
 import org.gradle.tooling.internal.consumer.async.AsyncConsumerActionExecutor;
 import org.gradle.tooling.internal.consumer.connection.ConsumerAction;
 import org.gradle.tooling.internal.consumer.connection.ConsumerConnection;
@@ -59,6 +60,12 @@ public BuildActionExecuter<T> forTasks(Iterable<String> tasks) {
         return getThis();
     }
 
+    @Override
+    public BuildActionExecuter<T> setStreamedValueListener(StreamedValueListener listener) {
+        operationParamsBuilder.setStreamedValueListener(listener);
+        return getThis();
+    }
+
     @Override
     public T run() throws GradleConnectionException {
         BlockingResultHandler<Object> handler = new BlockingResultHandler<Object>(Object.class);
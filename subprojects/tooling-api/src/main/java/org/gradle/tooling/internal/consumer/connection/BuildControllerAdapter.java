@@ -69,6 +69,11 @@ public <T, P> T getModel(Model target, Class<T> modelType, Class<P> parameterTyp
         return viewBuilder.build(result.getModel());
     }
 
+    @Override
+    public void send(Object value) {
+        buildController.sendValue(value);
+    }
+
     private <P> P initializeParameter(Class<P> parameterType, Action<? super P> parameterInitializer) {
         validateParameters(parameterType, parameterInitializer);
         if (parameterType != null) {
@@ -39,4 +39,9 @@ public <T, P> T getModel(Model target, Class<T> modelType, Class<P> parameterTyp
         }
         return delegate.getModel(target, modelType, parameterType, parameterInitializer);
     }
+
+    @Override
+    public void send(Object value) {
+        delegate.send(value);
+    }
 }
@@ -18,6 +18,7 @@
 
 import org.gradle.tooling.BuildAction;
 import org.gradle.tooling.BuildController;
+import org.gradle.tooling.UnsupportedVersionException;
 import org.gradle.tooling.internal.adapter.ProtocolToModelAdapter;
 import org.gradle.tooling.internal.consumer.converters.ConsumerTargetTypeProvider;
 import org.gradle.tooling.internal.consumer.versioning.ModelMapping;
@@ -27,6 +28,7 @@
 import org.gradle.tooling.internal.protocol.InternalBuildActionVersion2;
 import org.gradle.tooling.internal.protocol.InternalBuildController;
 import org.gradle.tooling.internal.protocol.InternalBuildControllerVersion2;
+import org.gradle.tooling.internal.protocol.InternalStreamedValueRelay;
 import org.gradle.tooling.internal.protocol.ModelIdentifier;
 
 import java.io.File;
@@ -59,6 +61,11 @@ public T execute(final InternalBuildController buildController) {
             public BuildResult<?> getModel(Object target, ModelIdentifier modelIdentifier, Object parameter) {
                 return buildController.getModel(target, modelIdentifier);
             }
+
+            @Override
+            public void sendValue(Object value) {
+                throw unsupportedStreaming();
+            }
         }, new ModelMapping(), rootDir);
         buildControllerAdapter  = new BuildControllerWithoutParameterSupport(versionDetails, buildControllerAdapter);
         return action.execute(buildControllerAdapter);
@@ -75,7 +82,19 @@ public T execute(final InternalBuildControllerVersion2 buildController) {
             public BuildResult<?> getModel(Object target, ModelIdentifier modelIdentifier, Object parameter) {
                 return buildController.getModel(target, modelIdentifier, parameter);
             }
+
+            @Override
+            public void sendValue(Object value) {
+                if (!(buildController instanceof InternalStreamedValueRelay)) {
+                    throw unsupportedStreaming();
+                }
+                ((InternalStreamedValueRelay) buildController).dispatch(value);
+            }
         }, new ModelMapping(), rootDir);
         return action.execute(buildControllerAdapter);
     }
+
+    private UnsupportedVersionException unsupportedStreaming() {
+        return new UnsupportedVersionException(String.format("Gradle version %s does not support streaming values to the client.", versionDetails.getVersion()));
+    }
 }
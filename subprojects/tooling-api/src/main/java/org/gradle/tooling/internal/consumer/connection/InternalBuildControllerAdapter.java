@@ -25,4 +25,6 @@
  */
 public interface InternalBuildControllerAdapter {
     BuildResult<?> getModel(Object target, ModelIdentifier modelIdentifier, Object parameter);
+
+    void sendValue(Object value);
 }
@@ -20,6 +20,7 @@
 import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.tooling.CancellationToken;
+import org.gradle.tooling.StreamedValueListener;
 import org.gradle.tooling.events.OperationType;
 import org.gradle.tooling.events.ProgressListener;
 import org.gradle.tooling.internal.adapter.ProtocolToModelAdapter;
@@ -30,6 +31,7 @@
 import org.gradle.tooling.internal.protocol.BuildParameters;
 import org.gradle.tooling.internal.protocol.BuildParametersVersion1;
 import org.gradle.tooling.internal.protocol.InternalLaunchable;
+import org.gradle.tooling.internal.protocol.InternalStreamedValueListener;
 import org.gradle.tooling.internal.protocol.ProgressListenerVersion1;
 import org.gradle.tooling.model.Launchable;
 import org.gradle.tooling.model.Task;
@@ -58,6 +60,7 @@ public static class Builder {
         private final Map<OperationType, List<ProgressListener>> progressListeners = new EnumMap<OperationType, List<ProgressListener>>(OperationType.class);
         private String entryPoint;
         private CancellationToken cancellationToken;
+        private StreamedValueListener streamedValueListener;
         private ConnectionParameters parameters;
         private OutputStream stdout;
         private OutputStream stderr;
@@ -201,19 +204,24 @@ public void setCancellationToken(CancellationToken cancellationToken) {
             this.cancellationToken = cancellationToken;
         }
 
+        public void setStreamedValueListener(StreamedValueListener streamedValueListener) {
+            this.streamedValueListener = streamedValueListener;
+        }
+
         public ConsumerOperationParameters build() {
             if (entryPoint == null) {
                 throw new IllegalStateException("No entry point specified.");
             }
 
             return new ConsumerOperationParameters(entryPoint, parameters, stdout, stderr, colorOutput, stdin, javaHome, jvmArguments, envVariables, arguments, tasks, launchables, injectedPluginClasspath,
-                legacyProgressListeners, progressListeners, cancellationToken);
+                legacyProgressListeners, progressListeners, cancellationToken, streamedValueListener);
         }
 
         public void copyFrom(ConsumerOperationParameters operationParameters) {
             tasks = operationParameters.tasks;
             launchables = operationParameters.launchables;
             cancellationToken = operationParameters.cancellationToken;
+            streamedValueListener = operationParameters.streamedValueListener;
             legacyProgressListeners.addAll(operationParameters.legacyProgressListeners);
             progressListeners.putAll(operationParameters.progressListeners);
             arguments = operationParameters.arguments;
@@ -232,6 +240,7 @@ public void copyFrom(ConsumerOperationParameters operationParameters) {
     private final ProgressListenerAdapter progressListener;
     private final FailsafeBuildProgressListenerAdapter buildProgressListener;
     private final CancellationToken cancellationToken;
+    private final StreamedValueListener streamedValueListener;
     private final ConnectionParameters parameters;
     private final long startTime = System.currentTimeMillis();
 
@@ -253,7 +262,8 @@ public void copyFrom(ConsumerOperationParameters operationParameters) {
 
     private ConsumerOperationParameters(String entryPointName, ConnectionParameters parameters, OutputStream stdout, OutputStream stderr, Boolean colorOutput, InputStream stdin,
                                         File javaHome, List<String> jvmArguments,  Map<String, String> envVariables, List<String> arguments, List<String> tasks, List<InternalLaunchable> launchables, ClassPath injectedPluginClasspath,
-                                        List<org.gradle.tooling.ProgressListener> legacyProgressListeners, Map<OperationType, List<ProgressListener>> progressListeners, CancellationToken cancellationToken) {
+                                        List<org.gradle.tooling.ProgressListener> legacyProgressListeners, Map<OperationType, List<ProgressListener>> progressListeners, CancellationToken cancellationToken,
+                                        StreamedValueListener streamedValueListener) {
         this.entryPointName = entryPointName;
         this.parameters = parameters;
         this.stdout = stdout;
@@ -268,6 +278,7 @@ private ConsumerOperationParameters(String entryPointName, ConnectionParameters
         this.launchables = launchables;
         this.injectedPluginClasspath = injectedPluginClasspath;
         this.cancellationToken = cancellationToken;
+        this.streamedValueListener = streamedValueListener;
         this.legacyProgressListeners = legacyProgressListeners;
         this.progressListeners = progressListeners;
 
@@ -437,6 +448,22 @@ public FailsafeBuildProgressListenerAdapter getBuildProgressListener() {
         return buildProgressListener;
     }
 
+    /**
+     * @return When null, values sent by the build action are discarded.
+     * @since 6.2
+     */
+    public InternalStreamedValueListener getStreamedValueListener() {
+        if (streamedValueListener == null) {
+            return null;
+        }
+        return new InternalStreamedValueListener() {
+            @Override
+            public void onValue(Object value) {
+                streamedValueListener.onValue(value);
+            }
+        };
+    }
+
     public BuildCancellationToken getCancellationToken() {
         return ((CancellationTokenInternal) cancellationToken).getToken();
     }
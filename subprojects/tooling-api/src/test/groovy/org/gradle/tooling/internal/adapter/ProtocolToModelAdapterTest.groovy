@@ -110,6 +110,62 @@ class ProtocolToModelAdapterTest extends Specification {
         model.childList[0].name == 'name'
     }
 
+    def "adapts elements of collection only when they are accessed"() {
+        def typeProvider = Mock(TargetTypeProvider)
+        def adapter = new ProtocolToModelAdapter(typeProvider)
+        TestProtocolModel protocolModel = Mock()
+        TestProtocolProject protocolProject1 = Mock()
+        TestProtocolProject protocolProject2 = Mock()
+
+        given:
+        _ * typeProvider.getTargetType(TestModel, protocolModel) >> TestModel
+        _ * protocolModel.getChildList() >> [protocolProject1, protocolProject2]
+        _ * protocolProject2.getName() >> 'name'
+
+        when:
+        def children = adapter.adapt(TestModel.class, protocolModel).childList
+
+        then:
+        children.size() == 2
+        0 * typeProvider.getTargetType(TestProject, _)
+
+        when:
+        def child = children[1]
+
+        then:
+        1 * typeProvider.getTargetType(TestProject, protocolProject2) >> TestProject
+        0 * typeProvider.getTargetType(TestProject, _)
+        child.name == 'name'
+        children[1].is(child)
+    }
+
+    def "removes duplicate elements when adapting iterable to DomainObjectSet"() {
+        TestProtocolModel protocolModel = Mock()
+        TestProtocolProject protocolProject1 = Mock()
+        TestProtocolProject protocolProject2 = Mock()
+        _ * protocolModel.getChildren() >> [protocolProject1, protocolProject2, protocolProject1]
+
+        expect:
+        def model = adapter.adapt(TestModel.class, protocolModel)
+        model.children.size() == 2
+        model.children.getAt(1) == adapter.adapt(TestProject, protocolProject2)
+        model.children.all.size() == 2
+    }
+
+    def "collection of views can be serialized"() {
+        def protocolModel = new TestModelImpl()
+
+        given:
+        def model = adapter.adapt(TestModel.class, protocolModel)
+        def copiedList = serialize(model.childList)
+
+        expect:
+        copiedList instanceof ArrayList
+        copiedList.size() == 1
+        copiedList[0] instanceof TestProject
+        copiedList[0].name == "name"
+    }
+
     def adaptsMapElements() {
         TestProtocolModel protocolModel = Mock()
         TestProtocolProject protocolProject = Mock()
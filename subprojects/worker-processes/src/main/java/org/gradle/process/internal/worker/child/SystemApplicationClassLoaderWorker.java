@@ -91,6 +91,9 @@ public Void call() throws Exception {
         // Read whether process info should be published
         boolean shouldPublishJvmMemoryInfo = decoder.readBoolean();
 
+        // Read whether the build process offers to exchange messages through shared memory
+        boolean useSharedMemory = decoder.readBoolean();
+
         // Read path to Gradle user home
         String gradleUserHomeDirPath = decoder.readString();
         File gradleUserHomeDir = new File(gradleUserHomeDirPath);
@@ -100,7 +103,7 @@ public Void call() throws Exception {
         NativeServices.initialize(gradleUserHomeDir, false);
         DefaultServiceRegistry basicWorkerServices = new DefaultServiceRegistry(NativeServices.getInstance(), loggingServiceRegistry);
         basicWorkerServices.add(ExecutorFactory.class, new DefaultExecutorFactory());
-        basicWorkerServices.addProvider(new MessagingServices());
+        basicWorkerServices.addProvider(new MessagingServices(useSharedMemory));
         final WorkerServices workerServices = new WorkerServices(basicWorkerServices, gradleUserHomeDir);
         WorkerLogEventListener workerLogEventListener = new WorkerLogEventListener();
         workerServices.add(WorkerLogEventListener.class, workerLogEventListener);
@@ -52,6 +52,17 @@ public boolean isCompatibleWith(DaemonForkOptions other) {
                 && Objects.equal(classLoaderStructure, other.getClassLoaderStructure());
     }
 
+    /**
+     * Returns true when a daemon started with these options can run work that requires the given options, by creating a different isolated class loader for the work.
+     * This is not possible for a flat class loader structure, as the daemon is started with that classpath.
+     */
+    public boolean canShareProcessWith(DaemonForkOptions other) {
+        return forkOptions.isCompatibleWith(other.forkOptions)
+                && keepAliveMode == other.getKeepAliveMode()
+                && classLoaderStructure instanceof HierarchicalClassLoaderStructure
+                && other.getClassLoaderStructure() instanceof HierarchicalClassLoaderStructure;
+    }
+
     public String toString() {
         return MoreObjects.toStringHelper(this)
                 .add("executable", forkOptions.getExecutable())
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import org.gradle.internal.classloader.ClassLoaderUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches the isolated class loaders created by a worker daemon, so that a daemon that runs work with several class loader structures does not recreate them for every request.
+ *
+ * <p>The least recently used class loaders are discarded when there are more than a given number of them, or when the heap that was still in use after the last
+ * garbage collection goes over budget. The most recently used class loader is always retained. A discarded class loader is closed once no work that acquired it
+ * is running any more.</p>
+ */
+class WorkerClassLoaderCache {
+    static final int MAX_CACHED_CLASSLOADERS = 8;
+    // Fraction of the maximum heap that the daemon may use before cached class loaders are discarded
+    private static final double HEAP_BUDGET = 0.5;
+
+    private final Map<ClassLoaderStructure, ClassLoader> classLoaders = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<ClassLoader, Integer> inUse = new IdentityHashMap<>();
+    private final Set<ClassLoader> discardedInUse = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Function<ClassLoaderStructure, ClassLoader> factory;
+    private final int maxEntries;
+    private final long heapBudget;
+    private final LongSupplier usedHeap;
+
+    WorkerClassLoaderCache(Function<ClassLoaderStructure, ClassLoader> factory) {
+        this(factory, MAX_CACHED_CLASSLOADERS, (long) (Runtime.getRuntime().maxMemory() * HEAP_BUDGET), WorkerClassLoaderCache::heapUsedAfterLastCollection);
+    }
+
+    WorkerClassLoaderCache(Function<ClassLoaderStructure, ClassLoader> factory, int maxEntries, long heapBudget, LongSupplier usedHeap) {
+        this.factory = factory;
+        this.maxEntries = maxEntries;
+        this.heapBudget = heapBudget;
+        this.usedHeap = usedHeap;
+    }
+
+    /**
+     * Returns the class loader for the given structure, which must be released once the work using it has completed.
+     */
+    public synchronized ClassLoader acquire(ClassLoaderStructure classLoaderStructure) {
+        ClassLoader classLoader = classLoaders.get(classLoaderStructure);
+        if (classLoader == null) {
+            classLoader = factory.apply(classLoaderStructure);
+            classLoaders.put(classLoaderStructure, classLoader);
+        }
+        inUse.merge(classLoader, 1, Integer::sum);
+        evict();
+        return classLoader;
+    }
+
+    public synchronized void release(ClassLoader classLoader) {
+        Integer remaining = inUse.merge(classLoader, -1, Integer::sum);
+        if (remaining != null && remaining == 0) {
+            inUse.remove(classLoader);
+            if (discardedInUse.remove(classLoader)) {
+                ClassLoaderUtils.tryClose(classLoader);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return classLoaders.size();
+    }
+
+    private void evict() {
+        Iterator<ClassLoader> iterator = classLoaders.values().iterator();
+        while (classLoaders.size() > 1 && (classLoaders.size() > maxEntries || usedHeap.getAsLong() > heapBudget)) {
+            ClassLoader eldest = iterator.next();
+            iterator.remove();
+            // An isolated class loader with an empty classpath is the worker infrastructure class loader itself
+            if (eldest == WorkerClassLoaderCache.class.getClassLoader() || classLoaders.containsValue(eldest)) {
+                continue;
+            }
+            if (inUse.containsKey(eldest)) {
+                discardedInUse.add(eldest);
+            } else {
+                ClassLoaderUtils.tryClose(eldest);
+            }
+        }
+    }
+
+    /**
+     * Returns the heap that was still in use after the most recent garbage collection, so that garbage that has not been collected yet is not counted.
+     */
+    private static long heapUsedAfterLastCollection() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()) {
+                MemoryUsage usage = pool.getCollectionUsage();
+                if (usage != null) {
+                    used += usage.getUsed();
+                }
+            }
+        }
+        return used;
+    }
+}
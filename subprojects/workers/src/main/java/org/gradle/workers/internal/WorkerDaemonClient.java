@@ -22,6 +22,10 @@
 import org.gradle.process.internal.health.memory.JvmMemoryStatus;
 import org.gradle.process.internal.worker.WorkerProcess;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 class WorkerDaemonClient implements BuildOperationAwareWorker, Stoppable {
     public static final String DISABLE_EXPIRATION_PROPERTY_KEY = "org.gradle.workers.internal.disable-daemons-expiration";
     private final DaemonForkOptions forkOptions;
@@ -32,6 +36,14 @@ class WorkerDaemonClient implements BuildOperationAwareWorker, Stoppable {
     private int uses;
     private boolean failed;
     private boolean cannotBeExpired = Boolean.getBoolean(DISABLE_EXPIRATION_PROPERTY_KEY);
+    // Mirrors the class loaders cached by the daemon, see WorkerClassLoaderCache. Both sides use the same order, so the class loaders the daemon discards when short of heap
+    // are the eldest entries, which are removed once the daemon reports how many class loaders it still caches.
+    private final Map<ClassLoaderStructure, Boolean> recentClassLoaderStructures = new LinkedHashMap<ClassLoaderStructure, Boolean>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ClassLoaderStructure, Boolean> eldest) {
+            return size() > WorkerClassLoaderCache.MAX_CACHED_CLASSLOADERS;
+        }
+    };
 
     public WorkerDaemonClient(DaemonForkOptions forkOptions, WorkerDaemonProcess workerDaemonProcess, WorkerProcess workerProcess, LogLevel logLevel, ActionExecutionSpecFactory actionExecutionSpecFactory) {
         this.forkOptions = forkOptions;
@@ -49,13 +61,43 @@ public DefaultWorkResult execute(final ActionExecutionSpec spec, final BuildOper
     @Override
     public DefaultWorkResult execute(ActionExecutionSpec spec) {
         uses++;
-        return workerDaemonProcess.execute(actionExecutionSpecFactory.newTransportableSpec(spec));
+        if (spec.getClassLoaderStructure() instanceof HierarchicalClassLoaderStructure) {
+            recentClassLoaderStructures.put(spec.getClassLoaderStructure(), Boolean.TRUE);
+        }
+        DefaultWorkResult result = workerDaemonProcess.execute(actionExecutionSpecFactory.newTransportableSpec(spec));
+        if (result instanceof WorkerDaemonResult) {
+            discardEldestClassLoaderStructures(((WorkerDaemonResult) result).getCachedClassLoaderCount());
+        }
+        return result;
+    }
+
+    private void discardEldestClassLoaderStructures(int cachedClassLoaderCount) {
+        Iterator<ClassLoaderStructure> iterator = recentClassLoaderStructures.keySet().iterator();
+        while (recentClassLoaderStructures.size() > cachedClassLoaderCount) {
+            iterator.next();
+            iterator.remove();
+        }
     }
 
     public boolean isCompatibleWith(DaemonForkOptions required) {
         return forkOptions.isCompatibleWith(required);
     }
 
+    public boolean canShareProcessWith(DaemonForkOptions required) {
+        return forkOptions.canShareProcessWith(required);
+    }
+
+    /**
+     * Returns true when this daemon has recently run work with the given class loader structure, so likely still has the class loader and its warmed up code.
+     */
+    public boolean hasRecentlyUsed(ClassLoaderStructure classLoaderStructure) {
+        return recentClassLoaderStructures.containsKey(classLoaderStructure);
+    }
+
+    public int getRecentlyUsedClassLoaderCount() {
+        return recentClassLoaderStructures.size();
+    }
+
     JvmMemoryStatus getJvmMemoryStatus() {
         return workerProcess.getJvmMemoryStatus();
     }
@@ -43,6 +43,10 @@
 import static java.util.Comparator.*;
 
 public class WorkerDaemonClientsManager implements Stoppable {
+    /**
+     * When set, work that requires an isolated class loader may run in an idle daemon started for a different class loader structure, rather than starting a new daemon.
+     */
+    public static final String SHARE_DAEMONS_PROPERTY = "org.gradle.workers.internal.share-daemons-across-classloaders";
 
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonClientsManager.class);
 
@@ -59,9 +63,14 @@ public class WorkerDaemonClientsManager implements Stoppable {
     private final OutputEventListener logLevelChangeEventListener;
     private final WorkerDaemonExpiration workerDaemonExpiration;
     private final MemoryManager memoryManager;
+    private final boolean shareDaemons;
     private volatile LogLevel currentLogLevel;
 
     public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager, OsMemoryInfo memoryInfo) {
+        this(workerDaemonStarter, listenerManager, loggingManager, memoryManager, memoryInfo, Boolean.getBoolean(SHARE_DAEMONS_PROPERTY));
+    }
+
+    WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager, OsMemoryInfo memoryInfo, boolean shareDaemons) {
         this.workerDaemonStarter = workerDaemonStarter;
         this.listenerManager = listenerManager;
         this.loggingManager = loggingManager;
@@ -72,6 +81,7 @@ public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, Liste
         loggingManager.addOutputEventListener(logLevelChangeEventListener);
         this.currentLogLevel = loggingManager.getLevel();
         this.memoryManager = memoryManager;
+        this.shareDaemons = shareDaemons;
         this.workerDaemonExpiration = new WorkerDaemonExpiration(this, getTotalPhysicalMemory());
         memoryManager.addMemoryHolder(workerDaemonExpiration);
     }
@@ -83,24 +93,47 @@ public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
 
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
         synchronized (lock) {
-            Iterator<WorkerDaemonClient> it = clients.iterator();
-            while (it.hasNext()) {
-                WorkerDaemonClient candidate = it.next();
-                if (candidate.isCompatibleWith(forkOptions)) {
-                    it.remove();
-                    if (candidate.getLogLevel() != currentLogLevel) {
-                        // TODO: Send a message to workers to change their log level rather than stopping
-                        LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
-                        candidate.stop();
-                    } else {
-                        return candidate;
-                    }
+            WorkerDaemonClient candidate = selectIdleClient(forkOptions, clients);
+            while (candidate != null) {
+                clients.remove(candidate);
+                if (candidate.getLogLevel() != currentLogLevel) {
+                    // TODO: Send a message to workers to change their log level rather than stopping
+                    LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
+                    candidate.stop();
+                } else {
+                    return candidate;
                 }
+                candidate = selectIdleClient(forkOptions, clients);
             }
             return null;
         }
     }
 
+    /**
+     * Prefers a daemon started with the required options. Otherwise, when daemons are shared, prefers a daemon that has recently used the required class loader structure,
+     * then the daemon that has used the fewest class loader structures, to spread the class loaders across the daemons.
+     */
+    private WorkerDaemonClient selectIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
+        WorkerDaemonClient shared = null;
+        for (WorkerDaemonClient candidate : clients) {
+            if (candidate.isCompatibleWith(forkOptions)) {
+                return candidate;
+            }
+            if (shareDaemons && candidate.canShareProcessWith(forkOptions) && (shared == null || isPreferredForSharing(candidate, shared, forkOptions.getClassLoaderStructure()))) {
+                shared = candidate;
+            }
+        }
+        return shared;
+    }
+
+    private static boolean isPreferredForSharing(WorkerDaemonClient candidate, WorkerDaemonClient current, ClassLoaderStructure classLoaderStructure) {
+        boolean candidateHasClassLoader = candidate.hasRecentlyUsed(classLoaderStructure);
+        if (candidateHasClassLoader != current.hasRecentlyUsed(classLoaderStructure)) {
+            return candidateHasClassLoader;
+        }
+        return candidate.getRecentlyUsedClassLoaderCount() < current.getRecentlyUsedClassLoaderCount();
+    }
+
     public WorkerDaemonClient reserveNewClient(Class<? extends WorkerProtocol> workerProtocolImplementationClass, DaemonForkOptions forkOptions) {
         //allow the daemon to be started concurrently
         WorkerDaemonClient client = workerDaemonStarter.startDaemon(workerProtocolImplementationClass, forkOptions, workerProcessCleanupAction);
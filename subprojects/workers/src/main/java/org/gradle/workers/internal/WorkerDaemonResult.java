@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import javax.annotation.Nullable;
+
+/**
+ * The result of work run by a worker daemon, along with the number of isolated class loaders the daemon still caches after running it.
+ */
+public class WorkerDaemonResult extends DefaultWorkResult {
+    private final int cachedClassLoaderCount;
+
+    public WorkerDaemonResult(boolean didWork, @Nullable Throwable exception, int cachedClassLoaderCount) {
+        super(didWork, exception);
+        this.cachedClassLoaderCount = cachedClassLoaderCount;
+    }
+
+    public int getCachedClassLoaderCount() {
+        return cachedClassLoaderCount;
+    }
+}
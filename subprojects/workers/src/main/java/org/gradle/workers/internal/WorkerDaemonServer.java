@@ -54,7 +54,7 @@ public class WorkerDaemonServer implements WorkerProtocol {
     private final LegacyTypesSupport legacyTypesSupport;
     private final ActionExecutionSpecFactory actionExecutionSpecFactory;
     private final InstantiatorFactory instantiatorFactory;
-    private ClassLoader workerClassLoader;
+    private final WorkerClassLoaderCache workerClassLoaders;
 
     @Inject
     public WorkerDaemonServer(ServiceRegistry parentServices, RequestArgumentSerializers argumentSerializers) {
@@ -62,6 +62,7 @@ public WorkerDaemonServer(ServiceRegistry parentServices, RequestArgumentSeriali
         this.legacyTypesSupport = internalServices.get(LegacyTypesSupport.class);
         this.actionExecutionSpecFactory = internalServices.get(ActionExecutionSpecFactory.class);
         this.instantiatorFactory = internalServices.get(InstantiatorFactory.class);
+        this.workerClassLoaders = new WorkerClassLoaderCache(classLoaderStructure -> IsolatedClassloaderWorker.createIsolatedWorkerClassloader(classLoaderStructure, this.getClass().getClassLoader(), legacyTypesSupport));
         argumentSerializers.add(WorkerDaemonMessageSerializer.create());
     }
 
@@ -76,29 +77,27 @@ static ServiceRegistry createWorkerDaemonServices(ServiceRegistry parent) {
 
     @Override
     public DefaultWorkResult execute(ActionExecutionSpec spec) {
+        DefaultWorkResult result;
         try {
             try (WorkerProjectServices internalServices = new WorkerProjectServices(spec.getBaseDir(), this.internalServices)) {
-                Worker worker = getIsolatedClassloaderWorker(spec.getClassLoaderStructure(), internalServices);
-                return worker.execute(spec);
+                result = execute(spec, spec.getClassLoaderStructure(), internalServices);
             }
         } catch (Throwable t) {
-            return new DefaultWorkResult(true, t);
+            result = new DefaultWorkResult(true, t);
         }
+        return new WorkerDaemonResult(result.getDidWork(), result.getException(), workerClassLoaders.size());
     }
 
-    private Worker getIsolatedClassloaderWorker(ClassLoaderStructure classLoaderStructure, ServiceRegistry workServices) {
+    private DefaultWorkResult execute(ActionExecutionSpec spec, ClassLoaderStructure classLoaderStructure, ServiceRegistry workServices) {
         if (classLoaderStructure instanceof FlatClassLoaderStructure) {
-            return new FlatClassLoaderWorker(this.getClass().getClassLoader(), workServices, actionExecutionSpecFactory, instantiatorFactory);
-        } else {
-            return new IsolatedClassloaderWorker(getWorkerClassLoader(classLoaderStructure), workServices, actionExecutionSpecFactory, instantiatorFactory, true);
+            return new FlatClassLoaderWorker(this.getClass().getClassLoader(), workServices, actionExecutionSpecFactory, instantiatorFactory).execute(spec);
         }
-    }
-
-    private ClassLoader getWorkerClassLoader(ClassLoaderStructure classLoaderStructure) {
-        if (workerClassLoader == null) {
-            this.workerClassLoader = IsolatedClassloaderWorker.createIsolatedWorkerClassloader(classLoaderStructure, this.getClass().getClassLoader(), legacyTypesSupport);
+        ClassLoader classLoader = workerClassLoaders.acquire(classLoaderStructure);
+        try {
+            return new IsolatedClassloaderWorker(classLoader, workServices, actionExecutionSpecFactory, instantiatorFactory, true).execute(spec);
+        } finally {
+            workerClassLoaders.release(classLoader);
         }
-        return workerClassLoader;
     }
 
     @Override
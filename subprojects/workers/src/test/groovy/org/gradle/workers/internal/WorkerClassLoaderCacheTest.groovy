@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal
+
+import spock.lang.Specification
+
+import java.util.function.Function
+
+class WorkerClassLoaderCacheTest extends Specification {
+    def factory = Mock(Function)
+    def usedHeap = 0L
+    def cache = new WorkerClassLoaderCache(factory, 2, 100, { usedHeap })
+    def structure1 = Stub(ClassLoaderStructure)
+    def structure2 = Stub(ClassLoaderStructure)
+    def structure3 = Stub(ClassLoaderStructure)
+    def closed = []
+
+    def "reuses class loader for the same structure"() {
+        def classLoader = new URLClassLoader(new URL[0])
+
+        when:
+        def first = get(structure1)
+        def second = get(structure1)
+
+        then:
+        1 * factory.apply(structure1) >> classLoader
+        first.is(classLoader)
+        second.is(classLoader)
+    }
+
+    def "discards least recently used class loader when there are too many"() {
+        def classLoader1 = new URLClassLoader(new URL[0])
+
+        when:
+        get(structure1)
+        get(structure2)
+        get(structure1)
+        get(structure3)
+
+        then:
+        1 * factory.apply(structure1) >> classLoader1
+        1 * factory.apply(structure2) >> new URLClassLoader(new URL[0])
+        1 * factory.apply(structure3) >> new URLClassLoader(new URL[0])
+        cache.size() == 2
+
+        when:
+        def loader = get(structure1)
+
+        then:
+        0 * factory._
+        loader.is(classLoader1)
+
+        when:
+        get(structure2)
+
+        then:
+        1 * factory.apply(structure2) >> new URLClassLoader(new URL[0])
+    }
+
+    def "keeps only the most recently used class loader when heap is over budget"() {
+        when:
+        get(structure1)
+        usedHeap = 200
+        get(structure2)
+
+        then:
+        1 * factory.apply(structure1) >> new URLClassLoader(new URL[0])
+        1 * factory.apply(structure2) >> new URLClassLoader(new URL[0])
+        cache.size() == 1
+
+        when:
+        get(structure2)
+
+        then:
+        0 * factory._
+    }
+
+    def "closes discarded class loaders"() {
+        def classLoader1 = classLoader()
+
+        when:
+        get(structure1)
+        get(structure2)
+        get(structure3)
+
+        then:
+        1 * factory.apply(structure1) >> classLoader1
+        1 * factory.apply(structure2) >> classLoader()
+        1 * factory.apply(structure3) >> classLoader()
+        closed == [classLoader1]
+    }
+
+    def "closes a discarded class loader only once the work using it has released it"() {
+        def classLoader1 = classLoader()
+        factory.apply(structure1) >> classLoader1
+        factory.apply(structure2) >> classLoader()
+        factory.apply(structure3) >> classLoader()
+
+        when:
+        def acquired = cache.acquire(structure1)
+        get(structure2)
+        get(structure3)
+
+        then:
+        cache.size() == 2
+        closed.empty
+
+        when:
+        cache.release(acquired)
+
+        then:
+        closed == [classLoader1]
+    }
+
+    private ClassLoader get(ClassLoaderStructure structure) {
+        def classLoader = cache.acquire(structure)
+        cache.release(classLoader)
+        return classLoader
+    }
+
+    private ClassLoader classLoader() {
+        return new URLClassLoader(new URL[0]) {
+            @Override
+            void close() throws IOException {
+                closed << this
+                super.close()
+            }
+        }
+    }
+}
@@ -52,6 +52,33 @@ class WorkerDaemonClientTest extends Specification {
         client.uses == 5
     }
 
+    def "forgets the class loader structures that the daemon has discarded"() {
+        def workerDaemonProcess = Mock(WorkerDaemonProcess)
+        def structure1 = Stub(HierarchicalClassLoaderStructure)
+        def structure2 = Stub(HierarchicalClassLoaderStructure)
+
+        given:
+        client = client(workerDaemonProcess)
+
+        when:
+        client.execute(spec(structure1), buildOperation)
+        client.execute(spec(structure2), buildOperation)
+
+        then:
+        2 * workerDaemonProcess.execute(_) >> new WorkerDaemonResult(true, null, 2)
+        client.hasRecentlyUsed(structure1)
+        client.hasRecentlyUsed(structure2)
+
+        when:
+        client.execute(spec(structure2), buildOperation)
+
+        then:
+        1 * workerDaemonProcess.execute(_) >> new WorkerDaemonResult(true, null, 1)
+        !client.hasRecentlyUsed(structure1)
+        client.hasRecentlyUsed(structure2)
+        client.recentlyUsedClassLoaderCount == 1
+    }
+
     WorkerDaemonClient client() {
         return client(Mock(WorkerDaemonProcess))
     }
@@ -65,8 +92,8 @@ class WorkerDaemonClientTest extends Specification {
         return new WorkerDaemonClient(daemonForkOptions, workerDaemonProcess, workerProcess, LogLevel.INFO, actionExecutionSpecFactory)
     }
 
-    def spec() {
-        return new SimpleActionExecutionSpec(TestWorkAction, "test", null, null, new File("foo"), false)
+    def spec(ClassLoaderStructure classLoaderStructure = null) {
+        return new SimpleActionExecutionSpec(TestWorkAction, "test", null, classLoaderStructure, new File("foo"), false)
     }
 
     static abstract class TestWorkAction implements WorkAction<WorkParameters.None> {
@@ -68,6 +68,54 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         input == [noMatch] //match removed from input
     }
 
+    def "does not share idle clients started for other class loaders by default"() {
+        def other = Stub(WorkerDaemonClient) {
+            isCompatibleWith(_) >> false
+            canShareProcessWith(_) >> true
+        }
+
+        expect:
+        manager.reserveIdleClient(options, [other]) == null
+    }
+
+    def "prefers shared idle client that recently used the required class loader"() {
+        def structure = Stub(HierarchicalClassLoaderStructure)
+        options.getClassLoaderStructure() >> structure
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), true)
+        def unused = Stub(WorkerDaemonClient) {
+            canShareProcessWith(_) >> true
+            getRecentlyUsedClassLoaderCount() >> 0
+        }
+        def affine = Stub(WorkerDaemonClient) {
+            canShareProcessWith(_) >> true
+            hasRecentlyUsed(structure) >> true
+            getRecentlyUsedClassLoaderCount() >> 3
+        }
+        def busy = Stub(WorkerDaemonClient) {
+            canShareProcessWith(_) >> true
+            getRecentlyUsedClassLoaderCount() >> 2
+        }
+        def input = [unused, affine, busy]
+
+        expect:
+        manager.reserveIdleClient(options, input) == affine
+        manager.reserveIdleClient(options, input) == unused
+        manager.reserveIdleClient(options, input) == busy
+        input.empty
+    }
+
+    def "prefers idle client started with the required options over shared clients"() {
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), true)
+        def shared = Stub(WorkerDaemonClient) {
+            canShareProcessWith(_) >> true
+            hasRecentlyUsed(_) >> true
+        }
+        def match = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+
+        expect:
+        manager.reserveIdleClient(options, [shared, match]) == match
+    }
+
     def "reserves new client"() {
         def newClient = Stub(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options, _) >> newClient